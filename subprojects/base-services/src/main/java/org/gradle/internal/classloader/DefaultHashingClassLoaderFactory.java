@@ -20,18 +20,31 @@ import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.hash.Hasher;
 import org.gradle.internal.hash.Hashing;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
 
 public class DefaultHashingClassLoaderFactory extends DefaultClassLoaderFactory implements HashingClassLoaderFactory {
     private final ClasspathHasher classpathHasher;
+    private final JarIndexStore jarIndexStore;
     private final Map<ClassLoader, HashCode> hashCodes = Collections.synchronizedMap(new WeakHashMap<ClassLoader, HashCode>());
 
     public DefaultHashingClassLoaderFactory(ClasspathHasher classpathHasher) {
+        this(classpathHasher, null);
+    }
+
+    /**
+     * Creates a factory that creates an {@link IndexedJarClassLoader} for each child class loader whose class path is made of jars,
+     * using the given store to keep the index of the class path, when a store is given.
+     */
+    public DefaultHashingClassLoaderFactory(ClasspathHasher classpathHasher, @Nullable JarIndexStore jarIndexStore) {
         this.classpathHasher = classpathHasher;
+        this.jarIndexStore = jarIndexStore;
     }
 
     @Override
@@ -53,11 +66,31 @@ public class DefaultHashingClassLoaderFactory extends DefaultClassLoaderFactory
         HashCode hashCode = implementationHash != null
             ? implementationHash
             : calculateClassLoaderHash(classPath);
-        ClassLoader classLoader = super.doCreateClassLoader(parent, classPath);
+        ClassLoader classLoader = createIndexedClassLoader(parent, classPath, hashCode);
+        if (classLoader == null) {
+            classLoader = super.doCreateClassLoader(parent, classPath);
+        }
         hashCodes.put(classLoader, hashCode);
         return classLoader;
     }
 
+    @Nullable
+    private ClassLoader createIndexedClassLoader(ClassLoader parent, ClassPath classPath, HashCode hashCode) {
+        if (jarIndexStore == null || classPath.isEmpty()) {
+            return null;
+        }
+        List<File> files = classPath.getAsFiles();
+        JarIndex index = jarIndexStore.load(hashCode, files);
+        if (index == null) {
+            index = JarIndex.build(files);
+            if (index == null) {
+                return null;
+            }
+            jarIndexStore.store(hashCode, index);
+        }
+        return new IndexedJarClassLoader(parent, classPath, index);
+    }
+
     @Override
     public HashCode getHash(ClassLoader classLoader) {
         if (classLoader instanceof ImplementationHashAware) {
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.classloader;
+
+import com.google.common.io.ByteStreams;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.concurrent.Stoppable;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.CodeSource;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * A {@link VisitableURLClassLoader} for a class path made of jars, which uses a {@link JarIndex} to look up classes and resources in the jars that can contain them only,
+ * instead of probing each jar of the class path in turn.
+ *
+ * <p>Each jar is opened once, the first time it is needed, and stays open until the class loader is stopped.
+ * The class loader is visited in the same way as a {@link VisitableURLClassLoader} with the same class path.</p>
+ */
+public class IndexedJarClassLoader extends VisitableURLClassLoader implements Stoppable {
+    static {
+        try {
+            //noinspection Since15
+            ClassLoader.registerAsParallelCapable();
+        } catch (NoSuchMethodError ignore) {
+            // Not supported on Java 6
+        }
+    }
+
+    private final List<File> files;
+    private final URL[] urls;
+    private final JarIndex index;
+    private final AtomicReferenceArray<JarFile> jarFiles;
+    private final Object lock = new Object();
+    private boolean stopped;
+
+    public IndexedJarClassLoader(ClassLoader parent, ClassPath classPath, JarIndex index) {
+        super(parent, classPath);
+        this.files = classPath.getAsFiles();
+        this.urls = classPath.getAsURLArray();
+        this.index = index;
+        this.jarFiles = new AtomicReferenceArray<JarFile>(files.size());
+        if (index.getJarCount() != files.size()) {
+            throw new IllegalArgumentException("The index does not match the class path " + files);
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        String path = name.replace('.', '/').concat(".class");
+        for (int jar : index.getCandidateJars(path)) {
+            try {
+                JarFile jarFile = getJarFile(jar);
+                JarEntry entry = jarFile.getJarEntry(path);
+                if (entry != null) {
+                    return defineClass(name, jar, jarFile, entry);
+                }
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+        throw new ClassNotFoundException(name);
+    }
+
+    private Class<?> defineClass(String name, int jar, JarFile jarFile, JarEntry entry) throws IOException {
+        byte[] bytes;
+        InputStream inputStream = jarFile.getInputStream(entry);
+        try {
+            bytes = ByteStreams.toByteArray(inputStream);
+        } finally {
+            inputStream.close();
+        }
+        int pos = name.lastIndexOf('.');
+        if (pos > 0) {
+            definePackageIfRequired(name.substring(0, pos), jarFile, urls[jar]);
+        }
+        // The code signers are known once the entry has been read
+        CodeSource codeSource = new CodeSource(urls[jar], entry.getCodeSigners());
+        return defineClass(name, bytes, 0, bytes.length, codeSource);
+    }
+
+    private void definePackageIfRequired(String packageName, JarFile jarFile, URL url) throws IOException {
+        if (getPackage(packageName) != null) {
+            return;
+        }
+        Manifest manifest = jarFile.getManifest();
+        try {
+            if (manifest != null) {
+                definePackage(packageName, manifest, url);
+            } else {
+                definePackage(packageName, null, null, null, null, null, null, null);
+            }
+        } catch (IllegalArgumentException e) {
+            // Defined concurrently by another thread
+            if (getPackage(packageName) == null) {
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public URL findResource(String name) {
+        for (int jar : index.getCandidateJars(name)) {
+            URL url = findResource(jar, name);
+            if (url != null) {
+                return url;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Enumeration<URL> findResources(String name) throws IOException {
+        Vector<URL> resources = new Vector<URL>();
+        for (int jar : index.getCandidateJars(name)) {
+            URL url = findResource(jar, name);
+            if (url != null) {
+                resources.add(url);
+            }
+        }
+        return resources.elements();
+    }
+
+    @Nullable
+    private URL findResource(int jar, String name) {
+        try {
+            if (getJarFile(jar).getJarEntry(name) == null) {
+                return null;
+            }
+            return new URL("jar:" + urls[jar].toExternalForm() + "!/" + name);
+        } catch (MalformedURLException e) {
+            return null;
+        } catch (IOException e) {
+            // Ignore broken jars, as URLClassLoader does
+            return null;
+        }
+    }
+
+    private JarFile getJarFile(int jar) throws IOException {
+        JarFile jarFile = jarFiles.get(jar);
+        if (jarFile != null) {
+            return jarFile;
+        }
+        synchronized (lock) {
+            if (stopped) {
+                throw new IOException("Class loader for " + files + " has been stopped.");
+            }
+            jarFile = jarFiles.get(jar);
+            if (jarFile == null) {
+                jarFile = new JarFile(files.get(jar));
+                jarFiles.set(jar, jarFile);
+            }
+            return jarFile;
+        }
+    }
+
+    public void stop() {
+        IOException failure = null;
+        synchronized (lock) {
+            stopped = true;
+            for (int i = 0; i < jarFiles.length(); i++) {
+                JarFile jarFile = jarFiles.getAndSet(i, null);
+                if (jarFile != null) {
+                    try {
+                        jarFile.close();
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+            }
+        }
+        // URLClassLoader can be closed on Java 7 and later
+        Object self = this;
+        if (self instanceof Closeable) {
+            try {
+                ((Closeable) self).close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw UncheckedException.throwAsUncheckedException(failure);
+        }
+    }
+}
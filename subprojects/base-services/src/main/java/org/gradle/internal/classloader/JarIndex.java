@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.classloader;
+
+import javax.annotation.Nullable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * An index from the directories of a class path made of jars to the jars that contain entries in each directory, in class path order.
+ *
+ * <p>The index records the length and the last modified time of each jar, so that an index read back from disk can be rejected once one of the jars has changed.</p>
+ */
+public class JarIndex {
+    private static final int FORMAT_VERSION = 1;
+    private static final int[] NO_JARS = new int[0];
+
+    private final List<JarInfo> jars;
+    private final Map<String, int[]> jarsByDirectory;
+
+    private JarIndex(List<JarInfo> jars, Map<String, int[]> jarsByDirectory) {
+        this.jars = jars;
+        this.jarsByDirectory = jarsByDirectory;
+    }
+
+    /**
+     * Indexes the given jars. Returns {@code null} when the class path cannot be indexed, that is, when one of the entries is not a jar
+     * or when one of the jars references other jars using the {@code Class-Path} attribute of its manifest.
+     */
+    @Nullable
+    public static JarIndex build(List<File> files) {
+        List<JarInfo> jars = new ArrayList<JarInfo>(files.size());
+        Map<String, List<Integer>> jarsByDirectory = new HashMap<String, List<Integer>>();
+        for (int i = 0; i < files.size(); i++) {
+            File file = files.get(i);
+            if (!file.isFile()) {
+                return null;
+            }
+            try {
+                JarFile jarFile = new JarFile(file, false);
+                try {
+                    Manifest manifest = jarFile.getManifest();
+                    if (manifest != null && manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH) != null) {
+                        return null;
+                    }
+                    Enumeration<JarEntry> entries = jarFile.entries();
+                    while (entries.hasMoreElements()) {
+                        String name = entries.nextElement().getName();
+                        if (name.endsWith("/")) {
+                            // A lookup of the directory name without the trailing slash also finds the directory entry
+                            add(jarsByDirectory, directoryOf(name.substring(0, name.length() - 1)), i);
+                        }
+                        add(jarsByDirectory, directoryOf(name), i);
+                    }
+                } finally {
+                    jarFile.close();
+                }
+            } catch (IOException e) {
+                // Let the class loader report the broken jar
+                return null;
+            }
+            jars.add(new JarInfo(file));
+        }
+
+        Map<String, int[]> index = new HashMap<String, int[]>(jarsByDirectory.size());
+        for (Map.Entry<String, List<Integer>> entry : jarsByDirectory.entrySet()) {
+            List<Integer> jarIndexes = entry.getValue();
+            int[] values = new int[jarIndexes.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = jarIndexes.get(i);
+            }
+            index.put(entry.getKey(), values);
+        }
+        return new JarIndex(jars, index);
+    }
+
+    private static void add(Map<String, List<Integer>> jarsByDirectory, String directory, int jar) {
+        List<Integer> jars = jarsByDirectory.get(directory);
+        if (jars == null) {
+            jars = new ArrayList<Integer>(1);
+            jarsByDirectory.put(directory, jars);
+        }
+        if (jars.isEmpty() || jars.get(jars.size() - 1) != jar) {
+            jars.add(jar);
+        }
+    }
+
+    private static String directoryOf(String name) {
+        int pos = name.lastIndexOf('/');
+        return pos < 0 ? "" : name.substring(0, pos);
+    }
+
+    /**
+     * Reads an index written by {@link #write(DataOutputStream)}. Returns {@code null} when the index was written for a different class path or when one of the jars has changed since.
+     */
+    @Nullable
+    public static JarIndex read(DataInputStream input, List<File> files) throws IOException {
+        if (input.readInt() != FORMAT_VERSION) {
+            return null;
+        }
+        int jarCount = input.readInt();
+        if (jarCount != files.size()) {
+            return null;
+        }
+        List<JarInfo> jars = new ArrayList<JarInfo>(jarCount);
+        for (int i = 0; i < jarCount; i++) {
+            JarInfo jar = new JarInfo(input.readUTF(), input.readLong(), input.readLong());
+            if (!jar.isUpToDate(files.get(i))) {
+                return null;
+            }
+            jars.add(jar);
+        }
+        int directoryCount = input.readInt();
+        Map<String, int[]> jarsByDirectory = new HashMap<String, int[]>(directoryCount);
+        for (int i = 0; i < directoryCount; i++) {
+            String directory = input.readUTF();
+            int[] values = new int[input.readInt()];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = input.readInt();
+            }
+            jarsByDirectory.put(directory, values);
+        }
+        return new JarIndex(jars, jarsByDirectory);
+    }
+
+    public void write(DataOutputStream output) throws IOException {
+        output.writeInt(FORMAT_VERSION);
+        output.writeInt(jars.size());
+        for (JarInfo jar : jars) {
+            output.writeUTF(jar.path);
+            output.writeLong(jar.length);
+            output.writeLong(jar.lastModified);
+        }
+        output.writeInt(jarsByDirectory.size());
+        for (Map.Entry<String, int[]> entry : jarsByDirectory.entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeInt(entry.getValue().length);
+            for (int jar : entry.getValue()) {
+                output.writeInt(jar);
+            }
+        }
+    }
+
+    public int getJarCount() {
+        return jars.size();
+    }
+
+    /**
+     * Returns the positions in the class path of the jars that may contain the given resource, in class path order.
+     */
+    public int[] getCandidateJars(String resourceName) {
+        int[] jars = jarsByDirectory.get(directoryOf(resourceName));
+        return jars == null ? NO_JARS : jars;
+    }
+
+    private static class JarInfo {
+        final String path;
+        final long length;
+        final long lastModified;
+
+        JarInfo(File file) {
+            this(file.getAbsolutePath(), file.length(), file.lastModified());
+        }
+
+        JarInfo(String path, long length, long lastModified) {
+            this.path = path;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        boolean isUpToDate(File file) {
+            return path.equals(file.getAbsolutePath()) && length == file.length() && lastModified == file.lastModified();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "jar index of " + jars.size() + " jars";
+    }
+}
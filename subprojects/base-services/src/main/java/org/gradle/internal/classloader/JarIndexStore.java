@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.classloader;
+
+import org.gradle.internal.hash.HashCode;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.List;
+
+/**
+ * Stores the {@link JarIndex} of class paths, keyed by the hash of the class path.
+ */
+public interface JarIndexStore {
+    /**
+     * Returns the stored index for the given class path, or {@code null} when there is no index for the class path or when the stored index is out of date.
+     */
+    @Nullable
+    JarIndex load(HashCode classPathHash, List<File> classPath);
+
+    void store(HashCode classPathHash, JarIndex index);
+}
@@ -23,6 +23,7 @@ import org.gradle.api.Describable;
 import org.gradle.api.Transformer;
 import org.gradle.api.specs.Spec;
 import org.gradle.concurrent.ParallelismConfiguration;
+import org.gradle.internal.Actions;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.ParallelismConfigurationListener;
 import org.gradle.internal.concurrent.ParallelismConfigurationManager;
@@ -38,7 +39,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -56,13 +61,23 @@ public class DefaultWorkerLeaseService implements WorkerLeaseService, Parallelis
     private final ProjectLockRegistry projectLockRegistry;
     private final WorkerLeaseLockRegistry workerLeaseLockRegistry;
     private final ParallelismConfigurationManager parallelismConfigurationManager;
+    private final ResourceClassLimits resourceClassLimits;
+    private final Map<ResourceClass, ResourceClassLock> resourceClassLocks = new EnumMap<ResourceClass, ResourceClassLock>(ResourceClass.class);
 
     public DefaultWorkerLeaseService(ResourceLockCoordinationService coordinationService, ParallelismConfigurationManager parallelismConfigurationManager) {
+        this(coordinationService, parallelismConfigurationManager, ResourceClassLimits.UNLIMITED);
+    }
+
+    public DefaultWorkerLeaseService(ResourceLockCoordinationService coordinationService, ParallelismConfigurationManager parallelismConfigurationManager, ResourceClassLimits resourceClassLimits) {
         this.maxWorkerCount = parallelismConfigurationManager.getParallelismConfiguration().getMaxWorkerCount();
         this.coordinationService = coordinationService;
         this.projectLockRegistry = new ProjectLockRegistry(coordinationService, parallelismConfigurationManager.getParallelismConfiguration().isParallelProjectExecutionEnabled());
         this.workerLeaseLockRegistry = new WorkerLeaseLockRegistry(coordinationService);
         this.parallelismConfigurationManager = parallelismConfigurationManager;
+        this.resourceClassLimits = resourceClassLimits;
+        for (ResourceClass resourceClass : ResourceClass.values()) {
+            resourceClassLocks.put(resourceClass, new ResourceClassLock(resourceClass, coordinationService));
+        }
         parallelismConfigurationManager.addListener(this);
         LOGGER.info("Using {} worker leases.", maxWorkerCount);
     }
@@ -78,6 +93,11 @@ public class DefaultWorkerLeaseService implements WorkerLeaseService, Parallelis
         return maxWorkerCount;
     }
 
+    @Override
+    public ResourceLock getResourceClassLock(ResourceClass resourceClass) {
+        return resourceClassLocks.get(resourceClass);
+    }
+
     @Override
     public WorkerLease getCurrentWorkerLease() {
         Collection<? extends ResourceLock> operations = workerLeaseLockRegistry.getResourceLocksByCurrentThread();
@@ -270,6 +290,47 @@ public class DefaultWorkerLeaseService implements WorkerLeaseService, Parallelis
         }
     }
 
+    /**
+     * Held by each worker which runs work of a resource class, up to the number of workers that the resource class limits allow.
+     */
+    private class ResourceClassLock extends AbstractTrackedResourceLock {
+        private final ResourceClass resourceClass;
+        private final Set<Thread> owners = new HashSet<Thread>();
+
+        ResourceClassLock(ResourceClass resourceClass, ResourceLockCoordinationService coordinationService) {
+            super("resource class " + resourceClass, coordinationService, Actions.<ResourceLock>doNothing(), Actions.<ResourceLock>doNothing());
+            this.resourceClass = resourceClass;
+        }
+
+        @Override
+        protected boolean acquireLock() {
+            int maxWorkers = resourceClassLimits.getMaxWorkers(resourceClass, maxWorkerCount);
+            if (owners.size() >= maxWorkers) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Work of {} could not be started ({} of {} worker(s) in use).", getDisplayName(), owners.size(), maxWorkers);
+                }
+                return false;
+            }
+            owners.add(Thread.currentThread());
+            return true;
+        }
+
+        @Override
+        protected void releaseLock() {
+            owners.remove(Thread.currentThread());
+        }
+
+        @Override
+        protected boolean doIsLocked() {
+            return !owners.isEmpty();
+        }
+
+        @Override
+        protected boolean doIsLockedByCurrentThread() {
+            return owners.contains(Thread.currentThread());
+        }
+    }
+
     private interface LeaseHolder extends Describable {
         boolean grantLease();
 
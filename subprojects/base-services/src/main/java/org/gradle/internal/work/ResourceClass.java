@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.work;
+
+/**
+ * The resource that limits how many pieces of work of a given kind can usefully run at the same time.
+ */
+public enum ResourceClass {
+    /**
+     * Work which mostly uses the CPU. This is the default.
+     */
+    CPU,
+
+    /**
+     * Work which uses a lot of memory in the build process or in a worker process, such as compilers and tests.
+     */
+    MEMORY,
+
+    /**
+     * Work which mostly waits for the file system or the network.
+     */
+    IO
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.work;
+
+/**
+ * Decides how many workers can run work of each {@link ResourceClass} at the same time.
+ */
+public interface ResourceClassLimits {
+    /**
+     * Limits which allow all workers to run work of any resource class.
+     */
+    ResourceClassLimits UNLIMITED = new ResourceClassLimits() {
+        public int getMaxWorkers(ResourceClass resourceClass, int maxWorkerCount) {
+            return maxWorkerCount;
+        }
+    };
+
+    /**
+     * Returns the number of workers which can currently run work of the given resource class at the same time. This is between 1 and the given maximum number of workers.
+     */
+    int getMaxWorkers(ResourceClass resourceClass, int maxWorkerCount);
+}
@@ -28,6 +28,11 @@ public interface WorkerLeaseService extends WorkerLeaseRegistry, ProjectLeaseReg
      */
     int getMaxWorkerCount();
 
+    /**
+     * Returns a lock which limits the number of workers which run work of the given resource class at the same time. The lock should be acquired along with the worker lease for the work.
+     */
+    ResourceLock getResourceClassLock(ResourceClass resourceClass);
+
     /**
      * Runs a given {@link Callable} while the specified locks are being held, releasing
      * the locks upon completion.  Blocks until the specified locks can be obtained.
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.classloader
+
+import org.gradle.internal.classpath.DefaultClassPath
+import org.gradle.internal.hash.HashCode
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.jar.JarEntry
+import java.util.jar.JarOutputStream
+
+class IndexedJarClassLoaderTest extends Specification {
+    static final String CLASS_NAME = ClassLoaderSpec.name
+    static final String CLASS_RESOURCE = CLASS_NAME.replace('.', '/') + ".class"
+
+    @Rule TestNameTestDirectoryProvider tmpDir
+    def parent = new ClassLoader(null) { }
+    IndexedJarClassLoader classLoader
+
+    def cleanup() {
+        classLoader?.stop()
+    }
+
+    def "loads classes from the jar that contains them"() {
+        def a = jar("a.jar", "a/resource.txt": "a")
+        def b = jar("b.jar", (CLASS_RESOURCE): classBytes())
+        classLoader = create(a, b)
+
+        when:
+        def loaded = classLoader.loadClass(CLASS_NAME)
+
+        then:
+        loaded.classLoader == classLoader
+        loaded != ClassLoaderSpec
+        loaded.protectionDomain.codeSource.location == b.toURI().toURL()
+        loaded.package.name == ClassLoaderSpec.package.name
+    }
+
+    def "fails to load classes that are not in the class path"() {
+        classLoader = create(jar("a.jar", "org/gradle/Other.class": "broken"))
+
+        when:
+        classLoader.loadClass("org.gradle.Missing")
+
+        then:
+        thrown(ClassNotFoundException)
+    }
+
+    def "finds resources in class path order"() {
+        def a = jar("a.jar", "org/resource.txt": "a", "org/a.txt": "a")
+        def b = jar("b.jar", "org/b.txt": "b")
+        def c = jar("c.jar", "org/resource.txt": "c", "root.txt": "c")
+        classLoader = create(a, b, c)
+
+        expect:
+        classLoader.getResource("org/resource.txt").text == "a"
+        classLoader.getResources("org/resource.txt").collect { it.text } == ["a", "c"]
+        classLoader.getResource("org/b.txt") == new URL("jar:${b.toURI().toURL()}!/org/b.txt")
+        classLoader.getResource("root.txt").text == "c"
+        classLoader.getResource("org/missing.txt") == null
+        classLoader.getResource("missing/resource.txt") == null
+        !classLoader.getResources("missing.txt").hasMoreElements()
+    }
+
+    def "finds directory entries with and without trailing slash"() {
+        def a = jar("a.jar", "org/": null, "org/gradle/": null, "org/gradle/a.txt": "a")
+        classLoader = create(a)
+
+        expect:
+        classLoader.getResource("org/gradle/") != null
+        classLoader.getResource("org/gradle") != null
+        classLoader.getResource("org/other") == null
+    }
+
+    def "visits self and parent in the same way as a URL class loader"() {
+        def visitor = Mock(ClassLoaderVisitor)
+        def a = jar("a.jar", "a.txt": "a")
+        def urls = [a.toURI().toURL()]
+        classLoader = create(a)
+
+        when:
+        classLoader.visit(visitor)
+
+        then:
+        1 * visitor.visitSpec(new VisitableURLClassLoader.Spec(urls))
+        1 * visitor.visitClassPath(urls)
+        1 * visitor.visitParent(parent)
+        0 * visitor._
+    }
+
+    def "no longer finds resources once stopped"() {
+        def a = jar("a.jar", "a.txt": "a")
+        classLoader = create(a)
+        assert classLoader.getResource("a.txt") != null
+
+        when:
+        classLoader.stop()
+
+        then:
+        classLoader.getResource("a.txt") == null
+    }
+
+    def "factory creates an indexed class loader for a class path made of jars and stores the index"() {
+        def store = Mock(JarIndexStore)
+        def factory = new DefaultHashingClassLoaderFactory(Stub(ClasspathHasher), store)
+        def a = jar("a.jar", "a.txt": "a")
+        def hash = HashCode.fromInt(1)
+
+        when:
+        classLoader = factory.createChildClassLoader(parent, DefaultClassPath.of([a]), hash) as IndexedJarClassLoader
+
+        then:
+        1 * store.load(hash, [a]) >> null
+        1 * store.store(hash, { it.jarCount == 1 })
+        classLoader.getResource("a.txt").text == "a"
+        factory.getHash(classLoader) == hash
+    }
+
+    def "factory creates a URL class loader for a class path that contains directories"() {
+        def store = Mock(JarIndexStore)
+        def factory = new DefaultHashingClassLoaderFactory(Stub(ClasspathHasher), store)
+        def dir = tmpDir.createDir("classes")
+
+        when:
+        def loader = factory.createChildClassLoader(parent, DefaultClassPath.of([dir]), HashCode.fromInt(1))
+
+        then:
+        loader.class == VisitableURLClassLoader
+        1 * store.load(_, _) >> null
+        0 * store.store(_, _)
+    }
+
+    private IndexedJarClassLoader create(File... jars) {
+        def classPath = DefaultClassPath.of(jars as List)
+        return new IndexedJarClassLoader(parent, classPath, JarIndex.build(classPath.asFiles))
+    }
+
+    private static byte[] classBytes() {
+        return ClassLoaderSpec.getResourceAsStream("/" + CLASS_RESOURCE).bytes
+    }
+
+    private TestFile jar(Map<String, Object> entries, String name) {
+        def jar = tmpDir.file(name)
+        jar.withOutputStream { outstr ->
+            def jarOutput = new JarOutputStream(outstr)
+            entries.each { entryName, content ->
+                jarOutput.putNextEntry(new JarEntry(entryName))
+                if (content != null) {
+                    jarOutput.write(content instanceof byte[] ? content : content.toString().bytes)
+                }
+                jarOutput.closeEntry()
+            }
+            jarOutput.close()
+        }
+        return jar
+    }
+}
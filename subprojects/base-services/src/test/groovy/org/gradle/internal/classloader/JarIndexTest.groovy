@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.classloader
+
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.jar.Attributes
+import java.util.jar.JarEntry
+import java.util.jar.JarOutputStream
+import java.util.jar.Manifest
+
+class JarIndexTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+
+    def "indexes the jars that contain entries in each directory"() {
+        def a = jar("a.jar", "org/a.txt", "org/gradle/", "root.txt")
+        def b = jar("b.jar", "org/b.txt", "org/c.txt")
+
+        when:
+        def index = JarIndex.build([a, b])
+
+        then:
+        index.jarCount == 2
+        index.getCandidateJars("org/anything") == [0, 1] as int[]
+        index.getCandidateJars("org/gradle") == [0] as int[]
+        index.getCandidateJars("org/gradle/a.txt") == [0] as int[]
+        index.getCandidateJars("root.txt") == [0] as int[]
+        index.getCandidateJars("com/missing.txt").length == 0
+    }
+
+    def "cannot index a class path that contains directories or jars with a manifest class path"() {
+        def a = jar("a.jar", "a.txt")
+        def withClassPath = tmpDir.file("b.jar")
+        def manifest = new Manifest()
+        manifest.mainAttributes.put(Attributes.Name.MANIFEST_VERSION, "1.0")
+        manifest.mainAttributes.put(Attributes.Name.CLASS_PATH, "a.jar")
+        withClassPath.withOutputStream { new JarOutputStream(it, manifest).close() }
+
+        expect:
+        JarIndex.build([a, tmpDir.createDir("classes")]) == null
+        JarIndex.build([a, withClassPath]) == null
+        JarIndex.build([a, tmpDir.file("missing.jar")]) == null
+    }
+
+    def "can read back an index for the same class path"() {
+        def a = jar("a.jar", "org/a.txt")
+        def b = jar("b.jar", "org/b.txt", "com/b.txt")
+
+        when:
+        def index = readBack(JarIndex.build([a, b]), [a, b])
+
+        then:
+        index.jarCount == 2
+        index.getCandidateJars("org/x") == [0, 1] as int[]
+        index.getCandidateJars("com/x") == [1] as int[]
+    }
+
+    def "does not read back an index for a different class path or when a jar has changed"() {
+        def a = jar("a.jar", "org/a.txt")
+        def b = jar("b.jar", "org/b.txt")
+        def index = JarIndex.build([a, b])
+
+        expect:
+        readBack(index, [b, a]) == null
+        readBack(index, [a]) == null
+
+        when:
+        jar("b.jar", "org/b.txt", "org/other.txt")
+
+        then:
+        readBack(index, [a, b]) == null
+    }
+
+    private static JarIndex readBack(JarIndex index, List<File> classPath) {
+        def bytes = new ByteArrayOutputStream()
+        def output = new DataOutputStream(bytes)
+        index.write(output)
+        output.close()
+        return JarIndex.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), classPath)
+    }
+
+    private TestFile jar(String name, String... entries) {
+        def jar = tmpDir.file(name)
+        jar.withOutputStream { outstr ->
+            def jarOutput = new JarOutputStream(outstr)
+            entries.each { entryName ->
+                jarOutput.putNextEntry(new JarEntry(entryName))
+                jarOutput.closeEntry()
+            }
+            jarOutput.close()
+        }
+        return jar
+    }
+}
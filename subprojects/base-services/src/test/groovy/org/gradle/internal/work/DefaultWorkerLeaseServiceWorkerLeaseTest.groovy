@@ -357,6 +357,64 @@ class DefaultWorkerLeaseServiceWorkerLeaseTest extends ConcurrentSpec {
         noExceptionThrown()
     }
 
+    def "resource class lock is held by at most as many workers as the resource class allows"() {
+        def limits = Stub(ResourceClassLimits) {
+            getMaxWorkers(ResourceClass.MEMORY, 4) >> 1
+            getMaxWorkers(ResourceClass.IO, 4) >> 4
+        }
+        def registry = new DefaultWorkerLeaseService(coordinationService, new ParallelismConfigurationManagerFixture(true, 4), limits)
+        def memory = registry.getResourceClassLock(ResourceClass.MEMORY)
+        def io = registry.getResourceClassLock(ResourceClass.IO)
+
+        expect:
+        async {
+            start {
+                assert coordinationService.withStateLock(tryLock(memory, io))
+                instant.locked
+                thread.blockUntil.checked
+                coordinationService.withStateLock(unlock(memory, io))
+                instant.unlocked
+            }
+            start {
+                thread.blockUntil.locked
+                assert !coordinationService.withStateLock(tryLock(memory))
+                assert coordinationService.withStateLock(tryLock(io))
+                coordinationService.withStateLock(unlock(io))
+                instant.checked
+                thread.blockUntil.unlocked
+                assert coordinationService.withStateLock(tryLock(memory))
+                coordinationService.withStateLock(unlock(memory))
+            }
+        }
+
+        cleanup:
+        registry?.stop()
+    }
+
+    def "resource class locks allow all workers by default"() {
+        def registry = workerLeaseService(2)
+        def cpu = registry.getResourceClassLock(ResourceClass.CPU)
+
+        expect:
+        async {
+            start {
+                assert coordinationService.withStateLock(tryLock(cpu))
+                instant.worker1
+                thread.blockUntil.worker2
+                coordinationService.withStateLock(unlock(cpu))
+            }
+            start {
+                assert coordinationService.withStateLock(tryLock(cpu))
+                instant.worker2
+                thread.blockUntil.worker1
+                coordinationService.withStateLock(unlock(cpu))
+            }
+        }
+
+        cleanup:
+        registry?.stop()
+    }
+
     WorkerLeaseService workerLeaseService(int maxWorkers) {
         return new DefaultWorkerLeaseService(coordinationService, new ParallelismConfigurationManagerFixture(true, maxWorkers))
     }
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.pattern;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A set of patterns compiled into a non-deterministic automaton over path segments.
+ *
+ * <p>Unlike a {@link PathMatcher}, which inspects the full path of each element, the automaton is advanced one segment at a time,
+ * so that a directory walker can match each element against the state of its parent directory. Matching the children of a directory
+ * does not allocate, and a directory whose state is {@link State#isEmpty() empty} can be skipped entirely.</p>
+ *
+ * <p>Each pattern is compiled into a sequence of positions, one per segment pattern plus one for the end of the pattern. A state is
+ * the set of positions that the path walked so far can have reached in any of the patterns.</p>
+ */
+public class PathAutomaton {
+    private static final String GREEDY = "**";
+
+    private final PatternStep[] steps;
+    private final boolean[] greedy;
+    private final boolean[] end;
+    private final boolean[] accepting;
+    private final State initialState;
+    private final State emptyState;
+
+    private PathAutomaton(List<PatternStep> steps, List<Boolean> greedy, List<Boolean> end, List<Integer> initialPositions) {
+        int count = steps.size();
+        this.steps = steps.toArray(new PatternStep[count]);
+        this.greedy = new boolean[count];
+        this.end = new boolean[count];
+        this.accepting = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            this.greedy[i] = greedy.get(i);
+            this.end[i] = end.get(i);
+        }
+        for (int i = 0; i < count; i++) {
+            // A greedy position also matches no segments at all, so it accepts when the pattern ends right after it
+            accepting[i] = this.end[i] || (this.greedy[i] && this.end[i + 1]);
+        }
+        long[] positions = new long[(count + 63) >> 6];
+        for (Integer position : initialPositions) {
+            addClosure(positions, position);
+        }
+        this.emptyState = new State(new long[positions.length]);
+        this.initialState = new State(positions);
+    }
+
+    /**
+     * Compiles the given patterns, using the same syntax as {@link PatternMatcherFactory}.
+     */
+    public static PathAutomaton compile(Collection<String> patterns, boolean caseSensitive) {
+        List<PatternStep> steps = new ArrayList<PatternStep>();
+        List<Boolean> greedy = new ArrayList<Boolean>();
+        List<Boolean> end = new ArrayList<Boolean>();
+        List<Integer> initialPositions = new ArrayList<Integer>(patterns.size());
+        for (String pattern : patterns) {
+            initialPositions.add(steps.size());
+            String[] parts = PatternMatcherFactory.split(pattern);
+            for (int i = 0; i < parts.length; i++) {
+                if (parts[i].equals(GREEDY)) {
+                    if (i > 0 && parts[i - 1].equals(GREEDY)) {
+                        // Consecutive '**' are equivalent to a single one
+                        continue;
+                    }
+                    steps.add(null);
+                    greedy.add(true);
+                } else {
+                    steps.add(PatternStepFactory.getStep(parts[i], caseSensitive));
+                    greedy.add(false);
+                }
+                end.add(false);
+            }
+            steps.add(null);
+            greedy.add(false);
+            end.add(true);
+        }
+        return new PathAutomaton(steps, greedy, end, initialPositions);
+    }
+
+    /**
+     * Returns the state for the empty path.
+     */
+    public State getInitialState() {
+        return initialState;
+    }
+
+    /**
+     * Returns the state for the given path.
+     */
+    public State getState(String[] segments) {
+        State state = initialState;
+        for (int i = 0; i < segments.length && !state.isEmpty(); i++) {
+            state = state.getChild(segments[i]);
+        }
+        return state;
+    }
+
+    private void addClosure(long[] positions, int position) {
+        positions[position >> 6] |= 1L << position;
+        if (greedy[position]) {
+            // '**' may match no segments, so the following position is reached as well. It is never greedy itself.
+            int next = position + 1;
+            positions[next >> 6] |= 1L << next;
+        }
+    }
+
+    /**
+     * Returns the position reached from the given position by consuming the given segment, or -1 when the segment does not match.
+     */
+    private int advance(int position, String segment) {
+        if (end[position]) {
+            return -1;
+        }
+        if (greedy[position]) {
+            return position;
+        }
+        return steps[position].matches(segment) ? position + 1 : -1;
+    }
+
+    /**
+     * The set of positions reached by some path. Immutable.
+     */
+    public final class State {
+        private final long[] positions;
+
+        private State(long[] positions) {
+            this.positions = positions;
+        }
+
+        /**
+         * Returns true when neither this path nor any path below it can match one of the patterns.
+         */
+        public boolean isEmpty() {
+            for (long word : positions) {
+                if (word != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns true when this path matches one of the patterns.
+         */
+        public boolean isMatch() {
+            for (int i = 0; i < positions.length; i++) {
+                long word = positions[i];
+                while (word != 0) {
+                    int position = (i << 6) + Long.numberOfTrailingZeros(word);
+                    if (end[position]) {
+                        return true;
+                    }
+                    word &= word - 1;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns true when the child of this path with the given name matches one of the patterns. Does not allocate.
+         */
+        public boolean isChildMatch(String name) {
+            for (int i = 0; i < positions.length; i++) {
+                long word = positions[i];
+                while (word != 0) {
+                    int target = advance((i << 6) + Long.numberOfTrailingZeros(word), name);
+                    if (target >= 0 && accepting[target]) {
+                        return true;
+                    }
+                    word &= word - 1;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the state of the child of this path with the given name.
+         */
+        public State getChild(String name) {
+            long[] childPositions = null;
+            for (int i = 0; i < positions.length; i++) {
+                long word = positions[i];
+                while (word != 0) {
+                    int target = advance((i << 6) + Long.numberOfTrailingZeros(word), name);
+                    if (target >= 0) {
+                        if (childPositions == null) {
+                            childPositions = new long[positions.length];
+                        }
+                        addClosure(childPositions, target);
+                    }
+                    word &= word - 1;
+                }
+            }
+            if (childPositions == null) {
+                return emptyState;
+            }
+            if (Arrays.equals(childPositions, positions)) {
+                // Common below a leading '**', where most directories leave the state unchanged
+                return this;
+            }
+            return new State(childPositions);
+        }
+    }
+}
@@ -34,12 +34,16 @@ public class PatternMatcherFactory {
             return END_OF_PATH_MATCHER;
         }
 
+        String[] parts = split(pattern);
+        return compile(parts, 0, caseSensitive);
+    }
+
+    static String[] split(String pattern) {
         // trailing / or \ assumes **
         if (pattern.endsWith("/") || pattern.endsWith("\\")) {
             pattern = pattern + "**";
         }
-        String[] parts = StringUtils.split(pattern, PATH_SEPARATORS);
-        return compile(parts, 0, caseSensitive);
+        return StringUtils.split(pattern, PATH_SEPARATORS);
     }
 
     private static PathMatcher compile(String[] parts, int startIndex, boolean caseSensitive) {
@@ -22,6 +22,7 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.pattern.PathAutomaton;
 import org.gradle.api.specs.Spec;
 import org.gradle.cache.internal.HeapProportionalCacheSizer;
 import org.gradle.internal.Cast;
@@ -36,11 +37,13 @@ public class CachingPatternSpecFactory extends PatternSpecFactory {
     private static final int INSTANCES_MAX_SIZE = 30000;
     private final Cache<CacheKey, Boolean> specResultCache;
     private final Cache<SpecKey, Spec> specInstanceCache;
+    private final Cache<SpecKey, PathAutomaton> automatonCache;
 
     public CachingPatternSpecFactory() {
         HeapProportionalCacheSizer cacheSizer = new HeapProportionalCacheSizer();
         specResultCache = CacheBuilder.newBuilder().maximumSize(cacheSizer.scaleCacheSize(RESULTS_CACHE_MAX_SIZE)).build();
         specInstanceCache = CacheBuilder.newBuilder().maximumSize(cacheSizer.scaleCacheSize(INSTANCES_MAX_SIZE)).build();
+        automatonCache = CacheBuilder.newBuilder().maximumSize(cacheSizer.scaleCacheSize(INSTANCES_MAX_SIZE)).build();
     }
 
     @Override
@@ -59,6 +62,22 @@ public class CachingPatternSpecFactory extends PatternSpecFactory {
         }
     }
 
+    @Override
+    protected PathAutomaton createAutomaton(final Collection<String> patterns, final boolean caseSensitive) {
+        // An automaton does not depend on whether its patterns are includes or excludes
+        SpecKey key = new SpecKey(ImmutableList.copyOf(patterns), false, caseSensitive);
+        try {
+            return automatonCache.get(key, new Callable<PathAutomaton>() {
+                @Override
+                public PathAutomaton call() throws Exception {
+                    return CachingPatternSpecFactory.super.createAutomaton(patterns, caseSensitive);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
     private class CachingSpec implements Spec<FileTreeElement> {
         private final SpecKey key;
         private final Spec<FileTreeElement> spec;
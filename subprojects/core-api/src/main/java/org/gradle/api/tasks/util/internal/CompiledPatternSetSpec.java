@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.tasks.util.internal;
+
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.pattern.PathAutomaton;
+import org.gradle.api.specs.Spec;
+
+import javax.annotation.Nullable;
+
+/**
+ * The spec of a {@link org.gradle.api.tasks.util.PatternSet} which only has include and exclude patterns, and no include or exclude specs.
+ *
+ * <p>Besides matching single elements, the spec can match the contents of a file tree one directory at a time, see {@link #getDirectoryMatcher(RelativePath)}.
+ * Directory walkers use this to skip directories which cannot contain any included element, and to avoid looking at the full path of each element.</p>
+ */
+public class CompiledPatternSetSpec implements Spec<FileTreeElement> {
+    private final Spec<FileTreeElement> spec;
+    private final PathAutomaton includes;
+    private final PathAutomaton excludes;
+
+    /**
+     * @param spec the equivalent spec, used to match single elements.
+     * @param includes the include patterns, or null when all elements are included.
+     * @param excludes the exclude patterns, including the default excludes.
+     */
+    public CompiledPatternSetSpec(Spec<FileTreeElement> spec, @Nullable PathAutomaton includes, PathAutomaton excludes) {
+        this.spec = spec;
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    @Override
+    public boolean isSatisfiedBy(FileTreeElement element) {
+        return spec.isSatisfiedBy(element);
+    }
+
+    /**
+     * Returns a matcher for the children of the directory with the given path.
+     */
+    public DirectoryMatcher getDirectoryMatcher(RelativePath directory) {
+        String[] segments = directory.getSegments();
+        return new DirectoryMatcher(includes == null ? null : includes.getState(segments), excludes.getState(segments));
+    }
+
+    @Override
+    public String toString() {
+        return spec.toString();
+    }
+
+    /**
+     * Matches the children of a directory, by name.
+     */
+    public static class DirectoryMatcher {
+        private final PathAutomaton.State includeState;
+        private final PathAutomaton.State excludeState;
+
+        private DirectoryMatcher(@Nullable PathAutomaton.State includeState, PathAutomaton.State excludeState) {
+            this.includeState = includeState;
+            this.excludeState = excludeState;
+        }
+
+        /**
+         * Returns true when the file with the given name in this directory is included. Does not allocate.
+         */
+        public boolean isFileIncluded(String name) {
+            return (includeState == null || includeState.isChildMatch(name)) && !excludeState.isChildMatch(name);
+        }
+
+        /**
+         * Returns the matcher for the subdirectory with the given name, or null when the subdirectory is not included.
+         * The contents of a directory which is not included are not included either.
+         */
+        @Nullable
+        public DirectoryMatcher getSubdirectoryMatcher(String name) {
+            PathAutomaton.State childIncludeState = null;
+            if (includeState != null) {
+                // Directories are included when they may contain an included element, the same as for the include spec
+                childIncludeState = includeState.getChild(name);
+                if (childIncludeState.isEmpty()) {
+                    return null;
+                }
+            }
+            PathAutomaton.State childExcludeState = excludeState.getChild(name);
+            if (childExcludeState.isMatch()) {
+                return null;
+            }
+            if (childIncludeState == includeState && childExcludeState == excludeState) {
+                return this;
+            }
+            return new DirectoryMatcher(childIncludeState, childExcludeState);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.apache.tools.ant.DirectoryScanner;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.RelativePathSpec;
+import org.gradle.api.internal.file.pattern.PathAutomaton;
 import org.gradle.api.internal.file.pattern.PatternMatcherFactory;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.specs.Specs;
@@ -34,7 +35,18 @@ public class PatternSpecFactory {
     public static final PatternSpecFactory INSTANCE = new PatternSpecFactory();
 
     public Spec<FileTreeElement> createSpec(PatternSet patternSet) {
-        return Specs.intersect(createIncludeSpec(patternSet), Specs.negate(createExcludeSpec(patternSet)));
+        Spec<FileTreeElement> spec = Specs.intersect(createIncludeSpec(patternSet), Specs.negate(createExcludeSpec(patternSet)));
+        if (!patternSet.getIncludeSpecs().isEmpty() || !patternSet.getExcludeSpecs().isEmpty()) {
+            return spec;
+        }
+
+        PathAutomaton includes = null;
+        if (!patternSet.getIncludes().isEmpty()) {
+            includes = createAutomaton(patternSet.getIncludes(), patternSet.isCaseSensitive());
+        }
+        List<String> excludes = new ArrayList<String>(patternSet.getExcludes());
+        excludes.addAll(Arrays.asList(DirectoryScanner.getDefaultExcludes()));
+        return new CompiledPatternSetSpec(spec, includes, createAutomaton(excludes, patternSet.isCaseSensitive()));
     }
 
     public Spec<FileTreeElement> createIncludeSpec(PatternSet patternSet) {
@@ -83,4 +95,8 @@ public class PatternSpecFactory {
 
         return new RelativePathSpec(Specs.union(matchers));
     }
+
+    protected PathAutomaton createAutomaton(Collection<String> patterns, boolean caseSensitive) {
+        return PathAutomaton.compile(patterns, caseSensitive);
+    }
 }
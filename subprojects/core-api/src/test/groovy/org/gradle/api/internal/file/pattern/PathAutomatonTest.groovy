@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.pattern
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class PathAutomatonTest extends Specification {
+    @Unroll
+    def "matches the same paths as a path matcher for '#pattern'"() {
+        def automaton = PathAutomaton.compile([pattern], true)
+        def matcher = PatternMatcherFactory.compile(true, pattern)
+
+        expect:
+        ["a", "b", "a/b", "a/c", "b/a", "a/b/c", "a/c/b", "c/a/b/c", "a/b/a/b", "a.java", "a/b.java", "b/c/a.java"].each { path ->
+            def segments = path.split("/")
+            def parent = automaton.getState(segments.take(segments.length - 1))
+            assert parent.isChildMatch(segments[-1]) == matcher.matches(segments, 0)
+            assert automaton.getState(segments).isMatch() == matcher.matches(segments, 0)
+            assert !automaton.getState(segments).isEmpty() == matcher.isPrefix(segments, 0)
+        }
+
+        where:
+        pattern << ["", "a", "a/b", "*", "*/b", "**", "**/b", "a/**", "a/", "a/**/c", "**/a/**", "a/**/**/b", "**/*.java", "*/*.java", "a?b"]
+    }
+
+    def "matches when any pattern matches"() {
+        def automaton = PathAutomaton.compile(["a/*.java", "**/b/*.groovy"], true)
+
+        expect:
+        automaton.getState("a" as String[]).isChildMatch("Foo.java")
+        automaton.getState(["c", "b"] as String[]).isChildMatch("Foo.groovy")
+        !automaton.getState("a" as String[]).isChildMatch("Foo.groovy")
+        !automaton.getState(["c", "b"] as String[]).isChildMatch("Foo.java")
+    }
+
+    def "state is empty when no pattern can match a path below it"() {
+        def automaton = PathAutomaton.compile(["a/b/*.java", "c/**"], true)
+
+        expect:
+        !automaton.initialState.isEmpty()
+        !automaton.getState(["a", "b"] as String[]).isEmpty()
+        automaton.getState(["a", "c"] as String[]).isEmpty()
+        automaton.getState(["b"] as String[]).isEmpty()
+        !automaton.getState(["c", "d", "e"] as String[]).isEmpty()
+    }
+
+    def "state is empty when there are no patterns"() {
+        def automaton = PathAutomaton.compile([], true)
+
+        expect:
+        automaton.initialState.isEmpty()
+        !automaton.initialState.isChildMatch("a")
+        automaton.initialState.getChild("a").isEmpty()
+    }
+
+    def "reuses state when a directory does not advance any pattern"() {
+        def automaton = PathAutomaton.compile(["**/*.java"], true)
+        def state = automaton.initialState
+
+        expect:
+        state.getChild("src").is(state)
+        state.getChild("src").getChild("main").is(state)
+    }
+
+    def "matches case insensitively"() {
+        def automaton = PathAutomaton.compile(["A/**/*.java"], false)
+
+        expect:
+        automaton.getState(["a", "B"] as String[]).isChildMatch("Foo.JAVA")
+        !PathAutomaton.compile(["A/**/*.java"], true).getState(["a", "B"] as String[]).isChildMatch("Foo.JAVA")
+    }
+}
@@ -72,6 +72,63 @@ class CrossBuildScriptCachingIntegrationSpec extends AbstractIntegrationSpec {
         hasCachedScripts(settingsHash, coreHash)
     }
 
+    def "identical build files are compiled once when compiled up front"() {
+        given:
+        root {
+            core {
+                'core.gradle'(this.simpleBuild())
+            }
+            module1 {
+                'module1.gradle'(this.simpleBuild())
+            }
+            module2 {
+                'module2.gradle'(this.simpleBuild())
+            }
+            module3 {
+                'module3.gradle'(this.simpleBuild('different'))
+            }
+            'settings.gradle'(settings('core', 'module1', 'module2', 'module3'))
+        }
+
+        when:
+        run 'help', '-Dorg.gradle.internal.scripts.precompile=true', '--max-workers=4'
+
+        then:
+        def settingsHash = uniqueRemapped('settings')
+        def coreHash = uniqueRemapped('core')
+        def module1Hash = uniqueRemapped('module1')
+        def module2Hash = uniqueRemapped('module2')
+        def module3Hash = uniqueRemapped('module3')
+
+        and:
+        remappedCacheSize() == 5 // one for each build script
+        scriptCacheSize() == 3 // one for settings, one for the 3 identical scripts, one for the different script
+        coreHash == module1Hash
+        coreHash == module2Hash
+        hasCachedScripts(settingsHash, coreHash, module3Hash)
+    }
+
+    def "reports errors in build files compiled up front when the project is configured"() {
+        given:
+        root {
+            module1 {
+                'module1.gradle'(this.taskThrowingError())
+            }
+            module2 {
+                'module2.gradle'('task someTask { doLast { println "unclosed string }')
+            }
+            'settings.gradle'(settings('module1', 'module2'))
+        }
+
+        when:
+        fails 'module1:someTask', '-Dorg.gradle.internal.scripts.precompile=true'
+
+        then:
+        def module2File = file("module2/module2.gradle")
+        failure.assertHasFileName("Build file '$module2File'")
+        failure.assertHasDescription("Could not compile build file '$module2File'.")
+    }
+
     def "identical build files are compiled once for distinct invocations"() {
         given:
         root {
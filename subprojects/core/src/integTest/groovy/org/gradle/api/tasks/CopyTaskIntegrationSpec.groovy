@@ -16,6 +16,7 @@
 
 package org.gradle.api.tasks
 
+import org.gradle.api.internal.file.copy.CopyActionExecuter
 import org.gradle.api.plugins.ExtensionAware
 import org.gradle.integtests.fixtures.AbstractIntegrationSpec
 import org.gradle.integtests.fixtures.TestResources
@@ -1218,4 +1219,158 @@ class CopyTaskIntegrationSpec extends AbstractIntegrationSpec {
         "fileMode"           | "0600"                       | "0644"
         "filteringCharset"   | "'iso8859-1'"                | "'utf-8'"
     }
+
+    def "only copies changed source files and removes targets of removed source files"() {
+        given:
+        file('files/a.txt') << 'a'
+        file('files/b.txt') << 'b'
+        file('files/sub/c.txt') << 'c'
+        buildScript """
+            task (copy, type:Copy) {
+               from 'files'
+               into 'dest'
+            }
+        """
+
+        run 'copy'
+        def unchanged = file('dest/b.txt')
+        unchanged.makeOlder()
+        def unchangedLastModified = unchanged.lastModified()
+
+        when:
+        file('files/a.txt').text = 'changed'
+        file('files/sub/c.txt').delete()
+        file('files/d.txt') << 'd'
+        run 'copy'
+
+        then:
+        file('dest').assertHasDescendants('a.txt', 'b.txt', 'd.txt')
+        file('dest/a.txt').text == 'changed'
+        unchanged.lastModified() == unchangedLastModified
+    }
+
+    def "copies all source files when the copy spec has copy actions"() {
+        given:
+        file('files/a.txt') << 'a'
+        file('files/b.txt') << 'b'
+        buildScript """
+            task (copy, type:Copy) {
+               from 'files'
+               into 'dest'
+               rename 'a.txt', 'renamed.txt'
+            }
+        """
+
+        run 'copy'
+        def unchanged = file('dest/b.txt')
+        unchanged.makeOlder()
+        def unchangedLastModified = unchanged.lastModified()
+
+        when:
+        file('files/a.txt').text = 'changed'
+        run 'copy'
+
+        then:
+        file('dest').assertHasDescendants('renamed.txt', 'b.txt')
+        file('dest/renamed.txt').text == 'changed'
+        unchanged.lastModified() != unchangedLastModified
+    }
+
+    def "sync only copies changed source files"() {
+        given:
+        file('files/a.txt') << 'a'
+        file('files/b.txt') << 'b'
+        buildScript """
+            task (sync, type:Sync) {
+               from 'files'
+               into 'dest'
+            }
+        """
+
+        run 'sync'
+        def unchanged = file('dest/b.txt')
+        unchanged.makeOlder()
+        def unchangedLastModified = unchanged.lastModified()
+
+        when:
+        file('files/a.txt').delete()
+        file('files/c.txt') << 'c'
+        run 'sync'
+
+        then:
+        file('dest').assertHasDescendants('b.txt', 'c.txt')
+        unchanged.lastModified() == unchangedLastModified
+    }
+
+    def "copies files in parallel when enabled"() {
+        given:
+        20.times { file("files/dir${it % 4}/file${it}.txt") << "content $it" }
+        buildScript """
+            task (copy, type:Copy) {
+               from 'files'
+               into 'dest'
+            }
+        """
+
+        when:
+        args "-D${CopyActionExecuter.PARALLEL_COPY_SYSPROP}=true", "--max-workers=4"
+        run 'copy'
+
+        then:
+        20.times { assert file("dest/dir${it % 4}/file${it}.txt").text == "content $it" }
+    }
+
+    def "runs the copy method of a subclass that overrides it when the sources change"() {
+        given:
+        file('files/a.txt') << 'a'
+        buildScript """
+            class CustomCopy extends Copy {
+                @Override
+                protected void copy() {
+                    println "custom copy"
+                    super.copy()
+                }
+            }
+
+            task (copy, type:CustomCopy) {
+               from 'files'
+               into 'dest'
+            }
+        """
+        run 'copy'
+
+        when:
+        file('files/a.txt').text = 'changed'
+        run 'copy'
+
+        then:
+        output.count("custom copy") == 1
+        file('dest/a.txt').text == 'changed'
+    }
+
+    def "runs only the task action of a subclass that declares its own copy action"() {
+        given:
+        file('files/a.txt') << 'a'
+        buildScript """
+            class CustomCopy extends Copy {
+                @TaskAction
+                protected void copy() {
+                    println "custom copy"
+                    super.copy()
+                }
+            }
+
+            task (copy, type:CustomCopy) {
+               from 'files'
+               into 'dest'
+            }
+        """
+
+        when:
+        run 'copy'
+
+        then:
+        output.count("custom copy") == 1
+        file('dest/a.txt').text == 'a'
+    }
 }
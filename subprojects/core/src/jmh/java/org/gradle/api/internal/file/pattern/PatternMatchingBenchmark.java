@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.pattern;
+
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.DefaultFileTreeElement;
+import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.api.tasks.util.internal.CachingPatternSpecFactory;
+import org.gradle.api.tasks.util.internal.CompiledPatternSetSpec;
+import org.gradle.api.tasks.util.internal.PatternSpecFactory;
+import org.gradle.api.tasks.util.internal.PatternSets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+
+/**
+ * Matches the elements of an in-memory directory tree against a pattern set, once by evaluating the spec of the pattern set for the full path
+ * of each element, and once by matching each element by name against the compiled patterns of its parent directory.
+ *
+ * Run with {@code -prof gc} to compare the allocation rates.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class PatternMatchingBenchmark {
+    private static final File ROOT = new File("root");
+
+    @Param({"default", "caching"})
+    String factory;
+
+    @Param({"sources", "many-greedy", "deep-prefix"})
+    String patterns;
+
+    private Directory tree;
+    private CompiledPatternSetSpec spec;
+
+    @Setup
+    public void setup() {
+        PatternSet patternSet = PatternSets.getPatternSetFactory(factory.equals("caching") ? new CachingPatternSpecFactory() : PatternSpecFactory.INSTANCE).create();
+        if (patterns.equals("sources")) {
+            patternSet.include("**/*.java", "**/*.groovy");
+            patternSet.exclude("**/generated/**");
+        } else if (patterns.equals("many-greedy")) {
+            for (int i = 0; i < 40; i++) {
+                patternSet.include("**/file" + i + ".*");
+            }
+            patternSet.exclude("**/*.tmp", "**/dir1/**");
+        } else {
+            patternSet.include("dir0/dir1/**/*.java", "dir2/*/dir3/**");
+        }
+        spec = (CompiledPatternSetSpec) patternSet.getAsSpec();
+        // 8^4 directories with 24 files each, about 100k elements
+        tree = createDirectory("root", 0, 4);
+    }
+
+    @Benchmark
+    public int matchBySpec() {
+        return matchBySpec(tree, RelativePath.EMPTY_ROOT);
+    }
+
+    @Benchmark
+    public int matchByCompiledPatterns() {
+        return matchByCompiledPatterns(tree, RelativePath.EMPTY_ROOT, spec.getDirectoryMatcher(RelativePath.EMPTY_ROOT));
+    }
+
+    private int matchBySpec(Directory directory, RelativePath path) {
+        int included = 0;
+        for (String file : directory.files) {
+            if (spec.isSatisfiedBy(element(path.append(true, file)))) {
+                included++;
+            }
+        }
+        for (Directory child : directory.directories) {
+            RelativePath childPath = path.append(false, child.name);
+            if (spec.isSatisfiedBy(element(childPath))) {
+                included += 1 + matchBySpec(child, childPath);
+            }
+        }
+        return included;
+    }
+
+    private int matchByCompiledPatterns(Directory directory, RelativePath path, CompiledPatternSetSpec.DirectoryMatcher matcher) {
+        int included = 0;
+        for (String file : directory.files) {
+            if (matcher.isFileIncluded(file)) {
+                // The walker creates the details of included elements only
+                element(path.append(true, file));
+                included++;
+            }
+        }
+        for (Directory child : directory.directories) {
+            CompiledPatternSetSpec.DirectoryMatcher childMatcher = matcher.getSubdirectoryMatcher(child.name);
+            if (childMatcher != null) {
+                included += 1 + matchByCompiledPatterns(child, path.append(false, child.name), childMatcher);
+            }
+        }
+        return included;
+    }
+
+    private static FileTreeElement element(RelativePath path) {
+        return new DefaultFileTreeElement(ROOT, path, null, null);
+    }
+
+    private static Directory createDirectory(String name, int depth, int maxDepth) {
+        String[] files = new String[24];
+        String[] extensions = {".java", ".groovy", ".txt", ".tmp"};
+        for (int i = 0; i < files.length; i++) {
+            files[i] = "file" + i + extensions[i % extensions.length];
+        }
+        Directory[] directories = new Directory[depth < maxDepth ? 8 : 0];
+        for (int i = 0; i < directories.length; i++) {
+            directories[i] = createDirectory(i == 7 ? "generated" : "dir" + i, depth + 1, maxDepth);
+        }
+        return new Directory(name, files, directories);
+    }
+
+    private static class Directory {
+        final String name;
+        final String[] files;
+        final Directory[] directories;
+
+        Directory(String name, String[] files, Directory[] directories) {
+            this.name = name;
+            this.files = files;
+            this.directories = directories;
+        }
+    }
+}
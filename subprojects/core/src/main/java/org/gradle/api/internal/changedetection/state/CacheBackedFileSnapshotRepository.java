@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import org.gradle.api.NonNullApi;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.io.NullOutputStream;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stores file collection snapshots by content, so that a snapshot which did not change since the previous execution of a task,
+ * or which is shared with another task, is not written again.
+ *
+ * <p>A snapshot is identified by its {@link FileCollectionSnapshot#getStorageId() storage id}. Snapshots are reference counted by the task executions that use them,
+ * and are removed when no task execution references them anymore.</p>
+ */
+@NonNullApi
+public class CacheBackedFileSnapshotRepository {
+    private final TaskHistoryStore cacheAccess;
+    private final Serializer<FileCollectionSnapshot> serializer;
+    private final PersistentIndexedCache<HashCode, FileCollectionSnapshot> snapshotCache;
+    private final PersistentIndexedCache<HashCode, Integer> referenceCountCache;
+
+    public CacheBackedFileSnapshotRepository(TaskHistoryStore cacheAccess, Serializer<FileCollectionSnapshot> serializer) {
+        this.cacheAccess = cacheAccess;
+        this.serializer = serializer;
+        this.snapshotCache = cacheAccess.createCache("fileSnapshots", HashCode.class, serializer, 10000, false);
+        this.referenceCountCache = cacheAccess.createCache("fileSnapshotReferences", HashCode.class, BaseSerializerFactory.INTEGER_SERIALIZER, 10000, false);
+    }
+
+    @Nullable
+    public FileCollectionSnapshot get(HashCode id) {
+        return snapshotCache.get(id);
+    }
+
+    /**
+     * Replaces the references held by the previous execution of a task by the references held by its current execution.
+     * Snapshots which are not stored yet are written, and snapshots which are not referenced anymore are removed.
+     *
+     * <p>The reference counts are shared with other builds, so they are updated while holding the lock on the task history cache.</p>
+     *
+     * @param snapshots the snapshots referenced by the current execution, by id.
+     * @param previousIds the ids of the snapshots referenced by the previous execution.
+     * @return the number of bytes written for snapshots which were not stored yet.
+     */
+    public long update(final Map<HashCode, FileCollectionSnapshot> snapshots, final Set<HashCode> previousIds) {
+        return cacheAccess.useCache(new Factory<Long>() {
+            @Override
+            public Long create() {
+                long bytesWritten = 0;
+                for (Map.Entry<HashCode, FileCollectionSnapshot> entry : snapshots.entrySet()) {
+                    HashCode id = entry.getKey();
+                    if (previousIds.contains(id)) {
+                        continue;
+                    }
+                    Integer referenceCount = referenceCountCache.get(id);
+                    if (referenceCount == null) {
+                        snapshotCache.put(id, entry.getValue());
+                        bytesWritten += getSerializedSize(entry.getValue());
+                        referenceCount = 0;
+                    }
+                    referenceCountCache.put(id, referenceCount + 1);
+                }
+                for (HashCode previousId : previousIds) {
+                    if (snapshots.containsKey(previousId)) {
+                        continue;
+                    }
+                    Integer referenceCount = referenceCountCache.get(previousId);
+                    if (referenceCount == null || referenceCount <= 1) {
+                        snapshotCache.remove(previousId);
+                        referenceCountCache.remove(previousId);
+                    } else {
+                        referenceCountCache.put(previousId, referenceCount - 1);
+                    }
+                }
+                return bytesWritten;
+            }
+        });
+    }
+
+    private int getSerializedSize(FileCollectionSnapshot snapshot) {
+        KryoBackedEncoder encoder = new KryoBackedEncoder(NullOutputStream.INSTANCE);
+        try {
+            serializer.write(encoder, snapshot);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return encoder.getWritePosition();
+    }
+}
@@ -23,6 +23,7 @@ import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.gradle.api.NonNullApi;
 import org.gradle.api.Task;
 import org.gradle.api.UncheckedIOException;
@@ -37,11 +38,14 @@ import org.gradle.api.internal.tasks.GenericFileNormalizer;
 import org.gradle.api.internal.tasks.TaskFilePropertySpec;
 import org.gradle.api.internal.tasks.TaskOutputFilePropertySpec;
 import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
 import org.gradle.internal.file.FileType;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.io.NullOutputStream;
 import org.gradle.internal.scopeids.id.BuildInvocationScopeId;
 import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 import org.gradle.normalization.internal.InputNormalizationHandlerInternal;
 import org.gradle.normalization.internal.InputNormalizationStrategy;
 import org.slf4j.Logger;
@@ -53,6 +57,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 
 import static org.gradle.api.internal.changedetection.state.InputPathNormalizationStrategy.ABSOLUTE;
@@ -62,7 +67,9 @@ public class CacheBackedTaskHistoryRepository implements TaskHistoryRepository {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CacheBackedTaskHistoryRepository.class);
 
-    private final PersistentIndexedCache<String, HistoricalTaskExecution> taskHistoryCache;
+    private final PersistentIndexedCache<String, TaskExecutionSnapshot> taskHistoryCache;
+    private final TaskExecutionSnapshotSerializer taskExecutionSnapshotSerializer;
+    private final CacheBackedFileSnapshotRepository fileSnapshotRepository;
     private final StringInterner stringInterner;
     private final ClassLoaderHierarchyHasher classLoaderHierarchyHasher;
     private final ValueSnapshotter valueSnapshotter;
@@ -86,8 +93,9 @@ public class CacheBackedTaskHistoryRepository implements TaskHistoryRepository {
         this.snapshotterRegistry = snapshotterRegistry;
         this.fileCollectionFactory = fileCollectionFactory;
         this.buildInvocationScopeId = buildInvocationScopeId;
-        TaskExecutionSnapshotSerializer serializer = new TaskExecutionSnapshotSerializer(stringInterner, fileCollectionSnapshotSerializer);
-        this.taskHistoryCache = cacheAccess.createCache("taskHistory", String.class, serializer, 10000, false);
+        this.taskExecutionSnapshotSerializer = new TaskExecutionSnapshotSerializer();
+        this.taskHistoryCache = cacheAccess.createCache("taskHistory", String.class, taskExecutionSnapshotSerializer, 10000, false);
+        this.fileSnapshotRepository = new CacheBackedFileSnapshotRepository(cacheAccess, fileCollectionSnapshotSerializer);
     }
 
     @Override
@@ -96,6 +104,7 @@ public class CacheBackedTaskHistoryRepository implements TaskHistoryRepository {
 
         return new History() {
             private boolean previousExecutionLoadAttempted;
+            private TaskExecutionSnapshot previousExecutionSnapshot;
             private HistoricalTaskExecution previousExecution;
             private CurrentTaskExecution currentExecution;
 
@@ -103,7 +112,10 @@ public class CacheBackedTaskHistoryRepository implements TaskHistoryRepository {
             public HistoricalTaskExecution getPreviousExecution() {
                 if (!previousExecutionLoadAttempted) {
                     previousExecutionLoadAttempted = true;
-                    previousExecution = loadPreviousExecution(task);
+                    previousExecutionSnapshot = taskHistoryCache.get(task.getPath());
+                    if (previousExecutionSnapshot != null) {
+                        previousExecution = loadPreviousExecution(task, previousExecutionSnapshot);
+                    }
                 }
                 return previousExecution;
             }
@@ -128,7 +140,8 @@ public class CacheBackedTaskHistoryRepository implements TaskHistoryRepository {
 
             @Override
             public void persist() {
-                taskHistoryCache.put(task.getPath(), getCurrentExecution().archive());
+                HistoricalTaskExecution execution = getCurrentExecution().archive();
+                storeExecution(task, execution, previousExecutionSnapshot);
             }
 
         };
@@ -363,8 +376,95 @@ public class CacheBackedTaskHistoryRepository implements TaskHistoryRepository {
     }
 
     @Nullable
-    private HistoricalTaskExecution loadPreviousExecution(TaskInternal task) {
-        return taskHistoryCache.get(task.getPath());
+    private HistoricalTaskExecution loadPreviousExecution(TaskInternal task, TaskExecutionSnapshot taskExecutionSnapshot) {
+        ImmutableSortedMap<String, FileCollectionSnapshot> inputFilesSnapshots = loadFileSnapshots(taskExecutionSnapshot.getInputFilesSnapshotIds());
+        ImmutableSortedMap<String, FileCollectionSnapshot> outputFilesSnapshots = loadFileSnapshots(taskExecutionSnapshot.getOutputFilesSnapshotIds());
+        FileCollectionSnapshot discoveredFilesSnapshot = fileSnapshotRepository.get(taskExecutionSnapshot.getDiscoveredFilesSnapshotId());
+        if (inputFilesSnapshots == null || outputFilesSnapshots == null || discoveredFilesSnapshot == null) {
+            // Treat the task as if it has not been executed before
+            LOGGER.info("Could not load the file snapshots of the previous execution of {}.", task);
+            return null;
+        }
+        return new HistoricalTaskExecution(
+            taskExecutionSnapshot.getBuildInvocationId(),
+            taskExecutionSnapshot.getTaskImplementation(),
+            taskExecutionSnapshot.getTaskActionImplementations(),
+            taskExecutionSnapshot.getInputProperties(),
+            taskExecutionSnapshot.getOutputPropertyNames(),
+            inputFilesSnapshots,
+            discoveredFilesSnapshot,
+            outputFilesSnapshots,
+            taskExecutionSnapshot.isSuccessful()
+        );
+    }
+
+    @Nullable
+    private ImmutableSortedMap<String, FileCollectionSnapshot> loadFileSnapshots(ImmutableSortedMap<String, HashCode> ids) {
+        ImmutableSortedMap.Builder<String, FileCollectionSnapshot> builder = ImmutableSortedMap.naturalOrder();
+        for (Map.Entry<String, HashCode> entry : ids.entrySet()) {
+            FileCollectionSnapshot snapshot = fileSnapshotRepository.get(entry.getValue());
+            if (snapshot == null) {
+                return null;
+            }
+            builder.put(entry.getKey(), snapshot);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Stores the given execution, writing only the file snapshots which are not stored yet, and releasing the file snapshots of the previous execution.
+     */
+    private void storeExecution(TaskInternal task, HistoricalTaskExecution execution, @Nullable TaskExecutionSnapshot previousExecutionSnapshot) {
+        Map<HashCode, FileCollectionSnapshot> fileSnapshots = new HashMap<HashCode, FileCollectionSnapshot>();
+        ImmutableSortedMap<String, HashCode> inputFilesSnapshotIds = identifyFileSnapshots(execution.getInputFilesSnapshot(), fileSnapshots);
+        ImmutableSortedMap<String, HashCode> outputFilesSnapshotIds = identifyFileSnapshots(execution.getOutputFilesSnapshot(), fileSnapshots);
+        HashCode discoveredFilesSnapshotId = identifyFileSnapshot(execution.getDiscoveredInputFilesSnapshot(), fileSnapshots);
+        TaskExecutionSnapshot taskExecutionSnapshot = new TaskExecutionSnapshot(
+            execution.isSuccessful(),
+            execution.getBuildInvocationId(),
+            execution.getTaskImplementation(),
+            execution.getTaskActionImplementations(),
+            execution.getInputProperties(),
+            execution.getOutputPropertyNamesForCacheKey(),
+            inputFilesSnapshotIds,
+            discoveredFilesSnapshotId,
+            outputFilesSnapshotIds
+        );
+
+        // Store the file snapshots first, so the task history never references missing snapshots
+        Set<HashCode> previousIds = previousExecutionSnapshot == null ? ImmutableSet.<HashCode>of() : previousExecutionSnapshot.getFileSnapshotIds();
+        long fileSnapshotBytesWritten = fileSnapshotRepository.update(fileSnapshots, previousIds);
+        taskHistoryCache.put(task.getPath(), taskExecutionSnapshot);
+
+        if (LOGGER.isInfoEnabled()) {
+            int fileSnapshotsWritten = Sets.difference(fileSnapshots.keySet(), previousIds).size();
+            long bytesWritten = fileSnapshotBytesWritten + getSerializedSize(taskExecutionSnapshot);
+            LOGGER.info("Wrote {} bytes of task history for {}, with {} new of {} file snapshots.", bytesWritten, task, fileSnapshotsWritten, fileSnapshots.size());
+        }
+    }
+
+    private static ImmutableSortedMap<String, HashCode> identifyFileSnapshots(ImmutableSortedMap<String, FileCollectionSnapshot> snapshots, Map<HashCode, FileCollectionSnapshot> fileSnapshots) {
+        ImmutableSortedMap.Builder<String, HashCode> builder = ImmutableSortedMap.naturalOrder();
+        for (Map.Entry<String, FileCollectionSnapshot> entry : snapshots.entrySet()) {
+            builder.put(entry.getKey(), identifyFileSnapshot(entry.getValue(), fileSnapshots));
+        }
+        return builder.build();
+    }
+
+    private static HashCode identifyFileSnapshot(FileCollectionSnapshot snapshot, Map<HashCode, FileCollectionSnapshot> fileSnapshots) {
+        HashCode id = snapshot.getStorageId();
+        fileSnapshots.put(id, snapshot);
+        return id;
+    }
+
+    private int getSerializedSize(TaskExecutionSnapshot taskExecutionSnapshot) {
+        KryoBackedEncoder encoder = new KryoBackedEncoder(NullOutputStream.INSTANCE);
+        try {
+            taskExecutionSnapshotSerializer.write(encoder, taskExecutionSnapshot);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return encoder.getWritePosition();
     }
 
     private static ImmutableSortedSet<String> getOutputPropertyNamesForCacheKey(TaskInternal task) {
@@ -106,6 +106,21 @@ public class DefaultFileCollectionSnapshot implements FileCollectionSnapshot {
         return hashCode;
     }
 
+    @Override
+    public HashCode getStorageId() {
+        DefaultBuildCacheHasher hasher = new DefaultBuildCacheHasher();
+        hasher.putHash(getHash());
+        hasher.putInt(compareStrategy.ordinal());
+        hasher.putBoolean(pathIsAbsolute);
+        if (!pathIsAbsolute) {
+            // The hash only covers the normalized paths
+            for (String path : snapshots.keySet()) {
+                hasher.putString(path);
+            }
+        }
+        return hasher.hash();
+    }
+
     @Override
     public void appendToHasher(BuildCacheHasher hasher) {
         hasher.putHash(getHash());
@@ -21,6 +21,7 @@ import org.gradle.cache.FileLockManager;
 import org.gradle.cache.PersistentCache;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.internal.Factory;
 import org.gradle.internal.serialize.Serializer;
 
 import java.io.Closeable;
@@ -50,4 +51,9 @@ public class DefaultTaskHistoryStore implements TaskHistoryStore, Closeable {
                 .cacheDecorator(inMemoryCacheDecoratorFactory.decorator(maxEntriesToKeepInMemory, cacheInMemoryForShortLivedProcesses));
         return cache.createCache(parameters);
     }
+
+    @Override
+    public <T> T useCache(Factory<? extends T> action) {
+        return cache.useCache(action);
+    }
 }
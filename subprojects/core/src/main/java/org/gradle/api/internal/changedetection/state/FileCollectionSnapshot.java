@@ -46,6 +46,11 @@ public interface FileCollectionSnapshot extends Snapshot {
      */
     HashCode getHash();
 
+    /**
+     * Returns the hash which identifies this snapshot when it is stored. Besides the {@link #getHash() hash} of the contents, it covers how the snapshot is compared and the absolute paths of its files.
+     */
+    HashCode getStorageId();
+
     /**
      * Returns the elements of this snapshot, including regular files, directories and missing files
      */
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import org.gradle.api.NonNullApi;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.id.UniqueId;
+
+/**
+ * The persisted state of a task execution, which references its file collection snapshots by id.
+ *
+ * @see CacheBackedFileSnapshotRepository
+ */
+@NonNullApi
+public class TaskExecutionSnapshot {
+    private final boolean successful;
+    private final UniqueId buildInvocationId;
+    private final ImplementationSnapshot taskImplementation;
+    private final ImmutableList<ImplementationSnapshot> taskActionImplementations;
+    private final ImmutableSortedMap<String, ValueSnapshot> inputProperties;
+    private final ImmutableSortedSet<String> outputPropertyNames;
+    private final ImmutableSortedMap<String, HashCode> inputFilesSnapshotIds;
+    private final HashCode discoveredFilesSnapshotId;
+    private final ImmutableSortedMap<String, HashCode> outputFilesSnapshotIds;
+
+    public TaskExecutionSnapshot(
+        boolean successful,
+        UniqueId buildInvocationId,
+        ImplementationSnapshot taskImplementation,
+        ImmutableList<ImplementationSnapshot> taskActionImplementations,
+        ImmutableSortedMap<String, ValueSnapshot> inputProperties,
+        ImmutableSortedSet<String> outputPropertyNames,
+        ImmutableSortedMap<String, HashCode> inputFilesSnapshotIds,
+        HashCode discoveredFilesSnapshotId,
+        ImmutableSortedMap<String, HashCode> outputFilesSnapshotIds
+    ) {
+        this.successful = successful;
+        this.buildInvocationId = buildInvocationId;
+        this.taskImplementation = taskImplementation;
+        this.taskActionImplementations = taskActionImplementations;
+        this.inputProperties = inputProperties;
+        this.outputPropertyNames = outputPropertyNames;
+        this.inputFilesSnapshotIds = inputFilesSnapshotIds;
+        this.discoveredFilesSnapshotId = discoveredFilesSnapshotId;
+        this.outputFilesSnapshotIds = outputFilesSnapshotIds;
+    }
+
+    public boolean isSuccessful() {
+        return successful;
+    }
+
+    public UniqueId getBuildInvocationId() {
+        return buildInvocationId;
+    }
+
+    public ImplementationSnapshot getTaskImplementation() {
+        return taskImplementation;
+    }
+
+    public ImmutableList<ImplementationSnapshot> getTaskActionImplementations() {
+        return taskActionImplementations;
+    }
+
+    public ImmutableSortedMap<String, ValueSnapshot> getInputProperties() {
+        return inputProperties;
+    }
+
+    public ImmutableSortedSet<String> getOutputPropertyNames() {
+        return outputPropertyNames;
+    }
+
+    public ImmutableSortedMap<String, HashCode> getInputFilesSnapshotIds() {
+        return inputFilesSnapshotIds;
+    }
+
+    public HashCode getDiscoveredFilesSnapshotId() {
+        return discoveredFilesSnapshotId;
+    }
+
+    public ImmutableSortedMap<String, HashCode> getOutputFilesSnapshotIds() {
+        return outputFilesSnapshotIds;
+    }
+
+    /**
+     * Returns the ids of all file collection snapshots referenced by this execution, without duplicates.
+     */
+    public ImmutableSet<HashCode> getFileSnapshotIds() {
+        return ImmutableSet.<HashCode>builder()
+            .addAll(inputFilesSnapshotIds.values())
+            .add(discoveredFilesSnapshotId)
+            .addAll(outputFilesSnapshotIds.values())
+            .build();
+    }
+}
@@ -19,36 +19,33 @@ package org.gradle.api.internal.changedetection.state;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
-import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.id.UniqueId;
 import org.gradle.internal.serialize.AbstractSerializer;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
-import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.HashCodeSerializer;
 
 import java.io.IOException;
 import java.util.Map;
 
-public class TaskExecutionSnapshotSerializer extends AbstractSerializer<HistoricalTaskExecution> {
+public class TaskExecutionSnapshotSerializer extends AbstractSerializer<TaskExecutionSnapshot> {
     private final InputPropertiesSerializer inputPropertiesSerializer;
-    private final StringInterner stringInterner;
-    private final Serializer<FileCollectionSnapshot> fileCollectionSnapshotSerializer;
+    private final HashCodeSerializer hashCodeSerializer;
 
-    TaskExecutionSnapshotSerializer(StringInterner stringInterner, Serializer<FileCollectionSnapshot> fileCollectionSnapshotSerializer) {
-        this.fileCollectionSnapshotSerializer = fileCollectionSnapshotSerializer;
+    TaskExecutionSnapshotSerializer() {
         this.inputPropertiesSerializer = new InputPropertiesSerializer();
-        this.stringInterner = stringInterner;
+        this.hashCodeSerializer = new HashCodeSerializer();
     }
 
-    public HistoricalTaskExecution read(Decoder decoder) throws Exception {
+    public TaskExecutionSnapshot read(Decoder decoder) throws Exception {
         boolean successful = decoder.readBoolean();
 
         UniqueId buildId = UniqueId.from(decoder.readString());
 
-        ImmutableSortedMap<String, FileCollectionSnapshot> inputFilesSnapshots = readSnapshots(decoder);
-        ImmutableSortedMap<String, FileCollectionSnapshot> outputFilesSnapshots = readSnapshots(decoder);
-        FileCollectionSnapshot discoveredFilesSnapshot = fileCollectionSnapshotSerializer.read(decoder);
+        ImmutableSortedMap<String, HashCode> inputFilesSnapshotIds = readSnapshotIds(decoder);
+        ImmutableSortedMap<String, HashCode> outputFilesSnapshotIds = readSnapshotIds(decoder);
+        HashCode discoveredFilesSnapshotId = hashCodeSerializer.read(decoder);
 
         ImplementationSnapshot taskImplementation = readImplementation(decoder);
 
@@ -70,32 +67,32 @@ public class TaskExecutionSnapshotSerializer extends AbstractSerializer<Historic
 
         ImmutableSortedMap<String, ValueSnapshot> inputProperties = inputPropertiesSerializer.read(decoder);
 
-        return new HistoricalTaskExecution(
+        return new TaskExecutionSnapshot(
+            successful,
             buildId,
             taskImplementation,
             taskActionImplementations,
             inputProperties,
             cacheableOutputProperties,
-            inputFilesSnapshots,
-            discoveredFilesSnapshot,
-            outputFilesSnapshots,
-            successful
+            inputFilesSnapshotIds,
+            discoveredFilesSnapshotId,
+            outputFilesSnapshotIds
         );
     }
 
-    public void write(Encoder encoder, HistoricalTaskExecution execution) throws Exception {
+    public void write(Encoder encoder, TaskExecutionSnapshot execution) throws Exception {
         encoder.writeBoolean(execution.isSuccessful());
         encoder.writeString(execution.getBuildInvocationId().asString());
-        writeSnapshots(encoder, execution.getInputFilesSnapshot());
-        writeSnapshots(encoder, execution.getOutputFilesSnapshot());
-        fileCollectionSnapshotSerializer.write(encoder, execution.getDiscoveredInputFilesSnapshot());
+        writeSnapshotIds(encoder, execution.getInputFilesSnapshotIds());
+        writeSnapshotIds(encoder, execution.getOutputFilesSnapshotIds());
+        hashCodeSerializer.write(encoder, execution.getDiscoveredFilesSnapshotId());
         writeImplementation(encoder, execution.getTaskImplementation());
         encoder.writeSmallInt(execution.getTaskActionImplementations().size());
         for (ImplementationSnapshot actionImpl : execution.getTaskActionImplementations()) {
             writeImplementation(encoder, actionImpl);
         }
-        encoder.writeSmallInt(execution.getOutputPropertyNamesForCacheKey().size());
-        for (String outputFile : execution.getOutputPropertyNamesForCacheKey()) {
+        encoder.writeSmallInt(execution.getOutputPropertyNames().size());
+        for (String outputFile : execution.getOutputPropertyNames()) {
             encoder.writeString(outputFile);
         }
         inputPropertiesSerializer.write(encoder, execution.getInputProperties());
@@ -117,22 +114,22 @@ public class TaskExecutionSnapshotSerializer extends AbstractSerializer<Historic
         }
     }
 
-    private ImmutableSortedMap<String, FileCollectionSnapshot> readSnapshots(Decoder decoder) throws Exception {
+    private ImmutableSortedMap<String, HashCode> readSnapshotIds(Decoder decoder) throws Exception {
         int count = decoder.readSmallInt();
-        ImmutableSortedMap.Builder<String, FileCollectionSnapshot> builder = ImmutableSortedMap.naturalOrder();
+        ImmutableSortedMap.Builder<String, HashCode> builder = ImmutableSortedMap.naturalOrder();
         for (int snapshotIdx = 0; snapshotIdx < count; snapshotIdx++) {
             String property = decoder.readString();
-            FileCollectionSnapshot snapshot = fileCollectionSnapshotSerializer.read(decoder);
-            builder.put(property, snapshot);
+            HashCode id = hashCodeSerializer.read(decoder);
+            builder.put(property, id);
         }
         return builder.build();
     }
 
-    private void writeSnapshots(Encoder encoder, Map<String, FileCollectionSnapshot> ids) throws Exception {
+    private void writeSnapshotIds(Encoder encoder, Map<String, HashCode> ids) throws Exception {
         encoder.writeSmallInt(ids.size());
-        for (Map.Entry<String, FileCollectionSnapshot> entry : ids.entrySet()) {
+        for (Map.Entry<String, HashCode> entry : ids.entrySet()) {
             encoder.writeString(entry.getKey());
-            fileCollectionSnapshotSerializer.write(encoder, entry.getValue());
+            hashCodeSerializer.write(encoder, entry.getValue());
         }
     }
 }
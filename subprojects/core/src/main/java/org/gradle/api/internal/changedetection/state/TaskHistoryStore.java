@@ -16,6 +16,7 @@
 package org.gradle.api.internal.changedetection.state;
 
 import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.Factory;
 import org.gradle.internal.serialize.Serializer;
 
 /**
@@ -29,4 +30,9 @@ public interface TaskHistoryStore {
      * @param cacheInMemoryForShortLivedProcesses When true, entries are cached in memory. When false, entries are cached in memory only when it possible that another build will be run in this process.
      */
     <K, V> PersistentIndexedCache<K, V> createCache(String name, Class<K> keyType, Serializer<V> valueSerializer, int maxEntriesToKeepInMemory, boolean cacheInMemoryForShortLivedProcesses);
+
+    /**
+     * See {@link org.gradle.cache.CacheAccess#useCache(Factory)} for more details.
+     */
+    <T> T useCache(Factory<? extends T> action);
 }
@@ -22,7 +22,11 @@ import org.gradle.internal.nativeintegration.filesystem.Stat;
 import org.gradle.util.GFileUtils;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 
 public class DefaultFileTreeElement extends AbstractFileTreeElement {
     private final File file;
@@ -65,6 +69,40 @@ public class DefaultFileTreeElement extends AbstractFileTreeElement {
         return GFileUtils.openInputStream(file);
     }
 
+    @Override
+    protected void copyFile(File target) throws IOException {
+        // Let the OS copy the contents, without passing them through the heap
+        boolean complete;
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            FileOutputStream outputStream = new FileOutputStream(target);
+            try {
+                complete = transfer(inputStream.getChannel(), outputStream.getChannel());
+            } finally {
+                outputStream.close();
+            }
+        } finally {
+            inputStream.close();
+        }
+        if (!complete) {
+            // The file got shorter while it was copied, so copy whatever it contains now
+            super.copyFile(target);
+        }
+    }
+
+    static boolean transfer(FileChannel source, FileChannel destination) throws IOException {
+        long size = source.size();
+        long position = 0;
+        while (position < size) {
+            long transferred = source.transferTo(position, size - position, destination);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+        }
+        return position == size;
+    }
+
     public RelativePath getRelativePath() {
         return relativePath;
     }
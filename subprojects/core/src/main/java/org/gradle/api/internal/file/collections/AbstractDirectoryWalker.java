@@ -23,8 +23,11 @@ import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.DefaultFileVisitDetails;
 import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.util.internal.CompiledPatternSetSpec;
+import org.gradle.api.tasks.util.internal.CompiledPatternSetSpec.DirectoryMatcher;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
@@ -39,6 +42,14 @@ public abstract class AbstractDirectoryWalker implements DirectoryWalker {
 
     @Override
     public void walkDir(File file, RelativePath path, FileVisitor visitor, Spec<? super FileTreeElement> spec, AtomicBoolean stopFlag, boolean postfix) {
+        DirectoryMatcher matcher = spec instanceof CompiledPatternSetSpec ? ((CompiledPatternSetSpec) spec).getDirectoryMatcher(path) : null;
+        walkDir(file, path, visitor, spec, matcher, stopFlag, postfix);
+    }
+
+    /**
+     * @param matcher matches the children of the directory by name, or null when the spec needs to be evaluated for each child.
+     */
+    private void walkDir(File file, RelativePath path, FileVisitor visitor, Spec<? super FileTreeElement> spec, @Nullable DirectoryMatcher matcher, AtomicBoolean stopFlag, boolean postfix) {
         File[] children = getChildren(file);
         if (children == null) {
             if (file.isDirectory() && !file.canRead()) {
@@ -48,16 +59,34 @@ public abstract class AbstractDirectoryWalker implements DirectoryWalker {
             throw new GradleException(String.format("Could not list contents of '%s'.", file));
         }
         List<FileVisitDetails> dirs = new ArrayList<FileVisitDetails>();
+        List<DirectoryMatcher> dirMatchers = matcher == null ? null : new ArrayList<DirectoryMatcher>();
         for (int i = 0; !stopFlag.get() && i < children.length; i++) {
             File child = children[i];
             boolean isFile = child.isFile();
+            DirectoryMatcher childMatcher = null;
+            if (matcher != null) {
+                // Match by name first, so that no details are created for excluded children
+                if (isFile) {
+                    if (!matcher.isFileIncluded(child.getName())) {
+                        continue;
+                    }
+                } else {
+                    childMatcher = matcher.getSubdirectoryMatcher(child.getName());
+                    if (childMatcher == null) {
+                        continue;
+                    }
+                }
+            }
             RelativePath childPath = path.append(isFile, child.getName());
             FileVisitDetails details = new DefaultFileVisitDetails(child, childPath, stopFlag, fileSystem, fileSystem, !isFile);
-            if (DirectoryFileTree.isAllowed(details, spec)) {
+            if (matcher != null || DirectoryFileTree.isAllowed(details, spec)) {
                 if (isFile) {
                     visitor.visitFile(details);
                 } else {
                     dirs.add(details);
+                    if (dirMatchers != null) {
+                        dirMatchers.add(childMatcher);
+                    }
                 }
             }
         }
@@ -65,12 +94,13 @@ public abstract class AbstractDirectoryWalker implements DirectoryWalker {
         // now handle dirs
         for (int i = 0; !stopFlag.get() && i < dirs.size(); i++) {
             FileVisitDetails dir = dirs.get(i);
+            DirectoryMatcher dirMatcher = dirMatchers == null ? null : dirMatchers.get(i);
             if (postfix) {
-                walkDir(dir.getFile(), dir.getRelativePath(), visitor, spec, stopFlag, postfix);
+                walkDir(dir.getFile(), dir.getRelativePath(), visitor, spec, dirMatcher, stopFlag, postfix);
                 visitor.visitDir(dir);
             } else {
                 visitor.visitDir(dir);
-                walkDir(dir.getFile(), dir.getRelativePath(), visitor, spec, stopFlag, postfix);
+                walkDir(dir.getFile(), dir.getRelativePath(), visitor, spec, dirMatcher, stopFlag, postfix);
             }
         }
     }
@@ -25,8 +25,11 @@ import org.gradle.api.internal.file.DefaultFileVisitDetails;
 import org.gradle.api.internal.file.UnauthorizedFileVisitDetails;
 import org.gradle.api.internal.file.collections.DirectoryWalker;
 import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.util.internal.CompiledPatternSetSpec;
+import org.gradle.api.tasks.util.internal.CompiledPatternSetSpec.DirectoryMatcher;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.FileSystemLoopException;
@@ -54,13 +57,27 @@ public class Jdk7DirectoryWalker implements DirectoryWalker {
     @Override
     public void walkDir(final File rootDir, final RelativePath rootPath, final FileVisitor visitor, final Spec<? super FileTreeElement> spec, final AtomicBoolean stopFlag, final boolean postfix) {
         final Deque<FileVisitDetails> directoryDetailsHolder = new LinkedList<FileVisitDetails>();
+        // Matches the children of each directory in directoryDetailsHolder by name, when the spec allows this
+        final Deque<DirectoryMatcher> directoryMatcherHolder = spec instanceof CompiledPatternSetSpec ? new LinkedList<DirectoryMatcher>() : null;
 
         try {
             Files.walkFileTree(rootDir.toPath(), EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new java.nio.file.FileVisitor<Path>() {
                 @Override
                 public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    if (directoryMatcherHolder != null) {
+                        DirectoryMatcher matcher;
+                        if (directoryMatcherHolder.isEmpty()) {
+                            matcher = ((CompiledPatternSetSpec) spec).getDirectoryMatcher(rootPath);
+                        } else {
+                            matcher = directoryMatcherHolder.peek().getSubdirectoryMatcher(dir.getFileName().toString());
+                            if (matcher == null) {
+                                return FileVisitResult.SKIP_SUBTREE;
+                            }
+                        }
+                        directoryMatcherHolder.push(matcher);
+                    }
                     FileVisitDetails details = getFileVisitDetails(dir, attrs, true);
-                    if (directoryDetailsHolder.size() == 0 || isAllowed(details, spec)) {
+                    if (directoryDetailsHolder.size() == 0 || directoryMatcherHolder != null || isAllowed(details, spec)) {
                         directoryDetailsHolder.push(details);
                         if (directoryDetailsHolder.size() > 1 && !postfix) {
                             visitor.visitDir(details);
@@ -71,14 +88,25 @@ public class Jdk7DirectoryWalker implements DirectoryWalker {
                     }
                 }
 
+                @Nullable
+                private FileVisitDetails getAllowedFileVisitDetails(Path file, @Nullable BasicFileAttributes attrs) {
+                    DirectoryMatcher matcher = directoryMatcherHolder == null ? null : directoryMatcherHolder.peek();
+                    if (matcher != null) {
+                        // Match by name first, so that no details are created for excluded files
+                        return matcher.isFileIncluded(file.getFileName().toString()) ? getFileVisitDetails(file, attrs, false) : null;
+                    }
+                    FileVisitDetails details = getFileVisitDetails(file, attrs, false);
+                    return isAllowed(details, spec) ? details : null;
+                }
+
                 private FileVisitResult checkStopFlag() {
                     return stopFlag.get() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
                 }
 
                 @Override
                 public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    FileVisitDetails details = getFileVisitDetails(file, attrs, false);
-                    if (isAllowed(details, spec)) {
+                    FileVisitDetails details = getAllowedFileVisitDetails(file, attrs);
+                    if (details != null) {
                         if (attrs.isSymbolicLink()) {
                             // when FileVisitOption.FOLLOW_LINKS, we only get here when link couldn't be followed
                             throw new GradleException(String.format("Could not list contents of '%s'. Couldn't follow symbolic link.", file));
@@ -99,14 +127,9 @@ public class Jdk7DirectoryWalker implements DirectoryWalker {
                     }
                 }
 
-                private FileVisitDetails getUnauthorizedFileVisitDetails(Path file) {
-                    return getFileVisitDetails(file, null, false);
-                }
-
                 @Override
                 public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
-                    FileVisitDetails details = getUnauthorizedFileVisitDetails(file);
-                    if (isNotFileSystemLoopException(exc) && isAllowed(details, spec)) {
+                    if (isNotFileSystemLoopException(exc) && getAllowedFileVisitDetails(file, null) != null) {
                         throw new GradleException(String.format("Could not read path '%s'.", file), exc);
                     }
                     return checkStopFlag();
@@ -131,6 +154,9 @@ public class Jdk7DirectoryWalker implements DirectoryWalker {
                         }
                     }
                     directoryDetailsHolder.pop();
+                    if (directoryMatcherHolder != null) {
+                        directoryMatcherHolder.pop();
+                    }
                     return checkStopFlag();
                 }
             });
@@ -16,19 +16,39 @@
 package org.gradle.api.internal.file.copy;
 
 import org.gradle.api.tasks.WorkResult;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 import org.gradle.internal.reflect.Instantiator;
 
+import javax.annotation.Nullable;
+
 public class CopyActionExecuter {
 
+    /**
+     * Enables copying files on multiple threads for copy tasks which copy into a destination directory.
+     */
+    public static final String PARALLEL_COPY_SYSPROP = "org.gradle.internal.copy.parallel";
+
     private final Instantiator instantiator;
     private final FileSystem fileSystem;
     private final boolean reproducibleFileOrder;
+    private final ExecutorFactory executorFactory;
+    private final int maxParallelCopies;
 
     public CopyActionExecuter(Instantiator instantiator, FileSystem fileSystem, boolean reproducibleFileOrder) {
+        this(instantiator, fileSystem, reproducibleFileOrder, null, 1);
+    }
+
+    /**
+     * @param executorFactory creates the threads to copy files on, when {@code maxParallelCopies} is greater than one.
+     * @param maxParallelCopies the maximum number of files to copy at the same time.
+     */
+    public CopyActionExecuter(Instantiator instantiator, FileSystem fileSystem, boolean reproducibleFileOrder, @Nullable ExecutorFactory executorFactory, int maxParallelCopies) {
         this.instantiator = instantiator;
         this.fileSystem = fileSystem;
         this.reproducibleFileOrder = reproducibleFileOrder;
+        this.executorFactory = executorFactory;
+        this.maxParallelCopies = maxParallelCopies;
     }
 
     public WorkResult execute(final CopySpecInternal spec, CopyAction action) {
@@ -36,8 +56,16 @@ public class CopyActionExecuter {
                 new NormalizingCopyActionDecorator(action, fileSystem)
         );
 
-        CopyActionProcessingStream processingStream = new CopySpecBackedCopyActionProcessingStream(spec, instantiator, fileSystem, reproducibleFileOrder);
+        CopyActionProcessingStream processingStream = createProcessingStream(spec);
         return effectiveVisitor.execute(processingStream);
     }
 
+    protected CopyActionProcessingStream createProcessingStream(CopySpecInternal spec) {
+        CopyActionProcessingStream processingStream = new CopySpecBackedCopyActionProcessingStream(spec, instantiator, fileSystem, reproducibleFileOrder);
+        if (maxParallelCopies > 1 && CopySpecSourceRoots.of(spec) != null) {
+            return new ParallelCopyActionProcessingStream(processingStream, executorFactory, maxParallelCopies);
+        }
+        return processingStream;
+    }
+
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.copy;
+
+import org.gradle.api.Action;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.FileCollectionInternal;
+import org.gradle.api.internal.file.FileCollectionVisitor;
+import org.gradle.api.internal.file.FileTreeInternal;
+import org.gradle.api.internal.file.collections.DirectoryFileTree;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The source directories of a copy spec whose source files are copied without any copy actions (filters, expansions, renames, ...).
+ * For such a spec, the target of every source file can be derived from the source file alone, and the source files are local files
+ * which remain readable after the source trees have been visited.
+ */
+class CopySpecSourceRoots {
+    private final List<SourceRoot> sourceRoots;
+
+    private CopySpecSourceRoots(List<SourceRoot> sourceRoots) {
+        this.sourceRoots = sourceRoots;
+    }
+
+    /**
+     * Returns the source roots of the given spec, or null when the spec has copy actions or sources which are not directory trees.
+     */
+    @Nullable
+    static CopySpecSourceRoots of(CopySpecInternal spec) {
+        final List<SourceRoot> sourceRoots = new ArrayList<SourceRoot>();
+        final boolean[] supported = {true};
+        spec.walk(new Action<CopySpecResolver>() {
+            @Override
+            public void execute(final CopySpecResolver resolver) {
+                if (!resolver.getAllCopyActions().isEmpty()) {
+                    supported[0] = false;
+                    return;
+                }
+                ((FileCollectionInternal) resolver.getSource()).visitRootElements(new FileCollectionVisitor() {
+                    @Override
+                    public void visitCollection(FileCollectionInternal fileCollection) {
+                        supported[0] = false;
+                    }
+
+                    @Override
+                    public void visitTree(FileTreeInternal fileTree) {
+                        supported[0] = false;
+                    }
+
+                    @Override
+                    public void visitDirectoryTree(DirectoryFileTree directoryTree) {
+                        sourceRoots.add(new SourceRoot(directoryTree.getDir(), resolver.getDestPath()));
+                    }
+                });
+            }
+        });
+        return supported[0] ? new CopySpecSourceRoots(sourceRoots) : null;
+    }
+
+    /**
+     * Returns the paths of the targets the given source file is copied to, whether it still exists or not.
+     */
+    List<RelativePath> getTargetPaths(File sourceFile) {
+        List<RelativePath> targetPaths = new ArrayList<RelativePath>(1);
+        for (SourceRoot sourceRoot : sourceRoots) {
+            RelativePath targetPath = sourceRoot.getTargetPath(sourceFile);
+            if (targetPath != null) {
+                targetPaths.add(targetPath);
+            }
+        }
+        return targetPaths;
+    }
+
+    private static class SourceRoot {
+        private final String prefix;
+        private final RelativePath destPath;
+
+        SourceRoot(File dir, RelativePath destPath) {
+            this.prefix = dir.getAbsolutePath() + File.separator;
+            this.destPath = destPath;
+        }
+
+        @Nullable
+        RelativePath getTargetPath(File sourceFile) {
+            String path = sourceFile.getAbsolutePath();
+            if (!path.startsWith(prefix)) {
+                return null;
+            }
+            return destPath.append(RelativePath.parse(true, path.substring(prefix.length())));
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.copy;
+
+import groovy.lang.Closure;
+import org.gradle.api.Transformer;
+import org.gradle.api.file.ContentFilterable;
+import org.gradle.api.file.DuplicatesStrategy;
+import org.gradle.api.file.RelativePath;
+
+import java.io.File;
+import java.io.FilterReader;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * A {@link FileCopyDetailsInternal} which forwards all methods to another instance.
+ */
+public abstract class DelegatingFileCopyDetails implements FileCopyDetailsInternal {
+    private final FileCopyDetailsInternal delegate;
+
+    protected DelegatingFileCopyDetails(FileCopyDetailsInternal delegate) {
+        this.delegate = delegate;
+    }
+
+    protected FileCopyDetailsInternal getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public boolean copyTo(File target) {
+        return delegate.copyTo(target);
+    }
+
+    @Override
+    public boolean isIncludeEmptyDirs() {
+        return delegate.isIncludeEmptyDirs();
+    }
+
+    @Override
+    public void exclude() {
+        delegate.exclude();
+    }
+
+    @Override
+    public void setName(String name) {
+        delegate.setName(name);
+    }
+
+    @Override
+    public void setPath(String path) {
+        delegate.setPath(path);
+    }
+
+    @Override
+    public RelativePath getRelativePath() {
+        return delegate.getRelativePath();
+    }
+
+    @Override
+    public void setRelativePath(RelativePath path) {
+        delegate.setRelativePath(path);
+    }
+
+    @Override
+    public void setMode(int mode) {
+        delegate.setMode(mode);
+    }
+
+    @Override
+    public void setDuplicatesStrategy(DuplicatesStrategy strategy) {
+        delegate.setDuplicatesStrategy(strategy);
+    }
+
+    @Override
+    public DuplicatesStrategy getDuplicatesStrategy() {
+        return delegate.getDuplicatesStrategy();
+    }
+
+    @Override
+    public String getSourceName() {
+        return delegate.getSourceName();
+    }
+
+    @Override
+    public String getSourcePath() {
+        return delegate.getSourcePath();
+    }
+
+    @Override
+    public RelativePath getRelativeSourcePath() {
+        return delegate.getRelativeSourcePath();
+    }
+
+    @Override
+    public File getFile() {
+        return delegate.getFile();
+    }
+
+    @Override
+    public boolean isDirectory() {
+        return delegate.isDirectory();
+    }
+
+    @Override
+    public long getLastModified() {
+        return delegate.getLastModified();
+    }
+
+    @Override
+    public long getSize() {
+        return delegate.getSize();
+    }
+
+    @Override
+    public InputStream open() {
+        return delegate.open();
+    }
+
+    @Override
+    public void copyTo(OutputStream output) {
+        delegate.copyTo(output);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public String getPath() {
+        return delegate.getPath();
+    }
+
+    @Override
+    public int getMode() {
+        return delegate.getMode();
+    }
+
+    @Override
+    public ContentFilterable filter(Map<String, ?> properties, Class<? extends FilterReader> filterType) {
+        return delegate.filter(properties, filterType);
+    }
+
+    @Override
+    public ContentFilterable filter(Class<? extends FilterReader> filterType) {
+        return delegate.filter(filterType);
+    }
+
+    @Override
+    public ContentFilterable filter(Closure closure) {
+        return delegate.filter(closure);
+    }
+
+    @Override
+    public ContentFilterable filter(Transformer<String, String> transformer) {
+        return delegate.filter(transformer);
+    }
+
+    @Override
+    public ContentFilterable expand(Map<String, ?> properties) {
+        return delegate.expand(properties);
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
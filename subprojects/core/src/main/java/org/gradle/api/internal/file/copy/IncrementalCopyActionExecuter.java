@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.copy;
+
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.WorkResults;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.file.PathToFileResolver;
+import org.gradle.internal.nativeintegration.filesystem.FileSystem;
+import org.gradle.internal.reflect.Instantiator;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A {@link CopyActionExecuter} which only copies the source files that are out of date, and optionally removes the targets of source files that have been removed.
+ *
+ * <p>Only usable for copy specs without copy actions (filters, expansions, renames, ...) whose sources are all directory trees, see {@link #canCopyIncrementally(CopySpecInternal)}.
+ * Changes to the copy actions themselves are detected by the task history, which forces a full copy.</p>
+ */
+public class IncrementalCopyActionExecuter extends CopyActionExecuter {
+
+    private final Set<File> outOfDateFiles;
+    private final Set<File> removedFiles;
+    private final PathToFileResolver staleTargetResolver;
+    private final Set<RelativePath> visitedPaths = new HashSet<RelativePath>();
+
+    /**
+     * @param staleTargetResolver resolves the targets of removed source files, or null when the copy action takes care of stale targets itself.
+     */
+    public IncrementalCopyActionExecuter(Instantiator instantiator, FileSystem fileSystem, @Nullable ExecutorFactory executorFactory, int maxParallelCopies,
+                                         Set<File> outOfDateFiles, Set<File> removedFiles, @Nullable PathToFileResolver staleTargetResolver) {
+        super(instantiator, fileSystem, false, executorFactory, maxParallelCopies);
+        this.outOfDateFiles = outOfDateFiles;
+        this.removedFiles = removedFiles;
+        this.staleTargetResolver = staleTargetResolver;
+    }
+
+    /**
+     * Returns true when the target of every source file of the given spec can be derived from the source file alone.
+     */
+    public static boolean canCopyIncrementally(CopySpecInternal spec) {
+        return CopySpecSourceRoots.of(spec) != null;
+    }
+
+    @Override
+    public WorkResult execute(CopySpecInternal spec, CopyAction action) {
+        WorkResult didWork = super.execute(spec, action);
+        boolean deletedStaleTargets = false;
+        if (staleTargetResolver != null && !removedFiles.isEmpty()) {
+            deletedStaleTargets = deleteStaleTargets(CopySpecSourceRoots.of(spec));
+        }
+        visitedPaths.clear();
+        return WorkResults.didWork(didWork.getDidWork() || deletedStaleTargets);
+    }
+
+    @Override
+    protected CopyActionProcessingStream createProcessingStream(CopySpecInternal spec) {
+        final CopyActionProcessingStream stream = super.createProcessingStream(spec);
+        return new CopyActionProcessingStream() {
+            public void process(final CopyActionProcessingStreamAction action) {
+                stream.process(new CopyActionProcessingStreamAction() {
+                    public void processFile(FileCopyDetailsInternal details) {
+                        // A target written by more than one source needs to be written again, so the last write still wins
+                        boolean duplicate = !visitedPaths.add(details.getRelativePath());
+                        if (details.isDirectory() || duplicate || outOfDateFiles.contains(details.getFile())) {
+                            action.processFile(details);
+                        } else {
+                            action.processFile(new UnchangedFileCopyDetails(details));
+                        }
+                    }
+                });
+            }
+        };
+    }
+
+    private boolean deleteStaleTargets(CopySpecSourceRoots sourceRoots) {
+        List<File> staleTargets = new ArrayList<File>();
+        for (File removedFile : removedFiles) {
+            for (RelativePath targetPath : sourceRoots.getTargetPaths(removedFile)) {
+                if (!isVisited(targetPath)) {
+                    staleTargets.add(staleTargetResolver.resolve(targetPath.getPathString()));
+                }
+            }
+        }
+
+        // Delete the contents of a directory before the directory itself
+        Collections.sort(staleTargets, new Comparator<File>() {
+            @Override
+            public int compare(File o1, File o2) {
+                return o2.getPath().compareTo(o1.getPath());
+            }
+        });
+        boolean didWork = false;
+        for (File staleTarget : staleTargets) {
+            if (staleTarget.isDirectory()) {
+                String[] children = staleTarget.list();
+                if (children != null && children.length > 0) {
+                    continue;
+                }
+            }
+            if (staleTarget.delete()) {
+                didWork = true;
+            }
+        }
+        return didWork;
+    }
+
+    private boolean isVisited(RelativePath targetPath) {
+        // A removed file can no longer tell whether it was a file or a directory
+        return visitedPaths.contains(targetPath) || visitedPaths.contains(new RelativePath(false, targetPath.getSegments()));
+    }
+
+    /**
+     * Details of an unchanged source file, whose target is already up-to-date.
+     */
+    private static class UnchangedFileCopyDetails extends DelegatingFileCopyDetails {
+        UnchangedFileCopyDetails(FileCopyDetailsInternal delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public boolean copyTo(File target) {
+            // The target is tracked as an output of the task, so any change to it would have caused a full copy
+            return false;
+        }
+    }
+}
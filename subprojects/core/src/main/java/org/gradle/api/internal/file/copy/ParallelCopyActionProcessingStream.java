@@ -0,0 +1,172 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.copy;
+
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * A {@link CopyActionProcessingStream} which copies files on a bounded pool of threads while the source trees are still being visited.
+ *
+ * <p>Only the copying of file contents happens on the pool, everything else still happens on the visiting thread, in visiting order.
+ * Copies to the same target happen in visiting order, so the last source still wins. When copies fail, the failure of the first file in
+ * visiting order is rethrown, after all pending copies have finished.</p>
+ *
+ * <p>Only usable for sources which can be read after they have been visited, see {@link CopySpecSourceRoots}.</p>
+ */
+public class ParallelCopyActionProcessingStream implements CopyActionProcessingStream {
+    private final CopyActionProcessingStream delegate;
+    private final ExecutorFactory executorFactory;
+    private final int parallelism;
+
+    public ParallelCopyActionProcessingStream(CopyActionProcessingStream delegate, ExecutorFactory executorFactory, int parallelism) {
+        this.delegate = delegate;
+        this.executorFactory = executorFactory;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public void process(final CopyActionProcessingStreamAction action) {
+        ManagedExecutor executor = executorFactory.create("Copy files", parallelism);
+        final PendingCopies pendingCopies = new PendingCopies(executor, parallelism * 4);
+        try {
+            delegate.process(new CopyActionProcessingStreamAction() {
+                public void processFile(FileCopyDetailsInternal details) {
+                    if (details.isDirectory()) {
+                        action.processFile(details);
+                    } else {
+                        action.processFile(new ParallelFileCopyDetails(details, pendingCopies));
+                    }
+                }
+            });
+            pendingCopies.awaitAll();
+        } finally {
+            pendingCopies.awaitCompletion();
+            executor.stop();
+        }
+    }
+
+    private static class ParallelFileCopyDetails extends DelegatingFileCopyDetails {
+        private final PendingCopies pendingCopies;
+
+        ParallelFileCopyDetails(FileCopyDetailsInternal delegate, PendingCopies pendingCopies) {
+            super(delegate);
+            this.pendingCopies = pendingCopies;
+        }
+
+        @Override
+        public boolean copyTo(final File target) {
+            pendingCopies.submit(target, new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return getDelegate().copyTo(target);
+                }
+            });
+            // Copying a file always does work, failures are reported when the stream has been processed
+            return true;
+        }
+    }
+
+    /**
+     * The copies which have been submitted and not yet been checked for failures, in visiting order.
+     */
+    private static class PendingCopies {
+        private final ManagedExecutor executor;
+        private final int maxPending;
+        private final Deque<PendingCopy> pending = new ArrayDeque<PendingCopy>();
+        private final Map<File, PendingCopy> pendingByTarget = new HashMap<File, PendingCopy>();
+
+        PendingCopies(ManagedExecutor executor, int maxPending) {
+            this.executor = executor;
+            this.maxPending = maxPending;
+        }
+
+        void submit(File target, Callable<Boolean> copy) {
+            PendingCopy previousCopyToTarget = pendingByTarget.get(target);
+            if (previousCopyToTarget != null) {
+                awaitUntil(previousCopyToTarget);
+            }
+            while (pending.size() >= maxPending) {
+                awaitOldest();
+            }
+            PendingCopy pendingCopy = new PendingCopy(target, executor.submit(copy));
+            pending.addLast(pendingCopy);
+            pendingByTarget.put(target, pendingCopy);
+        }
+
+        void awaitAll() {
+            while (!pending.isEmpty()) {
+                awaitOldest();
+            }
+        }
+
+        /**
+         * Waits for all pending copies to finish, ignoring their failures.
+         */
+        void awaitCompletion() {
+            for (PendingCopy pendingCopy : pending) {
+                try {
+                    pendingCopy.result.get();
+                } catch (Exception e) {
+                    // Already failing
+                }
+            }
+            pending.clear();
+            pendingByTarget.clear();
+        }
+
+        private void awaitUntil(PendingCopy pendingCopy) {
+            while (pendingByTarget.get(pendingCopy.target) == pendingCopy) {
+                awaitOldest();
+            }
+        }
+
+        private void awaitOldest() {
+            PendingCopy oldest = pending.removeFirst();
+            if (pendingByTarget.get(oldest.target) == oldest) {
+                pendingByTarget.remove(oldest.target);
+            }
+            try {
+                oldest.result.get();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } catch (ExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            }
+        }
+    }
+
+    private static class PendingCopy {
+        private final File target;
+        private final Future<Boolean> result;
+
+        PendingCopy(File target, Future<Boolean> result) {
+            this.target = target;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.delete;
+
+import org.gradle.api.Action;
+import org.gradle.api.file.DeleteSpec;
+import org.gradle.api.internal.file.FileResolver;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.nativeintegration.filesystem.FileSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Deletes directories in the background, after moving them into a trash directory.
+ *
+ * <p>Moving a directory is a single rename when the trash directory is on the same file system, so the directory is gone as far as the build
+ * is concerned, while deleting its contents continues for as long as the process lives. Stopping this service waits for pending deletions.
+ * Whatever a previous process left in a trash directory is deleted when the trash directory is first used.</p>
+ */
+public class BackgroundDeleter implements Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackgroundDeleter.class);
+
+    private final Deleter deleter;
+    private final ManagedExecutor executor;
+    private final Set<File> usedTrashDirs = new HashSet<File>();
+
+    public BackgroundDeleter(FileResolver fileResolver, FileSystem fileSystem, ExecutorFactory executorFactory) {
+        this.deleter = new Deleter(fileResolver, fileSystem);
+        this.executor = executorFactory.create("Delete files in background");
+    }
+
+    /**
+     * Moves the given directory into the given trash directory, and deletes it in the background.
+     *
+     * @return false when the directory could not be moved, for example because the trash directory is on another file system.
+     */
+    public boolean moveToTrash(File dir, File trashDir, boolean followSymlinks) {
+        boolean firstUse;
+        synchronized (usedTrashDirs) {
+            firstUse = usedTrashDirs.add(trashDir);
+        }
+        if (firstUse) {
+            File[] leftovers = trashDir.listFiles();
+            if (leftovers != null) {
+                for (File leftover : leftovers) {
+                    deleteInBackground(leftover, false);
+                }
+            }
+        }
+
+        // Another build may create the trash directory at the same time
+        if (!trashDir.mkdirs() && !trashDir.isDirectory()) {
+            return false;
+        }
+        File trashEntry = new File(trashDir, UUID.randomUUID().toString());
+        if (!dir.renameTo(trashEntry)) {
+            return false;
+        }
+        LOGGER.debug("Moved {} to {}", dir, trashEntry);
+        deleteInBackground(trashEntry, followSymlinks);
+        return true;
+    }
+
+    private void deleteInBackground(final File trashEntry, final boolean followSymlinks) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    deleter.delete(new Action<DeleteSpec>() {
+                        @Override
+                        public void execute(DeleteSpec deleteSpec) {
+                            deleteSpec.delete(trashEntry).setFollowSymlinks(followSymlinks);
+                        }
+                    });
+                } catch (Exception e) {
+                    // Deleting is attempted again when the trash directory is next used by a new process
+                    LOGGER.info("Could not delete {} in the background.", trashEntry, e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void stop() {
+        executor.stop();
+    }
+}
@@ -21,25 +21,56 @@ import org.gradle.api.file.UnableToDeleteFileException;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.WorkResults;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 import org.gradle.internal.os.OperatingSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
 
 public class Deleter {
     private static final Logger LOGGER = LoggerFactory.getLogger(Deleter.class);
 
+    /**
+     * When true, the {@link org.gradle.api.tasks.Delete} task deletes directory trees on up to {@code --max-workers} threads.
+     */
+    public static final String PARALLEL_DELETE_SYSPROP = "org.gradle.internal.delete.parallel";
+
+    /**
+     * When true, the {@link org.gradle.api.tasks.Delete} task moves directories out of the way and deletes them in the background.
+     */
+    public static final String BACKGROUND_DELETE_SYSPROP = "org.gradle.internal.delete.background";
+
     private FileResolver fileResolver;
     private FileSystem fileSystem;
+    private final ExecutorFactory executorFactory;
+    private final int maxParallelDeletes;
+    private final BackgroundDeleter backgroundDeleter;
+    private final File trashDir;
 
     private static final int DELETE_RETRY_SLEEP_MILLIS = 10;
+    private static final int DELETE_RETRY_ATTEMPTS = 3;
 
 
     public Deleter(FileResolver fileResolver, FileSystem fileSystem) {
+        this(fileResolver, fileSystem, null, 1, null, null);
+    }
+
+    /**
+     * @param executorFactory creates the threads to delete directory trees on, or null when {@code maxParallelDeletes} is 1.
+     * @param backgroundDeleter deletes directories in the background once they have been moved into {@code trashDir}, or null to delete them immediately.
+     */
+    public Deleter(FileResolver fileResolver, FileSystem fileSystem, @Nullable ExecutorFactory executorFactory, int maxParallelDeletes,
+                   @Nullable BackgroundDeleter backgroundDeleter, @Nullable File trashDir) {
         this.fileResolver = fileResolver;
         this.fileSystem = fileSystem;
+        this.executorFactory = executorFactory;
+        this.maxParallelDeletes = maxParallelDeletes;
+        this.backgroundDeleter = backgroundDeleter;
+        this.trashDir = trashDir;
     }
 
     public boolean delete(Object... paths) {
@@ -57,19 +88,38 @@ public class Deleter {
         DeleteSpecInternal deleteSpec = new DefaultDeleteSpec();
         action.execute(deleteSpec);
         Object[] paths = deleteSpec.getPaths();
-        for (File file : fileResolver.resolveFiles(paths)) {
-            if (!file.exists()) {
-                continue;
+        ManagedExecutor executor = null;
+        try {
+            for (File file : fileResolver.resolveFiles(paths)) {
+                if (!file.exists()) {
+                    continue;
+                }
+                LOGGER.debug("Deleting {}", file);
+                didWork = true;
+                if (isDirectoryToWalk(file, deleteSpec.isFollowSymlinks())) {
+                    if (backgroundDeleter != null && backgroundDeleter.moveToTrash(file, trashDir, deleteSpec.isFollowSymlinks())) {
+                        continue;
+                    }
+                    if (maxParallelDeletes > 1) {
+                        if (executor == null) {
+                            executor = executorFactory.create("Delete files", maxParallelDeletes);
+                        }
+                        new ParallelDeleter(this, executor, maxParallelDeletes * 4, deleteSpec.isFollowSymlinks()).delete(file);
+                        continue;
+                    }
+                }
+                doDeleteInternal(file, deleteSpec);
+            }
+        } finally {
+            if (executor != null) {
+                executor.stop();
             }
-            LOGGER.debug("Deleting {}", file);
-            didWork = true;
-            doDeleteInternal(file, deleteSpec);
         }
         return WorkResults.didWork(didWork);
     }
 
     private void doDeleteInternal(File file, DeleteSpecInternal deleteSpec) {
-        if (file.isDirectory() && (deleteSpec.isFollowSymlinks() || !fileSystem.isSymlink(file))) {
+        if (isDirectoryToWalk(file, deleteSpec.isFollowSymlinks())) {
             File[] contents = file.listFiles();
 
             // Something else may have removed it
@@ -82,6 +132,17 @@ public class Deleter {
             }
         }
 
+        deleteFile(file);
+    }
+
+    boolean isDirectoryToWalk(File file, boolean followSymlinks) {
+        return file.isDirectory() && (followSymlinks || !fileSystem.isSymlink(file));
+    }
+
+    /**
+     * Deletes the given file or empty directory, unless something else has removed it already.
+     */
+    void deleteFile(File file) {
         if (!file.delete() && file.exists()) {
             handleFailedDelete(file);
         }
@@ -96,17 +157,21 @@ public class Deleter {
         // It mentions that there is a bug in the Windows JDK impls that this is a valid
         // workaround for. I've been unable to find a definitive reference to this bug.
         // The thinking is that if this is good enough for Ant, it's good enough for us.
-        if (isRunGcOnFailedDelete()) {
-            System.gc();
-        }
-        try {
-            Thread.sleep(DELETE_RETRY_SLEEP_MILLIS);
-        } catch (InterruptedException ex) {
-            // Ignore Exception
-        }
+        // Network file systems can also fail to delete a file for a short while, so retry a few times with a growing delay.
+        for (int attempt = 1; attempt <= DELETE_RETRY_ATTEMPTS; attempt++) {
+            if (isRunGcOnFailedDelete()) {
+                System.gc();
+            }
+            try {
+                Thread.sleep(DELETE_RETRY_SLEEP_MILLIS * attempt);
+            } catch (InterruptedException ex) {
+                // Ignore Exception
+            }
 
-        if (!file.delete() && file.exists()) {
-            throw new UnableToDeleteFileException(file);
+            if (file.delete() || !file.exists()) {
+                return;
+            }
         }
+        throw new UnableToDeleteFileException(file);
     }
 }
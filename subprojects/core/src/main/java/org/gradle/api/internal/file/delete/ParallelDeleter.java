@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.delete;
+
+import org.gradle.internal.UncheckedException;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Deletes a directory tree on a pool of threads.
+ *
+ * <p>Each directory is listed by a single job, which deletes the files in the directory and submits a job for each subdirectory.
+ * A directory is deleted as soon as all of its subdirectories have been deleted. When too many jobs are queued, the listing job deletes
+ * the subdirectory itself instead, which bounds the queue without ever blocking a thread of the pool.</p>
+ *
+ * <p>When deleting fails, no further directories are listed and the first failure is rethrown once all running jobs have finished.</p>
+ */
+class ParallelDeleter {
+    private final Deleter deleter;
+    private final Executor executor;
+    private final int maxQueuedDirectories;
+    private final boolean followSymlinks;
+    private final AtomicInteger queuedDirectories = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+    ParallelDeleter(Deleter deleter, Executor executor, int maxQueuedDirectories, boolean followSymlinks) {
+        this.deleter = deleter;
+        this.executor = executor;
+        this.maxQueuedDirectories = maxQueuedDirectories;
+        this.followSymlinks = followSymlinks;
+    }
+
+    public void delete(File dir) {
+        CountDownLatch deleted = new CountDownLatch(1);
+        deleteDirectory(new Directory(dir, null, deleted));
+        try {
+            deleted.await();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw UncheckedException.throwAsUncheckedException(cause);
+        }
+    }
+
+    private void deleteDirectory(Directory directory) {
+        try {
+            File[] contents = failure.get() == null ? directory.dir.listFiles() : null;
+
+            // Something else may have removed it
+            if (contents != null) {
+                for (File item : contents) {
+                    if (deleter.isDirectoryToWalk(item, followSymlinks)) {
+                        directory.pending.incrementAndGet();
+                        submit(new Directory(item, directory, null));
+                    } else {
+                        deleter.deleteFile(item);
+                    }
+                }
+            }
+        } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+        }
+        completed(directory);
+    }
+
+    private void submit(final Directory directory) {
+        if (queuedDirectories.incrementAndGet() > maxQueuedDirectories) {
+            queuedDirectories.decrementAndGet();
+            deleteDirectory(directory);
+            return;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    queuedDirectories.decrementAndGet();
+                    deleteDirectory(directory);
+                }
+            });
+        } catch (Throwable t) {
+            queuedDirectories.decrementAndGet();
+            failure.compareAndSet(null, t);
+            completed(directory);
+        }
+    }
+
+    private void completed(Directory directory) {
+        while (directory != null && directory.pending.decrementAndGet() == 0) {
+            if (failure.get() == null) {
+                try {
+                    deleter.deleteFile(directory.dir);
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }
+            if (directory.deleted != null) {
+                directory.deleted.countDown();
+            }
+            directory = directory.parent;
+        }
+    }
+
+    private static class Directory {
+        final File dir;
+        final Directory parent;
+        final CountDownLatch deleted;
+        // One for listing the directory, plus one for each subdirectory that has not been deleted yet
+        final AtomicInteger pending = new AtomicInteger(1);
+
+        Directory(File dir, Directory parent, CountDownLatch deleted) {
+            this.dir = dir;
+            this.parent = parent;
+            this.deleted = deleted;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.initialization.loadercache;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.initialization.InternalFlags;
+import org.gradle.internal.classloader.JarIndex;
+import org.gradle.internal.classloader.JarIndexStore;
+import org.gradle.internal.hash.HashCode;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Stores the index of each class path in a file named after the hash of the class path, in a cache in the Gradle user home directory.
+ *
+ * <p>Index files are written to a temporary file first and then renamed, so that concurrent builds never see a partially written index.
+ * A missing, unreadable or out of date index is ignored, and the class path is indexed again.</p>
+ */
+public class DefaultJarIndexStore implements JarIndexStore, Closeable {
+    public static final String INDEXED_CLASS_LOADERS_SYSPROP = "org.gradle.internal.classloader.indexed";
+    private static final Logger LOGGER = Logging.getLogger(DefaultJarIndexStore.class);
+
+    private final CacheRepository cacheRepository;
+    private PersistentCache cache;
+
+    public DefaultJarIndexStore(CacheRepository cacheRepository) {
+        this.cacheRepository = cacheRepository;
+    }
+
+    public static boolean isEnabled() {
+        return InternalFlags.isEnabled(INDEXED_CLASS_LOADERS_SYSPROP);
+    }
+
+    @Override
+    public JarIndex load(HashCode classPathHash, List<File> classPath) {
+        File indexFile = indexFile(classPathHash);
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        try {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+            try {
+                return JarIndex.read(input, classPath);
+            } finally {
+                input.close();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not read class path index {}.", indexFile, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void store(HashCode classPathHash, JarIndex index) {
+        File indexFile = indexFile(classPathHash);
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile(indexFile.getName(), ".tmp", indexFile.getParentFile());
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            try {
+                index.write(output);
+            } finally {
+                output.close();
+            }
+            if (tempFile.renameTo(indexFile)) {
+                tempFile = null;
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not write class path index {}.", indexFile, e);
+        } finally {
+            if (tempFile != null) {
+                // Either the write failed or another process has written the index in the meantime
+                tempFile.delete();
+            }
+        }
+    }
+
+    private File indexFile(HashCode classPathHash) {
+        return new File(getCache().getBaseDir(), classPathHash.toString() + ".bin");
+    }
+
+    private synchronized PersistentCache getCache() {
+        if (cache == null) {
+            cache = cacheRepository
+                .cache("classloader-indexes")
+                .withDisplayName("class loader indexes")
+                .withLockOptions(mode(FileLockManager.LockMode.None))
+                .open();
+        }
+        return cache;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (cache != null) {
+            cache.close();
+            cache = null;
+        }
+    }
+}
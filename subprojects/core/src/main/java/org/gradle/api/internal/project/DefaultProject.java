@@ -729,11 +729,17 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
     }
 
     private Project evaluationDependsOn(DefaultProject projectToEvaluate) {
+        if (projectToEvaluate.getState().isExecutingInCurrentThread()) {
+            throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.",
+                projectToEvaluate));
+        }
+        projectToEvaluate.evaluate();
+        // When projects are evaluated in parallel, the project may be waiting for a project that is being evaluated by this thread
         if (projectToEvaluate.getState().getExecuting()) {
             throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.",
                 projectToEvaluate));
         }
-        return projectToEvaluate.evaluate();
+        return projectToEvaluate;
     }
 
     @Override
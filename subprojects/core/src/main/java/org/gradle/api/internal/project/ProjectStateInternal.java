@@ -20,9 +20,10 @@ import org.gradle.api.ProjectState;
 import org.gradle.internal.UncheckedException;
 
 public class ProjectStateInternal implements ProjectState {
-    private boolean executing;
-    private boolean executed;
-    private Throwable failure;
+    // Projects may be evaluated by different threads, see ParallelProjectEvaluator
+    private volatile Thread executingThread;
+    private volatile boolean executed;
+    private volatile Throwable failure;
 
     public boolean getExecuted() {
         return executed;
@@ -39,11 +40,18 @@ public class ProjectStateInternal implements ProjectState {
     }
 
     public boolean getExecuting() {
-        return executing;
+        return executingThread != null;
+    }
+
+    /**
+     * Returns true when the project is being evaluated by the current thread.
+     */
+    public boolean isExecutingInCurrentThread() {
+        return executingThread == Thread.currentThread();
     }
 
     public void setExecuting(boolean executing) {
-        this.executing = executing;
+        this.executingThread = executing ? Thread.currentThread() : null;
     }
 
     public boolean hasFailure() {
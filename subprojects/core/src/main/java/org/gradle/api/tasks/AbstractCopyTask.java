@@ -16,6 +16,7 @@
 package org.gradle.api.tasks;
 
 import groovy.lang.Closure;
+import org.gradle.StartParameter;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.Task;
@@ -38,12 +39,23 @@ import org.gradle.api.internal.file.copy.CopySpecInternal;
 import org.gradle.api.internal.file.copy.CopySpecResolver;
 import org.gradle.api.internal.file.copy.CopySpecSource;
 import org.gradle.api.internal.file.copy.DefaultCopySpec;
+import org.gradle.api.internal.file.copy.IncrementalCopyActionExecuter;
+import org.gradle.api.internal.tasks.TaskResourceClass;
 import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.api.tasks.incremental.InputFileDetails;
+import org.gradle.initialization.InternalFlags;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.file.PathToFileResolver;
 import org.gradle.internal.nativeplatform.filesystem.FileSystem;
 import org.gradle.internal.reflect.Instantiator;
+import org.gradle.internal.work.ResourceClass;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
+import java.io.File;
 import java.io.FilterReader;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -52,6 +64,7 @@ import java.util.regex.Pattern;
 /**
  * {@code AbstractCopyTask} is the base class for all copy tasks.
  */
+@TaskResourceClass(ResourceClass.IO)
 public abstract class AbstractCopyTask extends ConventionTask implements CopySpec, CopySpecSource {
 
     private final CopySpecInternal rootSpec;
@@ -167,6 +180,11 @@ public abstract class AbstractCopyTask extends ConventionTask implements CopySpe
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected ExecutorFactory getExecutorFactory() {
+        throw new UnsupportedOperationException();
+    }
+
     @TaskAction
     protected void copy() {
         CopyActionExecuter copyActionExecuter = createCopyActionExecuter();
@@ -175,11 +193,79 @@ public abstract class AbstractCopyTask extends ConventionTask implements CopySpe
         setDidWork(didWork.getDidWork());
     }
 
+    /**
+     * Copies only the source files that changed since the last execution, when the task history allows it.
+     * Falls back to {@link #copy()} otherwise, for example when filters, expansions or renames have changed, or when a subclass overrides {@link #copy()}.
+     */
+    void copyIncrementally(IncrementalTaskInputs inputs) {
+        if (!isCopyingIntoDestinationDir() || !inputs.isIncremental() || overridesCopy() || !IncrementalCopyActionExecuter.canCopyIncrementally(rootSpec)) {
+            copy();
+            return;
+        }
+
+        final Set<File> outOfDateFiles = new HashSet<File>();
+        final Set<File> removedFiles = new HashSet<File>();
+        inputs.outOfDate(new Action<InputFileDetails>() {
+            @Override
+            public void execute(InputFileDetails details) {
+                outOfDateFiles.add(details.getFile());
+            }
+        });
+        inputs.removed(new Action<InputFileDetails>() {
+            @Override
+            public void execute(InputFileDetails details) {
+                removedFiles.add(details.getFile());
+            }
+        });
+
+        File staleTargetsDir = getStaleTargetsDir();
+        PathToFileResolver staleTargetResolver = staleTargetsDir == null ? null : getFileLookup().getFileResolver(staleTargetsDir);
+        CopyActionExecuter copyActionExecuter = new IncrementalCopyActionExecuter(getInstantiator(), getFileSystem(), getExecutorFactory(), getMaxParallelCopies(), outOfDateFiles, removedFiles, staleTargetResolver);
+        WorkResult didWork = copyActionExecuter.execute(rootSpec, createCopyAction());
+        setDidWork(didWork.getDidWork());
+    }
+
+    private boolean overridesCopy() {
+        for (Class<?> type = getClass(); type != AbstractCopyTask.class; type = type.getSuperclass()) {
+            try {
+                type.getDeclaredMethod("copy");
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Not overridden by this class
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true when the copy action of this task writes each source file to a file in a destination directory.
+     * Unchanged source files then do not need to be copied again, and source files can be copied in parallel.
+     */
+    boolean isCopyingIntoDestinationDir() {
+        return false;
+    }
+
+    /**
+     * Returns the directory from which the targets of removed source files need to be deleted when copying incrementally, or null when the copy action deletes them itself.
+     */
+    @Nullable
+    File getStaleTargetsDir() {
+        return null;
+    }
+
     protected CopyActionExecuter createCopyActionExecuter() {
         Instantiator instantiator = getInstantiator();
         FileSystem fileSystem = getFileSystem();
 
-        return new CopyActionExecuter(instantiator, fileSystem, false);
+        return new CopyActionExecuter(instantiator, fileSystem, false, getExecutorFactory(), getMaxParallelCopies());
+    }
+
+    private int getMaxParallelCopies() {
+        if (!isCopyingIntoDestinationDir()) {
+            return 1;
+        }
+        StartParameter startParameter = getProject().getGradle().getStartParameter();
+        return InternalFlags.isEnabled(startParameter, CopyActionExecuter.PARALLEL_COPY_SYSPROP) ? startParameter.getMaxWorkerCount() : 1;
     }
 
     /**
@@ -16,12 +16,14 @@
 
 package org.gradle.api.tasks;
 
+import org.gradle.api.Incubating;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.internal.file.copy.CopySpecInternal;
 import org.gradle.api.internal.file.copy.DestinationRootCopySpec;
 import org.gradle.api.internal.file.copy.FileCopyAction;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.reflect.Instantiator;
 
 import java.io.File;
@@ -78,6 +80,28 @@ public class Copy extends AbstractCopyTask {
         return new FileCopyAction(getFileLookup().getFileResolver(destinationDir));
     }
 
+    /**
+     * Copies only the source files that changed since the last execution, when the task history allows it, and all source files otherwise.
+     *
+     * @param inputs The changes to the inputs of this task.
+     * @since 4.4
+     */
+    @Incubating
+    @TaskAction
+    protected void copy(IncrementalTaskInputs inputs) {
+        copyIncrementally(inputs);
+    }
+
+    @Override
+    boolean isCopyingIntoDestinationDir() {
+        return true;
+    }
+
+    @Override
+    File getStaleTargetsDir() {
+        return getDestinationDir();
+    }
+
     @Override
     protected CopySpecInternal createRootSpec() {
         Instantiator instantiator = getInstantiator();
@@ -16,16 +16,24 @@
 
 package org.gradle.api.tasks;
 
+import org.gradle.StartParameter;
 import org.gradle.api.Action;
 import org.gradle.api.Incubating;
 import org.gradle.api.file.DeleteSpec;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.ConventionTask;
 import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.internal.file.delete.BackgroundDeleter;
 import org.gradle.api.internal.file.delete.Deleter;
+import org.gradle.api.internal.tasks.TaskResourceClass;
+import org.gradle.initialization.InternalFlags;
+import org.gradle.initialization.layout.ProjectCacheDir;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
+import org.gradle.internal.work.ResourceClass;
 
 import javax.inject.Inject;
+import java.io.File;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -42,6 +50,7 @@ import java.util.Set;
  * {@link Delete#setFollowSymlinks(boolean)} with true. On systems that do not support symlinks,
  * this will have no effect.
  */
+@TaskResourceClass(ResourceClass.IO)
 public class Delete extends ConventionTask implements DeleteSpec {
     private Set<Object> delete = new LinkedHashSet<Object>();
 
@@ -59,9 +68,27 @@ public class Delete extends ConventionTask implements DeleteSpec {
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected ExecutorFactory getExecutorFactory() {
+        // Decoration takes care of the implementation
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected BackgroundDeleter getBackgroundDeleter() {
+        // Decoration takes care of the implementation
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected ProjectCacheDir getProjectCacheDir() {
+        // Decoration takes care of the implementation
+        throw new UnsupportedOperationException();
+    }
+
     @TaskAction
     protected void clean() {
-        Deleter deleter = new Deleter(getFileResolver(), getFileSystem());
+        Deleter deleter = createDeleter();
         final boolean innerFollowSymLinks = followSymlinks;
         final Object[] paths = delete.toArray();
         setDidWork(deleter.delete(new Action<DeleteSpec>(){
@@ -144,4 +171,14 @@ public class Delete extends ConventionTask implements DeleteSpec {
         }
         return this;
     }
+
+    private Deleter createDeleter() {
+        StartParameter startParameter = getProject().getGradle().getStartParameter();
+        int maxParallelDeletes = InternalFlags.isEnabled(startParameter, Deleter.PARALLEL_DELETE_SYSPROP) ? startParameter.getMaxWorkerCount() : 1;
+        if (InternalFlags.isEnabled(startParameter, Deleter.BACKGROUND_DELETE_SYSPROP)) {
+            File trashDir = new File(getProjectCacheDir().getDir(), "trash");
+            return new Deleter(getFileResolver(), getFileSystem(), getExecutorFactory(), maxParallelDeletes, getBackgroundDeleter(), trashDir);
+        }
+        return new Deleter(getFileResolver(), getFileSystem(), getExecutorFactory(), maxParallelDeletes, null, null);
+    }
 }
@@ -25,6 +25,7 @@ import org.gradle.api.internal.file.copy.CopySpecInternal;
 import org.gradle.api.internal.file.copy.DestinationRootCopySpec;
 import org.gradle.api.internal.file.copy.FileCopyAction;
 import org.gradle.api.internal.file.copy.SyncCopyActionDecorator;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.api.tasks.util.PatternSet;
 import org.gradle.internal.reflect.Instantiator;
@@ -77,6 +78,23 @@ public class Sync extends AbstractCopyTask {
         return new SyncCopyActionDecorator(destinationDir, new FileCopyAction(getFileLookup().getFileResolver(destinationDir)), preserveInDestination, getDirectoryFileTreeFactory());
     }
 
+    /**
+     * Copies only the source files that changed since the last execution, when the task history allows it, and all source files otherwise.
+     *
+     * @param inputs The changes to the inputs of this task.
+     * @since 4.4
+     */
+    @Incubating
+    @TaskAction
+    protected void copy(IncrementalTaskInputs inputs) {
+        copyIncrementally(inputs);
+    }
+
+    @Override
+    boolean isCopyingIntoDestinationDir() {
+        return true;
+    }
+
     @Override
     protected CopySpecInternal createRootSpec() {
         Instantiator instantiator = getInstantiator();
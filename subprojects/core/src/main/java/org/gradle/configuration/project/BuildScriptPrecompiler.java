@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project;
+
+import org.gradle.StartParameter;
+import org.gradle.api.Project;
+import org.gradle.api.internal.initialization.ClassLoaderScope;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.configuration.CompileOperationFactory;
+import org.gradle.configuration.ProjectScriptTarget;
+import org.gradle.groovy.scripts.BasicScript;
+import org.gradle.groovy.scripts.ScriptCompiler;
+import org.gradle.groovy.scripts.ScriptCompilerFactory;
+import org.gradle.groovy.scripts.ScriptRunner;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.groovy.scripts.internal.ScriptSourceHasher;
+import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.initialization.InternalFlags;
+import org.gradle.internal.Actions;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.resource.TextResource;
+import org.gradle.model.dsl.internal.transform.ClosureCreationInterceptingVerifier;
+import org.gradle.plugin.management.internal.PluginRequests;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles the build scripts of the child projects of a project, on up to max workers threads, as soon as the project's build script has been applied.
+ *
+ * <p>The build script of a child project is compiled against the class loader of its parent project, which is known once the parent's build script has been applied.
+ * When the first pass of the script declares no build script classpath and no plugins, the script is compiled against the same class loader when the child project is
+ * evaluated, so the second pass is compiled up front as well. The compiled scripts end up in the in-memory script cache, where the evaluation of the child project picks them up.
+ * A script whose class loader turns out to be different, for example because another project added to its build script classpath, is compiled again when the project is evaluated.</p>
+ *
+ * <p>Scripts with the same content are compiled against a given class loader once, and the compiled classes are shared by all of these scripts.
+ * The remaining scripts with the same content are compiled after the first one, so that they reuse its compiled classes.</p>
+ *
+ * <p>A script that fails to compile up front is ignored, the failure is reported when the project is evaluated.</p>
+ */
+public class BuildScriptPrecompiler implements ProjectConfigureAction, Stoppable {
+    public static final String PRECOMPILE_SCRIPTS_SYSPROP = "org.gradle.internal.scripts.precompile";
+    private static final Logger LOGGER = LoggerFactory.getLogger(BuildScriptPrecompiler.class);
+
+    private final ScriptCompilerFactory scriptCompilerFactory;
+    private final CompileOperationFactory compileOperationFactory;
+    private final ScriptSourceHasher scriptSourceHasher;
+    private final ExecutorFactory executorFactory;
+    private final StartParameter startParameter;
+    private final BuildCancellationToken cancellationToken;
+    private ManagedExecutor executor;
+    private volatile boolean stopped;
+
+    public BuildScriptPrecompiler(ScriptCompilerFactory scriptCompilerFactory, CompileOperationFactory compileOperationFactory, ScriptSourceHasher scriptSourceHasher,
+                                  ExecutorFactory executorFactory, StartParameter startParameter, BuildCancellationToken cancellationToken) {
+        this.scriptCompilerFactory = scriptCompilerFactory;
+        this.compileOperationFactory = compileOperationFactory;
+        this.scriptSourceHasher = scriptSourceHasher;
+        this.executorFactory = executorFactory;
+        this.startParameter = startParameter;
+        this.cancellationToken = cancellationToken;
+    }
+
+    @Override
+    public void execute(ProjectInternal project) {
+        if (project.getChildProjects().isEmpty() || !isEnabled()) {
+            return;
+        }
+        ClassLoaderScope classLoaderScope = project.getClassLoaderScope();
+        if (!classLoaderScope.isLocked()) {
+            // Asking for the class loader now would create a class loader that can still change, which the build script would then also use
+            return;
+        }
+        ClassLoader classLoader = classLoaderScope.getExportClassLoader();
+
+        Map<HashCode, List<ProjectInternal>> projectsByScriptHash = new LinkedHashMap<HashCode, List<ProjectInternal>>();
+        for (Project childProject : project.getChildProjects().values()) {
+            ProjectInternal child = (ProjectInternal) childProject;
+            if (child.getBaseClassLoaderScope() != classLoaderScope || !isGroovyScript(child.getBuildScriptSource())) {
+                continue;
+            }
+            HashCode hash = scriptSourceHasher.hash(child.getBuildScriptSource());
+            List<ProjectInternal> projects = projectsByScriptHash.get(hash);
+            if (projects == null) {
+                projects = new ArrayList<ProjectInternal>();
+                projectsByScriptHash.put(hash, projects);
+            }
+            projects.add(child);
+        }
+
+        for (List<ProjectInternal> projects : projectsByScriptHash.values()) {
+            submit(new CompileScripts(projects, classLoader));
+        }
+    }
+
+    private boolean isGroovyScript(ScriptSource source) {
+        TextResource resource = source.getResource();
+        return resource.getFile() != null && source.getFileName().endsWith(".gradle") && resource.getExists();
+    }
+
+    private boolean isEnabled() {
+        return InternalFlags.isEnabled(startParameter, PRECOMPILE_SCRIPTS_SYSPROP);
+    }
+
+    private synchronized void submit(Runnable compileAction) {
+        if (stopped) {
+            return;
+        }
+        if (executor == null) {
+            executor = executorFactory.create("Compile build scripts", startParameter.getMaxWorkerCount());
+        }
+        executor.execute(compileAction);
+    }
+
+    @Override
+    public void stop() {
+        ManagedExecutor executor;
+        synchronized (this) {
+            stopped = true;
+            executor = this.executor;
+            this.executor = null;
+        }
+        if (executor != null) {
+            // Scripts which have not been compiled yet are skipped
+            executor.stop();
+        }
+    }
+
+    private void compile(ProjectInternal project, ClassLoader classLoader) {
+        if (stopped || cancellationToken.isCancellationRequested()) {
+            return;
+        }
+        ScriptSource source = project.getBuildScriptSource();
+        try {
+            ScriptCompiler compiler = scriptCompilerFactory.createCompiler(source);
+            ProjectScriptTarget scriptTarget = new ProjectScriptTarget(project);
+            Class<? extends BasicScript> scriptType = scriptTarget.getScriptClass();
+
+            ScriptRunner<? extends BasicScript, PluginRequests> initialRunner = compiler.compile(scriptType, compileOperationFactory.getPluginsBlockCompileOperation(source, scriptTarget), classLoader, Actions.doNothing());
+            if (initialRunner.getRunDoesSomething() || !initialRunner.getData().isEmpty()) {
+                // The class loader of the script is not known until the project is evaluated
+                return;
+            }
+            compiler.compile(scriptType, compileOperationFactory.getScriptCompileOperation(source, scriptTarget), classLoader, ClosureCreationInterceptingVerifier.INSTANCE);
+        } catch (Exception e) {
+            LOGGER.debug("Could not compile {} up front.", source.getDisplayName(), e);
+        }
+    }
+
+    /**
+     * Compiles the build script of the first project, then the build scripts with the same content of the other projects.
+     */
+    private class CompileScripts implements Runnable {
+        private final List<ProjectInternal> projects;
+        private final ClassLoader classLoader;
+
+        CompileScripts(List<ProjectInternal> projects, ClassLoader classLoader) {
+            this.projects = projects;
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public void run() {
+            compile(projects.get(0), classLoader);
+            for (final ProjectInternal project : projects.subList(1, projects.size())) {
+                submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        compile(project, classLoader);
+                    }
+                });
+            }
+        }
+    }
+}
@@ -25,9 +25,19 @@ import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.progress.BuildOperationCategory;
 import org.gradle.internal.progress.BuildOperationDescriptor;
+import org.gradle.internal.progress.BuildOperationState;
+import org.gradle.internal.resources.ResourceLock;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Manages lifecycle concerns while delegating actual evaluation to another evaluator
  */
@@ -36,18 +46,136 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
 
     private final BuildOperationExecutor buildOperationExecutor;
     private final ProjectEvaluator delegate;
+    private final WorkerLeaseService workerLeaseService;
+
+    // The following state is used while projects are evaluated in parallel, and is guarded by this evaluator
+    private volatile boolean concurrentEvaluation;
+    private final Map<ProjectInternal, Thread> evaluatingThreads = new HashMap<ProjectInternal, Thread>();
+    private final Map<Thread, ProjectInternal> awaitedProjects = new HashMap<Thread, ProjectInternal>();
+    private final ThreadLocal<Set<ResourceLock>> heldProjectLocks = new ThreadLocal<Set<ResourceLock>>() {
+        @Override
+        protected Set<ResourceLock> initialValue() {
+            return new HashSet<ResourceLock>();
+        }
+    };
 
     public LifecycleProjectEvaluator(BuildOperationExecutor buildOperationExecutor, ProjectEvaluator delegate) {
+        this(buildOperationExecutor, delegate, null);
+    }
+
+    public LifecycleProjectEvaluator(BuildOperationExecutor buildOperationExecutor, ProjectEvaluator delegate, @Nullable WorkerLeaseService workerLeaseService) {
         this.buildOperationExecutor = buildOperationExecutor;
         this.delegate = delegate;
+        this.workerLeaseService = workerLeaseService;
     }
 
     public void evaluate(final ProjectInternal project, final ProjectStateInternal state) {
-        if (state.getExecuted() || state.getExecuting()) {
+        evaluate(project, state, null);
+    }
+
+    /**
+     * Evaluates the given project, as a child of the given build operation, or of the current build operation when null.
+     */
+    void evaluate(ProjectInternal project, ProjectStateInternal state, @Nullable BuildOperationState parentOperation) {
+        if (state.getExecuted()) {
             return;
         }
+        if (concurrentEvaluation) {
+            evaluateWithProjectLock(project, state, parentOperation);
+            return;
+        }
+        if (state.getExecuting()) {
+            return;
+        }
+
+        buildOperationExecutor.run(new ConfigureProject(project, state, parentOperation));
+    }
+
+    /**
+     * Marks the start of evaluating projects in parallel. Until {@link #finishConcurrentEvaluation()} is called, each project is evaluated
+     * while holding its project lock, and evaluating a project that is being evaluated by another thread waits for that thread to finish.
+     */
+    void startConcurrentEvaluation() {
+        if (workerLeaseService == null) {
+            throw new IllegalStateException("Projects cannot be evaluated in parallel without a worker lease service.");
+        }
+        concurrentEvaluation = true;
+    }
 
-        buildOperationExecutor.run(new ConfigureProject(project, state));
+    void finishConcurrentEvaluation() {
+        concurrentEvaluation = false;
+    }
+
+    private void evaluateWithProjectLock(final ProjectInternal project, final ProjectStateInternal state, @Nullable final BuildOperationState parentOperation) {
+        final Thread currentThread = Thread.currentThread();
+        synchronized (this) {
+            if (isAwaitedBy(project, currentThread)) {
+                // The project is being evaluated by this thread, or by a thread that waits for a project this thread is evaluating.
+                // Waiting would deadlock, so behave as when evaluating projects one at a time and leave the project partially evaluated.
+                return;
+            }
+            awaitedProjects.put(currentThread, project);
+        }
+        try {
+            String gradlePath = project.getGradle().getIdentityPath().toString();
+            final ResourceLock projectLock = workerLeaseService.getProjectLock(gradlePath, project.getIdentityPath().toString());
+            final Runnable evaluation = new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (LifecycleProjectEvaluator.this) {
+                        awaitedProjects.remove(currentThread);
+                        evaluatingThreads.put(project, currentThread);
+                    }
+                    try {
+                        // Another thread may have evaluated the project while this thread was waiting for the lock
+                        if (!state.getExecuted()) {
+                            buildOperationExecutor.run(new ConfigureProject(project, state, parentOperation));
+                        }
+                    } finally {
+                        synchronized (LifecycleProjectEvaluator.this) {
+                            evaluatingThreads.remove(project);
+                        }
+                    }
+                }
+            };
+            final Set<ResourceLock> heldLocks = heldProjectLocks.get();
+            if (heldLocks.contains(projectLock)) {
+                // This thread already holds the lock, for example when all projects share a single lock. Project locks are not reentrant,
+                // so acquiring the lock again would release it when this project is evaluated, while the outer project is still being evaluated
+                evaluation.run();
+            } else {
+                workerLeaseService.withLocks(Collections.singleton(projectLock), new Runnable() {
+                    @Override
+                    public void run() {
+                        heldLocks.add(projectLock);
+                        try {
+                            evaluation.run();
+                        } finally {
+                            heldLocks.remove(projectLock);
+                        }
+                    }
+                });
+            }
+        } finally {
+            synchronized (this) {
+                awaitedProjects.remove(currentThread);
+            }
+        }
+    }
+
+    /**
+     * Follows the chain of threads evaluating a project and waiting for another project, starting from the given project.
+     */
+    private boolean isAwaitedBy(ProjectInternal project, Thread thread) {
+        Thread evaluatingThread = evaluatingThreads.get(project);
+        while (evaluatingThread != null) {
+            if (evaluatingThread == thread) {
+                return true;
+            }
+            ProjectInternal awaitedProject = awaitedProjects.get(evaluatingThread);
+            evaluatingThread = awaitedProject == null ? null : evaluatingThreads.get(awaitedProject);
+        }
+        return false;
     }
 
     private void doConfigure(ProjectInternal project, ProjectStateInternal state) {
@@ -99,10 +227,12 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
 
         private ProjectInternal project;
         private ProjectStateInternal state;
+        private BuildOperationState parentOperation;
 
-        private ConfigureProject(ProjectInternal project, ProjectStateInternal state) {
+        private ConfigureProject(ProjectInternal project, ProjectStateInternal state, @Nullable BuildOperationState parentOperation) {
             this.project = project;
             this.state = state;
+            this.parentOperation = parentOperation;
         }
 
         @Override
@@ -115,9 +245,13 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
         @Override
         public BuildOperationDescriptor.Builder description() {
             String name = "Configure project " + project.getIdentityPath();
-            return BuildOperationDescriptor.displayName(name)
+            BuildOperationDescriptor.Builder builder = BuildOperationDescriptor.displayName(name)
                 .operationType(BuildOperationCategory.CONFIGURE_PROJECT)
                 .details(new ConfigureProjectBuildOperationType.DetailsImpl(project.getProjectPath(), project.getGradle().getIdentityPath()));
+            if (parentOperation != null) {
+                builder.parent(parentOperation);
+            }
+            return builder;
         }
 
     }
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project;
+
+import org.gradle.api.BuildCancelledException;
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.progress.BuildOperationState;
+import org.gradle.internal.work.WorkerLeaseRegistry;
+import org.gradle.internal.work.WorkerLeaseService;
+
+import java.util.Collections;
+
+/**
+ * Evaluates a project and its subprojects on the worker lease pool, evaluating each project once its parent has been evaluated.
+ *
+ * <p>Projects are evaluated while holding their project lock, so a project that requires the evaluation of another project,
+ * for example using {@link Project#evaluationDependsOn(String)}, waits for a thread that is evaluating it. Projects which change the
+ * state of other projects in any other way, for example from an {@code afterEvaluate} action, are not safe to evaluate in parallel.</p>
+ *
+ * <p>When a project fails to evaluate, no more projects are started, and the failure of the project that would have been evaluated
+ * first when evaluating projects one at a time is rethrown.</p>
+ */
+public class ParallelProjectEvaluator {
+    public static final String PARALLEL_CONFIGURATION_SYSPROP = "org.gradle.internal.configure.parallel";
+
+    private final LifecycleProjectEvaluator projectEvaluator;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final ExecutorFactory executorFactory;
+    private final WorkerLeaseService workerLeaseService;
+    private final BuildCancellationToken cancellationToken;
+
+    public ParallelProjectEvaluator(LifecycleProjectEvaluator projectEvaluator, BuildOperationExecutor buildOperationExecutor, ExecutorFactory executorFactory, WorkerLeaseService workerLeaseService, BuildCancellationToken cancellationToken) {
+        this.projectEvaluator = projectEvaluator;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.executorFactory = executorFactory;
+        this.workerLeaseService = workerLeaseService;
+        this.cancellationToken = cancellationToken;
+    }
+
+    public void evaluateHierarchy(ProjectInternal project) {
+        ManagedExecutor executor = executorFactory.create("Configure projects", workerLeaseService.getMaxWorkerCount());
+        HierarchyEvaluation evaluation = new HierarchyEvaluation(executor, workerLeaseService.getCurrentWorkerLease(), buildOperationExecutor.getCurrentOperation());
+        projectEvaluator.startConcurrentEvaluation();
+        try {
+            // The build thread already holds a worker lease
+            evaluation.evaluate(project);
+            evaluation.awaitCompletion();
+        } finally {
+            projectEvaluator.finishConcurrentEvaluation();
+            executor.stop();
+        }
+
+        project.getState().rethrowFailure();
+        for (Project subproject : project.getSubprojects()) {
+            ((ProjectInternal) subproject).getState().rethrowFailure();
+        }
+        evaluation.rethrowFailure();
+    }
+
+    private class HierarchyEvaluation {
+        private final ManagedExecutor executor;
+        private final WorkerLeaseRegistry.WorkerLease parentWorkerLease;
+        private final BuildOperationState parentOperation;
+        private final Object lock = new Object();
+        private int pendingProjects;
+        private Throwable failure;
+
+        HierarchyEvaluation(ManagedExecutor executor, WorkerLeaseRegistry.WorkerLease parentWorkerLease, BuildOperationState parentOperation) {
+            this.executor = executor;
+            this.parentWorkerLease = parentWorkerLease;
+            this.parentOperation = parentOperation;
+        }
+
+        void evaluate(ProjectInternal project) {
+            try {
+                if (cancellationToken.isCancellationRequested()) {
+                    throw new BuildCancelledException();
+                }
+                projectEvaluator.evaluate(project, project.getState(), parentOperation);
+            } catch (Throwable t) {
+                failed(t);
+                return;
+            }
+            for (Project childProject : project.getChildProjects().values()) {
+                schedule((ProjectInternal) childProject);
+            }
+        }
+
+        private void schedule(final ProjectInternal project) {
+            synchronized (lock) {
+                if (failure != null) {
+                    return;
+                }
+                pendingProjects++;
+            }
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            workerLeaseService.withLocks(Collections.singleton(parentWorkerLease.createChild()), new Runnable() {
+                                @Override
+                                public void run() {
+                                    evaluate(project);
+                                }
+                            });
+                        } catch (Throwable t) {
+                            failed(t);
+                        } finally {
+                            completed();
+                        }
+                    }
+                });
+            } catch (Throwable t) {
+                failed(t);
+                completed();
+            }
+        }
+
+        private void failed(Throwable t) {
+            synchronized (lock) {
+                if (failure == null) {
+                    failure = t;
+                }
+            }
+        }
+
+        private void completed() {
+            synchronized (lock) {
+                pendingProjects--;
+                lock.notifyAll();
+            }
+        }
+
+        void awaitCompletion() {
+            synchronized (lock) {
+                while (pendingProjects > 0) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    }
+                }
+            }
+        }
+
+        void rethrowFailure() {
+            synchronized (lock) {
+                if (failure != null) {
+                    throw UncheckedException.throwAsUncheckedException(failure);
+                }
+            }
+        }
+    }
+}
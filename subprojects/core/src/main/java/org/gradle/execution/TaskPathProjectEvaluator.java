@@ -16,16 +16,27 @@
 
 package org.gradle.execution;
 
+import org.gradle.StartParameter;
 import org.gradle.api.BuildCancelledException;
 import org.gradle.api.Project;
 import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.configuration.project.ParallelProjectEvaluator;
 import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.initialization.InternalFlags;
+
+import javax.annotation.Nullable;
 
 public class TaskPathProjectEvaluator implements ProjectConfigurer {
     private final BuildCancellationToken cancellationToken;
+    private final ParallelProjectEvaluator parallelProjectEvaluator;
 
     public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken) {
+        this(cancellationToken, null);
+    }
+
+    public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken, @Nullable ParallelProjectEvaluator parallelProjectEvaluator) {
         this.cancellationToken = cancellationToken;
+        this.parallelProjectEvaluator = parallelProjectEvaluator;
     }
 
     public void configure(ProjectInternal project) {
@@ -57,6 +68,10 @@ public class TaskPathProjectEvaluator implements ProjectConfigurer {
     }
 
     public void configureHierarchy(ProjectInternal project) {
+        if (parallelProjectEvaluator != null && isParallelConfigurationEnabled(project.getGradle().getStartParameter())) {
+            parallelProjectEvaluator.evaluateHierarchy(project);
+            return;
+        }
         configure(project);
         for (Project sub : project.getSubprojects()) {
             configure((ProjectInternal) sub);
@@ -70,4 +85,12 @@ public class TaskPathProjectEvaluator implements ProjectConfigurer {
             configureFully((ProjectInternal) sub);
         }
     }
+
+    private static boolean isParallelConfigurationEnabled(StartParameter startParameter) {
+        // Without --parallel, all projects share a single lock, so configuration would still run one project at a time
+        if (!startParameter.isParallelProjectExecutionEnabled()) {
+            return false;
+        }
+        return InternalFlags.isEnabled(startParameter, ParallelProjectEvaluator.PARALLEL_CONFIGURATION_SYSPROP);
+    }
 }
@@ -38,6 +38,7 @@ import org.gradle.api.internal.tasks.CachingTaskDependencyResolveContext;
 import org.gradle.api.internal.tasks.TaskContainerInternal;
 import org.gradle.api.internal.tasks.TaskDestroyablesInternal;
 import org.gradle.api.internal.tasks.TaskLocalStateInternal;
+import org.gradle.api.internal.tasks.TaskResourceClass;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.specs.Specs;
 import org.gradle.execution.MultipleBuildFailures;
@@ -54,6 +55,7 @@ import org.gradle.internal.resources.ResourceDeadlockException;
 import org.gradle.internal.resources.ResourceLock;
 import org.gradle.internal.resources.ResourceLockCoordinationService;
 import org.gradle.internal.resources.ResourceLockState;
+import org.gradle.internal.work.ResourceClass;
 import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLease;
 import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.util.CollectionUtils;
@@ -592,8 +594,9 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
                     @Override
                     public ResourceLockState.Disposition transform(ResourceLockState resourceLockState) {
                         ResourceLock projectLock = getProjectLock(taskInfo);
+                        ResourceLock resourceClassLock = getResourceClassLock(taskInfo);
                         // TODO: convert output file checks to a resource lock
-                        if (!projectLock.tryLock() || !workerLease.tryLock() || !canRunWithCurrentlyExecutedTasks(taskInfo)) {
+                        if (!projectLock.tryLock() || !workerLease.tryLock() || !resourceClassLock.tryLock() || !canRunWithCurrentlyExecutedTasks(taskInfo)) {
                             return FAILED;
                         }
 
@@ -626,7 +629,7 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
                 taskExecution.execute(selectedTask);
             }
         } finally {
-            coordinationService.withStateLock(unlock(workerLease, getProjectLock(selectedTask)));
+            coordinationService.withStateLock(unlock(workerLease, getProjectLock(selectedTask), getResourceClassLock(selectedTask)));
         }
     }
 
@@ -656,6 +659,11 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         return projectLocks.get(taskInfo.getTask().getProject());
     }
 
+    private ResourceLock getResourceClassLock(TaskInfo taskInfo) {
+        TaskResourceClass resourceClass = taskInfo.getTask().getClass().getAnnotation(TaskResourceClass.class);
+        return workerLeaseService.getResourceClassLock(resourceClass == null ? ResourceClass.CPU : resourceClass.value());
+    }
+
     private ResourceLock getOrCreateProjectLock(Project project) {
         String gradlePath = ((GradleInternal) project.getGradle()).getIdentityPath().toString();
         String projectPath = ((ProjectInternal) project).getIdentityPath().toString();
@@ -15,25 +15,31 @@
  */
 package org.gradle.groovy.scripts.internal;
 
-import com.google.common.collect.Maps;
 import groovy.lang.Script;
 import org.codehaus.groovy.ast.ClassNode;
 import org.gradle.api.Action;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderId;
+import org.gradle.cache.internal.ProducerGuard;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.internal.Cast;
+import org.gradle.internal.Factory;
 
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This in-memory cache is responsible for caching compiled build scripts during a build session.
  * If the compiled script is not found in this cache, it will try to find it in the global cache,
  * which will use the delegate script class compiler in case of a miss.
+ *
+ * Scripts may be compiled by several threads, for example when build scripts are compiled up front. A script is compiled once, and
+ * other threads which request the same script wait for it to be compiled.
  */
 public class BuildScopeInMemoryCachingScriptClassCompiler implements ScriptClassCompiler {
     private final CrossBuildInMemoryCachingScriptClassCache cache;
     private final ScriptClassCompiler scriptClassCompiler;
-    private final Map<ScriptCacheKey, CompiledScript<?, ?>> cachedCompiledScripts = Maps.newHashMap();
+    private final ConcurrentMap<ScriptCacheKey, CompiledScript<?, ?>> cachedCompiledScripts = new ConcurrentHashMap<ScriptCacheKey, CompiledScript<?, ?>>();
+    private final ProducerGuard<ScriptCacheKey> compiling = ProducerGuard.adaptive();
 
     public BuildScopeInMemoryCachingScriptClassCompiler(CrossBuildInMemoryCachingScriptClassCache cache, ScriptClassCompiler scriptClassCompiler) {
         this.cache = cache;
@@ -41,14 +47,25 @@ public class BuildScopeInMemoryCachingScriptClassCompiler implements ScriptClass
     }
 
     @Override
-    public <T extends Script, M> CompiledScript<T, M> compile(ScriptSource source, ClassLoader classLoader, ClassLoaderId classLoaderId, CompileOperation<M> operation, Class<T> scriptBaseClass, Action<? super ClassNode> verifier) {
-        ScriptCacheKey key = new ScriptCacheKey(source.getClassName(), classLoader, operation.getId());
+    public <T extends Script, M> CompiledScript<T, M> compile(final ScriptSource source, final ClassLoader classLoader, final ClassLoaderId classLoaderId, final CompileOperation<M> operation, final Class<T> scriptBaseClass, final Action<? super ClassNode> verifier) {
+        final ScriptCacheKey key = new ScriptCacheKey(source.getClassName(), classLoader, operation.getId());
         CompiledScript<T, M> compiledScript = Cast.uncheckedCast(cachedCompiledScripts.get(key));
-        if (compiledScript == null) {
-            compiledScript = cache.getOrCompile(source, classLoader, classLoaderId, operation, scriptBaseClass, verifier, scriptClassCompiler);
-            cachedCompiledScripts.put(key, compiledScript);
+        if (compiledScript != null) {
+            return compiledScript;
         }
-        return compiledScript;
+        // Only the scripts which are being compiled hold a lock, so no lock is kept once a script has been compiled
+        return compiling.guardByKey(key, new Factory<CompiledScript<T, M>>() {
+            @Override
+            public CompiledScript<T, M> create() {
+                CompiledScript<T, M> compiledScript = Cast.uncheckedCast(cachedCompiledScripts.get(key));
+                if (compiledScript == null) {
+                    compiledScript = cache.getOrCompile(source, classLoader, classLoaderId, operation, scriptBaseClass, verifier, scriptClassCompiler);
+                    if (compiledScript != null) {
+                        cachedCompiledScripts.put(key, compiledScript);
+                    }
+                }
+                return compiledScript;
+            }
+        });
     }
-
 }
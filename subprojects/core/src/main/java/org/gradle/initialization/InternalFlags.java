@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.initialization;
+
+import org.gradle.StartParameter;
+
+import javax.annotation.Nullable;
+
+/**
+ * Reads the {@code org.gradle.internal.*} system properties which switch internal features on or off.
+ *
+ * <p>A flag can be set with {@code -D} on the command line of a build, or as a system property of the process running the build.
+ * Services which are created before the start parameter of a build is known only see the system properties of the process.</p>
+ */
+public abstract class InternalFlags {
+    /**
+     * Returns the value of the given flag for the given build, or null when it is not set.
+     */
+    @Nullable
+    public static String getValue(StartParameter startParameter, String name) {
+        String value = startParameter.getSystemPropertiesArgs().get(name);
+        if (value == null) {
+            value = System.getProperty(name);
+        }
+        return value;
+    }
+
+    /**
+     * Returns true when the given flag is set to true for the given build.
+     */
+    public static boolean isEnabled(StartParameter startParameter, String name) {
+        return Boolean.parseBoolean(getValue(startParameter, name));
+    }
+
+    /**
+     * Returns true when the given flag is set to true for the current process.
+     */
+    public static boolean isEnabled(String name) {
+        return Boolean.parseBoolean(System.getProperty(name));
+    }
+}
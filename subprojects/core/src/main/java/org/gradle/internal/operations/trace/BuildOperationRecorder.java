@@ -0,0 +1,302 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.gradle.StartParameter;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.initialization.InternalFlags;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.logging.events.OperationIdentifier;
+import org.gradle.internal.operations.BuildOperationType;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+import org.gradle.internal.progress.BuildOperationListener;
+import org.gradle.internal.progress.BuildOperationListenerManager;
+import org.gradle.internal.progress.OperationFinishEvent;
+import org.gradle.internal.progress.OperationStartEvent;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the start and the finish of every build operation of a build session in a fixed size ring buffer, and writes the recorded events to a compact binary file when the session ends.
+ * When more events are recorded than the buffer can hold, the oldest events are dropped.
+ *
+ * <p>Recording is enabled by default. The file is written to {@code «gradle user home»/build-operations}, where the files of the last {@value #KEEP_FILES} build sessions are kept.
+ * It can be written to another file with {@code -Dorg.gradle.internal.operations.recording=«path»}, or recording can be disabled with {@code -Dorg.gradle.internal.operations.recording=false}.
+ * Use {@link BuildOperationRecording} to read the file, to convert it to the Chrome trace event format or to summarize it.</p>
+ *
+ * <p>Each event holds the id of the operation, the time, the thread and, for a start event, the id of the parent operation, the display name and the type of the operation.
+ * Display names, operation types and thread names are written once, in tables at the start of the file. The tables only hold the strings of the events that are still in the buffer,
+ * so that the memory used by the recorder does not grow with the number of events.</p>
+ */
+public class BuildOperationRecorder implements BuildOperationListener, Stoppable {
+    public static final String SYSPROP = "org.gradle.internal.operations.recording";
+    static final int DEFAULT_CAPACITY = 64 * 1024;
+    static final int KEEP_FILES = 10;
+    static final int MAGIC = 0x474f5052;
+    static final int VERSION = 1;
+    static final byte START = 1;
+    static final byte FINISH = 2;
+    static final byte FAILED = 3;
+    private static final Logger LOGGER = Logging.getLogger(BuildOperationRecorder.class);
+
+    private final BuildOperationListenerManager listenerManager;
+    private final File traceFile;
+    private final boolean pruneOldFiles;
+    private final int capacity;
+
+    // The ring buffer, one slot per event
+    private final byte[] kinds;
+    private final long[] ids;
+    private final long[] parentIds;
+    private final long[] times;
+    private final int[] threads;
+    // Display names and types are kept in the slots, so that they are released when their slot is reused
+    private final String[] names;
+    private final String[] types;
+    private long recorded;
+
+    private final Map<Class<?>, String> typeNames = new HashMap<Class<?>, String>();
+    private final List<String> threadNames = new ArrayList<String>();
+    private final ThreadLocal<Integer> threadIndex = new ThreadLocal<Integer>();
+
+    public BuildOperationRecorder(StartParameter startParameter, BuildOperationListenerManager listenerManager) {
+        this(listenerManager, traceFile(startParameter), DEFAULT_CAPACITY);
+    }
+
+    @VisibleForTesting
+    BuildOperationRecorder(BuildOperationListenerManager listenerManager, File traceFile, int capacity) {
+        this.listenerManager = listenerManager;
+        this.traceFile = traceFile;
+        this.pruneOldFiles = traceFile != null && traceFile.getParentFile() != null && traceFile.getName().startsWith("session-");
+        this.capacity = traceFile == null ? 0 : capacity;
+        kinds = new byte[this.capacity];
+        ids = new long[this.capacity];
+        parentIds = new long[this.capacity];
+        times = new long[this.capacity];
+        threads = new int[this.capacity];
+        names = new String[this.capacity];
+        types = new String[this.capacity];
+        if (traceFile != null) {
+            listenerManager.addListener(this);
+        }
+    }
+
+    private static File traceFile(StartParameter startParameter) {
+        String path = InternalFlags.getValue(startParameter, SYSPROP);
+        if ("false".equals(path)) {
+            return null;
+        }
+        if (path == null || path.trim().isEmpty() || "true".equals(path)) {
+            File dir = new File(startParameter.getGradleUserHomeDir(), "build-operations");
+            return new File(dir, "session-" + System.currentTimeMillis() + ".bin");
+        }
+        return new File(path).getAbsoluteFile();
+    }
+
+    @Override
+    public void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
+        Object parentId = buildOperation.getParentId();
+        synchronized (this) {
+            int slot = nextSlot();
+            kinds[slot] = START;
+            ids[slot] = idOf(buildOperation.getId());
+            parentIds[slot] = parentId == null ? 0 : idOf(parentId);
+            times[slot] = startEvent.getStartTime();
+            threads[slot] = currentThread();
+            names[slot] = buildOperation.getDisplayName();
+            types[slot] = type(buildOperation);
+        }
+    }
+
+    @Override
+    public void finished(BuildOperationDescriptor buildOperation, OperationFinishEvent finishEvent) {
+        synchronized (this) {
+            int slot = nextSlot();
+            kinds[slot] = finishEvent.getFailure() == null ? FINISH : FAILED;
+            ids[slot] = idOf(buildOperation.getId());
+            times[slot] = finishEvent.getEndTime();
+            threads[slot] = currentThread();
+            names[slot] = null;
+            types[slot] = null;
+        }
+    }
+
+    private int nextSlot() {
+        return (int) (recorded++ % capacity);
+    }
+
+    private static long idOf(Object id) {
+        return ((OperationIdentifier) id).getId();
+    }
+
+    private int currentThread() {
+        Integer index = threadIndex.get();
+        if (index == null) {
+            index = threadNames.size();
+            threadNames.add(Thread.currentThread().getName());
+            threadIndex.set(index);
+        }
+        return index;
+    }
+
+    private String type(BuildOperationDescriptor buildOperation) {
+        Object details = buildOperation.getDetails();
+        if (details == null) {
+            return buildOperation.getOperationType().name();
+        }
+        Class<?> detailsType = details.getClass();
+        String name = typeNames.get(detailsType);
+        if (name == null) {
+            name = typeName(detailsType);
+            typeNames.put(detailsType, name);
+        }
+        return name;
+    }
+
+    private static int index(String value, Map<String, Integer> indexes, List<String> strings) {
+        Integer index = indexes.get(value);
+        if (index == null) {
+            index = strings.size();
+            strings.add(value);
+            indexes.put(value, index);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the name of the {@link BuildOperationType} whose details the given type implements, without the {@code BuildOperationType} suffix, or else the simple name of the type.
+     */
+    private static String typeName(Class<?> detailsType) {
+        for (Class<?> type = detailsType; type != null; type = type.getSuperclass()) {
+            for (Class<?> detailsInterface : type.getInterfaces()) {
+                Class<?> operationType = detailsInterface.getEnclosingClass();
+                if (operationType != null && BuildOperationType.class.isAssignableFrom(operationType)) {
+                    String name = operationType.getSimpleName();
+                    return name.endsWith("BuildOperationType") ? name.substring(0, name.length() - "BuildOperationType".length()) : name;
+                }
+            }
+        }
+        return detailsType.getSimpleName().isEmpty() ? detailsType.getName() : detailsType.getSimpleName();
+    }
+
+    @Override
+    public void stop() {
+        if (traceFile == null) {
+            return;
+        }
+        listenerManager.removeListener(this);
+        try {
+            write();
+        } catch (IOException e) {
+            LOGGER.info("Could not write build operations to {}.", traceFile, e);
+        }
+        if (pruneOldFiles) {
+            pruneOldFiles();
+        }
+    }
+
+    private synchronized void write() throws IOException {
+        File dir = traceFile.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create directory " + dir);
+        }
+        // The string table holds the display names and types of the events that are still in the buffer only
+        int count = (int) Math.min(recorded, capacity);
+        Map<String, Integer> stringIndexes = new HashMap<String, Integer>();
+        List<String> strings = new ArrayList<String>();
+        int[] nameIndexes = new int[capacity];
+        int[] typeIndexes = new int[capacity];
+        for (long i = recorded - count; i < recorded; i++) {
+            int slot = (int) (i % capacity);
+            if (kinds[slot] == START) {
+                nameIndexes[slot] = index(names[slot], stringIndexes, strings);
+                typeIndexes[slot] = index(types[slot], stringIndexes, strings);
+            }
+        }
+
+        KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(traceFile));
+        try {
+            encoder.writeInt(MAGIC);
+            encoder.writeSmallInt(VERSION);
+            encoder.writeSmallInt(strings.size());
+            for (String value : strings) {
+                encoder.writeString(value);
+            }
+            encoder.writeSmallInt(threadNames.size());
+            for (String threadName : threadNames) {
+                encoder.writeString(threadName);
+            }
+
+            encoder.writeSmallLong(recorded - count);
+            encoder.writeSmallInt(count);
+            long previousTime = 0;
+            for (long i = recorded - count; i < recorded; i++) {
+                int slot = (int) (i % capacity);
+                encoder.writeByte(kinds[slot]);
+                encoder.writeSmallLong(ids[slot]);
+                // Times are written as the zigzag encoded difference with the previous event, which is small but can be negative
+                long delta = times[slot] - previousTime;
+                encoder.writeSmallLong((delta << 1) ^ (delta >> 63));
+                previousTime = times[slot];
+                encoder.writeSmallInt(threads[slot]);
+                if (kinds[slot] == START) {
+                    encoder.writeSmallLong(parentIds[slot]);
+                    encoder.writeSmallInt(nameIndexes[slot]);
+                    encoder.writeSmallInt(typeIndexes[slot]);
+                }
+            }
+        } finally {
+            encoder.close();
+        }
+    }
+
+    private void pruneOldFiles() {
+        File[] files = traceFile.getParentFile().listFiles();
+        if (files == null || files.length <= KEEP_FILES) {
+            return;
+        }
+        List<File> sessionFiles = new ArrayList<File>();
+        for (File file : files) {
+            if (file.getName().startsWith("session-") && file.getName().endsWith(".bin")) {
+                sessionFiles.add(file);
+            }
+        }
+        Collections.sort(sessionFiles, new Comparator<File>() {
+            @Override
+            public int compare(File left, File right) {
+                long diff = left.lastModified() - right.lastModified();
+                return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+            }
+        });
+        for (File file : sessionFiles.subList(0, Math.max(0, sessionFiles.size() - KEEP_FILES))) {
+            if (!file.delete()) {
+                LOGGER.debug("Could not delete {}.", file);
+            }
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace;
+
+import groovy.json.JsonOutput;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The build operations read back from a file written by {@link BuildOperationRecorder}.
+ *
+ * <p>Can be run from the command line to convert a recording to the Chrome trace event format, which can be opened in {@code chrome://tracing},
+ * and to print the number of operations and the time spent in them for each operation type:</p>
+ *
+ * <pre>java -cp «gradle lib dir»/* org.gradle.internal.operations.trace.BuildOperationRecording «recording» [«trace json»]</pre>
+ */
+public class BuildOperationRecording {
+    private final List<Operation> operations;
+    private final long droppedEvents;
+
+    private BuildOperationRecording(List<Operation> operations, long droppedEvents) {
+        this.operations = operations;
+        this.droppedEvents = droppedEvents;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("usage: BuildOperationRecording <recording> [<chrome trace json>]");
+            System.exit(1);
+        }
+        BuildOperationRecording recording = read(new File(args[0]));
+        if (args.length == 2) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(args[1]), "UTF-8"));
+            try {
+                recording.writeChromeTrace(writer);
+            } finally {
+                writer.close();
+            }
+        }
+        recording.printSummary(System.out);
+    }
+
+    public static BuildOperationRecording read(File file) throws IOException {
+        KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(file));
+        try {
+            if (decoder.readInt() != BuildOperationRecorder.MAGIC) {
+                throw new IOException(file + " is not a build operation recording.");
+            }
+            int version = decoder.readSmallInt();
+            if (version != BuildOperationRecorder.VERSION) {
+                throw new IOException(file + " is a build operation recording of unsupported version " + version + ".");
+            }
+            String[] strings = new String[decoder.readSmallInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = decoder.readString();
+            }
+            String[] threadNames = new String[decoder.readSmallInt()];
+            for (int i = 0; i < threadNames.length; i++) {
+                threadNames[i] = decoder.readString();
+            }
+
+            long droppedEvents = decoder.readSmallLong();
+            int count = decoder.readSmallInt();
+            Map<Long, Operation> running = new HashMap<Long, Operation>();
+            List<Operation> operations = new ArrayList<Operation>();
+            long time = 0;
+            long lastTime = 0;
+            for (int i = 0; i < count; i++) {
+                byte kind = decoder.readByte();
+                long id = decoder.readSmallLong();
+                long delta = decoder.readSmallLong();
+                time += (delta >>> 1) ^ -(delta & 1);
+                lastTime = Math.max(lastTime, time);
+                String threadName = threadNames[decoder.readSmallInt()];
+                if (kind == BuildOperationRecorder.START) {
+                    long parentId = decoder.readSmallLong();
+                    Operation operation = new Operation(id, parentId == 0 ? null : parentId, strings[decoder.readSmallInt()], strings[decoder.readSmallInt()], threadName, time);
+                    running.put(id, operation);
+                    operations.add(operation);
+                } else {
+                    Operation operation = running.remove(id);
+                    if (operation != null) {
+                        // Otherwise, the start of the operation was dropped
+                        operation.endTime = time;
+                        operation.failed = kind == BuildOperationRecorder.FAILED;
+                    }
+                }
+            }
+            // Operations that were still running when the recording was written end with the last event
+            for (Operation operation : running.values()) {
+                operation.endTime = lastTime;
+            }
+            return new BuildOperationRecording(operations, droppedEvents);
+        } finally {
+            decoder.close();
+        }
+    }
+
+    /**
+     * Returns the recorded operations, in the order they started.
+     */
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    /**
+     * Returns the number of events which were dropped because the recorder's buffer was full.
+     */
+    public long getDroppedEvents() {
+        return droppedEvents;
+    }
+
+    /**
+     * Writes the operations as complete events of the Chrome trace event format.
+     */
+    public void writeChromeTrace(Writer writer) throws IOException {
+        Map<String, Integer> threadIds = new LinkedHashMap<String, Integer>();
+        writer.write("{\"traceEvents\":[");
+        boolean first = true;
+        for (Operation operation : operations) {
+            Integer threadId = threadIds.get(operation.threadName);
+            if (threadId == null) {
+                threadId = threadIds.size() + 1;
+                threadIds.put(operation.threadName, threadId);
+            }
+            Map<String, Object> args = new LinkedHashMap<String, Object>();
+            args.put("id", operation.id);
+            if (operation.parentId != null) {
+                args.put("parentId", operation.parentId);
+            }
+            if (operation.failed) {
+                args.put("failed", true);
+            }
+            Map<String, Object> event = new LinkedHashMap<String, Object>();
+            event.put("name", operation.displayName);
+            event.put("cat", operation.type);
+            event.put("ph", "X");
+            event.put("ts", operation.startTime * 1000);
+            event.put("dur", operation.getDuration() * 1000);
+            event.put("pid", 1);
+            event.put("tid", threadId);
+            event.put("args", args);
+            writeEvent(writer, event, first);
+            first = false;
+        }
+        for (Map.Entry<String, Integer> entry : threadIds.entrySet()) {
+            Map<String, Object> event = new LinkedHashMap<String, Object>();
+            event.put("name", "thread_name");
+            event.put("ph", "M");
+            event.put("pid", 1);
+            event.put("tid", entry.getValue());
+            event.put("args", Collections.singletonMap("name", entry.getKey()));
+            writeEvent(writer, event, first);
+            first = false;
+        }
+        writer.write("]}\n");
+    }
+
+    private static void writeEvent(Writer writer, Map<String, Object> event, boolean first) throws IOException {
+        if (!first) {
+            writer.write(",\n");
+        }
+        writer.write(JsonOutput.toJson(event));
+    }
+
+    /**
+     * Returns the number of operations and the time spent in them for each operation type, by decreasing time spent.
+     * The time spent in an operation includes the time spent in its children.
+     */
+    public List<TypeSummary> summarize() {
+        Map<String, TypeSummary> summaries = new HashMap<String, TypeSummary>();
+        for (Operation operation : operations) {
+            TypeSummary summary = summaries.get(operation.type);
+            if (summary == null) {
+                summary = new TypeSummary(operation.type);
+                summaries.put(operation.type, summary);
+            }
+            summary.count++;
+            summary.totalTime += operation.getDuration();
+            summary.maxTime = Math.max(summary.maxTime, operation.getDuration());
+            if (operation.failed) {
+                summary.failures++;
+            }
+        }
+        List<TypeSummary> result = new ArrayList<TypeSummary>(summaries.values());
+        Collections.sort(result, new Comparator<TypeSummary>() {
+            @Override
+            public int compare(TypeSummary left, TypeSummary right) {
+                return left.totalTime < right.totalTime ? 1 : left.totalTime > right.totalTime ? -1 : left.type.compareTo(right.type);
+            }
+        });
+        return result;
+    }
+
+    public void printSummary(PrintStream out) {
+        out.println(String.format("%-50s %8s %12s %10s %8s", "Operation type", "Count", "Total (ms)", "Max (ms)", "Failed"));
+        for (TypeSummary summary : summarize()) {
+            out.println(String.format("%-50s %8d %12d %10d %8d", summary.type, summary.count, summary.totalTime, summary.maxTime, summary.failures));
+        }
+        if (droppedEvents > 0) {
+            out.println(droppedEvents + " older events were dropped.");
+        }
+    }
+
+    public static class Operation {
+        public final long id;
+        public final Long parentId;
+        public final String displayName;
+        public final String type;
+        public final String threadName;
+        public final long startTime;
+        private long endTime;
+        private boolean failed;
+
+        Operation(long id, Long parentId, String displayName, String type, String threadName, long startTime) {
+            this.id = id;
+            this.parentId = parentId;
+            this.displayName = displayName;
+            this.type = type;
+            this.threadName = threadName;
+            this.startTime = startTime;
+        }
+
+        public long getEndTime() {
+            return endTime;
+        }
+
+        public long getDuration() {
+            return endTime - startTime;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+    }
+
+    public static class TypeSummary {
+        public final String type;
+        private int count;
+        private long totalTime;
+        private long maxTime;
+        private int failures;
+
+        TypeSummary(String type) {
+            this.type = type;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getTotalTime() {
+            return totalTime;
+        }
+
+        public long getMaxTime() {
+            return maxTime;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+    }
+}
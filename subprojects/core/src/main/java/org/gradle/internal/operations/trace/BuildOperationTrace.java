@@ -22,6 +22,7 @@ import com.google.common.io.LineProcessor;
 import groovy.json.JsonOutput;
 import groovy.json.JsonSlurper;
 import org.gradle.StartParameter;
+import org.gradle.initialization.InternalFlags;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.progress.BuildOperationListener;
@@ -85,13 +86,7 @@ public class BuildOperationTrace implements Stoppable {
     public BuildOperationTrace(StartParameter startParameter, BuildOperationListenerManager listenerManager) {
         this.listenerManager = listenerManager;
 
-        Map<String, String> sysProps = startParameter.getSystemPropertiesArgs();
-        String basePath = sysProps.get(SYSPROP);
-        if (basePath == null) {
-            basePath = System.getProperty(SYSPROP);
-        }
-
-        this.basePath = basePath;
+        this.basePath = InternalFlags.getValue(startParameter, SYSPROP);
         if (this.basePath == null) {
             this.logOutputStream = null;
             return;
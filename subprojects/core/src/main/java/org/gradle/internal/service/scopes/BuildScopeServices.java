@@ -79,18 +79,20 @@ import org.gradle.cache.CacheValidator;
 import org.gradle.caching.internal.BuildCacheServices;
 import org.gradle.composite.internal.IncludedBuildRegistry;
 import org.gradle.configuration.BuildConfigurer;
+import org.gradle.configuration.CompileOperationFactory;
 import org.gradle.configuration.DefaultBuildConfigurer;
 import org.gradle.configuration.DefaultInitScriptProcessor;
 import org.gradle.configuration.DefaultScriptPluginFactory;
 import org.gradle.configuration.ImportsReader;
 import org.gradle.configuration.ScriptPluginFactory;
 import org.gradle.configuration.ScriptPluginFactorySelector;
+import org.gradle.configuration.project.BuildScriptPrecompiler;
 import org.gradle.configuration.project.BuildScriptProcessor;
 import org.gradle.configuration.project.ConfigureActionsProjectEvaluator;
 import org.gradle.configuration.project.DelayedConfigurationActions;
 import org.gradle.configuration.project.LifecycleProjectEvaluator;
+import org.gradle.configuration.project.ParallelProjectEvaluator;
 import org.gradle.configuration.project.PluginsProjectConfigureActions;
-import org.gradle.configuration.project.ProjectEvaluator;
 import org.gradle.execution.ProjectConfigurer;
 import org.gradle.execution.TaskPathProjectEvaluator;
 import org.gradle.groovy.scripts.DefaultScriptCompilerFactory;
@@ -154,6 +156,7 @@ import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.time.Clock;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.model.internal.inspect.ModelRuleSourceDetector;
 import org.gradle.plugin.management.internal.autoapply.AutoAppliedPluginHandler;
 import org.gradle.plugin.repository.internal.PluginRepositoryFactory;
@@ -226,13 +229,14 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         );
     }
 
-    protected ProjectEvaluator createProjectEvaluator(BuildOperationExecutor buildOperationExecutor, CachingServiceLocator cachingServiceLocator, ScriptPluginFactory scriptPluginFactory) {
+    protected LifecycleProjectEvaluator createProjectEvaluator(BuildOperationExecutor buildOperationExecutor, CachingServiceLocator cachingServiceLocator, ScriptPluginFactory scriptPluginFactory, BuildScriptPrecompiler buildScriptPrecompiler, WorkerLeaseService workerLeaseService) {
         ConfigureActionsProjectEvaluator withActionsEvaluator = new ConfigureActionsProjectEvaluator(
             PluginsProjectConfigureActions.from(cachingServiceLocator),
             new BuildScriptProcessor(scriptPluginFactory),
+            buildScriptPrecompiler,
             new DelayedConfigurationActions()
         );
-        return new LifecycleProjectEvaluator(buildOperationExecutor, withActionsEvaluator);
+        return new LifecycleProjectEvaluator(buildOperationExecutor, withActionsEvaluator, workerLeaseService);
     }
 
     protected TaskClassValidatorExtractor createTaskClassValidatorExtractor(List<PropertyAnnotationHandler> annotationHandlers) {
@@ -253,6 +257,11 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         );
     }
 
+    protected BuildScriptPrecompiler createBuildScriptPrecompiler(ScriptCompilerFactory scriptCompilerFactory, DocumentationRegistry documentationRegistry, ScriptSourceHasher scriptSourceHasher,
+                                                                  ExecutorFactory executorFactory, StartParameter startParameter, BuildCancellationToken cancellationToken) {
+        return new BuildScriptPrecompiler(scriptCompilerFactory, new CompileOperationFactory(documentationRegistry), scriptSourceHasher, executorFactory, startParameter, cancellationToken);
+    }
+
     protected ScriptCompilerFactory createScriptCompileFactory(ListenerManager listenerManager,
                                                                FileCacheBackedScriptClassCompiler scriptCompiler,
                                                                CrossBuildInMemoryCachingScriptClassCache cache) {
@@ -377,8 +386,9 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         );
     }
 
-    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken) {
-        return new TaskPathProjectEvaluator(cancellationToken);
+    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken, LifecycleProjectEvaluator projectEvaluator, BuildOperationExecutor buildOperationExecutor, ExecutorFactory executorFactory, WorkerLeaseService workerLeaseService) {
+        ParallelProjectEvaluator parallelProjectEvaluator = new ParallelProjectEvaluator(projectEvaluator, buildOperationExecutor, executorFactory, workerLeaseService, cancellationToken);
+        return new TaskPathProjectEvaluator(cancellationToken, parallelProjectEvaluator);
     }
 
     protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer) {
@@ -72,6 +72,7 @@ import org.gradle.internal.nativeplatform.filesystem.FileSystem;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.BuildOperationIdFactory;
 import org.gradle.internal.operations.DefaultBuildOperationQueueFactory;
+import org.gradle.internal.operations.trace.BuildOperationRecorder;
 import org.gradle.internal.operations.trace.BuildOperationTrace;
 import org.gradle.internal.progress.BuildOperationListener;
 import org.gradle.internal.progress.BuildOperationListenerManager;
@@ -89,11 +90,14 @@ import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.time.Clock;
+import org.gradle.internal.work.AdaptiveResourceClassLimits;
 import org.gradle.internal.work.AsyncWorkTracker;
 import org.gradle.internal.work.DefaultAsyncWorkTracker;
 import org.gradle.internal.work.DefaultWorkerLeaseService;
+import org.gradle.internal.work.ResourceClassLimits;
 import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.plugin.use.internal.InjectedPluginClasspath;
+import org.gradle.process.internal.health.memory.MemoryManager;
 import org.gradle.util.GradleVersion;
 
 import java.io.File;
@@ -142,6 +146,10 @@ public class BuildSessionScopeServices extends DefaultServiceRegistry {
         return new BuildOperationTrace(startParameter, listenerManager);
     }
 
+    BuildOperationRecorder createBuildOperationRecorder(StartParameter startParameter, BuildOperationListenerManager listenerManager) {
+        return new BuildOperationRecorder(startParameter, listenerManager);
+    }
+
     BuildOperationExecutor createBuildOperationExecutor(
         ListenerManager listenerManager,
         Clock clock,
@@ -151,7 +159,8 @@ public class BuildSessionScopeServices extends DefaultServiceRegistry {
         ResourceLockCoordinationService resourceLockCoordinationService,
         ParallelismConfigurationManager parallelismConfigurationManager,
         BuildOperationIdFactory buildOperationIdFactory,
-        @SuppressWarnings("unused") BuildOperationTrace buildOperationTrace // required in order to init this
+        @SuppressWarnings("unused") BuildOperationTrace buildOperationTrace, // required in order to init this
+        @SuppressWarnings("unused") BuildOperationRecorder buildOperationRecorder // required in order to init this
 
     ) {
         return new DefaultBuildOperationExecutor(
@@ -233,8 +242,15 @@ public class BuildSessionScopeServices extends DefaultServiceRegistry {
         return new DefaultAsyncWorkTracker(projectLeaseRegistry);
     }
 
-    WorkerLeaseService createWorkerLeaseService(ResourceLockCoordinationService coordinationService, ParallelismConfigurationManager parallelismConfigurationManager) {
-        return new DefaultWorkerLeaseService(coordinationService, parallelismConfigurationManager);
+    ResourceClassLimits createResourceClassLimits(MemoryManager memoryManager, ResourceLockCoordinationService coordinationService) {
+        if (AdaptiveResourceClassLimits.isEnabled()) {
+            return new AdaptiveResourceClassLimits(memoryManager, coordinationService);
+        }
+        return ResourceClassLimits.UNLIMITED;
+    }
+
+    WorkerLeaseService createWorkerLeaseService(ResourceLockCoordinationService coordinationService, ParallelismConfigurationManager parallelismConfigurationManager, ResourceClassLimits resourceClassLimits) {
+        return new DefaultWorkerLeaseService(coordinationService, parallelismConfigurationManager, resourceClassLimits);
     }
 
     UserScopeId createUserScopeId(PersistentScopeIdLoader persistentScopeIdLoader) {
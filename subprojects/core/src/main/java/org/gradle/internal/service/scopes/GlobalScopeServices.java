@@ -36,10 +36,12 @@ import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.classpath.PluginModuleRegistry;
 import org.gradle.api.internal.file.DefaultFileCollectionFactory;
 import org.gradle.api.internal.file.FileCollectionFactory;
+import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.api.internal.file.TmpDirTemporaryFileProvider;
 import org.gradle.api.internal.file.collections.DefaultDirectoryFileTreeFactory;
 import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
+import org.gradle.api.internal.file.delete.BackgroundDeleter;
 import org.gradle.api.internal.model.DefaultObjectFactory;
 import org.gradle.api.internal.model.NamedObjectInstantiator;
 import org.gradle.api.internal.provider.DefaultProviderFactory;
@@ -288,6 +290,10 @@ public class GlobalScopeServices extends BasicGlobalScopeServices {
         return new DefaultFileWatcherFactory(executorFactory, fileSystem);
     }
 
+    BackgroundDeleter createBackgroundDeleter(FileResolver fileResolver, FileSystem fileSystem, ExecutorFactory executorFactory) {
+        return new BackgroundDeleter(fileResolver, fileSystem, executorFactory);
+    }
+
     StringInterner createStringInterner() {
         return new StringInterner();
     }
@@ -41,6 +41,7 @@ import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
 import org.gradle.api.internal.initialization.loadercache.DefaultClassLoaderCache;
 import org.gradle.api.internal.initialization.loadercache.DefaultClasspathHasher;
+import org.gradle.api.internal.initialization.loadercache.DefaultJarIndexStore;
 import org.gradle.api.internal.model.NamedObjectInstantiator;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.PersistentIndexedCache;
@@ -158,8 +159,12 @@ public class GradleUserHomeScopeServices {
         return new DefaultClasspathHasher(snapshotter);
     }
 
-    HashingClassLoaderFactory createClassLoaderFactory(ClasspathHasher classpathHasher) {
-        return new DefaultHashingClassLoaderFactory(classpathHasher);
+    DefaultJarIndexStore createJarIndexStore(CacheRepository cacheRepository) {
+        return new DefaultJarIndexStore(cacheRepository);
+    }
+
+    HashingClassLoaderFactory createClassLoaderFactory(ClasspathHasher classpathHasher, DefaultJarIndexStore jarIndexStore) {
+        return new DefaultHashingClassLoaderFactory(classpathHasher, DefaultJarIndexStore.isEnabled() ? jarIndexStore : null);
     }
 
     ClassLoaderCache createClassLoaderCache(HashingClassLoaderFactory classLoaderFactory, ClasspathHasher classpathHasher) {
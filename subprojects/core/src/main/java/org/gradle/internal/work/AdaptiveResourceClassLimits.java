@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.work;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.gradle.initialization.InternalFlags;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.resources.ResourceLockCoordinationService;
+import org.gradle.process.internal.health.memory.MemoryManager;
+import org.gradle.process.internal.health.memory.OsMemoryStatus;
+import org.gradle.process.internal.health.memory.OsMemoryStatusListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+
+/**
+ * Adjusts the number of workers which can run CPU and memory bound work at the same time, based on the load of the machine and on the memory available, as reported by the {@link MemoryManager} every few seconds.
+ *
+ * <p>CPU bound work uses at most as many workers as there are processors, so that the remaining workers, when the maximum number of workers is larger, are left to work which waits for I/O.
+ * The number of workers for CPU bound work goes down by one while the load average is above one and a half per processor, and back up by one while it is below one per processor.
+ * The number of workers for memory bound work is halved while less than a tenth of the physical memory is free or the used heap of the build process is close to its maximum size, and goes back up by one once a quarter of the physical memory is free.
+ * Memory bound work is also limited by the number of workers for CPU bound work. Work which waits for I/O can use all workers.</p>
+ */
+public class AdaptiveResourceClassLimits implements ResourceClassLimits, OsMemoryStatusListener, Stoppable {
+    public static final String ADAPTIVE_WORKERS_SYSPROP = "org.gradle.internal.workers.adaptive";
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveResourceClassLimits.class);
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+    private static final double HIGH_LOAD_PER_PROCESSOR = 1.5;
+    private static final double LOW_LOAD_PER_PROCESSOR = 1.0;
+    private static final double LOW_FREE_MEMORY = 0.1;
+    private static final double HIGH_FREE_MEMORY = 0.25;
+    private static final double FULL_HEAP = 0.9;
+
+    private final MemoryManager memoryManager;
+    private final ResourceLockCoordinationService coordinationService;
+    private final OperatingSystemMXBean operatingSystem;
+    private final MemoryMXBean memory;
+    private final int processors;
+    private volatile int cpuWorkers;
+    private volatile int memoryWorkers = UNLIMITED;
+
+    public AdaptiveResourceClassLimits(MemoryManager memoryManager, ResourceLockCoordinationService coordinationService) {
+        this(memoryManager, coordinationService, ManagementFactory.getOperatingSystemMXBean(), ManagementFactory.getMemoryMXBean(), Runtime.getRuntime().availableProcessors());
+    }
+
+    @VisibleForTesting
+    AdaptiveResourceClassLimits(MemoryManager memoryManager, ResourceLockCoordinationService coordinationService, OperatingSystemMXBean operatingSystem, MemoryMXBean memory, int processors) {
+        this.memoryManager = memoryManager;
+        this.coordinationService = coordinationService;
+        this.operatingSystem = operatingSystem;
+        this.memory = memory;
+        this.processors = processors;
+        this.cpuWorkers = processors;
+        memoryManager.addListener(this);
+    }
+
+    public static boolean isEnabled() {
+        return InternalFlags.isEnabled(ADAPTIVE_WORKERS_SYSPROP);
+    }
+
+    @Override
+    public int getMaxWorkers(ResourceClass resourceClass, int maxWorkerCount) {
+        int maxWorkers;
+        switch (resourceClass) {
+            case CPU:
+                maxWorkers = cpuWorkers;
+                break;
+            case MEMORY:
+                maxWorkers = Math.min(cpuWorkers, memoryWorkers);
+                break;
+            default:
+                maxWorkers = maxWorkerCount;
+        }
+        return Math.max(1, Math.min(maxWorkers, maxWorkerCount));
+    }
+
+    @Override
+    public void onOsMemoryStatus(OsMemoryStatus osMemoryStatus) {
+        boolean increased = false;
+
+        double load = operatingSystem.getSystemLoadAverage();
+        if (load >= 0) {
+            double loadPerProcessor = load / processors;
+            if (loadPerProcessor > HIGH_LOAD_PER_PROCESSOR) {
+                cpuWorkers = Math.max(1, cpuWorkers - 1);
+                LOGGER.debug("Load average is {}, using {} worker(s) for CPU bound work.", load, cpuWorkers);
+            } else if (loadPerProcessor < LOW_LOAD_PER_PROCESSOR && cpuWorkers < processors) {
+                cpuWorkers++;
+                increased = true;
+            }
+        }
+
+        boolean heapFull = isHeapFull();
+        double freeMemory = (double) osMemoryStatus.getFreePhysicalMemory() / osMemoryStatus.getTotalPhysicalMemory();
+        if (freeMemory < LOW_FREE_MEMORY || heapFull) {
+            memoryWorkers = Math.max(1, Math.min(memoryWorkers, processors) / 2);
+            LOGGER.debug("{} of physical memory free, heap full: {}, using {} worker(s) for memory bound work.", osMemoryStatus.getFreePhysicalMemory(), heapFull, memoryWorkers);
+        } else if (freeMemory > HIGH_FREE_MEMORY && memoryWorkers != UNLIMITED) {
+            memoryWorkers = memoryWorkers + 1 >= processors ? UNLIMITED : memoryWorkers + 1;
+            increased = true;
+        }
+
+        if (increased) {
+            // Let the workers waiting for a lease try again
+            coordinationService.notifyStateChange();
+        }
+    }
+
+    private boolean isHeapFull() {
+        // Use the used heap rather than the committed heap, which does not shrink once the heap has grown, and is always at its maximum when -Xms is the same as -Xmx
+        MemoryUsage heap = memory.getHeapMemoryUsage();
+        return heap.getMax() > 0 && heap.getUsed() > heap.getMax() * FULL_HEAP;
+    }
+
+    @Override
+    public void stop() {
+        memoryManager.removeListener(this);
+    }
+}
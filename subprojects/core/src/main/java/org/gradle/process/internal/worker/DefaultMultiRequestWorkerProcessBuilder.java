@@ -20,9 +20,13 @@ import org.gradle.api.logging.LogLevel;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.classloader.ClasspathUtil;
 import org.gradle.internal.operations.BuildOperationIdentifierRegistry;
+import org.gradle.internal.serialize.Serializer;
 import org.gradle.process.internal.JavaExecHandleBuilder;
 import org.gradle.process.internal.worker.request.Receiver;
+import org.gradle.process.internal.worker.request.Request;
+import org.gradle.process.internal.worker.request.RequestArgumentSerializers;
 import org.gradle.process.internal.worker.request.RequestProtocol;
+import org.gradle.process.internal.worker.request.RequestSerializer;
 import org.gradle.process.internal.worker.request.ResponseProtocol;
 import org.gradle.process.internal.worker.request.WorkerAction;
 
@@ -38,6 +42,7 @@ class DefaultMultiRequestWorkerProcessBuilder<WORKER> implements MultiRequestWor
     private final Class<WORKER> workerType;
     private final Class<?> workerImplementation;
     private final DefaultWorkerProcessBuilder workerProcessBuilder;
+    private final RequestArgumentSerializers argumentSerializers = new RequestArgumentSerializers();
 
     static {
         try {
@@ -52,7 +57,7 @@ class DefaultMultiRequestWorkerProcessBuilder<WORKER> implements MultiRequestWor
         this.workerType = workerType;
         this.workerImplementation = workerImplementation;
         this.workerProcessBuilder = workerProcessBuilder;
-        workerProcessBuilder.worker(new WorkerAction(workerImplementation));
+        workerProcessBuilder.worker(new WorkerAction(workerImplementation, argumentSerializers));
         workerProcessBuilder.setImplementationClasspath(ClasspathUtil.getClasspath(workerImplementation.getClassLoader()).getAsURLs());
     }
 
@@ -111,6 +116,11 @@ class DefaultMultiRequestWorkerProcessBuilder<WORKER> implements MultiRequestWor
         return this;
     }
 
+    @Override
+    public <T> void registerArgumentSerializer(Class<T> argumentType, Class<? extends Serializer<T>> serializerType) {
+        argumentSerializers.register(argumentType, serializerType);
+    }
+
     @Override
     public WORKER build() {
         // Always publish process info for multi-request workers
@@ -132,6 +142,7 @@ class DefaultMultiRequestWorkerProcessBuilder<WORKER> implements MultiRequestWor
                     }
                     workerProcess.getConnection().addIncoming(ResponseProtocol.class, receiver);
                     workerProcess.getConnection().useJavaSerializationForParameters(workerImplementation.getClassLoader());
+                    workerProcess.getConnection().useParameterSerializers(RequestSerializer.create(argumentSerializers, workerImplementation.getClassLoader()));
                     requestProtocol = workerProcess.getConnection().addOutgoing(RequestProtocol.class);
                     workerProcess.getConnection().connect();
                     return workerProcess;
@@ -146,7 +157,7 @@ class DefaultMultiRequestWorkerProcessBuilder<WORKER> implements MultiRequestWor
                         requestProtocol = null;
                     }
                 }
-                requestProtocol.run(method.getName(), method.getParameterTypes(), args, BuildOperationIdentifierRegistry.getCurrentOperationIdentifier());
+                requestProtocol.run(new Request(method.getName(), method.getParameterTypes(), args, BuildOperationIdentifierRegistry.getCurrentOperationIdentifier()));
                 boolean hasResult = receiver.awaitNextResult();
                 if (!hasResult) {
                     try {
@@ -22,7 +22,10 @@ import org.gradle.internal.operations.BuildOperationIdentifierRegistry;
 import org.gradle.internal.remote.ObjectConnection;
 import org.gradle.process.internal.JavaExecHandleBuilder;
 import org.gradle.process.internal.worker.request.Receiver;
+import org.gradle.process.internal.worker.request.Request;
+import org.gradle.process.internal.worker.request.RequestArgumentSerializers;
 import org.gradle.process.internal.worker.request.RequestProtocol;
+import org.gradle.process.internal.worker.request.RequestSerializer;
 import org.gradle.process.internal.worker.request.ResponseProtocol;
 import org.gradle.process.internal.worker.request.WorkerAction;
 
@@ -113,9 +116,10 @@ class DefaultSingleRequestWorkerProcessBuilder<PROTOCOL> implements SingleReques
                     RequestProtocol requestProtocol = connection.addOutgoing(RequestProtocol.class);
                     connection.addIncoming(ResponseProtocol.class, receiver);
                     connection.useJavaSerializationForParameters(workerImplementation.getClassLoader());
+                    connection.useParameterSerializers(RequestSerializer.create(new RequestArgumentSerializers(), workerImplementation.getClassLoader()));
                     connection.connect();
                     // TODO(ew): inject BuildOperationIdentifierRegistry instead of static use
-                    requestProtocol.runThenStop(method.getName(), method.getParameterTypes(), args, BuildOperationIdentifierRegistry.getCurrentOperationIdentifier());
+                    requestProtocol.runThenStop(new Request(method.getName(), method.getParameterTypes(), args, BuildOperationIdentifierRegistry.getCurrentOperationIdentifier()));
                     boolean hasResult = receiver.awaitNextResult();
                     workerProcess.waitForStop();
                     if (!hasResult) {
@@ -16,6 +16,8 @@
 
 package org.gradle.process.internal.worker;
 
+import org.gradle.internal.serialize.Serializer;
+
 /**
  * Configures and builds multi-request workers. A multi-request worker runs zero or more requests in a forked worker process.
  *
@@ -26,6 +28,13 @@ package org.gradle.process.internal.worker;
  * <p>The worker process must be explicitly started and stopped using the methods on {@link WorkerControl}.</p>
  */
 public interface MultiRequestWorkerProcessBuilder<T> extends WorkerProcessSettings {
+    /**
+     * Registers a serializer to use for the arguments of the given type of the requests sent to the worker, instead of Java serialization.
+     * The serializer is instantiated in the worker process as well, so it must be visible to the class loader of the worker implementation.
+     * See {@link org.gradle.process.internal.worker.request.RequestArgumentSerializers} for the constructors a serializer can have.
+     */
+    <A> void registerArgumentSerializer(Class<A> argumentType, Class<? extends Serializer<A>> serializerType);
+
     /**
      * Creates a worker.
      *
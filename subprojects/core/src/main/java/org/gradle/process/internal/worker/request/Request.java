@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.worker.request;
+
+import javax.annotation.Nullable;
+
+/**
+ * A method call to make on the implementation of a worker.
+ */
+public class Request {
+    private final String methodName;
+    private final Class<?>[] paramTypes;
+    private final Object[] args;
+    private final Object operationIdentifier;
+
+    public Request(String methodName, Class<?>[] paramTypes, Object[] args, @Nullable Object operationIdentifier) {
+        this.methodName = methodName;
+        this.paramTypes = paramTypes;
+        this.args = args;
+        this.operationIdentifier = operationIdentifier;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public Class<?>[] getParamTypes() {
+        return paramTypes;
+    }
+
+    public Object[] getArgs() {
+        return args;
+    }
+
+    @Nullable
+    public Object getOperationIdentifier() {
+        return operationIdentifier;
+    }
+
+    @Override
+    public String toString() {
+        return "Request{methodName='" + methodName + "'}";
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.worker.request;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.logging.events.OperationIdentifier;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializer;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The serializers to use for the arguments of the requests sent to a worker, by argument type. Arguments of any other type are serialized using Java serialization.
+ *
+ * <p>The serializers are created in both the build process and the worker process, using the class loader of the worker implementation, so they are referenced by name.
+ * A serializer type should have either a public constructor that takes the {@link ClassLoader} to load classes from, or a public no-args constructor.</p>
+ */
+public class RequestArgumentSerializers implements Serializable {
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int OPERATION_IDENTIFIER = 2;
+    private static final int JAVA_SERIALIZATION = 3;
+    private static final int FIRST_REGISTERED = 4;
+
+    private final Map<String, String> serializerTypesByArgumentType = new LinkedHashMap<String, String>();
+
+    public <T> void register(Class<T> argumentType, Class<? extends Serializer<T>> serializerType) {
+        serializerTypesByArgumentType.put(argumentType.getName(), serializerType.getName());
+    }
+
+    /**
+     * Creates a serializer for arguments of any type, which loads classes from the given class loader.
+     */
+    public Serializer<Object> build(ClassLoader classLoader) {
+        Map<Class<?>, Integer> tagsByType = new HashMap<Class<?>, Integer>();
+        List<Serializer<Object>> serializers = new ArrayList<Serializer<Object>>();
+        for (Map.Entry<String, String> entry : serializerTypesByArgumentType.entrySet()) {
+            try {
+                Class<?> argumentType = Class.forName(entry.getKey(), false, classLoader);
+                Class<?> serializerType = Class.forName(entry.getValue(), true, classLoader);
+                tagsByType.put(argumentType, FIRST_REGISTERED + serializers.size());
+                serializers.add(newSerializer(serializerType, classLoader));
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        return new ArgumentSerializer(tagsByType, serializers, new DefaultSerializer<Object>(classLoader));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Serializer<Object> newSerializer(Class<?> serializerType, ClassLoader classLoader) throws Exception {
+        for (Constructor<?> constructor : serializerType.getConstructors()) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            if (parameterTypes.length == 1 && parameterTypes[0].equals(ClassLoader.class)) {
+                return (Serializer<Object>) constructor.newInstance(classLoader);
+            }
+        }
+        return (Serializer<Object>) serializerType.newInstance();
+    }
+
+    private static class ArgumentSerializer implements Serializer<Object> {
+        private final Map<Class<?>, Integer> tagsByType;
+        private final List<Serializer<Object>> serializers;
+        private final Serializer<Object> javaSerializer;
+
+        ArgumentSerializer(Map<Class<?>, Integer> tagsByType, List<Serializer<Object>> serializers, Serializer<Object> javaSerializer) {
+            this.tagsByType = tagsByType;
+            this.serializers = serializers;
+            this.javaSerializer = javaSerializer;
+        }
+
+        @Override
+        public Object read(Decoder decoder) throws Exception {
+            int tag = decoder.readSmallInt();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case STRING:
+                    return decoder.readString();
+                case OPERATION_IDENTIFIER:
+                    return new OperationIdentifier(decoder.readLong());
+                case JAVA_SERIALIZATION:
+                    return javaSerializer.read(decoder);
+                default:
+                    int index = tag - FIRST_REGISTERED;
+                    if (index >= serializers.size()) {
+                        throw new IllegalArgumentException(String.format("Unexpected type tag %d found.", tag));
+                    }
+                    return serializers.get(index).read(decoder);
+            }
+        }
+
+        @Override
+        public void write(Encoder encoder, Object value) throws Exception {
+            if (value == null) {
+                encoder.writeSmallInt(NULL);
+                return;
+            }
+            Class<?> type = value.getClass();
+            if (type.equals(String.class)) {
+                encoder.writeSmallInt(STRING);
+                encoder.writeString((String) value);
+            } else if (type.equals(OperationIdentifier.class)) {
+                encoder.writeSmallInt(OPERATION_IDENTIFIER);
+                encoder.writeLong(((OperationIdentifier) value).getId());
+            } else {
+                Integer tag = tagsByType.get(type);
+                if (tag != null) {
+                    encoder.writeSmallInt(tag);
+                    serializers.get(tag - FIRST_REGISTERED).write(encoder, value);
+                } else {
+                    encoder.writeSmallInt(JAVA_SERIALIZATION);
+                    javaSerializer.write(encoder, value);
+                }
+            }
+        }
+    }
+}
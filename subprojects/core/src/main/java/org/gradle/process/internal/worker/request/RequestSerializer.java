@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.worker.request;
+
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializerRegistry;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SerializerRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes a {@link Request} field by field, instead of using Java serialization for the whole request.
+ */
+public class RequestSerializer implements Serializer<Request> {
+    private static final Object[] ZERO_ARGS = new Object[0];
+    private static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<String, Class<?>>();
+
+    static {
+        for (Class<?> type : new Class<?>[]{Boolean.TYPE, Byte.TYPE, Character.TYPE, Short.TYPE, Integer.TYPE, Long.TYPE, Float.TYPE, Double.TYPE}) {
+            PRIMITIVE_TYPES.put(type.getName(), type);
+        }
+    }
+
+    private final Serializer<Object> argumentSerializer;
+    private final ClassLoader classLoader;
+
+    public RequestSerializer(Serializer<Object> argumentSerializer, ClassLoader classLoader) {
+        this.argumentSerializer = argumentSerializer;
+        this.classLoader = classLoader;
+    }
+
+    public static SerializerRegistry create(RequestArgumentSerializers argumentSerializers, ClassLoader classLoader) {
+        DefaultSerializerRegistry registry = new DefaultSerializerRegistry(false);
+        registry.register(Request.class, new RequestSerializer(argumentSerializers.build(classLoader), classLoader));
+        return registry;
+    }
+
+    @Override
+    public Request read(Decoder decoder) throws Exception {
+        String methodName = decoder.readString();
+        Class<?>[] paramTypes = new Class<?>[decoder.readSmallInt()];
+        for (int i = 0; i < paramTypes.length; i++) {
+            paramTypes[i] = loadClass(decoder.readString());
+        }
+        int argCount = decoder.readSmallInt();
+        Object[] args = argCount == 0 ? ZERO_ARGS : new Object[argCount];
+        for (int i = 0; i < argCount; i++) {
+            args[i] = argumentSerializer.read(decoder);
+        }
+        Object operationIdentifier = argumentSerializer.read(decoder);
+        return new Request(methodName, paramTypes, args, operationIdentifier);
+    }
+
+    @Override
+    public void write(Encoder encoder, Request request) throws Exception {
+        encoder.writeString(request.getMethodName());
+        Class<?>[] paramTypes = request.getParamTypes();
+        encoder.writeSmallInt(paramTypes.length);
+        for (Class<?> paramType : paramTypes) {
+            encoder.writeString(paramType.getName());
+        }
+        // A method without parameters is called with null arguments
+        Object[] args = request.getArgs() == null ? ZERO_ARGS : request.getArgs();
+        encoder.writeSmallInt(args.length);
+        for (Object arg : args) {
+            argumentSerializer.write(encoder, arg);
+        }
+        argumentSerializer.write(encoder, request.getOperationIdentifier());
+    }
+
+    private Class<?> loadClass(String name) throws ClassNotFoundException {
+        Class<?> type = PRIMITIVE_TYPES.get(name);
+        return type != null ? type : Class.forName(name, false, classLoader);
+    }
+}
@@ -35,6 +35,7 @@ import java.util.concurrent.CountDownLatch;
 
 public class WorkerAction implements Action<WorkerProcessContext>, Serializable, RequestProtocol, StreamFailureHandler {
     private final String workerImplementationName;
+    private final RequestArgumentSerializers argumentSerializers;
     private transient CountDownLatch completed;
     private transient ResponseProtocol responder;
     private transient Throwable failure;
@@ -43,7 +44,12 @@ public class WorkerAction implements Action<WorkerProcessContext>, Serializable,
     private InstantiatorFactory instantiatorFactory;
 
     public WorkerAction(Class<?> workerImplementation) {
+        this(workerImplementation, new RequestArgumentSerializers());
+    }
+
+    public WorkerAction(Class<?> workerImplementation, RequestArgumentSerializers argumentSerializers) {
         this.workerImplementationName = workerImplementation.getName();
+        this.argumentSerializers = argumentSerializers;
     }
 
     @Override
@@ -61,6 +67,7 @@ public class WorkerAction implements Action<WorkerProcessContext>, Serializable,
 
         ObjectConnection connection = workerProcessContext.getServerConnection();
         connection.addIncoming(RequestProtocol.class, this);
+        connection.useParameterSerializers(RequestSerializer.create(argumentSerializers, workerImplementation != null ? workerImplementation.getClassLoader() : getClass().getClassLoader()));
         responder = connection.addOutgoing(ResponseProtocol.class);
         connection.connect();
 
@@ -78,26 +85,26 @@ public class WorkerAction implements Action<WorkerProcessContext>, Serializable,
     }
 
     @Override
-    public void runThenStop(String methodName, Class<?>[] paramTypes, Object[] args, Object operationIdentifier) {
+    public void runThenStop(Request request) {
         try {
-            run(methodName, paramTypes, args, operationIdentifier);
+            run(request);
         } finally {
             stop();
         }
     }
 
     @Override
-    public void run(String methodName, Class<?>[] paramTypes, Object[] args, Object operationIdentifier) {
+    public void run(Request request) {
         if (failure != null) {
             responder.infrastructureFailed(failure);
             return;
         }
         try {
-            Method method = workerImplementation.getDeclaredMethod(methodName, paramTypes);
-            BuildOperationIdentifierRegistry.setCurrentOperationIdentifier(operationIdentifier);
+            Method method = workerImplementation.getDeclaredMethod(request.getMethodName(), request.getParamTypes());
+            BuildOperationIdentifierRegistry.setCurrentOperationIdentifier(request.getOperationIdentifier());
             Object result;
             try {
-                result = method.invoke(implementation, args);
+                result = method.invoke(implementation, request.getArgs());
             } catch (InvocationTargetException e) {
                 Throwable failure = e.getCause();
                 if (failure instanceof NoClassDefFoundError) {
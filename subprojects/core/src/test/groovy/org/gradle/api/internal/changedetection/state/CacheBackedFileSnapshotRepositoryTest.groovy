@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.cache.PersistentIndexedCache
+import org.gradle.internal.Factory
+import org.gradle.internal.hash.Hashing
+import org.gradle.internal.serialize.DefaultSerializerRegistry
+import org.gradle.testfixtures.internal.InMemoryIndexedCache
+import spock.lang.Specification
+
+import static org.gradle.api.internal.changedetection.state.TaskFilePropertyCompareStrategy.ORDERED
+import static org.gradle.api.internal.changedetection.state.TaskFilePropertyCompareStrategy.UNORDERED
+
+class CacheBackedFileSnapshotRepositoryTest extends Specification {
+    def cacheAccess = Stub(TaskHistoryStore) {
+        createCache(_, _, _, _, _) >> { String name, Class keyType, valueSerializer, int maxEntries, boolean cacheInMemory ->
+            new InMemoryIndexedCache(valueSerializer)
+        }
+        useCache(_) >> { Factory action -> action.create() }
+    }
+    def repository = new CacheBackedFileSnapshotRepository(cacheAccess, createSerializer())
+
+    def "snapshots with the same content have the same id"() {
+        expect:
+        snapshot("/a": "a").storageId == snapshot("/a": "a").storageId
+        snapshot("/a": "a").storageId != snapshot("/a": "b").storageId
+        snapshot("/a": "a").storageId != snapshot("/b": "a").storageId
+        snapshot("/a": "a").storageId != snapshot(ORDERED, "/a": "a").storageId
+    }
+
+    def "id covers the absolute paths of snapshots with normalized paths"() {
+        expect:
+        relativeSnapshot("/a/file": "file").hash == relativeSnapshot("/b/file": "file").hash
+        relativeSnapshot("/a/file": "file").storageId != relativeSnapshot("/b/file": "file").storageId
+        relativeSnapshot("/a/file": "file").storageId == relativeSnapshot("/a/file": "file").storageId
+    }
+
+    def "id does not depend on whether the hash of the snapshot has been calculated"() {
+        def hashed = snapshot("/a": "a")
+        def id = snapshot("/a": "a").storageId
+
+        when:
+        hashed.hash
+
+        then:
+        hashed.storageId == id
+    }
+
+    def "stores snapshots which are not stored yet"() {
+        def a = snapshot("/a": "a")
+        def b = snapshot("/b": "b")
+
+        when:
+        def bytesWritten = repository.update(snapshots(a, b), [] as Set)
+
+        then:
+        bytesWritten > 0
+        repository.get(a.storageId).snapshots.keySet() == ["/a"] as Set
+        repository.get(b.storageId).snapshots.keySet() == ["/b"] as Set
+
+        when:
+        bytesWritten = repository.update(snapshots(a, b), [a.storageId, b.storageId] as Set)
+
+        then:
+        bytesWritten == 0
+    }
+
+    def "updates the references while holding the lock on the cache"() {
+        def referenceCounts = Mock(PersistentIndexedCache)
+        def locked = false
+        def cacheAccess = Stub(TaskHistoryStore) {
+            createCache("fileSnapshots", _, _, _, _) >> new InMemoryIndexedCache(createSerializer())
+            createCache("fileSnapshotReferences", _, _, _, _) >> referenceCounts
+            useCache(_) >> { Factory action ->
+                locked = true
+                try {
+                    return action.create()
+                } finally {
+                    locked = false
+                }
+            }
+        }
+        def repository = new CacheBackedFileSnapshotRepository(cacheAccess, createSerializer())
+        def a = snapshot("/a": "a")
+
+        when:
+        repository.update(snapshots(a), [] as Set)
+
+        then:
+        1 * referenceCounts.get(a.storageId) >> {
+            assert locked
+            null
+        }
+        1 * referenceCounts.put(a.storageId, 1) >> {
+            assert locked
+        }
+        !locked
+    }
+
+    def "does not write snapshots again which are referenced by another execution"() {
+        def a = snapshot("/a": "a")
+        repository.update(snapshots(a), [] as Set)
+
+        expect:
+        repository.update(snapshots(a), [] as Set) == 0
+    }
+
+    def "removes snapshots which are not referenced anymore"() {
+        def a = snapshot("/a": "a")
+        def b = snapshot("/b": "b")
+        def c = snapshot("/c": "c")
+        // Two executions referencing a
+        repository.update(snapshots(a, b), [] as Set)
+        repository.update(snapshots(a), [] as Set)
+
+        when:
+        repository.update(snapshots(c), [a.storageId, b.storageId] as Set)
+
+        then:
+        repository.get(a.storageId) != null
+        repository.get(b.storageId) == null
+        repository.get(c.storageId) != null
+
+        when:
+        repository.update(snapshots(c), [a.storageId] as Set)
+
+        then:
+        repository.get(a.storageId) == null
+        repository.get(c.storageId) != null
+    }
+
+    private static Map snapshots(FileCollectionSnapshot... snapshots) {
+        snapshots.collectEntries { [it.storageId, it] }
+    }
+
+    private static FileCollectionSnapshot snapshot(Map<String, String> contents, TaskFilePropertyCompareStrategy compareStrategy = UNORDERED) {
+        new DefaultFileCollectionSnapshot(contents.collectEntries { path, content ->
+            [path, new NonNormalizedFileSnapshot(path, new FileHashSnapshot(Hashing.md5().hashString(content)))]
+        }, compareStrategy, true)
+    }
+
+    private static FileCollectionSnapshot relativeSnapshot(Map<String, String> contents) {
+        new DefaultFileCollectionSnapshot(contents.collectEntries { path, content ->
+            [path, new DefaultNormalizedFileSnapshot(path.substring(path.lastIndexOf("/") + 1), new FileHashSnapshot(Hashing.md5().hashString(content)))]
+        }, UNORDERED, false)
+    }
+
+    private static createSerializer() {
+        def registry = new DefaultSerializerRegistry()
+        registry.register(DefaultFileCollectionSnapshot, new DefaultFileCollectionSnapshot.SerializerImpl(new StringInterner()))
+        registry.build(FileCollectionSnapshot)
+    }
+}
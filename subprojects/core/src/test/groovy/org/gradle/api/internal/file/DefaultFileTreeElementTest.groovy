@@ -22,6 +22,8 @@ import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
 
+import java.nio.channels.FileChannel
+
 class DefaultFileTreeElementTest extends Specification {
     @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
 
@@ -36,4 +38,27 @@ class DefaultFileTreeElementTest extends Specification {
         expect:
         e.mode == 0644
     }
+
+    def "copies file"() {
+        def f = tmpDir.createFile("f") << "some content"
+        def target = tmpDir.file("target")
+        def e = new DefaultFileTreeElement(f, null, Stub(Chmod), Stub(Stat))
+
+        when:
+        e.copyFile(target)
+
+        then:
+        target.text == "some content"
+    }
+
+    def "stops transferring when the source file gets shorter"() {
+        def source = Stub(FileChannel) {
+            size() >> 10
+            transferTo(0, 10, _) >> 4
+            transferTo(4, 6, _) >> 0
+        }
+
+        expect:
+        !DefaultFileTreeElement.transfer(source, Stub(FileChannel))
+    }
 }
@@ -153,6 +153,38 @@ class DefaultDirectoryWalkerTest extends AbstractProjectBuilderSpec {
         visitor.assertExpectations()
     }
 
+    def doesNotListDirectoriesWhichCannotContainIncludedFiles() {
+        given:
+        def root = temporaryFolder.createDir("root")
+        def included = root.createDir("src").createFile("a.txt")
+        def notIncluded = root.createDir("build")
+        notIncluded.createFile("b.txt")
+        def excluded = root.createDir("src/skip")
+        excluded.createFile("c.txt")
+
+        and:
+        def listed = []
+        def walker = new DefaultDirectoryWalker(TestFiles.fileSystem()) {
+            @Override
+            protected File[] getChildren(File file) {
+                listed << file
+                return super.getChildren(file)
+            }
+        }
+        def patterns = new PatternSet()
+        patterns.include("src/**/*.txt")
+        patterns.exclude("**/skip")
+        def fileTree = new DirectoryFileTree(root, patterns, { walker } as Factory, TestFiles.fileSystem(), false)
+
+        when:
+        visitor.setExpectedVisitations([[root.file("src")], [included]])
+        fileTree.visit(visitor)
+
+        then:
+        visitor.assertExpectations()
+        listed == [root, root.file("src")]
+    }
+
     def visitorCanStopVisit() {
         given:
         def root = temporaryFolder.createDir("root")
@@ -26,6 +26,7 @@ import org.gradle.api.internal.file.collections.DefaultDirectoryWalker
 import org.gradle.api.internal.file.collections.DirectoryFileTree
 import org.gradle.api.internal.file.collections.ReproducibleDirectoryWalker
 import org.gradle.api.tasks.util.PatternSet
+import org.gradle.api.tasks.util.internal.CompiledPatternSetSpec
 import org.gradle.internal.Factory
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -112,6 +113,39 @@ class Jdk7DirectoryWalkerTest extends Specification {
         walkerInstance << [new DefaultDirectoryWalker(), new Jdk7DirectoryWalker(), new ReproducibleDirectoryWalker()]
     }
 
+    @Unroll
+    def "matching by compiled patterns visits the same elements as matching by spec - walker: #walkerInstance.class.simpleName"() {
+        given:
+        def rootDir = tmpDir.createDir("root")
+        ["a.txt", "a/b/c.txt", "a/b/c.html", "a/skip/d.txt", "b/a/e.txt", "b/c/f.TXT", ".git/g.txt", "h/.svn/i.txt"].each {
+            rootDir.file(it).createFile()
+        }
+
+        def patterns = new PatternSet()
+        patterns.include("**/*.txt", "b/c/", "a/**/b/*")
+        patterns.exclude("a/skip", "**/a/*.txt")
+        patterns.caseSensitive = caseSensitive
+        def uncompiledPatterns = new PatternSet()
+        uncompiledPatterns.copyFrom(patterns)
+        uncompiledPatterns.exclude { false }
+
+        expect:
+        patterns.asSpec instanceof CompiledPatternSetSpec
+        !(uncompiledPatterns.asSpec instanceof CompiledPatternSetSpec)
+        visitedPaths(rootDir, patterns, walkerInstance) == visitedPaths(rootDir, uncompiledPatterns, walkerInstance)
+
+        where:
+        [walkerInstance, caseSensitive] << [[new DefaultDirectoryWalker(), new Jdk7DirectoryWalker(), new ReproducibleDirectoryWalker()], [true, false]].combinations()
+    }
+
+    private static Set<String> visitedPaths(File rootDir, PatternSet patterns, walkerInstance) {
+        def fileTree = new DirectoryFileTree(rootDir, patterns, { walkerInstance } as Factory, TestFiles.fileSystem(), false)
+        def visited = [] as Set
+        def visitClosure = { visited << it.relativePath.toString() }
+        fileTree.visit([visitFile: visitClosure, visitDir: visitClosure] as FileVisitor)
+        visited
+    }
+
     def "both DirectoryWalker implementations return same set of files and attributes"() {
         given:
         def rootDir = tmpDir.createDir("root")
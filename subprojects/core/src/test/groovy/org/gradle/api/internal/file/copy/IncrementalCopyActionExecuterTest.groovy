@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.copy
+
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.reflect.DirectInstantiator
+import org.gradle.test.fixtures.file.WorkspaceTest
+
+class IncrementalCopyActionExecuterTest extends WorkspaceTest {
+    def resolver = TestFiles.resolver(testDirectory)
+    def copySpec = new DestinationRootCopySpec(resolver, new DefaultCopySpec(resolver, DirectInstantiator.INSTANCE))
+
+    def "copies only out-of-date files and deletes targets of removed files"() {
+        given:
+        def changed = file("src/changed.txt").createFile()
+        file("src/unchanged.txt").createFile()
+        def removed = file("src/removed.txt")
+        file("dest/unchanged.txt").text = "previous"
+        file("dest/removed.txt").createFile()
+        copySpec.with {
+            into "dest"
+            from "src"
+        }
+
+        when:
+        def result = execute([changed] as Set, [removed] as Set)
+
+        then:
+        result.didWork
+        file("dest").assertHasDescendants("changed.txt", "unchanged.txt")
+        file("dest/unchanged.txt").text == "previous"
+    }
+
+    def "copies duplicates of out-of-date files again so the last source still wins"() {
+        given:
+        def changed = file("first/file.txt") << "first"
+        file("second/file.txt") << "second"
+        copySpec.with {
+            into "dest"
+            from "first"
+            from "second"
+        }
+
+        when:
+        execute([changed] as Set, [] as Set)
+
+        then:
+        file("dest/file.txt").text == "second"
+    }
+
+    def "does not delete targets which are still copied from another source"() {
+        given:
+        def removed = file("first/file.txt")
+        def added = file("second/file.txt") << "second"
+        copySpec.with {
+            into "dest"
+            from "first"
+            from "second"
+        }
+
+        when:
+        execute([added] as Set, [removed] as Set)
+
+        then:
+        file("dest/file.txt").text == "second"
+    }
+
+    def "cannot copy incrementally when the spec has copy actions"() {
+        given:
+        copySpec.into "dest"
+        copySpec.from "src"
+        assert IncrementalCopyActionExecuter.canCopyIncrementally(copySpec)
+
+        when:
+        copySpec.rename "a", "b"
+
+        then:
+        !IncrementalCopyActionExecuter.canCopyIncrementally(copySpec)
+    }
+
+    private execute(Set<File> outOfDate, Set<File> removed) {
+        def destinationResolver = resolver.newResolver(file("dest"))
+        def executer = new IncrementalCopyActionExecuter(DirectInstantiator.INSTANCE, TestFiles.fileSystem(), null, 1, outOfDate, removed, destinationResolver)
+        return executer.execute(copySpec, new FileCopyAction(destinationResolver))
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.copy
+
+import org.gradle.api.GradleException
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.reflect.DirectInstantiator
+import org.gradle.test.fixtures.file.WorkspaceTest
+
+class ParallelCopyActionProcessingStreamTest extends WorkspaceTest {
+    def resolver = TestFiles.resolver(testDirectory)
+    def copySpec = new DestinationRootCopySpec(resolver, new DefaultCopySpec(resolver, DirectInstantiator.INSTANCE))
+    def executorFactory = new DefaultExecutorFactory()
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "copies all files"() {
+        given:
+        100.times { file("src/dir${it % 10}/file${it}.txt") << "content $it" }
+        copySpec.with {
+            into "dest"
+            from "src"
+        }
+
+        when:
+        def result = execute()
+
+        then:
+        result.didWork
+        100.times { assert file("dest/dir${it % 10}/file${it}.txt").text == "content $it" }
+    }
+
+    def "later sources still win when copying to the same target"() {
+        given:
+        10.times { file("src$it/file.txt") << "source $it" }
+        copySpec.into "dest"
+        10.times { copySpec.from "src$it" }
+
+        when:
+        execute()
+
+        then:
+        file("dest/file.txt").text == "source 9"
+    }
+
+    def "rethrows failure of first file in visiting order"() {
+        given:
+        file("src/a.txt") << "a"
+        file("src/b.txt") << "b"
+        file("dest/a.txt").createDir()
+        file("dest/b.txt").createDir()
+        copySpec.with {
+            into "dest"
+            from "src"
+        }
+
+        when:
+        execute()
+
+        then:
+        def e = thrown(GradleException)
+        e.message.startsWith("Could not copy file '${file("src/a.txt")}'")
+    }
+
+    def "copies files which have copy actions on the visiting thread"() {
+        given:
+        file("src/a.txt") << "a"
+        copySpec.with {
+            into "dest"
+            from "src"
+            rename "a.txt", "b.txt"
+        }
+
+        when:
+        def stream = new CopyActionExecuter(DirectInstantiator.INSTANCE, TestFiles.fileSystem(), false, executorFactory, 4).createProcessingStream(copySpec)
+
+        then:
+        !(stream instanceof ParallelCopyActionProcessingStream)
+    }
+
+    private execute() {
+        def destinationResolver = resolver.newResolver(file("dest"))
+        def executer = new CopyActionExecuter(DirectInstantiator.INSTANCE, TestFiles.fileSystem(), false, executorFactory, 4)
+        return executer.execute(copySpec, new FileCopyAction(destinationResolver))
+    }
+}
@@ -19,6 +19,7 @@ import org.gradle.api.Action
 import org.gradle.api.file.DeleteSpec
 import org.gradle.api.internal.file.FileResolver
 import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.Requires
@@ -149,6 +150,117 @@ class DeleterTest extends Specification {
         didWork
     }
 
+    def deletesDirectoryTreeInParallel() {
+        given:
+        def executorFactory = new DefaultExecutorFactory()
+        def parallelDelete = new Deleter(resolver, fileSystem(), executorFactory, 4, null, null)
+        TestFile dir = tmpDir.getTestDirectory().file("somedir")
+        (1..5).each { i ->
+            (1..5).each { j ->
+                dir.file("dir$i/sub$j/file").createFile()
+            }
+            dir.file("file$i").createFile()
+        }
+
+        when:
+        boolean didWork = parallelDelete.delete(dir)
+
+        then:
+        dir.assertDoesNotExist()
+        didWork
+
+        cleanup:
+        executorFactory.stop()
+    }
+
+    @Requires([TestPrecondition.UNIX_DERIVATIVE])
+    def doesNotDeleteFilesInsideSymlinkDirWhenDeletingInParallel() {
+        given:
+        def executorFactory = new DefaultExecutorFactory()
+        def parallelDelete = new Deleter(resolver, fileSystem(), executorFactory, 4, null, null)
+        def keepTxt = tmpDir.createFile("originalDir", "keep.txt")
+        def dir = tmpDir.createDir("dir")
+        fileSystem().createSymbolicLink(dir.file("link"), keepTxt.parentFile)
+
+        when:
+        parallelDelete.delete(dir)
+
+        then:
+        dir.assertDoesNotExist()
+        keepTxt.assertExists()
+
+        cleanup:
+        executorFactory.stop()
+    }
+
+    def movesDirectoryToTrashAndDeletesItInBackground() {
+        given:
+        def executorFactory = new DefaultExecutorFactory()
+        def backgroundDeleter = new BackgroundDeleter(resolver, fileSystem(), executorFactory)
+        def trashDir = tmpDir.file("trash")
+        def backgroundDelete = new Deleter(resolver, fileSystem(), null, 1, backgroundDeleter, trashDir)
+        TestFile dir = tmpDir.getTestDirectory().file("somedir")
+        dir.file("sub/child").createFile()
+        TestFile file = tmpDir.getTestDirectory().file("somefile").createFile()
+
+        when:
+        boolean didWork = backgroundDelete.delete(dir, file)
+
+        then:
+        dir.assertDoesNotExist()
+        file.assertDoesNotExist()
+        didWork
+
+        when:
+        backgroundDeleter.stop()
+
+        then:
+        trashDir.assertIsEmptyDir()
+
+        cleanup:
+        executorFactory.stop()
+    }
+
+    def deletesWhatIsLeftInTrashDirectory() {
+        given:
+        def executorFactory = new DefaultExecutorFactory()
+        def backgroundDeleter = new BackgroundDeleter(resolver, fileSystem(), executorFactory)
+        def trashDir = tmpDir.file("trash")
+        trashDir.file("leftover/child").createFile()
+        TestFile dir = tmpDir.getTestDirectory().file("somedir").createDir()
+
+        when:
+        backgroundDeleter.moveToTrash(dir, trashDir, false)
+        backgroundDeleter.stop()
+
+        then:
+        dir.assertDoesNotExist()
+        trashDir.assertIsEmptyDir()
+
+        cleanup:
+        executorFactory.stop()
+    }
+
+    def deletesDirectoryInPlaceWhenItCannotBeMovedToTrash() {
+        given:
+        def executorFactory = new DefaultExecutorFactory()
+        def backgroundDeleter = new BackgroundDeleter(resolver, fileSystem(), executorFactory)
+        def trashDir = tmpDir.getTestDirectory().file("somefile").createFile().file("trash")
+        def backgroundDelete = new Deleter(resolver, fileSystem(), null, 1, backgroundDeleter, trashDir)
+        TestFile dir = tmpDir.getTestDirectory().file("somedir")
+        dir.file("sub/child").createFile()
+
+        when:
+        backgroundDelete.delete(dir)
+
+        then:
+        dir.assertDoesNotExist()
+
+        cleanup:
+        backgroundDeleter.stop()
+        executorFactory.stop()
+    }
+
     def Action<? super DeleteSpec> deleteAction(final boolean followSymlinks, final Object... paths) {
         return new Action<DeleteSpec>() {
             @Override
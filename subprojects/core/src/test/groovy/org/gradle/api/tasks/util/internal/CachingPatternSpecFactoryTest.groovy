@@ -63,12 +63,29 @@ class CachingPatternSpecFactoryTest extends Specification {
         given:
         def patternSet = new PatternSet(new CachingPatternSpecFactory())
         patternSet.include("pattern")
-        def spec = patternSet.getAsSpec()
+        def compiledSpec = patternSet.getAsSpec()
+        def spec = compiledSpec.spec
         expect:
+        compiledSpec instanceof CompiledPatternSetSpec
         spec instanceof AndSpec
         spec.specs.size() == 2
         spec.specs[0] instanceof CachingPatternSpecFactory.CachingSpec
         spec.specs[1] instanceof NotSpec
         spec.specs[1].sourceSpec instanceof CachingPatternSpecFactory.CachingSpec
     }
+
+    def "check that compiled patterns are cached"() {
+        given:
+        def factory = new CachingPatternSpecFactory()
+        def patternSet = new PatternSet(factory)
+        patternSet.include("pattern")
+        patternSet.exclude("other")
+        def otherPatternSet = new PatternSet(factory)
+        otherPatternSet.include("pattern")
+        otherPatternSet.exclude("other")
+
+        expect:
+        patternSet.getAsSpec().includes.is(otherPatternSet.getAsSpec().includes)
+        patternSet.getAsSpec().excludes.is(otherPatternSet.getAsSpec().excludes)
+    }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project
+
+import org.gradle.StartParameter
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.initialization.ClassLoaderScope
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.configuration.CompileOperationFactory
+import org.gradle.groovy.scripts.ScriptCompiler
+import org.gradle.groovy.scripts.ScriptCompilerFactory
+import org.gradle.groovy.scripts.ScriptRunner
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.groovy.scripts.internal.ScriptSourceHasher
+import org.gradle.initialization.BuildCancellationToken
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.resource.TextResource
+import org.gradle.plugin.management.internal.DefaultPluginRequests
+import org.gradle.plugin.management.internal.PluginRequestInternal
+import org.gradle.plugin.management.internal.PluginRequests
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class BuildScriptPrecompilerTest extends Specification {
+    def scriptCompilerFactory = Mock(ScriptCompilerFactory)
+    def hasher = Mock(ScriptSourceHasher)
+    def executor = Mock(ManagedExecutor) {
+        execute(_) >> { Runnable action -> action.run() }
+    }
+    def executorFactory = Stub(ExecutorFactory) {
+        create(_, _) >> executor
+    }
+    def startParameter = new StartParameter()
+    def cancellationToken = Stub(BuildCancellationToken)
+    def precompiler = new BuildScriptPrecompiler(scriptCompilerFactory, new CompileOperationFactory(new DocumentationRegistry()), hasher, executorFactory, startParameter, cancellationToken)
+
+    def classLoader = new URLClassLoader(new URL[0])
+    def scope = Stub(ClassLoaderScope) {
+        isLocked() >> true
+        getExportClassLoader() >> classLoader
+    }
+    def project = Stub(ProjectInternal) {
+        getClassLoaderScope() >> scope
+    }
+    def childProjects = [:]
+
+    def setup() {
+        project.getChildProjects() >> childProjects
+        startParameter.systemPropertiesArgs[BuildScriptPrecompiler.PRECOMPILE_SCRIPTS_SYSPROP] = "true"
+    }
+
+    def "does nothing when not enabled"() {
+        childProject("a")
+        startParameter.systemPropertiesArgs.clear()
+
+        when:
+        precompiler.execute(project)
+
+        then:
+        0 * scriptCompilerFactory._
+        0 * hasher._
+    }
+
+    def "does nothing when the class loader of the project is not known yet"() {
+        childProject("a")
+        def project = Stub(ProjectInternal) {
+            getChildProjects() >> childProjects
+            getClassLoaderScope() >> Stub(ClassLoaderScope) {
+                isLocked() >> false
+            }
+        }
+
+        when:
+        precompiler.execute(project)
+
+        then:
+        0 * scriptCompilerFactory._
+    }
+
+    def "compiles both passes of child build scripts against the class loader of the project"() {
+        def source = childProject("a")
+        def compiler = Mock(ScriptCompiler)
+
+        when:
+        precompiler.execute(project)
+
+        then:
+        1 * hasher.hash(source) >> HashCode.fromInt(1)
+        1 * scriptCompilerFactory.createCompiler(source) >> compiler
+        1 * compiler.compile(_, { it.id == "cp_proj" }, classLoader, _) >> runner(false, new DefaultPluginRequests([]))
+        1 * compiler.compile(_, { it.id == "proj" }, classLoader, _)
+    }
+
+    @Unroll
+    def "compiles only the first pass of child build scripts which declare a build script classpath or plugins"() {
+        def source = childProject("a")
+        def compiler = Mock(ScriptCompiler)
+
+        when:
+        precompiler.execute(project)
+
+        then:
+        1 * scriptCompilerFactory.createCompiler(source) >> compiler
+        1 * compiler.compile(_, { it.id == "cp_proj" }, classLoader, _) >> runner(runDoesSomething, new DefaultPluginRequests(hasPlugins ? [Stub(PluginRequestInternal)] : []))
+        0 * compiler.compile(_, { it.id == "proj" }, _, _)
+
+        where:
+        runDoesSomething | hasPlugins
+        true             | false
+        false            | true
+    }
+
+    def "compiles build scripts with the same content after the first one"() {
+        def a = childProject("a")
+        def b = childProject("b")
+        def c = childProject("c")
+        hasher.hash(a) >> HashCode.fromInt(1)
+        hasher.hash(b) >> HashCode.fromInt(2)
+        hasher.hash(c) >> HashCode.fromInt(1)
+        def compiled = []
+        scriptCompilerFactory.createCompiler(_) >> { ScriptSource source ->
+            compiled << source
+            Stub(ScriptCompiler) {
+                compile(_, _, _, _) >> runner(false, new DefaultPluginRequests([]))
+            }
+        }
+
+        when:
+        precompiler.execute(project)
+
+        then:
+        compiled == [a, c, b]
+    }
+
+    def "ignores scripts that fail to compile"() {
+        def a = childProject("a")
+        def b = childProject("b")
+        hasher.hash(a) >> HashCode.fromInt(1)
+        hasher.hash(b) >> HashCode.fromInt(2)
+
+        when:
+        precompiler.execute(project)
+
+        then:
+        1 * scriptCompilerFactory.createCompiler(a) >> { throw new RuntimeException("broken") }
+        1 * scriptCompilerFactory.createCompiler(b) >> Stub(ScriptCompiler) {
+            compile(_, _, _, _) >> runner(true, new DefaultPluginRequests([]))
+        }
+        noExceptionThrown()
+    }
+
+    def "does not compile scripts once stopped"() {
+        childProject("a")
+
+        when:
+        precompiler.stop()
+        precompiler.execute(project)
+
+        then:
+        0 * scriptCompilerFactory._
+    }
+
+    private ScriptSource childProject(String name) {
+        def source = Stub(ScriptSource) {
+            getFileName() >> name + ".gradle"
+            getResource() >> Stub(TextResource) {
+                getFile() >> new File(name + ".gradle")
+                getExists() >> true
+            }
+        }
+        childProjects[name] = Stub(ProjectInternal) {
+            getBaseClassLoaderScope() >> scope
+            getBuildScriptSource() >> source
+        }
+        return source
+    }
+
+    private ScriptRunner runner(boolean runDoesSomething, PluginRequests pluginRequests) {
+        Stub(ScriptRunner) {
+            getRunDoesSomething() >> runDoesSomething
+            getData() >> pluginRequests
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project
+
+import org.gradle.StartParameter
+import org.gradle.api.BuildCancelledException
+import org.gradle.api.ProjectConfigurationException
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectStateInternal
+import org.gradle.initialization.BuildCancellationToken
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.concurrent.ParallelismConfigurationManagerFixture
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resources.DefaultResourceLockCoordinationService
+import org.gradle.internal.work.DefaultWorkerLeaseService
+import org.gradle.util.Path
+import spock.lang.Specification
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+class ParallelProjectEvaluatorTest extends Specification {
+    def gradle = Stub(GradleInternal) {
+        getIdentityPath() >> Path.ROOT
+        getStartParameter() >> new StartParameter()
+    }
+    def evaluated = new CopyOnWriteArrayList<String>()
+    def threadsEvaluating = new HashSet<Thread>()
+    int maxThreadsEvaluating
+    def evaluationActions = [:]
+    def delegate = Mock(ProjectEvaluator)
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def workerLeaseService = new DefaultWorkerLeaseService(new DefaultResourceLockCoordinationService(), new ParallelismConfigurationManagerFixture(true, 4))
+    def executorFactory = new DefaultExecutorFactory()
+    def cancellationToken = Stub(BuildCancellationToken)
+    def lifecycleEvaluator = new LifecycleProjectEvaluator(buildOperationExecutor, delegate, workerLeaseService)
+    def evaluator = new ParallelProjectEvaluator(lifecycleEvaluator, buildOperationExecutor, executorFactory, workerLeaseService, cancellationToken)
+
+    def cleanup() {
+        executorFactory.stop()
+        workerLeaseService.stop()
+    }
+
+    def "evaluates each project of the hierarchy once after its parent"() {
+        def root = project(":")
+        def a = project(":a", root)
+        def a1 = project(":a:a1", a)
+        def b = project(":b", root)
+
+        when:
+        evaluateHierarchy(root)
+
+        then:
+        evaluated.size() == 4
+        evaluated.toSet() == [":", ":a", ":a:a1", ":b"] as Set
+        evaluated.indexOf(":") < evaluated.indexOf(":a")
+        evaluated.indexOf(":a") < evaluated.indexOf(":a:a1")
+        evaluated.indexOf(":") < evaluated.indexOf(":b")
+        [root, a, a1, b].every { it.state.executed }
+        buildOperationExecutor.operations*.displayName.toSet() == ["Configure project :", "Configure project :a", "Configure project :a:a1", "Configure project :b"] as Set
+    }
+
+    def "a project can require the evaluation of a project that is evaluated in parallel"() {
+        def root = project(":")
+        def a = project(":a", root)
+        def b = project(":b", root)
+        evaluationActions[":a"] = { lifecycleEvaluator.evaluate(b, b.state) }
+
+        when:
+        evaluateHierarchy(root)
+
+        then:
+        evaluated.count(":b") == 1
+        a.state.executed
+        b.state.executed
+    }
+
+    def "does not wait for a project that requires the evaluation of the waiting project"() {
+        def root = project(":")
+        def a = project(":a", root)
+        def b = project(":b", root)
+        evaluationActions[":a"] = { lifecycleEvaluator.evaluate(b, b.state) }
+        evaluationActions[":b"] = { lifecycleEvaluator.evaluate(a, a.state) }
+
+        when:
+        evaluateHierarchy(root)
+
+        then:
+        evaluated.count(":a") == 1
+        evaluated.count(":b") == 1
+        a.state.executed
+        b.state.executed
+    }
+
+    def "rethrows the failure of the first failed project in evaluation order and does not evaluate its children"() {
+        def root = project(":")
+        def a = project(":a", root)
+        def a1 = project(":a:a1", a)
+        def b = project(":b", root)
+        evaluationActions[":a"] = { throw new RuntimeException("a failed") }
+        evaluationActions[":b"] = { throw new RuntimeException("b failed") }
+
+        when:
+        evaluateHierarchy(root)
+
+        then:
+        def e = thrown(ProjectConfigurationException)
+        e.cause.message == "a failed"
+        !a1.state.executed
+    }
+
+    def "does not evaluate projects when cancelled"() {
+        def root = project(":")
+        project(":a", root)
+        cancellationToken.cancellationRequested >> true
+
+        when:
+        evaluateHierarchy(root)
+
+        then:
+        thrown(BuildCancelledException)
+        evaluated.empty
+    }
+
+    def "keeps the shared project lock while a project that requires the evaluation of another project is evaluated without --parallel"() {
+        def serialWorkerLeaseService = new DefaultWorkerLeaseService(new DefaultResourceLockCoordinationService(), new ParallelismConfigurationManagerFixture(false, 4))
+        def serialLifecycleEvaluator = new LifecycleProjectEvaluator(buildOperationExecutor, delegate, serialWorkerLeaseService)
+        def serialEvaluator = new ParallelProjectEvaluator(serialLifecycleEvaluator, buildOperationExecutor, executorFactory, serialWorkerLeaseService, cancellationToken)
+        def root = project(":")
+        def a = project(":a", root)
+        def b = project(":b", root)
+        project(":c", root)
+        project(":d", root)
+        evaluationActions[":a"] = {
+            serialLifecycleEvaluator.evaluate(b, b.state)
+            // Give the other workers a chance to configure a project while :a is still being configured
+            Thread.sleep(100)
+        }
+
+        when:
+        evaluateHierarchy(root, serialEvaluator, serialWorkerLeaseService)
+
+        then:
+        evaluated.size() == 5
+        evaluated.count(":b") == 1
+        maxThreadsEvaluating == 1
+
+        cleanup:
+        serialWorkerLeaseService.stop()
+    }
+
+    private void evaluateHierarchy(ProjectInternal root, ParallelProjectEvaluator evaluator = this.evaluator, DefaultWorkerLeaseService workerLeaseService = this.workerLeaseService) {
+        workerLeaseService.withLocks([workerLeaseService.workerLease], {
+            evaluator.evaluateHierarchy(root)
+        } as Runnable)
+    }
+
+    private ProjectInternal project(String path, ProjectInternal parent = null) {
+        def state = new ProjectStateInternal()
+        def childProjects = new LinkedHashMap<String, ProjectInternal>()
+        def subprojects = new LinkedHashSet<ProjectInternal>()
+        def project = Stub(ProjectInternal) {
+            getState() >> state
+            getParent() >> parent
+            getGradle() >> gradle
+            getPath() >> path
+            getProjectPath() >> Path.path(path)
+            getIdentityPath() >> Path.path(path)
+            getDisplayName() >> "project '$path'"
+            getChildProjects() >> childProjects
+            getSubprojects() >> subprojects
+        }
+        if (parent != null) {
+            parent.childProjects.put(path, project)
+            for (ProjectInternal ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+                ancestor.subprojects.add(project)
+            }
+        }
+        delegate.evaluate(project, _) >> {
+            evaluated.add(path)
+            def thread = Thread.currentThread()
+            boolean outermost
+            synchronized (threadsEvaluating) {
+                outermost = threadsEvaluating.add(thread)
+                maxThreadsEvaluating = Math.max(maxThreadsEvaluating, threadsEvaluating.size())
+            }
+            try {
+                evaluationActions[path]?.call()
+            } finally {
+                if (outermost) {
+                    synchronized (threadsEvaluating) {
+                        threadsEvaluating.remove(thread)
+                    }
+                }
+            }
+        }
+        return project
+    }
+}
@@ -16,8 +16,11 @@
 
 package org.gradle.execution
 
+import org.gradle.StartParameter
 import org.gradle.api.BuildCancelledException
+import org.gradle.api.internal.GradleInternal
 import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.configuration.project.ParallelProjectEvaluator
 import org.gradle.initialization.BuildCancellationToken
 import spock.lang.Specification
 
@@ -60,4 +63,66 @@ class TaskPathProjectEvaluatorTest extends Specification {
         1 * child1.evaluate()
         0 * child2._
     }
+
+    def "configures project hierarchy in parallel when enabled"() {
+        def parallelProjectEvaluator = Mock(ParallelProjectEvaluator)
+        def evaluator = new TaskPathProjectEvaluator(cancellationToken, parallelProjectEvaluator)
+        def startParameter = new StartParameter()
+        startParameter.systemPropertiesArgs[ParallelProjectEvaluator.PARALLEL_CONFIGURATION_SYSPROP] = "true"
+        startParameter.parallelProjectExecutionEnabled = true
+
+        given:
+        project.gradle >> Stub(GradleInternal) {
+            getStartParameter() >> startParameter
+        }
+
+        when:
+        evaluator.configureHierarchy(project)
+
+        then:
+        1 * parallelProjectEvaluator.evaluateHierarchy(project)
+        0 * project.evaluate()
+    }
+
+    def "configures project hierarchy one project at a time by default"() {
+        def parallelProjectEvaluator = Mock(ParallelProjectEvaluator)
+        def evaluator = new TaskPathProjectEvaluator(cancellationToken, parallelProjectEvaluator)
+        def child = Mock(ProjectInternal)
+
+        given:
+        project.gradle >> Stub(GradleInternal) {
+            getStartParameter() >> new StartParameter()
+        }
+        project.subprojects >> [child]
+
+        when:
+        evaluator.configureHierarchy(project)
+
+        then:
+        1 * project.evaluate()
+        1 * child.evaluate()
+        0 * parallelProjectEvaluator._
+    }
+
+    def "configures project hierarchy one project at a time when enabled without --parallel"() {
+        def parallelProjectEvaluator = Mock(ParallelProjectEvaluator)
+        def evaluator = new TaskPathProjectEvaluator(cancellationToken, parallelProjectEvaluator)
+        def startParameter = new StartParameter()
+        startParameter.systemPropertiesArgs[ParallelProjectEvaluator.PARALLEL_CONFIGURATION_SYSPROP] = "true"
+        def child = Mock(ProjectInternal)
+
+        given:
+        project.gradle >> Stub(GradleInternal) {
+            getStartParameter() >> startParameter
+        }
+        project.subprojects >> [child]
+
+        when:
+        evaluator.configureHierarchy(project)
+
+        then:
+        1 * project.evaluate()
+        1 * child.evaluate()
+        0 * parallelProjectEvaluator._
+    }
 }
@@ -64,6 +64,9 @@ class DefaultTaskExecutionPlanTest extends AbstractProjectBuilderSpec {
             _ * isLocked() >> false
             _ * tryLock() >> true
         }
+        _ * workerLeaseService.getResourceClassLock(_) >> Mock(ResourceLock) {
+            _ * tryLock() >> true
+        }
         _ * workerLease.tryLock() >> true
         _ * coordinationService.withStateLock(_) >> { args ->
             args[0].transform(Mock(ResourceLockState))
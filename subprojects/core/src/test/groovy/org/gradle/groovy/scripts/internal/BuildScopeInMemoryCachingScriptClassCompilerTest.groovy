@@ -23,6 +23,8 @@ import org.gradle.groovy.scripts.TestScript
 import org.gradle.groovy.scripts.Transformer
 import spock.lang.Specification
 
+import java.util.concurrent.CopyOnWriteArrayList
+
 class BuildScopeInMemoryCachingScriptClassCompilerTest extends Specification {
     private final ScriptClassCompiler target = Mock()
     private final CrossBuildInMemoryCachingScriptClassCache cache = Mock() {
@@ -115,6 +117,51 @@ class BuildScopeInMemoryCachingScriptClassCompilerTest extends Specification {
         1 * target.compile(script2, parentClassLoader, classLoaderId, transformer, TestScript.class, verifier)
     }
 
+    def "compiles the script once when it is requested by several threads at the same time"() {
+        ScriptSource script = scriptSource('script')
+        ClassLoader parentClassLoader = Mock()
+        CompileOperation<?> transformer = operation()
+        def results = new CopyOnWriteArrayList()
+
+        when:
+        def threads = (1..4).collect {
+            Thread.start {
+                results << compiler.compile(script, parentClassLoader, classLoaderId, transformer, Script.class, verifier)
+            }
+        }
+        threads*.join()
+
+        then:
+        1 * target.compile(script, parentClassLoader, classLoaderId, transformer, Script.class, verifier) >> {
+            Thread.sleep(100)
+            compiledScript
+        }
+        results.size() == 4
+        results.every { it == compiledScript }
+    }
+
+    def "compiles the script again when its compilation failed"() {
+        ScriptSource script = scriptSource('script')
+        ClassLoader parentClassLoader = Mock()
+        CompileOperation<?> transformer = operation()
+        def failure = new RuntimeException("broken")
+
+        when:
+        compiler.compile(script, parentClassLoader, classLoaderId, transformer, Script.class, verifier)
+
+        then:
+        1 * target.compile(script, parentClassLoader, classLoaderId, transformer, Script.class, verifier) >> { throw failure }
+        def e = thrown(RuntimeException)
+        e == failure
+
+        when:
+        def result = compiler.compile(script, parentClassLoader, classLoaderId, transformer, Script.class, verifier)
+
+        then:
+        1 * target.compile(script, parentClassLoader, classLoaderId, transformer, Script.class, verifier) >> compiledScript
+        result == compiledScript
+    }
+
     def scriptSource(String className = 'script') {
         ScriptSource script = Mock()
         _ * script.className >> className
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.initialization
+
+import org.gradle.StartParameter
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+class InternalFlagsTest extends Specification {
+    static final String FLAG = "org.gradle.internal.test.flag"
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties()
+    def startParameter = new StartParameter()
+
+    def "flag set on the command line takes precedence over the system property"() {
+        System.setProperty(FLAG, "false")
+        startParameter.systemPropertiesArgs = [(FLAG): "true"]
+
+        expect:
+        InternalFlags.getValue(startParameter, FLAG) == "true"
+        InternalFlags.isEnabled(startParameter, FLAG)
+        !InternalFlags.isEnabled(FLAG)
+    }
+
+    def "uses the system property when the flag is not set on the command line"() {
+        System.setProperty(FLAG, "true")
+
+        expect:
+        InternalFlags.getValue(startParameter, FLAG) == "true"
+        InternalFlags.isEnabled(startParameter, FLAG)
+        InternalFlags.isEnabled(FLAG)
+    }
+
+    def "flag is disabled when it is not set"() {
+        expect:
+        InternalFlags.getValue(startParameter, FLAG) == null
+        !InternalFlags.isEnabled(startParameter, FLAG)
+        !InternalFlags.isEnabled(FLAG)
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace
+
+import groovy.json.JsonSlurper
+import org.gradle.internal.execution.ExecuteTaskBuildOperationType
+import org.gradle.internal.logging.events.OperationIdentifier
+import org.gradle.internal.progress.BuildOperationDescriptor
+import org.gradle.internal.progress.BuildOperationListenerManager
+import org.gradle.internal.progress.OperationFinishEvent
+import org.gradle.internal.progress.OperationStartEvent
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class BuildOperationRecorderTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def listenerManager = Mock(BuildOperationListenerManager)
+    def file = tmpDir.file("build-operations/recording.bin")
+
+    def "registers itself as a listener until stopped"() {
+        when:
+        def recorder = new BuildOperationRecorder(listenerManager, file, 16)
+
+        then:
+        1 * listenerManager.addListener(_)
+
+        when:
+        recorder.stop()
+
+        then:
+        1 * listenerManager.removeListener(recorder)
+        file.isFile()
+    }
+
+    def "does nothing when disabled"() {
+        when:
+        def recorder = new BuildOperationRecorder(listenerManager, null, 16)
+        recorder.started(operation(1, null, "op"), new OperationStartEvent(0))
+        recorder.stop()
+
+        then:
+        0 * listenerManager._
+    }
+
+    def "writes recorded operations"() {
+        def recorder = new BuildOperationRecorder(listenerManager, file, 16)
+        def build = operation(1, null, "Run build")
+        def task = operation(2, 1, "Task :a", Stub(ExecuteTaskBuildOperationType.Details))
+        def failed = operation(3, 1, "Task :b", Stub(ExecuteTaskBuildOperationType.Details))
+
+        when:
+        recorder.started(build, new OperationStartEvent(1000))
+        recorder.started(task, new OperationStartEvent(1010))
+        recorder.started(failed, new OperationStartEvent(1012))
+        recorder.finished(task, new OperationFinishEvent(1010, 1030, null, null))
+        recorder.finished(failed, new OperationFinishEvent(1012, 1020, new RuntimeException(), null))
+        recorder.finished(build, new OperationFinishEvent(1000, 1050, null, null))
+        recorder.stop()
+        def recording = BuildOperationRecording.read(file)
+
+        then:
+        recording.droppedEvents == 0
+        recording.operations*.displayName == ["Run build", "Task :a", "Task :b"]
+        recording.operations*.parentId == [null, 1L, 1L]
+        recording.operations*.type == ["UNCATEGORIZED", "ExecuteTask", "ExecuteTask"]
+        recording.operations*.startTime == [1000L, 1010L, 1012L]
+        recording.operations*.duration == [50L, 20L, 8L]
+        recording.operations*.failed == [false, false, true]
+        recording.operations*.threadName == [Thread.currentThread().name] * 3
+
+        and:
+        def summary = recording.summarize()
+        summary*.type == ["UNCATEGORIZED", "ExecuteTask"]
+        summary*.count == [1, 2]
+        summary*.totalTime == [50L, 28L]
+        summary*.maxTime == [50L, 20L]
+        summary*.failures == [0, 1]
+    }
+
+    def "drops oldest events when more events are recorded than the buffer can hold"() {
+        def recorder = new BuildOperationRecorder(listenerManager, file, 4)
+
+        when:
+        (1..4).each { id ->
+            def op = operation(id, null, "op $id")
+            recorder.started(op, new OperationStartEvent(id * 10))
+            recorder.finished(op, new OperationFinishEvent(id * 10, id * 10 + 5, null, null))
+        }
+        recorder.stop()
+        def recording = BuildOperationRecording.read(file)
+
+        then:
+        recording.droppedEvents == 4
+        recording.operations*.displayName == ["op 3", "op 4"]
+        recording.operations*.duration == [5L, 5L]
+    }
+
+    def "does not keep the display names of dropped events"() {
+        def recorder = new BuildOperationRecorder(listenerManager, file, 4)
+
+        when:
+        (1..4).each { id ->
+            def op = operation(id, null, id <= 2 ? "dropped operation $id" : "kept operation $id")
+            recorder.started(op, new OperationStartEvent(id * 10))
+            recorder.finished(op, new OperationFinishEvent(id * 10, id * 10 + 5, null, null))
+        }
+        recorder.stop()
+        def content = new String(file.bytes, "ISO-8859-1")
+
+        then:
+        BuildOperationRecording.read(file).operations*.displayName == ["kept operation 3", "kept operation 4"]
+        !content.contains("dropped operation")
+    }
+
+    def "operations that are still running end with the last event"() {
+        def recorder = new BuildOperationRecorder(listenerManager, file, 16)
+        def outer = operation(1, null, "outer")
+        def inner = operation(2, 1, "inner")
+
+        when:
+        recorder.started(outer, new OperationStartEvent(100))
+        recorder.started(inner, new OperationStartEvent(110))
+        recorder.finished(inner, new OperationFinishEvent(110, 130, null, null))
+        recorder.stop()
+        def recording = BuildOperationRecording.read(file)
+
+        then:
+        recording.operations*.duration == [30L, 20L]
+    }
+
+    def "converts recording to chrome trace"() {
+        def recorder = new BuildOperationRecorder(listenerManager, file, 16)
+        def op = operation(1, null, "op")
+        recorder.started(op, new OperationStartEvent(2))
+        recorder.finished(op, new OperationFinishEvent(2, 5, null, null))
+        recorder.stop()
+        def writer = new StringWriter()
+
+        when:
+        BuildOperationRecording.read(file).writeChromeTrace(writer)
+        def json = new JsonSlurper().parseText(writer.toString())
+
+        then:
+        json.traceEvents.size() == 2
+        with(json.traceEvents[0]) {
+            name == "op"
+            cat == "UNCATEGORIZED"
+            ph == "X"
+            ts == 2000
+            dur == 3000
+            tid == 1
+            args.id == 1
+        }
+        with(json.traceEvents[1]) {
+            name == "thread_name"
+            ph == "M"
+            tid == 1
+            args.name == Thread.currentThread().name
+        }
+    }
+
+    def "rejects file that is not a recording"() {
+        def file = tmpDir.file("other.bin")
+        file.text = "not a recording"
+
+        when:
+        BuildOperationRecording.read(file)
+
+        then:
+        def e = thrown(IOException)
+        e.message == "$file is not a build operation recording."
+    }
+
+    private static BuildOperationDescriptor operation(long id, Long parentId, String displayName, Object details = null) {
+        return BuildOperationDescriptor.displayName(displayName)
+            .details(details)
+            .build(new OperationIdentifier(id), parentId == null ? null : new OperationIdentifier(parentId))
+    }
+}
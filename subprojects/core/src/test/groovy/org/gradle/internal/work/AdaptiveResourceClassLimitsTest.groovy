@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.work
+
+import org.gradle.internal.resources.ResourceLockCoordinationService
+import org.gradle.process.internal.health.memory.MemoryManager
+import org.gradle.process.internal.health.memory.OsMemoryStatus
+import spock.lang.Specification
+
+import java.lang.management.MemoryMXBean
+import java.lang.management.MemoryUsage
+import java.lang.management.OperatingSystemMXBean
+
+class AdaptiveResourceClassLimitsTest extends Specification {
+    def memoryManager = Mock(MemoryManager)
+    def coordinationService = Mock(ResourceLockCoordinationService)
+    def operatingSystem = Stub(OperatingSystemMXBean)
+    def usedHeap = 100
+    def memoryBean = Stub(MemoryMXBean) {
+        getHeapMemoryUsage() >> { new MemoryUsage(0, usedHeap, 1000, 1000) }
+    }
+    def limits = new AdaptiveResourceClassLimits(memoryManager, coordinationService, operatingSystem, memoryBean, 8)
+
+    def "limits CPU bound work to the number of processors and leaves I/O bound work unlimited"() {
+        expect:
+        limits.getMaxWorkers(ResourceClass.CPU, 16) == 8
+        limits.getMaxWorkers(ResourceClass.MEMORY, 16) == 8
+        limits.getMaxWorkers(ResourceClass.IO, 16) == 16
+        limits.getMaxWorkers(ResourceClass.CPU, 4) == 4
+    }
+
+    def "uses fewer workers for CPU bound work while the load is high"() {
+        operatingSystem.getSystemLoadAverage() >>> [20, 20, 20, 4]
+
+        when:
+        3.times { limits.onOsMemoryStatus(memory(50)) }
+
+        then:
+        limits.getMaxWorkers(ResourceClass.CPU, 16) == 5
+        limits.getMaxWorkers(ResourceClass.MEMORY, 16) == 5
+        limits.getMaxWorkers(ResourceClass.IO, 16) == 16
+        0 * coordinationService.notifyStateChange()
+
+        when:
+        limits.onOsMemoryStatus(memory(50))
+
+        then:
+        limits.getMaxWorkers(ResourceClass.CPU, 16) == 6
+        1 * coordinationService.notifyStateChange()
+    }
+
+    def "never uses less than one worker"() {
+        operatingSystem.getSystemLoadAverage() >> 100
+
+        when:
+        20.times { limits.onOsMemoryStatus(memory(1)) }
+
+        then:
+        limits.getMaxWorkers(ResourceClass.CPU, 16) == 1
+        limits.getMaxWorkers(ResourceClass.MEMORY, 16) == 1
+        limits.getMaxWorkers(ResourceClass.IO, 16) == 16
+    }
+
+    def "halves the workers for memory bound work while memory is low"() {
+        operatingSystem.getSystemLoadAverage() >> 8
+
+        when:
+        limits.onOsMemoryStatus(memory(5))
+
+        then:
+        limits.getMaxWorkers(ResourceClass.MEMORY, 16) == 4
+        limits.getMaxWorkers(ResourceClass.CPU, 16) == 8
+
+        when:
+        limits.onOsMemoryStatus(memory(5))
+
+        then:
+        limits.getMaxWorkers(ResourceClass.MEMORY, 16) == 2
+
+        when:
+        limits.onOsMemoryStatus(memory(20))
+
+        then:
+        limits.getMaxWorkers(ResourceClass.MEMORY, 16) == 2
+
+        when:
+        limits.onOsMemoryStatus(memory(50))
+
+        then:
+        limits.getMaxWorkers(ResourceClass.MEMORY, 16) == 3
+        1 * coordinationService.notifyStateChange()
+    }
+
+    def "halves the workers for memory bound work while the used heap is close to its maximum"() {
+        operatingSystem.getSystemLoadAverage() >> 8
+
+        when:
+        usedHeap = 950
+        limits.onOsMemoryStatus(memory(50))
+
+        then:
+        limits.getMaxWorkers(ResourceClass.MEMORY, 16) == 4
+
+        when:
+        usedHeap = 500
+        limits.onOsMemoryStatus(memory(50))
+
+        then:
+        limits.getMaxWorkers(ResourceClass.MEMORY, 16) == 5
+    }
+
+    def "does not limit memory bound work while the heap is fully committed but mostly unused"() {
+        operatingSystem.getSystemLoadAverage() >> 8
+        usedHeap = 200
+
+        when:
+        10.times { limits.onOsMemoryStatus(memory(50)) }
+
+        then:
+        limits.getMaxWorkers(ResourceClass.MEMORY, 16) == 8
+    }
+
+    def "ignores the load when it is not available"() {
+        operatingSystem.getSystemLoadAverage() >> -1
+
+        when:
+        limits.onOsMemoryStatus(memory(50))
+
+        then:
+        limits.getMaxWorkers(ResourceClass.CPU, 16) == 8
+    }
+
+    def "stops listening to memory status once stopped"() {
+        when:
+        limits.stop()
+
+        then:
+        1 * memoryManager.removeListener(limits)
+    }
+
+    private OsMemoryStatus memory(int freePercent) {
+        return Stub(OsMemoryStatus) {
+            getTotalPhysicalMemory() >> 100
+            getFreePhysicalMemory() >> freePercent
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.worker.request
+
+import org.gradle.internal.logging.events.OperationIdentifier
+import org.gradle.internal.serialize.Decoder
+import org.gradle.internal.serialize.Encoder
+import org.gradle.internal.serialize.Serializer
+import org.gradle.internal.serialize.SerializerSpec
+
+class RequestSerializerTest extends SerializerSpec {
+    def argumentSerializers = new RequestArgumentSerializers()
+    def classLoader = getClass().classLoader
+
+    def "serializes request"() {
+        def request = new Request("execute", [String, int, File, String[]] as Class[], ["a", 12, new File("f"), ["b", "c"] as String[]] as Object[], new OperationIdentifier(123))
+
+        when:
+        def result = serialize(request, serializer())
+
+        then:
+        result.methodName == "execute"
+        result.paramTypes == [String, int, File, String[]] as Class[]
+        result.args[0] == "a"
+        result.args[1] == 12
+        result.args[2] == new File("f")
+        result.args[3] == ["b", "c"] as String[]
+        result.operationIdentifier == new OperationIdentifier(123)
+    }
+
+    def "serializes request without arguments or operation"() {
+        def request = new Request("stop", [] as Class[], null, null)
+
+        when:
+        def result = serialize(request, serializer())
+
+        then:
+        result.methodName == "stop"
+        result.paramTypes.length == 0
+        result.args.length == 0
+        result.operationIdentifier == null
+    }
+
+    def "uses registered serializer for arguments of the registered type"() {
+        argumentSerializers.register(Thing, ThingSerializer)
+        def request = new Request("execute", [Object, Object] as Class[], [new Thing(name: "a"), null] as Object[], null)
+
+        when:
+        def result = serialize(request, serializer())
+
+        then:
+        result.args[0] instanceof Thing
+        result.args[0].name == "a:classLoader"
+        result.args[1] == null
+    }
+
+    def "uses less space than Java serialization"() {
+        def request = new Request("execute", [String, File] as Class[], ["some value", new File("some-file")] as Object[], new OperationIdentifier(123))
+        def javaBytes = new ByteArrayOutputStream()
+        new ObjectOutputStream(javaBytes).writeObject(["execute", request.paramTypes, request.args, request.operationIdentifier] as Object[])
+
+        expect:
+        toBytes(request, serializer()).length < javaBytes.size()
+    }
+
+    private RequestSerializer serializer() {
+        return new RequestSerializer(argumentSerializers.build(classLoader), classLoader)
+    }
+
+    static class Thing implements Serializable {
+        String name
+    }
+
+    static class ThingSerializer implements Serializer<Thing> {
+        private final ClassLoader classLoader
+
+        ThingSerializer(ClassLoader classLoader) {
+            this.classLoader = classLoader
+        }
+
+        @Override
+        Thing read(Decoder decoder) throws Exception {
+            return new Thing(name: decoder.readString() + ":" + (classLoader != null ? "classLoader" : "none"))
+        }
+
+        @Override
+        void write(Encoder encoder, Thing value) throws Exception {
+            encoder.writeString(value.name)
+        }
+    }
+}
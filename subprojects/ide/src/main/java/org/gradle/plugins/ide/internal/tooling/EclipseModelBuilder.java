@@ -19,6 +19,7 @@ package org.gradle.plugins.ide.internal.tooling;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.apache.commons.lang.StringUtils;
+import org.gradle.api.Action;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
 import org.gradle.api.initialization.IncludedBuild;
@@ -69,6 +70,7 @@ import java.util.Set;
 
 public class EclipseModelBuilder implements ToolingModelBuilder {
     private final GradleProjectBuilder gradleProjectBuilder;
+    private final ProjectModelActionExecutor projectModelActionExecutor;
 
     private boolean projectDependenciesOnly;
     private DefaultEclipseProject result;
@@ -76,9 +78,11 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
     private TasksFactory tasksFactory;
     private DefaultGradleProject<?> rootGradleProject;
     private Project currentProject;
+    private Map<Project, List<ClasspathEntry>> classpathEntriesByProject;
 
-    public EclipseModelBuilder(GradleProjectBuilder gradleProjectBuilder, ServiceRegistry services) {
+    public EclipseModelBuilder(GradleProjectBuilder gradleProjectBuilder, ProjectModelActionExecutor projectModelActionExecutor, ServiceRegistry services) {
         this.gradleProjectBuilder = gradleProjectBuilder;
+        this.projectModelActionExecutor = projectModelActionExecutor;
     }
 
     @Override
@@ -99,7 +103,9 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
         tasksFactory.collectTasks(root);
         applyEclipsePlugin(root);
         buildHierarchy(root);
+        resolveClasspaths(root);
         populate(root);
+        classpathEntriesByProject = null;
         return result;
     }
 
@@ -142,20 +148,32 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
         eclipseProjects.add(eclipseProject);
     }
 
-    private void populate(Project project) {
-        EclipseModel eclipseModel = project.getExtensions().getByType(EclipseModel.class);
-        EclipseClasspath eclipseClasspath = eclipseModel.getClasspath();
+    private void resolveClasspaths(Project root) {
+        classpathEntriesByProject = Maps.newConcurrentMap();
+        projectModelActionExecutor.execute("Resolve Eclipse classpath", root.getAllprojects(), new Action<Project>() {
+            @Override
+            public void execute(Project project) {
+                classpathEntriesByProject.put(project, resolveClasspathEntries(project));
+            }
+        });
+    }
+
+    private List<ClasspathEntry> resolveClasspathEntries(Project project) {
+        EclipseClasspath eclipseClasspath = project.getExtensions().getByType(EclipseModel.class).getClasspath();
 
         eclipseClasspath.setProjectDependenciesOnly(projectDependenciesOnly);
 
-        List<ClasspathEntry> classpathEntries;
         if (eclipseClasspath.getFile() == null) {
-            classpathEntries = eclipseClasspath.resolveDependencies();
-        } else {
-            Classpath classpath = new Classpath(eclipseClasspath.getFileReferenceFactory());
-            eclipseClasspath.mergeXmlClasspath(classpath);
-            classpathEntries = classpath.getEntries();
+            return eclipseClasspath.resolveDependencies();
         }
+        Classpath classpath = new Classpath(eclipseClasspath.getFileReferenceFactory());
+        eclipseClasspath.mergeXmlClasspath(classpath);
+        return classpath.getEntries();
+    }
+
+    private void populate(Project project) {
+        EclipseModel eclipseModel = project.getExtensions().getByType(EclipseModel.class);
+        List<ClasspathEntry> classpathEntries = classpathEntriesByProject.get(project);
 
         final List<DefaultEclipseExternalDependency> externalDependencies = new LinkedList<DefaultEclipseExternalDependency>();
         final List<DefaultEclipseProjectDependency> projectDependencies = new LinkedList<DefaultEclipseProjectDependency>();
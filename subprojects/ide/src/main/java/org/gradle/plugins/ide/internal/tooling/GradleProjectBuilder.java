@@ -16,6 +16,7 @@
 
 package org.gradle.plugins.ide.internal.tooling;
 
+import org.gradle.api.Action;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
 import org.gradle.api.internal.tasks.TaskContainerInternal;
@@ -26,15 +27,24 @@ import org.gradle.tooling.internal.gradle.DefaultGradleProject;
 import org.gradle.tooling.provider.model.ToolingModelBuilder;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 
 import static org.gradle.plugins.ide.internal.tooling.ToolingModelBuilderSupport.buildFromTask;
 
 /**
  * Builds the GradleProject that contains the project hierarchy and task information
+ *
+ * <p>The hierarchy is built once per root project and shared by all the models that contain it, as the IDE models request it for each project.
+ * It is built again when a task is added to or removed from one of the projects, as applying the IDE plugins does.</p>
  */
 public class GradleProjectBuilder implements ToolingModelBuilder {
+    private final Map<Project, DefaultGradleProject<LaunchableGradleTask>> hierarchies = new HashMap<Project, DefaultGradleProject<LaunchableGradleTask>>();
+    private final Set<Project> observedRootProjects = new HashSet<Project>();
 
     @Override
     public boolean canBuild(String modelName) {
@@ -43,11 +53,38 @@ public class GradleProjectBuilder implements ToolingModelBuilder {
 
     @Override
     public Object buildAll(String modelName, Project project) {
-        return buildHierarchy(project.getRootProject());
+        return getHierarchy(project.getRootProject());
     }
 
     public DefaultGradleProject buildAll(Project project) {
-        return buildHierarchy(project.getRootProject());
+        return getHierarchy(project.getRootProject());
+    }
+
+    private synchronized DefaultGradleProject<LaunchableGradleTask> getHierarchy(Project rootProject) {
+        DefaultGradleProject<LaunchableGradleTask> hierarchy = hierarchies.get(rootProject);
+        if (hierarchy == null) {
+            hierarchy = buildHierarchy(rootProject);
+            hierarchies.put(rootProject, hierarchy);
+            if (observedRootProjects.add(rootProject)) {
+                invalidateOnTaskChanges(rootProject);
+            }
+        }
+        return hierarchy;
+    }
+
+    private void invalidateOnTaskChanges(final Project rootProject) {
+        Action<Task> invalidate = new Action<Task>() {
+            @Override
+            public void execute(Task task) {
+                synchronized (GradleProjectBuilder.this) {
+                    hierarchies.remove(rootProject);
+                }
+            }
+        };
+        for (Project project : rootProject.getAllprojects()) {
+            project.getTasks().whenObjectAdded(invalidate);
+            project.getTasks().whenObjectRemoved(invalidate);
+        }
     }
 
     private DefaultGradleProject<LaunchableGradleTask> buildHierarchy(Project project) {
@@ -16,6 +16,8 @@
 
 package org.gradle.plugins.ide.internal.tooling;
 
+import com.google.common.collect.Maps;
+import org.gradle.api.Action;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.Project;
 import org.gradle.api.initialization.IncludedBuild;
@@ -58,11 +60,13 @@ import java.util.Set;
 
 public class IdeaModelBuilder implements ToolingModelBuilder {
     private final GradleProjectBuilder gradleProjectBuilder;
+    private final ProjectModelActionExecutor projectModelActionExecutor;
 
     private boolean offlineDependencyResolution;
 
-    public IdeaModelBuilder(GradleProjectBuilder gradleProjectBuilder, ServiceRegistry services) {
+    public IdeaModelBuilder(GradleProjectBuilder gradleProjectBuilder, ProjectModelActionExecutor projectModelActionExecutor, ServiceRegistry services) {
         this.gradleProjectBuilder = gradleProjectBuilder;
+        this.projectModelActionExecutor = projectModelActionExecutor;
     }
 
     @Override
@@ -108,8 +112,9 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
         for (IdeaModule module : projectModel.getModules()) {
             appendModule(modules, module, out, rootGradleProject);
         }
+        Map<IdeaModule, Set<Dependency>> resolvedDependencies = resolveDependencies(projectModel.getModules());
         for (IdeaModule module : projectModel.getModules()) {
-            buildDependencies(modules, module);
+            buildDependencies(modules, module, resolvedDependencies.get(module));
         }
         final Collection<DefaultIdeaModule> ideaModules = modules.values();
         out.setChildren(new LinkedList<DefaultIdeaModule>(ideaModules));
@@ -120,9 +125,24 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
         return project.getPlugins().getPlugin(IdeaPlugin.class);
     }
 
-    private void buildDependencies(Map<String, DefaultIdeaModule> modules, IdeaModule ideaModule) {
-        ideaModule.setOffline(offlineDependencyResolution);
-        Set<Dependency> resolved = ideaModule.resolveDependencies();
+    private Map<IdeaModule, Set<Dependency>> resolveDependencies(Collection<IdeaModule> ideaModules) {
+        final Map<Project, IdeaModule> modulesByProject = new LinkedHashMap<Project, IdeaModule>();
+        for (IdeaModule ideaModule : ideaModules) {
+            modulesByProject.put(ideaModule.getProject(), ideaModule);
+        }
+        final Map<IdeaModule, Set<Dependency>> resolvedDependencies = Maps.newConcurrentMap();
+        projectModelActionExecutor.execute("Resolve IDEA module dependencies", modulesByProject.keySet(), new Action<Project>() {
+            @Override
+            public void execute(Project project) {
+                IdeaModule ideaModule = modulesByProject.get(project);
+                ideaModule.setOffline(offlineDependencyResolution);
+                resolvedDependencies.put(ideaModule, ideaModule.resolveDependencies());
+            }
+        });
+        return resolvedDependencies;
+    }
+
+    private void buildDependencies(Map<String, DefaultIdeaModule> modules, IdeaModule ideaModule, Set<Dependency> resolved) {
         List<DefaultIdeaDependency> dependencies = new LinkedList<DefaultIdeaDependency>();
         for (Dependency dependency : resolved) {
             if (dependency instanceof SingleEntryModuleLibrary) {
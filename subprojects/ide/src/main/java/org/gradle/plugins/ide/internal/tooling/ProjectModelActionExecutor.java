@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.ide.internal.tooling;
+
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.initialization.InternalFlags;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+import org.gradle.internal.resources.ResourceLock;
+import org.gradle.internal.work.WorkerLeaseService;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Runs the part of building a tooling model that is specific to each project, such as resolving its dependencies, as one build operation per project.
+ *
+ * <p>When running with {@code -Dorg.gradle.internal.tooling.parallel-models=true}, the operations run on the build operation worker pool,
+ * each while holding the lock of its project, in the same way as the tasks of different projects run with {@code --parallel}.
+ * The action must then only change the state of the project it is given.</p>
+ */
+public class ProjectModelActionExecutor {
+    public static final String PARALLEL_MODELS_SYSPROP = "org.gradle.internal.tooling.parallel-models";
+
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final WorkerLeaseService workerLeaseService;
+
+    public ProjectModelActionExecutor(BuildOperationExecutor buildOperationExecutor, WorkerLeaseService workerLeaseService) {
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.workerLeaseService = workerLeaseService;
+    }
+
+    public static boolean isParallel() {
+        return InternalFlags.isEnabled(PARALLEL_MODELS_SYSPROP);
+    }
+
+    /**
+     * Runs the given action for each of the given projects.
+     *
+     * @param displayName the display name of the build operations, which is followed by the display name of the project.
+     */
+    public void execute(final String displayName, final Collection<? extends Project> projects, final Action<? super Project> action) {
+        if (!isParallel() || projects.size() < 2) {
+            for (Project project : projects) {
+                buildOperationExecutor.run(new ProjectModelOperation(displayName, project, action, false));
+            }
+            return;
+        }
+        // The build thread may hold a project lock, which a worker needs
+        workerLeaseService.withoutProjectLock(new Runnable() {
+            @Override
+            public void run() {
+                buildOperationExecutor.runAll(new Action<BuildOperationQueue<ProjectModelOperation>>() {
+                    @Override
+                    public void execute(BuildOperationQueue<ProjectModelOperation> queue) {
+                        for (Project project : projects) {
+                            queue.add(new ProjectModelOperation(displayName, project, action, true));
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private class ProjectModelOperation implements RunnableBuildOperation {
+        private final String displayName;
+        private final Project project;
+        private final Action<? super Project> action;
+        private final boolean lockProject;
+
+        ProjectModelOperation(String displayName, Project project, Action<? super Project> action, boolean lockProject) {
+            this.displayName = displayName;
+            this.project = project;
+            this.action = action;
+            this.lockProject = lockProject;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            if (!lockProject) {
+                action.execute(project);
+                return;
+            }
+            String gradlePath = ((GradleInternal) project.getGradle()).getIdentityPath().toString();
+            String projectPath = ((ProjectInternal) project).getIdentityPath().toString();
+            ResourceLock projectLock = workerLeaseService.getProjectLock(gradlePath, projectPath);
+            workerLeaseService.withLocks(Collections.singleton(projectLock), new Runnable() {
+                @Override
+                public void run() {
+                    action.execute(project);
+                }
+            });
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName(displayName + " for " + project.getDisplayName());
+        }
+    }
+}
@@ -19,9 +19,11 @@ package org.gradle.plugins.ide.internal.tooling;
 import org.gradle.api.internal.artifacts.ivyservice.projectmodule.ProjectPublicationRegistry;
 import org.gradle.api.internal.project.ProjectTaskLister;
 import org.gradle.initialization.ProjectPathRegistry;
+import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.plugins.ide.internal.configurer.DefaultUniqueProjectNameProvider;
 import org.gradle.plugins.ide.internal.configurer.UniqueProjectNameProvider;
 import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry;
@@ -42,14 +44,17 @@ public class ToolingModelServices extends AbstractPluginServiceRegistry {
         protected BuildScopeToolingModelBuilderRegistryAction createIdeBuildScopeToolingModelBuilderRegistryAction(
             final ProjectTaskLister taskLister,
             final ProjectPublicationRegistry projectPublicationRegistry,
+            final BuildOperationExecutor buildOperationExecutor,
+            final WorkerLeaseService workerLeaseService,
             final ServiceRegistry services) {
 
             return new BuildScopeToolingModelBuilderRegistryAction() {
                 @Override
                 public void execute(ToolingModelBuilderRegistry registry) {
                     GradleProjectBuilder gradleProjectBuilder = new GradleProjectBuilder();
-                    IdeaModelBuilder ideaModelBuilder = new IdeaModelBuilder(gradleProjectBuilder, services);
-                    registry.register(new EclipseModelBuilder(gradleProjectBuilder, services));
+                    ProjectModelActionExecutor projectModelActionExecutor = new ProjectModelActionExecutor(buildOperationExecutor, workerLeaseService);
+                    IdeaModelBuilder ideaModelBuilder = new IdeaModelBuilder(gradleProjectBuilder, projectModelActionExecutor, services);
+                    registry.register(new EclipseModelBuilder(gradleProjectBuilder, projectModelActionExecutor, services));
                     registry.register(ideaModelBuilder);
                     registry.register(gradleProjectBuilder);
                     registry.register(new GradleBuildBuilder());
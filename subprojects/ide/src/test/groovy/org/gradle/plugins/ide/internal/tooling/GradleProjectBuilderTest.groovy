@@ -62,4 +62,36 @@ class GradleProjectBuilderTest extends AbstractProjectBuilderSpec {
         model.tasks[0].description == "some description"
         model.tasks[0].path == ":placeholderTask"
     }
+
+    def "reuses the hierarchy for all projects of the build"() {
+        def project = TestUtil.builder(temporaryFolder).withName("test").build()
+        def child = TestUtil.createChildProject(project, "child")
+
+        when:
+        def model = builder.buildAll(project)
+
+        then:
+        builder.buildAll(child).is(model)
+        model.findByPath(":child") != null
+    }
+
+    def "builds the hierarchy again when tasks change"() {
+        def project = TestUtil.builder(temporaryFolder).withName("test").build()
+        def child = TestUtil.createChildProject(project, "child")
+        def model = builder.buildAll(project)
+
+        when:
+        child.tasks.create("added", DefaultTask)
+        def updated = builder.buildAll(project)
+
+        then:
+        !updated.is(model)
+        updated.findByPath(":child").tasks*.name == ["added"]
+
+        when:
+        child.tasks.remove(child.tasks.getByName("added"))
+
+        then:
+        builder.buildAll(project).findByPath(":child").tasks.empty
+    }
 }
@@ -27,13 +27,16 @@ import org.gradle.api.plugins.JavaPlugin
 import org.gradle.api.plugins.WarPlugin
 import org.gradle.api.plugins.scala.ScalaBasePlugin
 import org.gradle.api.plugins.scala.ScalaPlugin
+import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.internal.service.DefaultServiceRegistry
+import org.gradle.internal.work.WorkerLeaseService
 import org.gradle.plugins.ear.EarPlugin
 import org.gradle.plugins.ide.eclipse.EclipsePlugin
 import org.gradle.plugins.ide.eclipse.EclipseWtpPlugin
 import org.gradle.plugins.ide.eclipse.model.BuildCommand
 import org.gradle.plugins.ide.internal.tooling.EclipseModelBuilder
 import org.gradle.plugins.ide.internal.tooling.GradleProjectBuilder
+import org.gradle.plugins.ide.internal.tooling.ProjectModelActionExecutor
 import org.gradle.test.fixtures.AbstractProjectBuilderSpec
 import org.gradle.test.fixtures.file.CleanupTestDirectory
 import org.gradle.testfixtures.ProjectBuilder
@@ -299,6 +302,6 @@ class EclipseModelBuilderTest extends AbstractProjectBuilderSpec {
         def serviceRegistry = new DefaultServiceRegistry()
         serviceRegistry.add(LocalComponentRegistry, Stub(LocalComponentRegistry))
         serviceRegistry.add(CompositeBuildContext, Stub(CompositeBuildContext))
-        new EclipseModelBuilder(gradleProjectBuilder, serviceRegistry)
+        new EclipseModelBuilder(gradleProjectBuilder, new ProjectModelActionExecutor(new TestBuildOperationExecutor(), Stub(WorkerLeaseService)), serviceRegistry)
     }
 }
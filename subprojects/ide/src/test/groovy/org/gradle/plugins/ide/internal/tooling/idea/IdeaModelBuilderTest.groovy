@@ -24,10 +24,13 @@ import org.gradle.api.plugins.GroovyPlugin
 import org.gradle.api.plugins.JavaPlugin
 import org.gradle.api.plugins.scala.ScalaPlugin
 import org.gradle.internal.jvm.Jvm
+import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.internal.service.DefaultServiceRegistry
+import org.gradle.internal.work.WorkerLeaseService
 import org.gradle.plugins.ide.idea.IdeaPlugin
 import org.gradle.plugins.ide.internal.tooling.GradleProjectBuilder
 import org.gradle.plugins.ide.internal.tooling.IdeaModelBuilder
+import org.gradle.plugins.ide.internal.tooling.ProjectModelActionExecutor
 import org.gradle.test.fixtures.AbstractProjectBuilderSpec
 import org.gradle.testfixtures.ProjectBuilder
 import org.gradle.tooling.internal.gradle.DefaultGradleProject
@@ -298,7 +301,7 @@ class IdeaModelBuilderTest extends AbstractProjectBuilderSpec {
         def serviceRegistry = new DefaultServiceRegistry()
         serviceRegistry.add(LocalComponentRegistry, Stub(LocalComponentRegistry))
         serviceRegistry.add(CompositeBuildContext, Stub(CompositeBuildContext))
-        new IdeaModelBuilder(gradleProjectBuilder, serviceRegistry)
+        new IdeaModelBuilder(gradleProjectBuilder, new ProjectModelActionExecutor(new TestBuildOperationExecutor(), Stub(WorkerLeaseService)), serviceRegistry)
     }
 
     private DefaultIdeaProject buildIdeaProject(modelBuilder, project) {
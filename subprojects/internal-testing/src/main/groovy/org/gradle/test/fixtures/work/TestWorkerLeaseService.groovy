@@ -17,6 +17,7 @@
 package org.gradle.test.fixtures.work
 
 import org.gradle.internal.resources.ResourceLock
+import org.gradle.internal.work.ResourceClass
 import org.gradle.internal.work.WorkerLeaseRegistry
 import org.gradle.internal.work.WorkerLeaseService
 
@@ -38,6 +39,11 @@ class TestWorkerLeaseService implements WorkerLeaseService {
         return 0
     }
 
+    @Override
+    ResourceLock getResourceClassLock(ResourceClass resourceClass) {
+        return null
+    }
+
     @Override
     WorkerLeaseRegistry.WorkerLease getCurrentWorkerLease() {
         return workerLease()
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.groovy
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.integtests.fixtures.CompilationOutputsFixture
+
+class IncrementalGroovyCompileIntegrationTest extends AbstractIntegrationSpec {
+
+    CompilationOutputsFixture outputs
+
+    def setup() {
+        executer.requireOwnGradleUserHomeDir()
+        outputs = new CompilationOutputsFixture(file("build/classes"))
+
+        buildFile << """
+            apply plugin: 'groovy'
+
+            dependencies {
+                compile localGroovy()
+            }
+
+            compileGroovy.options.incremental = true
+        """
+    }
+
+    private File source(String extension, String... classBodies) {
+        File out
+        for (String body : classBodies) {
+            def className = (body =~ /(?s).*?class (\w+) .*/)[0][1]
+            assert className: "unable to find class name"
+            def f = file("src/main/groovy/${className}.${extension}")
+            f.createFile()
+            f.text = body
+            out = f
+        }
+        out
+    }
+
+    private File groovy(String... classBodies) {
+        source("groovy", classBodies)
+    }
+
+    private File java(String... classBodies) {
+        source("java", classBodies)
+    }
+
+    def "recompiles only the changed class when it has no dependents"() {
+        def a = groovy "class A { def foo() { [1, 2].each { println it } } }"
+        groovy "class B {}"
+
+        outputs.snapshot { run "compileGroovy" }
+
+        when:
+        a.text = "class A { def foo() { [1, 2].each { println it + 1 } } }"
+        run "compileGroovy"
+
+        then:
+        outputs.recompiledClasses 'A', 'A$_foo_closure1'
+    }
+
+    def "recompiles the Groovy and Java classes that depend on the changed class"() {
+        def a = groovy "class A {}"
+        groovy "class B extends A {}", "class C {}"
+        java "class D { A a; }"
+
+        outputs.snapshot { run "compileGroovy" }
+
+        when:
+        a.text = "class A { String foo }"
+        run "compileGroovy"
+
+        then:
+        outputs.recompiledClasses 'A', 'B', 'D'
+    }
+
+    def "deletes the classes of a removed source file"() {
+        def a = groovy "class A { def foo() { [1].each { println it } } }"
+        groovy "class B {}"
+
+        outputs.snapshot { run "compileGroovy" }
+
+        when:
+        assert a.delete()
+        run "compileGroovy"
+
+        then:
+        outputs.noneRecompiled()
+        outputs.deletedClasses 'A', 'A$_foo_closure1'
+    }
+
+    def "recompiles all classes when a global AST transformation is on the compile classpath"() {
+        file("transforms/META-INF/services/org.codehaus.groovy.transform.ASTTransformation") << "groovy.grape.GrabAnnotationTransformation"
+        buildFile << """
+            dependencies {
+                compile files("transforms")
+            }
+        """
+        def a = groovy "class A {}"
+        groovy "class B {}"
+
+        outputs.snapshot { run "compileGroovy" }
+
+        when:
+        a.text = "class A { String foo }"
+        run "compileGroovy", "--info"
+
+        then:
+        outputs.recompiledClasses 'A', 'B'
+        output.contains(":compileGroovy - is not incremental. Global AST transformations are declared by transforms.")
+    }
+
+    def "recompiles all classes when a source file declares several classes"() {
+        def foo = file("src/main/groovy/Foo.groovy")
+        foo.text = "class Foo {}\nclass Helper { String value }"
+        groovy "class User { Helper helper }"
+        groovy "class Other {}"
+
+        outputs.snapshot { run "compileGroovy" }
+
+        when:
+        foo.text = "class Foo {}\nclass Helper { String otherValue }"
+        run "compileGroovy", "--info"
+
+        then:
+        outputs.recompiledClasses 'Foo', 'Helper', 'User', 'Other'
+        output.contains(":compileGroovy - is not incremental. Source file Foo.groovy declares class Helper.")
+    }
+
+    def "deletes a class removed from a source file that declares several classes"() {
+        def foo = file("src/main/groovy/Foo.groovy")
+        foo.text = "class Foo {}\nclass Helper {}"
+        groovy "class Other {}"
+
+        outputs.snapshot { run "compileGroovy" }
+
+        when:
+        foo.text = "class Foo {}"
+        run "compileGroovy"
+
+        then:
+        outputs.deletedClasses 'Helper'
+        !file("build/classes/groovy/main/Helper.class").exists()
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import org.gradle.api.internal.tasks.compile.incremental.FullRecompilationDetector;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.api.tasks.compile.GroovyCompileOptions;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipFile;
+
+/**
+ * Determines whether a Groovy compilation needs to recompile all of its sources, instead of the sources affected by a change only.
+ *
+ * <p>Global AST transformations and compiler configuration scripts can change the code generated for any class, based on information
+ * that the class dependency analysis does not see, so the sources are always compiled in full when they are used.
+ * The global AST transformations that ship with Groovy itself are ignored.</p>
+ *
+ * <p>Changes are mapped to classes by source file name, so the sources are also compiled in full when the previous compilation produced
+ * a class that is not named after its source file, such as a second class declared in a Groovy script or source file.
+ * Such classes are recorded by the class dependency analysis of the previous compilation.</p>
+ */
+public class GroovyFullRecompilationDetector implements FullRecompilationDetector {
+    private static final String GLOBAL_AST_TRANSFORMATIONS_DESCRIPTOR = "META-INF/services/org.codehaus.groovy.transform.ASTTransformation";
+    private static final Set<String> INCREMENTAL_FILE_EXTENSIONS = ImmutableSet.of("java", "groovy");
+
+    private final GroovyJavaJointCompileSpec spec;
+
+    public GroovyFullRecompilationDetector(GroovyJavaJointCompileSpec spec) {
+        this.spec = spec;
+    }
+
+    @Nullable
+    @Override
+    public String getFullRecompilationCause(ClassSetAnalysisData previousAnalysis) {
+        GroovyCompileOptions groovyOptions = spec.getGroovyCompileOptions();
+        if (groovyOptions.getConfigurationScript() != null) {
+            return "A Groovy compiler configuration script is used";
+        }
+        if (!INCREMENTAL_FILE_EXTENSIONS.containsAll(groovyOptions.getFileExtensions())) {
+            return "Source files with extensions other than .java and .groovy are compiled";
+        }
+        Map<String, String> misplacedClasses = previousAnalysis.getClassesNotNamedAfterSourceFile();
+        if (!misplacedClasses.isEmpty()) {
+            Map.Entry<String, String> misplacedClass = misplacedClasses.entrySet().iterator().next();
+            return "Source file " + misplacedClass.getValue() + " declares class " + misplacedClass.getKey();
+        }
+        Set<File> groovyClasspath = Sets.newHashSet(spec.getGroovyClasspath());
+        for (File file : spec.getCompileClasspath()) {
+            if (!groovyClasspath.contains(file) && declaresGlobalAstTransformations(file)) {
+                return "Global AST transformations are declared by " + file.getName();
+            }
+        }
+        return null;
+    }
+
+    private static boolean declaresGlobalAstTransformations(File classpathEntry) {
+        if (classpathEntry.isDirectory()) {
+            return new File(classpathEntry, GLOBAL_AST_TRANSFORMATIONS_DESCRIPTOR).isFile();
+        }
+        if (!classpathEntry.isFile()) {
+            return false;
+        }
+        try {
+            ZipFile zipFile = new ZipFile(classpathEntry);
+            try {
+                return zipFile.getEntry(GLOBAL_AST_TRANSFORMATIONS_DESCRIPTOR) != null;
+            } finally {
+                zipFile.close();
+            }
+        } catch (IOException e) {
+            // Not a jar, so it cannot contribute transformations
+            return false;
+        }
+    }
+}
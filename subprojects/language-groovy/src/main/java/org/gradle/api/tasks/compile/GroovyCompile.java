@@ -23,17 +23,24 @@ import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
+import org.gradle.api.internal.changedetection.changes.IncrementalTaskInputsInternal;
+import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.tasks.JavaToolChainFactory;
+import org.gradle.api.internal.tasks.TaskResourceClass;
 import org.gradle.api.internal.tasks.compile.AnnotationProcessorDetector;
 import org.gradle.api.internal.tasks.compile.CleaningGroovyCompiler;
 import org.gradle.api.internal.tasks.compile.CompilerForkUtils;
 import org.gradle.api.internal.tasks.compile.DefaultGroovyJavaJointCompileSpec;
 import org.gradle.api.internal.tasks.compile.DefaultGroovyJavaJointCompileSpecFactory;
 import org.gradle.api.internal.tasks.compile.GroovyCompilerFactory;
+import org.gradle.api.internal.tasks.compile.GroovyFullRecompilationDetector;
 import org.gradle.api.internal.tasks.compile.GroovyJavaJointCompileSpec;
 import org.gradle.api.internal.tasks.compile.JavaCompilerFactory;
+import org.gradle.api.internal.tasks.compile.incremental.IncrementalCompilerFactory;
+import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
+import org.gradle.api.internal.tasks.compile.incremental.cache.TaskScopedCompileCaches;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Classpath;
@@ -44,6 +51,10 @@ import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.StreamHasher;
+import org.gradle.internal.work.ResourceClass;
 import org.gradle.jvm.toolchain.JavaToolChain;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.util.GFileUtils;
@@ -58,6 +69,7 @@ import java.util.List;
  * Compiles Groovy source files, and optionally, Java source files.
  */
 @CacheableTask
+@TaskResourceClass(ResourceClass.MEMORY)
 public class GroovyCompile extends AbstractCompile {
     private Compiler<GroovyJavaJointCompileSpec> compiler;
     private FileCollection groovyClasspath;
@@ -70,12 +82,32 @@ public class GroovyCompile extends AbstractCompile {
         CompilerForkUtils.doNotCacheIfForkingViaExecutable(compileOptions, getOutputs());
     }
 
-    @Override
     @TaskAction
+    protected void compile(IncrementalTaskInputs inputs) {
+        checkGroovyClasspathIsNonEmpty();
+        DefaultGroovyJavaJointCompileSpec spec = createSpec();
+        Compiler<GroovyJavaJointCompileSpec> compiler = getCompiler(spec);
+        if (compileOptions.isIncremental() && compiler instanceof CleaningGroovyCompiler) {
+            // Annotation processors only run when the Java sources are compiled with Java annotation processing enabled
+            FileCollection annotationProcessorPath = groovyCompileOptions.isJavaAnnotationProcessing() ? getFileOperations().files(spec.getAnnotationProcessorPath()) : getFileOperations().files();
+            IncrementalCompilerFactory<GroovyJavaJointCompileSpec> factory = new IncrementalCompilerFactory<GroovyJavaJointCompileSpec>(
+                getFileOperations(), getStreamHasher(), getCachingFileHasher(), getPath(), (CleaningGroovyCompiler) compiler, source,
+                new TaskScopedCompileCaches(getGeneralCompileCaches(), getPath()), (IncrementalTaskInputsInternal) inputs,
+                annotationProcessorPath, new GroovyFullRecompilationDetector(spec));
+            compiler = factory.createCompiler();
+        }
+        performCompilation(spec, compiler);
+    }
+
+    @Override
     protected void compile() {
         checkGroovyClasspathIsNonEmpty();
         DefaultGroovyJavaJointCompileSpec spec = createSpec();
-        WorkResult result = getCompiler(spec).execute(spec);
+        performCompilation(spec, getCompiler(spec));
+    }
+
+    private void performCompilation(GroovyJavaJointCompileSpec spec, Compiler<GroovyJavaJointCompileSpec> compiler) {
+        WorkResult result = compiler.execute(spec);
         setDidWork(result.getDidWork());
     }
 
@@ -213,4 +245,24 @@ public class GroovyCompile extends AbstractCompile {
     protected JavaToolChainFactory getJavaToolChainFactory() {
         throw new UnsupportedOperationException();
     }
+
+    @Inject
+    protected StreamHasher getStreamHasher() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected FileHasher getCachingFileHasher() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected FileOperations getFileOperations() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected GeneralCompileCaches getGeneralCompileCaches() {
+        throw new UnsupportedOperationException();
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
+import org.gradle.api.tasks.compile.GroovyCompileOptions
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Subject
+
+class GroovyFullRecompilationDetectorTest extends Specification {
+    static final String DESCRIPTOR = "META-INF/services/org.codehaus.groovy.transform.ASTTransformation"
+
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    def options = new GroovyCompileOptions()
+    def spec = Stub(GroovyJavaJointCompileSpec) {
+        getGroovyCompileOptions() >> options
+    }
+    @Subject detector = new GroovyFullRecompilationDetector(spec)
+
+    def "can compile incrementally when no transformations are declared"() {
+        def dir = temp.createDir("classes")
+        dir.file("org/Foo.class").createFile()
+        def lib = temp.createDir("lib")
+        lib.file("org/Bar.class").createFile()
+        def jar = lib.zipTo(temp.file("lib.jar"))
+        spec.compileClasspath >> [dir, jar, temp.file("missing.jar")]
+
+        expect:
+        detector.getFullRecompilationCause(analysis()) == null
+    }
+
+    def "recompiles all sources when a class directory declares global AST transformations"() {
+        def dir = temp.createDir("classes")
+        dir.file(DESCRIPTOR) << "org.Transformation"
+        spec.compileClasspath >> [dir]
+
+        expect:
+        detector.getFullRecompilationCause(analysis()) == "Global AST transformations are declared by classes"
+    }
+
+    def "recompiles all sources when a jar declares global AST transformations"() {
+        def dir = temp.createDir("transforms")
+        dir.file(DESCRIPTOR) << "org.Transformation"
+        def jar = dir.zipTo(temp.file("transforms.jar"))
+        spec.compileClasspath >> [jar]
+
+        expect:
+        detector.getFullRecompilationCause(analysis()) == "Global AST transformations are declared by transforms.jar"
+    }
+
+    def "ignores global AST transformations declared by Groovy itself"() {
+        def dir = temp.createDir("groovy")
+        dir.file(DESCRIPTOR) << "groovy.grape.GrabAnnotationTransformation"
+        def jar = dir.zipTo(temp.file("groovy-all.jar"))
+        spec.compileClasspath >> [jar]
+        spec.groovyClasspath >> [jar]
+
+        expect:
+        detector.getFullRecompilationCause(analysis()) == null
+    }
+
+    def "recompiles all sources when a configuration script is used"() {
+        options.configurationScript = temp.file("config.groovy")
+        spec.compileClasspath >> []
+
+        expect:
+        detector.getFullRecompilationCause(analysis()) == "A Groovy compiler configuration script is used"
+    }
+
+    def "recompiles all sources when other source file extensions are used"() {
+        options.fileExtensions = ["java", "groovy", "gvy"]
+        spec.compileClasspath >> []
+
+        expect:
+        detector.getFullRecompilationCause(analysis()) == "Source files with extensions other than .java and .groovy are compiled"
+    }
+
+    def "recompiles all sources when the previous compilation produced a class not named after its source file"() {
+        def previousAnalysis = analysis(["org.Helper": "Foo.groovy"])
+        spec.compileClasspath >> []
+
+        expect:
+        detector.getFullRecompilationCause(previousAnalysis) == "Source file Foo.groovy declares class org.Helper"
+    }
+
+    private static ClassSetAnalysisData analysis(Map<String, String> classesNotNamedAfterSourceFile = [:]) {
+        new ClassSetAnalysisData([:], [:], [:], [:], [:], classesNotNamedAfterSourceFile)
+    }
+}
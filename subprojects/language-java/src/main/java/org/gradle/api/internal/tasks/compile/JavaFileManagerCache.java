@@ -0,0 +1,275 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import org.gradle.initialization.InternalFlags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the file managers of the in-process Java compiler between compilations, so that each jar of the class path is opened and indexed once per process,
+ * instead of once per compilation. javac caches the contents of the jars it has opened in the file manager, and a {@link StandardJavaFileManager}
+ * can be reused for several compilations.
+ *
+ * <p>A file manager is used by a single compilation at a time. Its locations are reset before it is reused, as the compiler only sets the locations that have a command line option.
+ * It remembers the length and the last modified time of the jars it has opened,
+ * and is discarded as soon as one of these jars has changed, so that the compiler never sees the previous content of a jar.</p>
+ */
+public class JavaFileManagerCache {
+    public static final String REUSE_FILE_MANAGERS_SYSPROP = "org.gradle.internal.java.compile.reuse-file-managers";
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaFileManagerCache.class);
+    private static final int MAX_IDLE_FILE_MANAGERS = 4;
+    private static final JavaFileManagerCache INSTANCE = new JavaFileManagerCache();
+
+    private final Map<Key, Deque<CachedFileManager>> idleFileManagers = new HashMap<Key, Deque<CachedFileManager>>();
+    private final AtomicLong reusedJars = new AtomicLong();
+    private final AtomicLong reusedBytes = new AtomicLong();
+
+    public static boolean isEnabled() {
+        return InternalFlags.isEnabled(REUSE_FILE_MANAGERS_SYSPROP);
+    }
+
+    /**
+     * Returns the cache shared by all the compilations in this process.
+     */
+    public static JavaFileManagerCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a file manager for a compilation with the given class path, which includes the boot class path. The file manager must be handed back using {@link #release(CachedFileManager)}
+     * once the compilation has completed, or {@link #discard(CachedFileManager)} when the compiler has failed.
+     */
+    public CachedFileManager acquire(JavaCompiler compiler, @Nullable Charset charset, Iterable<File> classpath) {
+        Key key = new Key(compiler.getClass(), charset);
+        CachedFileManager fileManager = takeIdle(key);
+        if (fileManager != null && !fileManager.isUpToDate(classpath)) {
+            LOGGER.debug("Discarding Java file manager, as a jar of the class path has changed.");
+            fileManager.close();
+            fileManager = null;
+        }
+        if (fileManager != null && !fileManager.resetLocations()) {
+            fileManager.close();
+            fileManager = null;
+        }
+        if (fileManager == null) {
+            fileManager = new CachedFileManager(key, compiler.getStandardFileManager(null, null, charset));
+        }
+        fileManager.recordClasspath(classpath, this);
+        return fileManager;
+    }
+
+    /**
+     * Makes a file manager returned by {@link #acquire(JavaCompiler, Charset, Iterable)} available to later compilations.
+     */
+    public void release(CachedFileManager fileManager) {
+        synchronized (idleFileManagers) {
+            Deque<CachedFileManager> idle = idleFileManagers.get(fileManager.key);
+            if (idle == null) {
+                idle = new ArrayDeque<CachedFileManager>();
+                idleFileManagers.put(fileManager.key, idle);
+            }
+            if (idle.size() < MAX_IDLE_FILE_MANAGERS) {
+                idle.push(fileManager);
+                return;
+            }
+        }
+        fileManager.close();
+    }
+
+    /**
+     * Closes a file manager returned by {@link #acquire(JavaCompiler, Charset, Iterable)}, without making it available to later compilations.
+     */
+    public void discard(CachedFileManager fileManager) {
+        fileManager.close();
+    }
+
+    @Nullable
+    private CachedFileManager takeIdle(Key key) {
+        synchronized (idleFileManagers) {
+            Deque<CachedFileManager> idle = idleFileManagers.get(key);
+            return idle == null ? null : idle.poll();
+        }
+    }
+
+    /**
+     * The number of jars whose index was reused from a previous compilation, since this process has started.
+     */
+    public long getReusedJars() {
+        return reusedJars.get();
+    }
+
+    /**
+     * The total size of the jars whose index was reused from a previous compilation, since this process has started.
+     */
+    public long getReusedBytes() {
+        return reusedBytes.get();
+    }
+
+    public static class CachedFileManager {
+        private final Key key;
+        private final StandardJavaFileManager fileManager;
+        private final Map<File, JarState> jars = new HashMap<File, JarState>();
+        private int reusedJars;
+        private long reusedBytes;
+
+        private CachedFileManager(Key key, StandardJavaFileManager fileManager) {
+            this.key = key;
+            this.fileManager = fileManager;
+        }
+
+        public StandardJavaFileManager getFileManager() {
+            return fileManager;
+        }
+
+        /**
+         * The number of jars of the class path of the current compilation that had already been opened by a previous compilation.
+         */
+        public int getReusedJars() {
+            return reusedJars;
+        }
+
+        /**
+         * The total size of the jars of the class path of the current compilation that had already been opened by a previous compilation.
+         */
+        public long getReusedBytes() {
+            return reusedBytes;
+        }
+
+        private boolean isUpToDate(Iterable<File> classpath) {
+            for (File file : classpath) {
+                JarState previous = jars.get(file);
+                if (previous != null && !previous.equals(JarState.of(file))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean resetLocations() {
+            for (StandardLocation location : StandardLocation.values()) {
+                try {
+                    fileManager.setLocation(location, null);
+                } catch (IOException e) {
+                    LOGGER.debug("Discarding Java file manager, as location {} cannot be reset.", location, e);
+                    return false;
+                } catch (RuntimeException e) {
+                    LOGGER.debug("Discarding Java file manager, as location {} cannot be reset.", location, e);
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void recordClasspath(Iterable<File> classpath, JavaFileManagerCache cache) {
+            reusedJars = 0;
+            reusedBytes = 0;
+            for (File file : classpath) {
+                if (!file.isFile()) {
+                    // Class directories are listed again by each compilation
+                    continue;
+                }
+                JarState state = JarState.of(file);
+                if (jars.put(file, state) != null) {
+                    reusedJars++;
+                    reusedBytes += state.length;
+                }
+            }
+            cache.reusedJars.addAndGet(reusedJars);
+            cache.reusedBytes.addAndGet(reusedBytes);
+        }
+
+        private void close() {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close Java file manager.", e);
+            }
+        }
+    }
+
+    private static class JarState {
+        private final long length;
+        private final long lastModified;
+
+        private JarState(long length, long lastModified) {
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        static JarState of(File file) {
+            return new JarState(file.length(), file.lastModified());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            JarState other = (JarState) o;
+            return length == other.length && lastModified == other.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (int) (length ^ (length >>> 32)) + (int) (lastModified ^ (lastModified >>> 32));
+        }
+    }
+
+    private static class Key {
+        private final Class<?> compilerType;
+        private final Charset charset;
+
+        Key(Class<?> compilerType, @Nullable Charset charset) {
+            this.compilerType = compilerType;
+            this.charset = charset;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key other = (Key) o;
+            return compilerType.equals(other.compilerType) && (charset == null ? other.charset == null : charset.equals(other.charset));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * compilerType.hashCode() + (charset == null ? 0 : charset.hashCode());
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.gradle.api.internal.tasks.compile;
 
+import com.google.common.collect.Iterables;
+import org.apache.commons.lang.StringUtils;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.internal.tasks.compile.reflect.SourcepathIgnoringProxy;
 import org.gradle.api.tasks.WorkResult;
@@ -27,25 +29,57 @@ import org.slf4j.LoggerFactory;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
+import java.io.File;
 import java.io.Serializable;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
 public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(JdkJavaCompiler.class);
     private final Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory;
+    private final boolean reuseFileManagers;
 
     public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory) {
+        this(javaHomeBasedJavaCompilerFactory, false);
+    }
+
+    /**
+     * @param reuseFileManagers whether to keep the file manager, and so the indexes of the class path jars, for later compilations in the same process. See {@link JavaFileManagerCache}.
+     */
+    public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory, boolean reuseFileManagers) {
         this.javaHomeBasedJavaCompilerFactory = javaHomeBasedJavaCompilerFactory;
+        this.reuseFileManagers = reuseFileManagers;
     }
 
     @Override
     public WorkResult execute(JavaCompileSpec spec) {
         LOGGER.info("Compiling with JDK Java compiler API.");
 
-        JavaCompiler.CompilationTask task = createCompileTask(spec);
-        boolean success = task.call();
+        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
+        Charset charset = spec.getCompileOptions().getEncoding() != null ? Charset.forName(spec.getCompileOptions().getEncoding()) : null;
+        boolean success;
+        if (reuseFileManagers) {
+            JavaFileManagerCache cache = JavaFileManagerCache.getInstance();
+            JavaFileManagerCache.CachedFileManager cachedFileManager = cache.acquire(compiler, charset, Iterables.concat(spec.getCompileClasspath(), getBootClasspath(spec)));
+            LOGGER.info("Reusing the indexes of {} class path jars ({} bytes) from previous compilations.", cachedFileManager.getReusedJars(), cachedFileManager.getReusedBytes());
+            boolean completed = false;
+            try {
+                success = createCompileTask(spec, compiler, cachedFileManager.getFileManager()).call();
+                completed = true;
+            } finally {
+                if (completed) {
+                    cache.release(cachedFileManager);
+                } else {
+                    // The compiler has crashed, and may have left the file manager in any state
+                    cache.discard(cachedFileManager);
+                }
+            }
+        } else {
+            success = createCompileTask(spec, compiler, compiler.getStandardFileManager(null, null, charset)).call();
+        }
         if (!success) {
             throw new CompilationFailedException();
         }
@@ -53,11 +87,8 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
         return WorkResults.didWork(true);
     }
 
-    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec) {
+    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, JavaCompiler compiler, StandardJavaFileManager standardFileManager) {
         List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
-        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
-        MinimalJavaCompileOptions compileOptions = spec.getCompileOptions();
-        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null);
         Iterable<? extends JavaFileObject> compilationUnits = standardFileManager.getJavaFileObjectsFromFiles(spec.getSource());
         StandardJavaFileManager fileManager = standardFileManager;
         if (JavaVersion.current().isJava9Compatible() && emptySourcepathIn(options)) {
@@ -66,6 +97,18 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
         return compiler.getTask(null, fileManager, null, options, null, compilationUnits);
     }
 
+    private static List<File> getBootClasspath(JavaCompileSpec spec) {
+        String bootClasspath = spec.getCompileOptions().getBootClasspath();
+        if (bootClasspath == null) {
+            return Collections.emptyList();
+        }
+        List<File> files = new ArrayList<File>();
+        for (String path : StringUtils.split(bootClasspath, File.pathSeparatorChar)) {
+            files.add(new File(path));
+        }
+        return files;
+    }
+
     private static boolean emptySourcepathIn(List<String> options) {
         Iterator<String> optionsIter = options.iterator();
         while (optionsIter.hasNext()) {
@@ -23,6 +23,7 @@ import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -61,11 +62,12 @@ public class ClassSetAnalysisUpdater {
         Set<File> baseDirs = Sets.newLinkedHashSet();
         baseDirs.add(spec.getDestinationDir());
         Iterables.addAll(baseDirs, Iterables.filter(spec.getCompileClasspath(), IS_CLASS_DIRECTORY));
-        ClassFilesAnalyzer analyzer = new ClassFilesAnalyzer(this.analyzer, fileHasher);
+        ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator();
         for (File baseDir : baseDirs) {
-            fileOperations.fileTree(baseDir).visit(analyzer);
+            boolean compiledClasses = baseDir.equals(spec.getDestinationDir());
+            fileOperations.fileTree(baseDir).visit(new ClassFilesAnalyzer(analyzer, fileHasher, accumulator, compiledClasses));
         }
-        ClassSetAnalysisData data = analyzer.getAnalysis();
+        ClassSetAnalysisData data = accumulator.getAnalysis();
         stash.put(data);
         LOG.info("Class dependency analysis for incremental compilation took {}.", clock.getElapsed());
     }
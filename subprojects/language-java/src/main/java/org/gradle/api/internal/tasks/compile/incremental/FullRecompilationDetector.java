@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+
+import javax.annotation.Nullable;
+
+/**
+ * Decides whether a compilation must recompile all of its sources, for reasons that the class dependency analysis cannot see.
+ *
+ * <p>It is only asked when the sources could otherwise be compiled incrementally, so it may do expensive checks.</p>
+ */
+public interface FullRecompilationDetector {
+    /**
+     * Returns why all sources need to be recompiled, or null when only the sources affected by the changes need to be recompiled.
+     *
+     * @param previousAnalysis the class dependency analysis of the previous compilation.
+     */
+    @Nullable
+    String getFullRecompilationCause(ClassSetAnalysisData previousAnalysis);
+}
@@ -21,13 +21,13 @@ import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapsho
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.language.base.internal.compile.Compiler;
 
-class IncrementalCompilationFinalizer implements Compiler<JavaCompileSpec> {
+class IncrementalCompilationFinalizer<T extends JavaCompileSpec> implements Compiler<T> {
 
-    private final Compiler<JavaCompileSpec> delegate;
+    private final Compiler<T> delegate;
     private final JarClasspathSnapshotWriter writer;
     private final ClassSetAnalysisUpdater updater;
 
-    public IncrementalCompilationFinalizer(Compiler<JavaCompileSpec> delegate, JarClasspathSnapshotWriter writer,
+    public IncrementalCompilationFinalizer(Compiler<T> delegate, JarClasspathSnapshotWriter writer,
                                            ClassSetAnalysisUpdater updater) {
         this.delegate = delegate;
         this.writer = writer;
@@ -35,7 +35,7 @@ class IncrementalCompilationFinalizer implements Compiler<JavaCompileSpec> {
     }
 
     @Override
-    public WorkResult execute(JavaCompileSpec spec) {
+    public WorkResult execute(T spec) {
         WorkResult out = delegate.execute(spec);
 
         if (!(out instanceof RecompilationNotNecessary)) {
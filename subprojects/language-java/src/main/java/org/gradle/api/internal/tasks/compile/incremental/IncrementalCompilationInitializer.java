@@ -65,11 +65,13 @@ class IncrementalCompilationInitializer {
             classesToDelete.include(path.concat(".class"));
             classesToDelete.include(path.concat("$*.class"));
 
-            //the stale class might be a source class that was deleted
-            //it's no harm to include it in sourceToCompile anyway
-            sourceToCompile.include(path.concat(".java"));
-            //if inner classes exists as a separate .java file, they need to be recompiled too.
-            sourceToCompile.include(path.concat("$*.java"));
+            for (String extension : SourceToNameConverter.SOURCE_FILE_EXTENSIONS) {
+                //the stale class might be a source class that was deleted
+                //it's no harm to include it in sourceToCompile anyway
+                sourceToCompile.include(path.concat(extension));
+                //if inner classes exists as a separate source file, they need to be recompiled too.
+                sourceToCompile.include(path.concat("$*").concat(extension));
+            }
         }
     }
 }
@@ -110,7 +110,7 @@ public class RecompilationSpecProvider {
             if (spec.getFullRebuildCause() != null) {
                 return;
             }
-            if (hasExtension(input.getFile(), ".java")) {
+            if (SourceToNameConverter.isSourceFile(input.getFile())) {
                 javaChangeProcessor.processChange(input, spec);
             } else if (hasExtension(input.getFile(), ".class")) {
                 classChangeProcessor.processChange(input, spec);
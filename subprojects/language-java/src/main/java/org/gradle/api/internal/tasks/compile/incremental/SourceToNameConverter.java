@@ -16,28 +16,44 @@
 
 package org.gradle.api.internal.tasks.compile.incremental;
 
+import com.google.common.collect.ImmutableList;
 import org.gradle.util.RelativePathUtil;
 
 import java.io.File;
 import java.util.List;
 
 import static java.lang.String.format;
+import static org.gradle.internal.FileUtils.hasExtension;
 
 public class SourceToNameConverter {
 
+    /**
+     * The extensions of the source files that can be compiled incrementally. Groovy sources are compiled together with Java sources by the Groovy compiler.
+     */
+    static final List<String> SOURCE_FILE_EXTENSIONS = ImmutableList.of(".java", ".groovy");
+
     private CompilationSourceDirs sourceDirs;
 
     public SourceToNameConverter(CompilationSourceDirs sourceDirs) {
         this.sourceDirs = sourceDirs;
     }
 
+    static boolean isSourceFile(File file) {
+        for (String extension : SOURCE_FILE_EXTENSIONS) {
+            if (hasExtension(file, extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public String getClassName(File javaSourceClass) {
         List<File> dirs = sourceDirs.getSourceRoots();
         for (File sourceDir : dirs) {
             if (javaSourceClass.getAbsolutePath().startsWith(sourceDir.getAbsolutePath())) { //perf tweak only
                 String relativePath = RelativePathUtil.relativePath(sourceDir, javaSourceClass);
                 if (!relativePath.startsWith("..")) {
-                    return relativePath.replaceAll("/", ".").replaceAll("\\.java$", "");
+                    return relativePath.replaceAll("/", ".").replaceAll("\\.(java|groovy)$", "");
                 }
             }
         }
@@ -41,7 +41,8 @@ public class ClassAnalysisSerializer extends AbstractSerializer<ClassAnalysis> {
         Set<Integer> constants = integerSetSerializer.read(decoder);
         Set<Integer> literals = integerSetSerializer.read(decoder);
         Set<String> superTypes = stringSetSerializer.read(decoder);
-        return new ClassAnalysis(className, classes, relatedToAll, constants, literals, superTypes);
+        String sourceFileName = decoder.readNullableString();
+        return new ClassAnalysis(className, classes, relatedToAll, constants, literals, superTypes, sourceFileName);
     }
 
     @Override
@@ -52,6 +53,7 @@ public class ClassAnalysisSerializer extends AbstractSerializer<ClassAnalysis> {
         integerSetSerializer.write(encoder, value.getConstants());
         integerSetSerializer.write(encoder, value.getLiterals());
         stringSetSerializer.write(encoder, value.getSuperTypes());
+        encoder.writeNullableString(value.getSourceFileName());
     }
 
     @Override
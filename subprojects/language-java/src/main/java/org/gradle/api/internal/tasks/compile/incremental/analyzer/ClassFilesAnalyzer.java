@@ -28,17 +28,26 @@ public class ClassFilesAnalyzer implements FileVisitor {
     private final ClassDependenciesAnalyzer analyzer;
     private final ClassDependentsAccumulator accumulator;
     private final FileHasher hasher;
+    private final boolean compiledClasses;
 
     public ClassFilesAnalyzer(ClassDependenciesAnalyzer analyzer, FileHasher fileHasher) {
         this(analyzer, fileHasher, new ClassDependentsAccumulator());
     }
 
    ClassFilesAnalyzer(ClassDependenciesAnalyzer analyzer, FileHasher fileHasher, ClassDependentsAccumulator accumulator) {
-       this.analyzer = analyzer;
-       this.hasher = fileHasher;
-       this.accumulator = accumulator;
+       this(analyzer, fileHasher, accumulator, false);
    }
 
+    /**
+     * @param compiledClasses true when the visited classes are the output of the compilation, rather than classes on its classpath.
+     */
+    public ClassFilesAnalyzer(ClassDependenciesAnalyzer analyzer, FileHasher fileHasher, ClassDependentsAccumulator accumulator, boolean compiledClasses) {
+        this.analyzer = analyzer;
+        this.hasher = fileHasher;
+        this.accumulator = accumulator;
+        this.compiledClasses = compiledClasses;
+    }
+
     @Override
     public void visitDir(FileVisitDetails dirDetails) {}
 
@@ -51,7 +60,11 @@ public class ClassFilesAnalyzer implements FileVisitor {
         HashCode hash = hasher.hash(fileDetails);
         ClassAnalysis analysis = analyzer.getClassAnalysis(hash, fileDetails);
 
-        accumulator.addClass(fileDetails.getFile(), analysis);
+        if (compiledClasses) {
+            accumulator.addCompiledClass(fileDetails.getFile(), analysis);
+        } else {
+            accumulator.addClass(fileDetails.getFile(), analysis);
+        }
     }
 
     public ClassSetAnalysisData getAnalysis() {
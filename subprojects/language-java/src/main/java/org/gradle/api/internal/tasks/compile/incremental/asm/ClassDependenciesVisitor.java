@@ -73,7 +73,19 @@ public class ClassDependenciesVisitor extends ClassVisitor {
         Set<String> classDependencies = Sets.newHashSet();
         ClassDependenciesVisitor visitor = new ClassDependenciesVisitor(constants, literals, classDependencies, new ClassRelevancyFilter(className), reader);
         reader.accept(visitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
-        return new ClassAnalysis(className, classDependencies, visitor.isDependencyToAll(), constants, literals, visitor.getSuperTypes());
+        return new ClassAnalysis(className, classDependencies, visitor.isDependencyToAll(), constants, literals, visitor.getSuperTypes(), readSourceFileName(reader));
+    }
+
+    private static String readSourceFileName(ClassReader reader) {
+        // The source file is debug information, which the analysis skips
+        final String[] sourceFileName = new String[1];
+        reader.accept(new ClassVisitor(API) {
+            @Override
+            public void visitSource(String source, String debug) {
+                sourceFileName[0] = source;
+            }
+        }, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+        return sourceFileName[0];
     }
 
     public static Set<Integer> retrieveConstants(ClassReader reader) {
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.cache;
+
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache;
+import org.gradle.api.internal.tasks.compile.incremental.deps.LocalClassSetAnalysisStore;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotCache;
+import org.gradle.api.internal.tasks.compile.incremental.jar.LocalJarClasspathSnapshotStore;
+
+/**
+ * The caches used by the incremental compilation of a single task: the caches shared by all tasks, and the stores holding the results of the previous compilation of the task.
+ */
+public class TaskScopedCompileCaches implements CompileCaches {
+    private final GeneralCompileCaches generalCaches;
+    private final LocalClassSetAnalysisStore localClassSetAnalysisStore;
+    private final LocalJarClasspathSnapshotStore localJarClasspathSnapshotStore;
+
+    public TaskScopedCompileCaches(GeneralCompileCaches generalCaches, String taskPath) {
+        this.generalCaches = generalCaches;
+        this.localClassSetAnalysisStore = generalCaches.createLocalClassSetAnalysisStore(taskPath);
+        this.localJarClasspathSnapshotStore = generalCaches.createLocalJarClasspathSnapshotStore(taskPath);
+    }
+
+    @Override
+    public ClassAnalysisCache getClassAnalysisCache() {
+        return generalCaches.getClassAnalysisCache();
+    }
+
+    @Override
+    public JarSnapshotCache getJarSnapshotCache() {
+        return generalCaches.getJarSnapshotCache();
+    }
+
+    @Override
+    public LocalJarClasspathSnapshotStore getLocalJarClasspathSnapshotStore() {
+        return localJarClasspathSnapshotStore;
+    }
+
+    @Override
+    public LocalClassSetAnalysisStore getLocalClassSetAnalysisStore() {
+        return localClassSetAnalysisStore;
+    }
+}
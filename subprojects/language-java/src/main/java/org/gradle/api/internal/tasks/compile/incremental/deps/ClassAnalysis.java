@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps;
 
+import javax.annotation.Nullable;
 import java.util.Set;
 
 /**
@@ -28,14 +29,20 @@ public class ClassAnalysis {
     private final Set<Integer> constants;
     private final Set<Integer> literals;
     private final Set<String> superTypes;
+    private final String sourceFileName;
 
     public ClassAnalysis(String className, Set<String> classDependencies, boolean dependencyToAll, Set<Integer> constants, Set<Integer> literals, Set<String> superTypes) {
+        this(className, classDependencies, dependencyToAll, constants, literals, superTypes, null);
+    }
+
+    public ClassAnalysis(String className, Set<String> classDependencies, boolean dependencyToAll, Set<Integer> constants, Set<Integer> literals, Set<String> superTypes, @Nullable String sourceFileName) {
         this.className = className;
         this.classDependencies = classDependencies;
         this.dependencyToAll = dependencyToAll;
         this.constants = constants;
         this.literals = literals;
         this.superTypes = superTypes;
+        this.sourceFileName = sourceFileName;
     }
 
     public String getClassName() {
@@ -61,4 +68,28 @@ public class ClassAnalysis {
     public Set<String> getSuperTypes() {
         return superTypes;
     }
+
+    /**
+     * Returns the name of the source file the class was compiled from, or null when the class was compiled without debug information.
+     */
+    @Nullable
+    public String getSourceFileName() {
+        return sourceFileName;
+    }
+
+    /**
+     * Returns false when the top level class of this class is not named after the source file it was compiled from, such as a second top level class declared in a source file.
+     */
+    public boolean isNamedAfterSourceFile() {
+        if (sourceFileName == null) {
+            return true;
+        }
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        int nested = simpleName.indexOf('$');
+        // Nested classes and closures follow their top level class
+        String topLevelName = nested < 0 ? simpleName : simpleName.substring(0, nested);
+        int extension = sourceFileName.lastIndexOf('.');
+        String sourceName = extension < 0 ? sourceFileName : sourceFileName.substring(0, extension);
+        return sourceName.equals(topLevelName);
+    }
 }
@@ -37,6 +37,7 @@ public class ClassDependentsAccumulator {
     private final Multimap<Integer, String> literalsToClasses = HashMultimap.create();
     private final Set<String> seenClasses = Sets.newHashSet();
     private final Multimap<String, String> parentToChildren = HashMultimap.create();
+    private final Map<String, String> classesNotNamedAfterSourceFile = new HashMap<String, String>();
 
     public ClassDependentsAccumulator() {
     }
@@ -46,6 +47,16 @@ public class ClassDependentsAccumulator {
         filePathToClassName.put(classFile.getAbsolutePath(), classAnalysis.getClassName());
     }
 
+    /**
+     * Adds a compiled class, and remembers whether it is named after its source file.
+     */
+    public void addCompiledClass(File classFile, ClassAnalysis classAnalysis) {
+        addClass(classFile, classAnalysis);
+        if (!classAnalysis.isNamedAfterSourceFile()) {
+            classesNotNamedAfterSourceFile.put(classAnalysis.getClassName(), classAnalysis.getSourceFileName());
+        }
+    }
+
     public void addClass(ClassAnalysis classAnalysis) {
         addClass(classAnalysis.getClassName(), classAnalysis.isDependencyToAll(), classAnalysis.getClassDependencies(), classAnalysis.getConstants(), classAnalysis.getLiterals(), classAnalysis.getSuperTypes());
     }
@@ -110,6 +121,6 @@ public class ClassDependentsAccumulator {
     }
 
     public ClassSetAnalysisData getAnalysis() {
-        return new ClassSetAnalysisData(filePathToClassName, getDependentsMap(), getClassesToConstants(), getLiteralsToClasses(), parentToChildren);
+        return new ClassSetAnalysisData(filePathToClassName, getDependentsMap(), getClassesToConstants(), getLiteralsToClasses(), parentToChildren, classesNotNamedAfterSourceFile);
     }
 }
@@ -38,17 +38,23 @@ public class ClassSetAnalysisData {
     final Map<String, Set<Integer>> classesToConstants;
     final Map<Integer, Set<String>> literalsToClasses;
     final Map<String, Set<String>> classesToChildren;
+    final Map<String, String> classesNotNamedAfterSourceFile;
 
-    public ClassSetAnalysisData(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Multimap<String, Integer> classesToConstants, Multimap<Integer, String> literalsToClasses, Multimap<String, String> classesToChildren) {
-        this(filePathToClassName, dependents, asMap(classesToConstants), asMap(literalsToClasses), asMap(classesToChildren));
+    public ClassSetAnalysisData(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Multimap<String, Integer> classesToConstants, Multimap<Integer, String> literalsToClasses, Multimap<String, String> classesToChildren, Map<String, String> classesNotNamedAfterSourceFile) {
+        this(filePathToClassName, dependents, asMap(classesToConstants), asMap(literalsToClasses), asMap(classesToChildren), classesNotNamedAfterSourceFile);
     }
 
     public ClassSetAnalysisData(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Map<String, Set<Integer>> classesToConstants, Map<Integer, Set<String>> literalsToClasses, Map<String, Set<String>> classesToChildren) {
+        this(filePathToClassName, dependents, classesToConstants, literalsToClasses, classesToChildren, Collections.<String, String>emptyMap());
+    }
+
+    public ClassSetAnalysisData(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Map<String, Set<Integer>> classesToConstants, Map<Integer, Set<String>> literalsToClasses, Map<String, Set<String>> classesToChildren, Map<String, String> classesNotNamedAfterSourceFile) {
         this.filePathToClassName = filePathToClassName;
         this.dependents = dependents;
         this.classesToConstants = classesToConstants;
         this.literalsToClasses = literalsToClasses;
         this.classesToChildren = classesToChildren;
+        this.classesNotNamedAfterSourceFile = classesNotNamedAfterSourceFile;
     }
 
     private static <K, V> Map<K, Set<V>> asMap(Multimap<K, V> multimap) {
@@ -80,6 +86,14 @@ public class ClassSetAnalysisData {
         return children == null ? Collections.<String>emptySet() : children;
     }
 
+    /**
+     * Returns the compiled classes whose top level class is not named after their source file, with the name of that source file.
+     * Changes to these source files cannot be mapped to the classes compiled from them by name.
+     */
+    public Map<String, String> getClassesNotNamedAfterSourceFile() {
+        return classesNotNamedAfterSourceFile;
+    }
+
     public static class Serializer extends AbstractSerializer<ClassSetAnalysisData> {
         private static final SetSerializer<Integer> INTEGER_SET_SERIALIZER = new SetSerializer<Integer>(INTEGER_SERIALIZER, false);
 
@@ -136,7 +150,14 @@ public class ClassSetAnalysisData {
                 classNameToChildren.put(parent, namesBuilder.build());
             }
 
-            return new ClassSetAnalysisData(filePathToClassNameBuilder.build(), dependentsBuilder.build(), classesToConstantsBuilder.build(), literalsToClassesBuilder.build(), classNameToChildren.build());
+            count = decoder.readSmallInt();
+            ImmutableMap.Builder<String, String> classesNotNamedAfterSourceFileBuilder = ImmutableMap.builder();
+            for (int i = 0; i < count; i++) {
+                String className = readClassName(decoder, classNameMap);
+                classesNotNamedAfterSourceFileBuilder.put(className, decoder.readString());
+            }
+
+            return new ClassSetAnalysisData(filePathToClassNameBuilder.build(), dependentsBuilder.build(), classesToConstantsBuilder.build(), literalsToClassesBuilder.build(), classNameToChildren.build(), classesNotNamedAfterSourceFileBuilder.build());
         }
 
         @Override
@@ -180,6 +201,12 @@ public class ClassSetAnalysisData {
                     writeClassName(className, classNameMap, encoder);
                 }
             }
+
+            encoder.writeSmallInt(value.classesNotNamedAfterSourceFile.size());
+            for (Map.Entry<String, String> entry : value.classesNotNamedAfterSourceFile.entrySet()) {
+                writeClassName(entry.getKey(), classNameMap, encoder);
+                encoder.writeString(entry.getValue());
+            }
         }
 
         private DependentsSet readDependentsSet(Decoder decoder, Map<Integer, String> classNameMap) throws IOException {
@@ -24,6 +24,7 @@ import org.gradle.api.file.FileTree;
 import org.gradle.api.internal.changedetection.changes.IncrementalTaskInputsInternal;
 import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.tasks.JavaToolChainFactory;
+import org.gradle.api.internal.tasks.TaskResourceClass;
 import org.gradle.api.internal.tasks.compile.AnnotationProcessorDetector;
 import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler;
 import org.gradle.api.internal.tasks.compile.CompilerForkUtils;
@@ -31,12 +32,9 @@ import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpecFactory;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.incremental.IncrementalCompilerFactory;
-import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache;
 import org.gradle.api.internal.tasks.compile.incremental.cache.CompileCaches;
 import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
-import org.gradle.api.internal.tasks.compile.incremental.deps.LocalClassSetAnalysisStore;
-import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotCache;
-import org.gradle.api.internal.tasks.compile.incremental.jar.LocalJarClasspathSnapshotStore;
+import org.gradle.api.internal.tasks.compile.incremental.cache.TaskScopedCompileCaches;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Classpath;
@@ -50,6 +48,7 @@ import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.cache.CacheRepository;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.StreamHasher;
+import org.gradle.internal.work.ResourceClass;
 import org.gradle.jvm.internal.toolchain.JavaToolChainInternal;
 import org.gradle.jvm.platform.JavaPlatform;
 import org.gradle.jvm.platform.internal.DefaultJavaPlatform;
@@ -75,6 +74,7 @@ import javax.inject.Inject;
  * </pre>
  */
 @CacheableTask
+@TaskResourceClass(ResourceClass.MEMORY)
 public class JavaCompile extends AbstractCompile {
     private final CompileOptions compileOptions;
     private JavaToolChain toolChain;
@@ -126,36 +126,13 @@ public class JavaCompile extends AbstractCompile {
         }
 
         DefaultJavaCompileSpec spec = createSpec();
-        CompileCaches compileCaches = createCompileCaches();
-        IncrementalCompilerFactory factory = new IncrementalCompilerFactory(
+        CompileCaches compileCaches = new TaskScopedCompileCaches(getGeneralCompileCaches(), getPath());
+        IncrementalCompilerFactory<JavaCompileSpec> factory = new IncrementalCompilerFactory<JavaCompileSpec>(
             getFileOperations(), getStreamHasher(), getCachingFileHasher(), getPath(), createCompiler(spec), source, compileCaches, (IncrementalTaskInputsInternal) inputs, getEffectiveAnnotationProcessorPath());
         Compiler<JavaCompileSpec> compiler = factory.createCompiler();
         performCompilation(spec, compiler);
     }
 
-    private CompileCaches createCompileCaches() {
-        final GeneralCompileCaches generalCaches = getGeneralCompileCaches();
-        final LocalClassSetAnalysisStore localClassSetAnalysisStore = generalCaches.createLocalClassSetAnalysisStore(getPath());
-        final LocalJarClasspathSnapshotStore localJarClasspathSnapshotStore = generalCaches.createLocalJarClasspathSnapshotStore(getPath());
-        return new CompileCaches() {
-            public ClassAnalysisCache getClassAnalysisCache() {
-                return generalCaches.getClassAnalysisCache();
-            }
-
-            public JarSnapshotCache getJarSnapshotCache() {
-                return generalCaches.getJarSnapshotCache();
-            }
-
-            public LocalJarClasspathSnapshotStore getLocalJarClasspathSnapshotStore() {
-                return localJarClasspathSnapshotStore;
-            }
-
-            public LocalClassSetAnalysisStore getLocalClassSetAnalysisStore() {
-                return localClassSetAnalysisStore;
-            }
-        };
-    }
-
     @Inject
     protected StreamHasher getStreamHasher() {
         throw new UnsupportedOperationException();
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+import java.nio.charset.Charset
+
+class JavaFileManagerCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    def compiler = Mock(JavaCompiler)
+    def cache = new JavaFileManagerCache()
+
+    def "reuses a released file manager and reports the jars it has already opened"() {
+        def jar = temp.file("lib.jar") << "12345"
+        def classes = temp.createDir("classes")
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def first = cache.acquire(compiler, null, [jar, classes])
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        first.fileManager == fileManager
+        first.reusedJars == 0
+
+        when:
+        cache.release(first)
+        def second = cache.acquire(compiler, null, [jar, classes, temp.file("other.jar") << "1"])
+
+        then:
+        0 * compiler._
+        (1.._) * fileManager.setLocation(_, null)
+        0 * fileManager.close()
+        second.fileManager == fileManager
+        second.reusedJars == 1
+        second.reusedBytes == 5
+        cache.reusedJars == 1
+        cache.reusedBytes == 5
+    }
+
+    def "does not share a file manager between concurrent compilations"() {
+        def fileManager1 = Mock(StandardJavaFileManager)
+        def fileManager2 = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(_, _, _) >>> [fileManager1, fileManager2]
+
+        expect:
+        cache.acquire(compiler, null, []).fileManager == fileManager1
+        cache.acquire(compiler, null, []).fileManager == fileManager2
+    }
+
+    def "does not reuse a file manager for another encoding"() {
+        def fileManager1 = Mock(StandardJavaFileManager)
+        def fileManager2 = Mock(StandardJavaFileManager)
+
+        when:
+        cache.release(cache.acquire(compiler, null, []))
+        def second = cache.acquire(compiler, Charset.forName("UTF-8"), [])
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager1
+        1 * compiler.getStandardFileManager(null, null, Charset.forName("UTF-8")) >> fileManager2
+        second.fileManager == fileManager2
+    }
+
+    def "discards a file manager when a jar it has opened has changed"() {
+        def jar = temp.file("lib.jar") << "12345"
+        def fileManager1 = Mock(StandardJavaFileManager)
+        def fileManager2 = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(_, _, _) >>> [fileManager1, fileManager2]
+
+        when:
+        cache.release(cache.acquire(compiler, null, [jar]))
+        jar << "6"
+        def second = cache.acquire(compiler, null, [jar])
+
+        then:
+        1 * fileManager1.close()
+        second.fileManager == fileManager2
+        second.reusedJars == 0
+    }
+
+    def "discards a file manager whose locations cannot be reset"() {
+        def fileManager1 = Mock(StandardJavaFileManager)
+        def fileManager2 = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(_, _, _) >>> [fileManager1, fileManager2]
+
+        when:
+        cache.release(cache.acquire(compiler, null, []))
+        def second = cache.acquire(compiler, null, [])
+
+        then:
+        fileManager1.setLocation(_, null) >> { throw new IllegalArgumentException() }
+        1 * fileManager1.close()
+        second.fileManager == fileManager2
+    }
+
+    def "closes a discarded file manager and does not reuse it"() {
+        def fileManager1 = Mock(StandardJavaFileManager)
+        def fileManager2 = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(_, _, _) >>> [fileManager1, fileManager2]
+
+        when:
+        cache.discard(cache.acquire(compiler, null, []))
+        def second = cache.acquire(compiler, null, [])
+
+        then:
+        1 * fileManager1.close()
+        second.fileManager == fileManager2
+    }
+}
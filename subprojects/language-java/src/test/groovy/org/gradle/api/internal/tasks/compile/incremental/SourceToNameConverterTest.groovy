@@ -40,4 +40,18 @@ class SourceToNameConverterTest extends Specification {
         when: converter.getClassName(temp.file("src/main/unknown/Xxx.java"))
         then: thrown(IllegalArgumentException)
     }
+
+    def "knows groovy source class relative path"() {
+        expect:
+        converter.getClassName(temp.file("src/main/java/Foo.groovy")) == "Foo"
+        converter.getClassName(temp.file("src/main/java2/org/bar/Bar.groovy")) == "org.bar.Bar"
+    }
+
+    def "knows source files"() {
+        expect:
+        SourceToNameConverter.isSourceFile(new File("Foo.java"))
+        SourceToNameConverter.isSourceFile(new File("Foo.groovy"))
+        !SourceToNameConverter.isSourceFile(new File("Foo.class"))
+        !SourceToNameConverter.isSourceFile(new File("Foo.groovy.txt"))
+    }
 }
@@ -50,6 +50,14 @@ class DefaultClassDependenciesAnalyzerTest extends Specification {
         analyze(HasInnerClass.InnerThing).className == HasInnerClass.InnerThing.name
     }
 
+    def "knows the source file of a class"() {
+        expect:
+        analyze(SomeOtherClass).sourceFileName == "SomeOtherClass.java"
+        analyze(SomeOtherClass).namedAfterSourceFile
+        analyze(HasInnerClass.InnerThing).sourceFileName == "HasInnerClass.java"
+        analyze(HasInnerClass.InnerThing).namedAfterSourceFile
+    }
+
     def "knows dependencies of a java class"() {
         expect:
         analyze(SomeOtherClass).classDependencies == [YetAnotherClass.name, SomeClass.name] as Set
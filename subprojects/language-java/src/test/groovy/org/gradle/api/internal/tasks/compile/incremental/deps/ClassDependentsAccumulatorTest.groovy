@@ -114,4 +114,20 @@ class ClassDependentsAccumulatorTest extends Specification {
         accumulator.dependentsMap["b"].dependentClasses == ["a"] as Set
         accumulator.dependentsMap["a"] == null
     }
+
+    def "remembers compiled classes which are not named after their source file"() {
+        accumulator.addCompiledClass(new File("Foo.class"), analysis("org.Foo", "Foo.groovy"))
+        accumulator.addCompiledClass(new File('Foo$_run_closure1.class'), analysis('org.Foo$_run_closure1', "Foo.groovy"))
+        accumulator.addCompiledClass(new File("NoDebugInfo.class"), analysis("org.NoDebugInfo", null))
+        accumulator.addCompiledClass(new File("Helper.class"), analysis("org.Helper", "Foo.groovy"))
+        accumulator.addCompiledClass(new File('Helper$Inner.class'), analysis('org.Helper$Inner', "Foo.groovy"))
+        accumulator.addClass(new File("Other.class"), analysis("org.Other", "Library.groovy"))
+
+        expect:
+        accumulator.analysis.classesNotNamedAfterSourceFile == ["org.Helper": "Foo.groovy", 'org.Helper$Inner': "Foo.groovy"]
+    }
+
+    private static ClassAnalysis analysis(String className, String sourceFileName) {
+        new ClassAnalysis(className, [] as Set, false, [] as Set, [] as Set, [] as Set, sourceFileName)
+    }
 }
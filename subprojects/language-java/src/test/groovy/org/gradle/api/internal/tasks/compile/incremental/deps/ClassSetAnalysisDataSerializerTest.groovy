@@ -33,7 +33,8 @@ class ClassSetAnalysisDataSerializerTest extends Specification {
             ["A": dependents("B", "C"), "B": new DefaultDependentsSet(["C"] as Set), "C": dependents(), "D": new DependencyToAll(),],
             [C: [1, 2] as Set, D: [] as Set],
             [3: ['A', 'B'] as Set, 4: ['D'] as Set],
-            ['A': ['SA'] as Set, B: ['SB1', 'SB2'] as Set]
+            ['A': ['SA'] as Set, B: ['SB1', 'SB2'] as Set],
+            ['B': 'A.groovy']
         )
         def os = new ByteArrayOutputStream()
         def e = new OutputStreamBackedEncoder(os)
@@ -55,5 +56,6 @@ class ClassSetAnalysisDataSerializerTest extends Specification {
         read.classesToConstants == [C: [1,2] as Set, D: [] as Set]
         read.literalsToClasses == [3: ['A', 'B'] as Set, 4: ['D'] as Set]
         read.classesToChildren == ['A': ['SA'] as Set, B: ['SB1', 'SB2'] as Set]
+        read.classesNotNamedAfterSourceFile == ['B': 'A.groovy']
     }
 }
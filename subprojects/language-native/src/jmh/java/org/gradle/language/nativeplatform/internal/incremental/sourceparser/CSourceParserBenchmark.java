@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import com.google.common.io.Files;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Parses a real-world header, the {@code jni.h} header of the JDK running the benchmark, and a large generated header, which is mostly
+ * declarations and comments with a few include directives, as generated headers usually are.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class CSourceParserBenchmark {
+    @Param({"jni", "generated"})
+    String header;
+
+    private final CSourceParser regexParser = new RegexBackedCSourceParser();
+    private final CSourceParser scanningParser = new ScanningCSourceParser();
+    private File sourceFile;
+    private File tempFile;
+
+    @Setup
+    public void setup() throws IOException {
+        if (header.equals("jni")) {
+            sourceFile = findJniHeader();
+        } else {
+            tempFile = File.createTempFile("generated", ".h");
+            Files.write(generateHeader(50000).getBytes("US-ASCII"), tempFile);
+            sourceFile = tempFile;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (tempFile != null) {
+            tempFile.delete();
+        }
+    }
+
+    @Benchmark
+    public IncludeDirectives regex() {
+        return regexParser.parseSource(sourceFile);
+    }
+
+    @Benchmark
+    public IncludeDirectives scanning() {
+        return scanningParser.parseSource(sourceFile);
+    }
+
+    private static File findJniHeader() {
+        File javaHome = new File(System.getProperty("java.home"));
+        for (File includeDir : new File[]{new File(javaHome, "include"), new File(javaHome.getParentFile(), "include")}) {
+            File header = new File(includeDir, "jni.h");
+            if (header.isFile()) {
+                return header;
+            }
+        }
+        throw new IllegalStateException("Could not find jni.h in " + javaHome + ". Run the benchmark using a JDK.");
+    }
+
+    private static String generateHeader(int declarations) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("#ifndef GENERATED_H\n#define GENERATED_H\n\n#include <stdint.h>\n#include \"generated_types.h\"\n\n");
+        for (int i = 0; i < declarations; i++) {
+            if (i % 1000 == 0) {
+                builder.append("#include \"generated_part").append(i / 1000).append(".h\"\n");
+            }
+            builder.append("/**\n * Returns the value of field ").append(i).append(".\n */\n");
+            builder.append("int32_t generated_get_field_").append(i).append("(const struct generated_record *record, const char *name); // \"accessor\"\n");
+        }
+        builder.append("\n#endif\n");
+        return builder.toString();
+    }
+}
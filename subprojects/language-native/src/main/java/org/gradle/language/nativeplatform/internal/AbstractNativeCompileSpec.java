@@ -41,6 +41,8 @@ public abstract class AbstractNativeCompileSpec extends AbstractBinaryToolSpec i
     private Map<File, IncludeDirectives> sourceFileIncludeDirectives;
     private String preCompiledHeader;
     private DiscoveredInputRecorder discoveredInputRecorder;
+    private boolean writeDependencyFiles;
+    private final Map<File, File> dependencyFiles = new LinkedHashMap<File, File>();
 
     @Override
     public List<File> getIncludeRoots() {
@@ -224,4 +226,19 @@ public abstract class AbstractNativeCompileSpec extends AbstractBinaryToolSpec i
     public DiscoveredInputRecorder getDiscoveredInputRecorder() {
         return discoveredInputRecorder;
     }
+
+    @Override
+    public boolean isWriteDependencyFiles() {
+        return writeDependencyFiles;
+    }
+
+    @Override
+    public void setWriteDependencyFiles(boolean writeDependencyFiles) {
+        this.writeDependencyFiles = writeDependencyFiles;
+    }
+
+    @Override
+    public Map<File, File> getDependencyFiles() {
+        return dependencyFiles;
+    }
 }
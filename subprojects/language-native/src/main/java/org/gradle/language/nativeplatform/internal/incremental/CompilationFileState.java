@@ -15,10 +15,14 @@
  */
 package org.gradle.language.nativeplatform.internal.incremental;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.language.nativeplatform.internal.IncludeDirectives;
 
+import javax.annotation.Nullable;
+import java.io.File;
+
 /**
  * Immutable snapshot of the state of a source or header file.
  */
@@ -26,11 +30,17 @@ public class CompilationFileState {
     private final HashCode hash;
     private final IncludeDirectives includeDirectives;
     private final ImmutableSet<ResolvedInclude> resolvedIncludes;
+    private final ImmutableMap<File, HashCode> compilerReportedHeaders;
 
     public CompilationFileState(HashCode hash, IncludeDirectives includeDirectives, ImmutableSet<ResolvedInclude> resolvedIncludes) {
+        this(hash, includeDirectives, resolvedIncludes, null);
+    }
+
+    public CompilationFileState(HashCode hash, IncludeDirectives includeDirectives, ImmutableSet<ResolvedInclude> resolvedIncludes, @Nullable ImmutableMap<File, HashCode> compilerReportedHeaders) {
         this.hash = hash;
         this.includeDirectives = includeDirectives;
         this.resolvedIncludes = resolvedIncludes;
+        this.compilerReportedHeaders = compilerReportedHeaders;
     }
 
     public HashCode getHash() {
@@ -44,4 +54,13 @@ public class CompilationFileState {
     public ImmutableSet<ResolvedInclude> getResolvedIncludes() {
         return resolvedIncludes;
     }
+
+    /**
+     * Returns all headers included by this source file, with their hash, as reported by the compiler when the source file was last compiled.
+     * Returns {@code null} when the compiler did not report the headers, in which case the included headers are given by the resolved includes.
+     */
+    @Nullable
+    public ImmutableMap<File, HashCode> getCompilerReportedHeaders() {
+        return compilerReportedHeaders;
+    }
 }
@@ -84,9 +84,11 @@ public class CompilationStateSerializer extends AbstractSerializer<CompilationSt
         private final Serializer<HashCode> hashSerializer = new HashCodeSerializer();
         private final Serializer<Set<ResolvedInclude>> resolveIncludesSerializer;
         private final Serializer<IncludeDirectives> sourceIncludesSerializer = new SourceIncludesSerializer();
+        private final MapSerializer<File, HashCode> reportedHeadersSerializer;
 
         private CompilationFileStateSerializer(Serializer<File> fileSerializer) {
             this.resolveIncludesSerializer = new SetSerializer<ResolvedInclude>(new ResolvedIncludeSerializer(fileSerializer));
+            this.reportedHeadersSerializer = new MapSerializer<File, HashCode>(fileSerializer, hashSerializer);
         }
 
         @Override
@@ -94,7 +96,11 @@ public class CompilationStateSerializer extends AbstractSerializer<CompilationSt
             HashCode hash = hashSerializer.read(decoder);
             ImmutableSet<ResolvedInclude> resolvedIncludes = ImmutableSet.copyOf(resolveIncludesSerializer.read(decoder));
             IncludeDirectives includeDirectives = sourceIncludesSerializer.read(decoder);
-            return new CompilationFileState(hash, includeDirectives, resolvedIncludes);
+            ImmutableMap<File, HashCode> reportedHeaders = null;
+            if (decoder.readBoolean()) {
+                reportedHeaders = ImmutableMap.copyOf(reportedHeadersSerializer.read(decoder));
+            }
+            return new CompilationFileState(hash, includeDirectives, resolvedIncludes, reportedHeaders);
         }
 
         @Override
@@ -102,6 +108,12 @@ public class CompilationStateSerializer extends AbstractSerializer<CompilationSt
             hashSerializer.write(encoder, value.getHash());
             resolveIncludesSerializer.write(encoder, value.getResolvedIncludes());
             sourceIncludesSerializer.write(encoder, value.getIncludeDirectives());
+            if (value.getCompilerReportedHeaders() == null) {
+                encoder.writeBoolean(false);
+            } else {
+                encoder.writeBoolean(true);
+                reportedHeadersSerializer.write(encoder, value.getCompilerReportedHeaders());
+            }
         }
 
         @Override
@@ -113,12 +125,13 @@ public class CompilationStateSerializer extends AbstractSerializer<CompilationSt
             CompilationFileStateSerializer rhs = (CompilationFileStateSerializer) obj;
             return Objects.equal(hashSerializer, rhs.hashSerializer)
                 && Objects.equal(resolveIncludesSerializer, rhs.resolveIncludesSerializer)
-                && Objects.equal(sourceIncludesSerializer, rhs.sourceIncludesSerializer);
+                && Objects.equal(sourceIncludesSerializer, rhs.sourceIncludesSerializer)
+                && Objects.equal(reportedHeadersSerializer, rhs.reportedHeadersSerializer);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hashCode(super.hashCode(), hashSerializer, resolveIncludesSerializer, sourceIncludesSerializer);
+            return Objects.hashCode(super.hashCode(), hashSerializer, resolveIncludesSerializer, sourceIncludesSerializer, reportedHeadersSerializer);
         }
     }
 
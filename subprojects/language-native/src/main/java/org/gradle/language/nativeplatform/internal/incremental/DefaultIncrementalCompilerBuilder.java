@@ -17,6 +17,8 @@ package org.gradle.language.nativeplatform.internal.incremental;
 
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.nativeplatform.toolchain.NativeToolChain;
 import org.gradle.nativeplatform.toolchain.internal.NativeCompileSpec;
@@ -24,14 +26,20 @@ import org.gradle.nativeplatform.toolchain.internal.NativeCompileSpec;
 public class DefaultIncrementalCompilerBuilder implements IncrementalCompilerBuilder {
     private final FileHasher hasher;
     private final CompilationStateCacheFactory compilationStateCacheFactory;
+    private final IncludeGraphCache includeGraphCache;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final WorkerLeaseService workerLeaseService;
 
-    public DefaultIncrementalCompilerBuilder(FileHasher hasher, CompilationStateCacheFactory compilationStateCacheFactory) {
+    public DefaultIncrementalCompilerBuilder(FileHasher hasher, CompilationStateCacheFactory compilationStateCacheFactory, IncludeGraphCache includeGraphCache, BuildOperationExecutor buildOperationExecutor, WorkerLeaseService workerLeaseService) {
         this.hasher = hasher;
         this.compilationStateCacheFactory = compilationStateCacheFactory;
+        this.includeGraphCache = includeGraphCache;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.workerLeaseService = workerLeaseService;
     }
 
     @Override
     public <T extends NativeCompileSpec> Compiler<T> createIncrementalCompiler(TaskInternal task, Compiler<T> compiler, NativeToolChain toolchain, HeaderDependenciesCollector headerDependenciesCollector) {
-        return new IncrementalNativeCompiler<T>(task, hasher, compilationStateCacheFactory, compiler, toolchain, headerDependenciesCollector);
+        return new IncrementalNativeCompiler<T>(task, hasher, compilationStateCacheFactory, includeGraphCache, buildOperationExecutor, workerLeaseService, compiler, toolchain, headerDependenciesCollector);
     }
 }
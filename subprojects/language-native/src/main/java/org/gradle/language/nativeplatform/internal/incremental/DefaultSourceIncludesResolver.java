@@ -20,16 +20,24 @@ import org.gradle.internal.FileUtils;
 import org.gradle.language.nativeplatform.internal.Include;
 import org.gradle.language.nativeplatform.internal.IncludeDirectives;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
 public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
     private final List<File> includePaths;
+    private final IncludeGraphCache includeGraphCache;
 
     public DefaultSourceIncludesResolver(List<File> includePaths) {
+        this(includePaths, null);
+    }
+
+    public DefaultSourceIncludesResolver(List<File> includePaths, @Nullable IncludeGraphCache includeGraphCache) {
         this.includePaths = includePaths;
+        this.includeGraphCache = includeGraphCache;
     }
 
     @Override
@@ -58,6 +66,15 @@ public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
     }
 
     private void searchForDependency(List<File> searchPath, String include, BuildableResolvedSourceIncludes dependencies) {
+        IncludeLocation location = includeGraphCache == null ? locate(searchPath, include) : includeGraphCache.locate(searchPath, include);
+        dependencies.searched(location.getSearched());
+        if (location.getFile() != null) {
+            dependencies.resolved(include, location.getFile());
+        }
+    }
+
+    static IncludeLocation locate(List<File> searchPath, String include) {
+        List<File> searched = new ArrayList<File>(1);
         for (File searchDir : searchPath) {
             File candidate = new File(searchDir, include);
             // TODO: SLG This isn't correct, we need to consider directories too
@@ -66,26 +83,48 @@ public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
             // and /B/type_trait is the header we want.
             // We need /A/type_trait to be recorded as a directory in case it becomes a file later.
             if (!candidate.isDirectory()) {
-                dependencies.searched(candidate);
+                searched.add(candidate);
             }
             if (candidate.isFile()) {
-                dependencies.resolved(include, candidate);
-                return;
+                return new IncludeLocation(searched, FileUtils.canonicalize(candidate));
             }
         }
+        return new IncludeLocation(searched, null);
+    }
+
+    /**
+     * The result of searching for an include on a search path: the candidate files that were searched, and the file that was found, if any.
+     */
+    static class IncludeLocation {
+        private final List<File> searched;
+        private final File file;
+
+        IncludeLocation(List<File> searched, @Nullable File file) {
+            this.searched = Collections.unmodifiableList(searched);
+            this.file = file;
+        }
+
+        List<File> getSearched() {
+            return searched;
+        }
+
+        @Nullable
+        File getFile() {
+            return file;
+        }
     }
 
     private static class BuildableResolvedSourceIncludes implements ResolvedSourceIncludes {
         private final Set<ResolvedInclude> dependencies = Sets.newLinkedHashSet();
         private final Set<File> candidates = Sets.newLinkedHashSet();
 
-        void searched(File candidate) {
-            candidates.add(candidate);
+        void searched(List<File> searched) {
+            candidates.addAll(searched);
         }
 
-        void resolved(String rawInclude, File resolved) {
-            File dependencyFile = resolved == null ? null : FileUtils.canonicalize(resolved);
-            dependencies.add(new ResolvedInclude(rawInclude, dependencyFile));
+        // The resolved file is already canonical
+        void resolved(String rawInclude, @Nullable File resolved) {
+            dependencies.add(new ResolvedInclude(rawInclude, resolved));
         }
 
         @Override
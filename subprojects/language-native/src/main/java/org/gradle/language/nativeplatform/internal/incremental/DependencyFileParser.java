@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.gradle.internal.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parses the dependency file written by GCC and Clang when compiling with {@code -MD} or {@code -MMD}, which is a makefile rule with the object file as target
+ * and the source file and each header it includes as prerequisites.
+ */
+public class DependencyFileParser {
+    /**
+     * Returns the files listed as prerequisites of the first rule of the given dependency file, except for the given source file.
+     * Relative paths are resolved against the given working directory of the compiler.
+     */
+    public List<File> parse(File dependencyFile, File sourceFile, File workingDir) throws IOException {
+        String content = Files.toString(dependencyFile, Charsets.UTF_8);
+        File canonicalSourceFile = FileUtils.canonicalize(sourceFile);
+        Set<File> files = new LinkedHashSet<File>();
+        boolean inPrerequisites = false;
+        StringBuilder word = new StringBuilder();
+        int length = content.length();
+        for (int i = 0; i < length; i++) {
+            char ch = content.charAt(i);
+            if (ch == '\\' && isLineEnd(content, i + 1)) {
+                // Line continuation
+                i += content.startsWith("\r\n", i + 1) ? 2 : 1;
+                ch = ' ';
+            } else if (ch == '\\' && i + 1 < length && (content.charAt(i + 1) == ' ' || content.charAt(i + 1) == '#')) {
+                word.append(content.charAt(++i));
+                continue;
+            } else if (ch == '$' && i + 1 < length && content.charAt(i + 1) == '$') {
+                word.append(content.charAt(++i));
+                continue;
+            } else if (ch == ':' && !inPrerequisites && isSeparator(content, i + 1)) {
+                // A colon that is not followed by a separator is part of a Windows path
+                word.setLength(0);
+                inPrerequisites = true;
+                continue;
+            }
+            if (ch == ' ' || ch == '\t' || ch == '\n' || ch == '\r') {
+                if (word.length() > 0 && inPrerequisites) {
+                    addFile(word.toString(), canonicalSourceFile, workingDir, files);
+                }
+                word.setLength(0);
+                if (inPrerequisites && (ch == '\n' || ch == '\r')) {
+                    // Only the first rule lists the dependencies of the object file
+                    break;
+                }
+                continue;
+            }
+            word.append(ch);
+        }
+        if (word.length() > 0 && inPrerequisites) {
+            addFile(word.toString(), canonicalSourceFile, workingDir, files);
+        }
+        return new ArrayList<File>(files);
+    }
+
+    private static boolean isLineEnd(String content, int pos) {
+        return pos < content.length() && (content.charAt(pos) == '\n' || content.charAt(pos) == '\r');
+    }
+
+    private static boolean isSeparator(String content, int pos) {
+        return pos >= content.length() || content.charAt(pos) == ' ' || content.charAt(pos) == '\t' || isLineEnd(content, pos)
+            || content.charAt(pos) == '\\' && isLineEnd(content, pos + 1);
+    }
+
+    private static void addFile(String path, File sourceFile, File workingDir, Set<File> files) {
+        File file = new File(path);
+        if (!file.isAbsolute()) {
+            file = new File(workingDir, path);
+        }
+        file = FileUtils.canonicalize(file);
+        if (!file.equals(sourceFile)) {
+            files.add(file);
+        }
+    }
+}
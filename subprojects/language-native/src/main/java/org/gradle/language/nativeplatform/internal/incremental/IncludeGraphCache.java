@@ -0,0 +1,179 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental;
+
+import org.gradle.api.Task;
+import org.gradle.api.execution.TaskExecutionListener;
+import org.gradle.api.tasks.TaskState;
+import org.gradle.initialization.RootBuildLifecycleListener;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+import org.gradle.language.nativeplatform.internal.incremental.DefaultSourceIncludesResolver.IncludeLocation;
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.CSourceParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An include graph shared by all native compile tasks of the builds run by a daemon, so that the same headers are not parsed and their includes are not searched for by every compile task.
+ *
+ * <p>The include directives of a file are keyed by the hash of its content, and are kept for as long as the content is seen by the current or the previous build.
+ * The location of an include is keyed by the search path and the include, and is kept until the end of the build, or until a task that may have written to a directory of the search path has executed.
+ * Includes that may point outside of the search path, using {@code ..}, are searched for each time.</p>
+ *
+ * <p>The number of parses and searches served from the cache is logged at the end of each build.</p>
+ */
+public class IncludeGraphCache implements TaskExecutionListener, RootBuildLifecycleListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncludeGraphCache.class);
+
+    private volatile ConcurrentMap<HashCode, IncludeDirectives> includeDirectives = new ConcurrentHashMap<HashCode, IncludeDirectives>();
+    private volatile ConcurrentMap<HashCode, IncludeDirectives> previousIncludeDirectives = new ConcurrentHashMap<HashCode, IncludeDirectives>();
+    private final ConcurrentMap<List<File>, ConcurrentMap<String, IncludeLocation>> locations = new ConcurrentHashMap<List<File>, ConcurrentMap<String, IncludeLocation>>();
+
+    private final AtomicLong parseHits = new AtomicLong();
+    private final AtomicLong parseMisses = new AtomicLong();
+    private final AtomicLong searchHits = new AtomicLong();
+    private final AtomicLong searchMisses = new AtomicLong();
+
+    /**
+     * Returns a parser which parses each file content once, using the given parser.
+     */
+    public CSourceParser cachingParser(final CSourceParser parser, final FileHasher hasher) {
+        return new CSourceParser() {
+            @Override
+            public IncludeDirectives parseSource(File sourceFile) {
+                return parse(sourceFile, hasher.hash(sourceFile), parser);
+            }
+        };
+    }
+
+    private IncludeDirectives parse(File file, HashCode hash, CSourceParser parser) {
+        IncludeDirectives directives = includeDirectives.get(hash);
+        if (directives == null) {
+            directives = previousIncludeDirectives.get(hash);
+            if (directives != null) {
+                includeDirectives.put(hash, directives);
+            }
+        }
+        if (directives != null) {
+            parseHits.incrementAndGet();
+            return directives;
+        }
+        parseMisses.incrementAndGet();
+        directives = parser.parseSource(file);
+        includeDirectives.put(hash, directives);
+        return directives;
+    }
+
+    IncludeLocation locate(List<File> searchPath, String include) {
+        if (include.contains("..")) {
+            return DefaultSourceIncludesResolver.locate(searchPath, include);
+        }
+        ConcurrentMap<String, IncludeLocation> locationsForSearchPath = locations.get(searchPath);
+        if (locationsForSearchPath == null) {
+            locationsForSearchPath = new ConcurrentHashMap<String, IncludeLocation>();
+            ConcurrentMap<String, IncludeLocation> existing = locations.putIfAbsent(searchPath, locationsForSearchPath);
+            if (existing != null) {
+                locationsForSearchPath = existing;
+            }
+        }
+        IncludeLocation location = locationsForSearchPath.get(include);
+        if (location != null) {
+            searchHits.incrementAndGet();
+            return location;
+        }
+        searchMisses.incrementAndGet();
+        location = DefaultSourceIncludesResolver.locate(searchPath, include);
+        locationsForSearchPath.put(include, location);
+        return location;
+    }
+
+    @Override
+    public void beforeExecute(Task task) {
+    }
+
+    @Override
+    public void afterExecute(Task task, TaskState state) {
+        if (!state.getDidWork() || locations.isEmpty()) {
+            return;
+        }
+        if (!task.getOutputs().getHasOutput()) {
+            // The task may have written anywhere
+            locations.clear();
+            return;
+        }
+        List<String> outputPaths = new ArrayList<String>();
+        for (File outputFile : task.getOutputs().getFiles()) {
+            outputPaths.add(outputFile.getAbsolutePath());
+        }
+        Iterator<List<File>> searchPaths = locations.keySet().iterator();
+        while (searchPaths.hasNext()) {
+            if (overlaps(searchPaths.next(), outputPaths)) {
+                searchPaths.remove();
+            }
+        }
+    }
+
+    private static boolean overlaps(List<File> searchPath, List<String> outputPaths) {
+        for (File searchDir : searchPath) {
+            String searchDirPath = searchDir.getAbsolutePath();
+            for (String outputPath : outputPaths) {
+                if (isSameOrAncestor(searchDirPath, outputPath) || isSameOrAncestor(outputPath, searchDirPath)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSameOrAncestor(String ancestor, String path) {
+        return path.startsWith(ancestor) && (path.length() == ancestor.length() || path.charAt(ancestor.length()) == File.separatorChar || ancestor.endsWith(File.separator));
+    }
+
+    @Override
+    public void afterStart() {
+    }
+
+    @Override
+    public void beforeComplete() {
+        // Includes are searched for again in the next build, as the file system may change between builds
+        locations.clear();
+        previousIncludeDirectives = includeDirectives;
+        includeDirectives = new ConcurrentHashMap<HashCode, IncludeDirectives>();
+
+        long parseHits = this.parseHits.getAndSet(0);
+        long parseMisses = this.parseMisses.getAndSet(0);
+        long searchHits = this.searchHits.getAndSet(0);
+        long searchMisses = this.searchMisses.getAndSet(0);
+        if (parseHits + parseMisses + searchHits + searchMisses > 0) {
+            LOGGER.info("Include graph: {}% of {} file parses and {}% of {} include searches served from cache.",
+                percent(parseHits, parseHits + parseMisses), parseHits + parseMisses, percent(searchHits, searchHits + searchMisses), searchHits + searchMisses);
+        }
+    }
+
+    private static long percent(long hits, long total) {
+        return total == 0 ? 0 : hits * 100 / total;
+    }
+}
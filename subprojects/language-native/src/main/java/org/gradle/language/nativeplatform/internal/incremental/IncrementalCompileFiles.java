@@ -24,6 +24,11 @@ public interface IncrementalCompileFiles {
 
     CompilationState getCurrent();
 
+    /**
+     * Analyzes the given source file and the files it includes, ahead of {@link #processSource(File)}. Can be called concurrently from multiple threads.
+     */
+    void analyzeSource(File sourceFile);
+
     void processSource(File sourceFile);
 
     List<File> getModifiedSources();
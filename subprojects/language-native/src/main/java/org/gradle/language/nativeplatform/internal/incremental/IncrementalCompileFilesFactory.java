@@ -16,6 +16,7 @@
 
 package org.gradle.language.nativeplatform.internal.incremental;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import org.gradle.internal.hash.FileHasher;
@@ -24,24 +25,42 @@ import org.gradle.language.nativeplatform.internal.IncludeDirectives;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class IncrementalCompileFilesFactory {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalCompileFilesFactory.class);
+    private static final FileDetails MISSING = new FileDetails(null, Collections.<File>emptySet(), true);
+
     private final SourceIncludesParser sourceIncludesParser;
     private final SourceIncludesResolver sourceIncludesResolver;
     private final FileHasher hasher;
+    private final boolean useCompilerReportedHeaders;
 
     public IncrementalCompileFilesFactory(SourceIncludesParser sourceIncludesParser, SourceIncludesResolver sourceIncludesResolver, FileHasher hasher) {
+        this(sourceIncludesParser, sourceIncludesResolver, hasher, false);
+    }
+
+    /**
+     * @param useCompilerReportedHeaders whether to use the headers reported by the compiler for an unchanged source file, when known, instead of the headers found by parsing the source file.
+     */
+    public IncrementalCompileFilesFactory(SourceIncludesParser sourceIncludesParser, SourceIncludesResolver sourceIncludesResolver, FileHasher hasher, boolean useCompilerReportedHeaders) {
         this.sourceIncludesParser = sourceIncludesParser;
         this.sourceIncludesResolver = sourceIncludesResolver;
         this.hasher = hasher;
+        this.useCompilerReportedHeaders = useCompilerReportedHeaders;
     }
 
     public IncrementalCompileFiles filesFor(CompilationState previousCompileState) {
@@ -60,6 +79,8 @@ public class IncrementalCompileFilesFactory {
         private final BuildableCompilationState current = new BuildableCompilationState();
 
         private final Map<File, Boolean> processed = new HashMap<File, Boolean>();
+        private final ConcurrentMap<File, FileDetails> fileDetails = new ConcurrentHashMap<File, FileDetails>();
+        private final Set<File> analyzed = Collections.newSetFromMap(new ConcurrentHashMap<File, Boolean>());
         private final List<File> toRecompile = new ArrayList<File>();
         private final Set<File> discoveredInputs = Sets.newHashSet();
 
@@ -77,23 +98,94 @@ public class IncrementalCompileFilesFactory {
             }
         }
 
-        public boolean checkChangedAndUpdateState(File file) {
-            boolean changed = false;
+        @Override
+        public void analyzeSource(File sourceFile) {
+            Deque<File> queue = new ArrayDeque<File>();
+            queue.add(sourceFile);
+            while (!queue.isEmpty()) {
+                File file = queue.removeFirst();
+                if (!analyzed.add(file)) {
+                    // Already analyzed, or being analyzed by another thread
+                    continue;
+                }
+                FileDetails details = getDetails(file);
+                if (details.state == null) {
+                    continue;
+                }
+                for (ResolvedInclude dep : details.state.getResolvedIncludes()) {
+                    if (!dep.isUnknown()) {
+                        queue.add(dep.getFile());
+                    }
+                }
+            }
+        }
 
+        public boolean checkChangedAndUpdateState(File file) {
             if (processed.containsKey(file)) {
                 return processed.get(file);
             }
 
-            if (!file.exists()) {
+            FileDetails details = getDetails(file);
+            if (details.state == null) {
                 return true;
             }
 
             // Assume unchanged if we recurse to the same file due to dependency cycle
             processed.put(file, false);
 
+            CompilationFileState newState = details.state;
+            boolean changed = details.changed;
+
+            for (ResolvedInclude resolvedInclude : newState.getResolvedIncludes()) {
+                if (resolvedInclude.isMaybeMacro()) {
+                    sourceFilesUseMacroIncludes = true;
+                }
+            }
+            discoveredInputs.addAll(details.checkedLocations);
+
+            current.setState(file, newState);
+
+            for (ResolvedInclude dep : newState.getResolvedIncludes()) {
+                if (dep.isUnknown()) {
+                    LOGGER.info("Cannot determine changed state of included '{}' in source file '{}'. Assuming changed.", dep.getInclude(), file.getName());
+                    changed = true;
+                } else {
+                    boolean depChanged = checkChangedAndUpdateState(dep.getFile());
+                    changed = changed || depChanged;
+                }
+            }
+
+            processed.put(file, changed);
+
+            return changed;
+        }
+
+        private FileDetails getDetails(File file) {
+            FileDetails details = fileDetails.get(file);
+            if (details == null) {
+                details = calculateDetails(file);
+                // Another thread may have calculated the same details in the meantime
+                fileDetails.putIfAbsent(file, details);
+            }
+            return details;
+        }
+
+        /**
+         * Calculates the state of a single file, without looking at the files it includes. Safe to call from multiple threads.
+         */
+        private FileDetails calculateDetails(File file) {
+            if (!file.exists()) {
+                return MISSING;
+            }
+
+            boolean changed = false;
             CompilationFileState previousState = previous.getState(file);
             HashCode newHash = hasher.hash(file);
 
+            if (useCompilerReportedHeaders && sameHash(previousState, newHash) && previousState.getCompilerReportedHeaders() != null) {
+                return compilerReportedDetails(file, previousState);
+            }
+
             IncludeDirectives includeDirectives;
             if (!sameHash(previousState, newHash)) {
                 changed = true;
@@ -105,33 +197,64 @@ public class IncrementalCompileFilesFactory {
 
             CompilationFileState newState = new CompilationFileState(newHash, includeDirectives, ImmutableSet.copyOf(resolutionResult.getResolvedIncludes()));
 
-            for (ResolvedInclude resolvedInclude : resolutionResult.getResolvedIncludes()) {
-                if (resolvedInclude.isMaybeMacro()) {
-                    sourceFilesUseMacroIncludes = true;
-                }
-            }
-            discoveredInputs.addAll(resolutionResult.getCheckedLocations());
-
             // Compare the previous resolved includes with resolving now.
             if (!sameResolved(previousState, newState)) {
                 changed = true;
             }
 
-            current.setState(file, newState);
+            return new FileDetails(newState, resolutionResult.getCheckedLocations(), changed);
+        }
 
-            for (ResolvedInclude dep : newState.getResolvedIncludes()) {
-                if (dep.isUnknown()) {
-                    LOGGER.info("Cannot determine changed state of included '{}' in source file '{}'. Assuming changed.", dep.getInclude(), file.getName());
+        /**
+         * The headers reported by the compiler are all the headers the source file includes, directly or not, so their content is checked here instead of visiting the include graph.
+         *
+         * <p>The includes of the source file and of the reported headers are also resolved against the current include path, as a header added since the last compilation
+         * may shadow a reported header of the same name, for example {@code src/foo.h} added in front of {@code include/foo.h}. The locations searched are inputs of the compilation,
+         * so that adding such a header makes the compile task out of date. Includes that cannot be resolved, such as macro includes, are covered by the reported headers only.</p>
+         */
+        private FileDetails compilerReportedDetails(File sourceFile, CompilationFileState previousState) {
+            ImmutableMap<File, HashCode> reportedHeaders = previousState.getCompilerReportedHeaders();
+            boolean changed = false;
+            for (Map.Entry<File, HashCode> entry : reportedHeaders.entrySet()) {
+                File header = entry.getKey();
+                if (!header.isFile() || !hasher.hash(header).equals(entry.getValue())) {
                     changed = true;
-                } else {
-                    boolean depChanged = checkChangedAndUpdateState(dep.getFile());
-                    changed = changed || depChanged;
+                    break;
                 }
             }
 
-            processed.put(file, changed);
+            Set<File> checkedLocations = new LinkedHashSet<File>(reportedHeaders.keySet());
+            SourceIncludesResolver.ResolvedSourceIncludes sourceIncludes = resolveIncludes(sourceFile, previousState.getIncludeDirectives());
+            checkedLocations.addAll(sourceIncludes.getCheckedLocations());
+            changed |= includesShadowingHeader(sourceFile, sourceIncludes.getResolvedIncludes(), reportedHeaders);
+            for (File header : reportedHeaders.keySet()) {
+                FileDetails headerDetails = getDetails(header);
+                checkedLocations.addAll(headerDetails.checkedLocations);
+                if (headerDetails.state != null) {
+                    changed |= includesShadowingHeader(header, headerDetails.state.getResolvedIncludes(), reportedHeaders);
+                }
+            }
+            return new FileDetails(previousState, checkedLocations, changed);
+        }
 
-            return changed;
+        /**
+         * Returns true when one of the given includes now resolves to a header which was not reported by the compiler, in place of a reported header that the include could refer to.
+         * An include which resolves to a header that was not reported and that has no reported counterpart is ignored, as it may be excluded by the preprocessor.
+         */
+        private boolean includesShadowingHeader(File file, Set<ResolvedInclude> includes, Map<File, HashCode> reportedHeaders) {
+            for (ResolvedInclude include : includes) {
+                if (include.isUnknown() || reportedHeaders.containsKey(include.getFile())) {
+                    continue;
+                }
+                String includePath = File.separator + include.getInclude().replace('/', File.separatorChar);
+                for (File reportedHeader : reportedHeaders.keySet()) {
+                    if (reportedHeader.getPath().endsWith(includePath)) {
+                        LOGGER.info("Included '{}' in file '{}' now resolves to '{}' instead of '{}'. Assuming changed.", include.getInclude(), file.getName(), include.getFile(), reportedHeader);
+                        return true;
+                    }
+                }
+            }
+            return false;
         }
 
         private boolean sameHash(CompilationFileState previousState, HashCode newHash) {
@@ -173,4 +296,19 @@ public class IncrementalCompileFilesFactory {
         }
     }
 
+    /**
+     * The state of a file and the locations searched for its includes, which do not depend on the files it includes.
+     */
+    private static class FileDetails {
+        @Nullable
+        final CompilationFileState state;
+        final Set<File> checkedLocations;
+        final boolean changed;
+
+        FileDetails(@Nullable CompilationFileState state, Set<File> checkedLocations, boolean changed) {
+            this.state = state;
+            this.checkedLocations = checkedLocations;
+            this.changed = changed;
+        }
+    }
 }
@@ -15,24 +15,52 @@
  */
 package org.gradle.language.nativeplatform.internal.incremental;
 
+import org.gradle.api.Action;
 import org.gradle.cache.PersistentStateCache;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+import org.gradle.internal.work.WorkerLeaseService;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Determines the source files to recompile.
+ *
+ * <p>When given a {@link BuildOperationExecutor}, the source files and the files they include are first analyzed on up to max workers threads.
+ * Each header is parsed and resolved once, by whichever thread reaches it first. The changed files are then determined from the results of this analysis.</p>
+ */
 public class IncrementalCompileProcessor {
     private final PersistentStateCache<CompilationState> previousCompileStateCache;
     private final IncrementalCompileFilesFactory incrementalCompileFilesFactory;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final WorkerLeaseService workerLeaseService;
 
     public IncrementalCompileProcessor(PersistentStateCache<CompilationState> previousCompileStateCache, IncrementalCompileFilesFactory incrementalCompileFilesFactory) {
+        this(previousCompileStateCache, incrementalCompileFilesFactory, null, null);
+    }
+
+    public IncrementalCompileProcessor(PersistentStateCache<CompilationState> previousCompileStateCache, IncrementalCompileFilesFactory incrementalCompileFilesFactory,
+                                       @Nullable BuildOperationExecutor buildOperationExecutor, @Nullable WorkerLeaseService workerLeaseService) {
         this.previousCompileStateCache = previousCompileStateCache;
         this.incrementalCompileFilesFactory = incrementalCompileFilesFactory;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.workerLeaseService = workerLeaseService;
     }
 
     public IncrementalCompilation processSourceFiles(Collection<File> sourceFiles) {
         CompilationState previousCompileState = previousCompileStateCache.get();
         final IncrementalCompileFiles result = incrementalCompileFilesFactory.filesFor(previousCompileState);
 
+        analyzeInParallel(sourceFiles, result);
+
         for (File sourceFile : sourceFiles) {
             result.processSource(sourceFile);
         }
@@ -40,4 +68,54 @@ public class IncrementalCompileProcessor {
         return new DefaultIncrementalCompilation(result.getCurrent(), result.getModifiedSources(), result.getRemovedSources(), result.getDiscoveredInputs(), result.isSourceFilesUseMacroIncludes());
     }
 
+    private void analyzeInParallel(Collection<File> sourceFiles, final IncrementalCompileFiles result) {
+        if (buildOperationExecutor == null || workerLeaseService == null || sourceFiles.size() < 2) {
+            return;
+        }
+        final int workers = Math.min(sourceFiles.size(), workerLeaseService.getMaxWorkerCount());
+        if (workers < 2) {
+            return;
+        }
+        final List<File> sources = new ArrayList<File>(sourceFiles);
+        final AtomicInteger next = new AtomicInteger();
+        // The analysis does not use any project state
+        workerLeaseService.withoutProjectLock(new Runnable() {
+            @Override
+            public void run() {
+                buildOperationExecutor.runAll(new Action<BuildOperationQueue<AnalyzeSources>>() {
+                    @Override
+                    public void execute(BuildOperationQueue<AnalyzeSources> queue) {
+                        // One operation per worker, each taking the next source to analyze until all of them have been analyzed
+                        for (int i = 0; i < workers; i++) {
+                            queue.add(new AnalyzeSources(sources, next, result));
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private static class AnalyzeSources implements RunnableBuildOperation {
+        private final List<File> sources;
+        private final AtomicInteger next;
+        private final IncrementalCompileFiles result;
+
+        AnalyzeSources(List<File> sources, AtomicInteger next, IncrementalCompileFiles result) {
+            this.sources = sources;
+            this.next = next;
+            this.result = result;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            for (int i = next.getAndIncrement(); i < sources.size(); i = next.getAndIncrement()) {
+                result.analyzeSource(sources.get(i));
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Analyze includes of " + sources.size() + " source files");
+        }
+    }
 }
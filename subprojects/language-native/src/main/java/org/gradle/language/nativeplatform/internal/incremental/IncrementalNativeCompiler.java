@@ -15,6 +15,8 @@
  */
 package org.gradle.language.nativeplatform.internal.incremental;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
 import org.gradle.api.NonNullApi;
 import org.gradle.api.Transformer;
@@ -23,38 +25,68 @@ import org.gradle.api.internal.changedetection.changes.DiscoveredInputRecorder;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.WorkResults;
 import org.gradle.cache.PersistentStateCache;
+import org.gradle.initialization.InternalFlags;
 import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.language.base.internal.tasks.SimpleStaleClassCleaner;
 import org.gradle.language.nativeplatform.internal.IncludeDirectives;
 import org.gradle.language.nativeplatform.internal.incremental.sourceparser.CSourceParser;
-import org.gradle.language.nativeplatform.internal.incremental.sourceparser.RegexBackedCSourceParser;
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.ScanningCSourceParser;
 import org.gradle.nativeplatform.toolchain.Clang;
 import org.gradle.nativeplatform.toolchain.Gcc;
+import org.gradle.nativeplatform.toolchain.GccCompatibleToolChain;
 import org.gradle.nativeplatform.toolchain.NativeToolChain;
 import org.gradle.nativeplatform.toolchain.internal.NativeCompileSpec;
 import org.gradle.util.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Compiles the source files that have changed, or that include headers that have changed, since the previous compilation.
+ *
+ * <p>The headers included by each source file are found by parsing the source files and the headers. When the {@value #DEPENDENCY_FILES_SYSPROP} system property is set to true,
+ * GCC and Clang also write a dependency file for each source file they compile, listing every header the source file includes. The listed headers are then used instead of parsing
+ * to decide whether the source file must be recompiled, which is exact even when the source file includes headers using macros.</p>
+ */
 @NonNullApi
 public class IncrementalNativeCompiler<T extends NativeCompileSpec> implements Compiler<T> {
+    public static final String DEPENDENCY_FILES_SYSPROP = "org.gradle.internal.native.dependency-files";
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalNativeCompiler.class);
+
     private final Compiler<T> delegateCompiler;
     private final boolean importsAreIncludes;
+    private final boolean useDependencyFiles;
     private final TaskInternal task;
     private final FileHasher hasher;
     private final CompilationStateCacheFactory compilationStateCacheFactory;
-    private final CSourceParser sourceParser = new RegexBackedCSourceParser();
+    private final IncludeGraphCache includeGraphCache;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final WorkerLeaseService workerLeaseService;
+    private final CSourceParser sourceParser = new ScanningCSourceParser();
+    private final DependencyFileParser dependencyFileParser = new DependencyFileParser();
     private final HeaderDependenciesCollector headerDependenciesCollector;
 
-    public IncrementalNativeCompiler(TaskInternal task, FileHasher hasher, CompilationStateCacheFactory compilationStateCacheFactory, Compiler<T> delegateCompiler, NativeToolChain toolChain, HeaderDependenciesCollector headerDependenciesCollector) {
+    public IncrementalNativeCompiler(TaskInternal task, FileHasher hasher, CompilationStateCacheFactory compilationStateCacheFactory, IncludeGraphCache includeGraphCache, BuildOperationExecutor buildOperationExecutor, WorkerLeaseService workerLeaseService, Compiler<T> delegateCompiler, NativeToolChain toolChain, HeaderDependenciesCollector headerDependenciesCollector) {
         this.task = task;
         this.hasher = hasher;
         this.compilationStateCacheFactory = compilationStateCacheFactory;
+        this.includeGraphCache = includeGraphCache;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.workerLeaseService = workerLeaseService;
         this.delegateCompiler = delegateCompiler;
         this.importsAreIncludes = Clang.class.isAssignableFrom(toolChain.getClass()) || Gcc.class.isAssignableFrom(toolChain.getClass());
+        this.useDependencyFiles = InternalFlags.isEnabled(DEPENDENCY_FILES_SYSPROP) && toolChain instanceof GccCompatibleToolChain;
         this.headerDependenciesCollector = headerDependenciesCollector;
     }
 
@@ -70,6 +102,8 @@ public class IncrementalNativeCompiler<T extends NativeCompileSpec> implements C
 
         handleDiscoveredInputs(spec, compilation, spec.getDiscoveredInputRecorder());
 
+        spec.setWriteDependencyFiles(useDependencyFiles);
+
         WorkResult workResult;
         if (spec.isIncrementalCompile()) {
             workResult = doIncrementalCompile(compilation, spec);
@@ -77,15 +111,66 @@ public class IncrementalNativeCompiler<T extends NativeCompileSpec> implements C
             workResult = doCleanIncrementalCompile(spec);
         }
 
-        compileStateCache.set(compilation.getFinalState());
+        CompilationState finalState = compilation.getFinalState();
+        if (useDependencyFiles) {
+            finalState = addCompilerReportedHeaders(finalState, spec);
+        }
+        compileStateCache.set(finalState);
 
         return workResult;
     }
 
     private IncrementalCompileFilesFactory createIncrementalCompileFilesFactory(T spec) {
-        DefaultSourceIncludesParser sourceIncludesParser = new DefaultSourceIncludesParser(sourceParser, importsAreIncludes);
-        DefaultSourceIncludesResolver dependencyParser = new DefaultSourceIncludesResolver(CollectionUtils.toList(spec.getIncludeRoots()));
-        return new IncrementalCompileFilesFactory(sourceIncludesParser, dependencyParser, hasher);
+        DefaultSourceIncludesParser sourceIncludesParser = new DefaultSourceIncludesParser(includeGraphCache.cachingParser(sourceParser, hasher), importsAreIncludes);
+        DefaultSourceIncludesResolver dependencyParser = new DefaultSourceIncludesResolver(CollectionUtils.toList(spec.getIncludeRoots()), includeGraphCache);
+        return new IncrementalCompileFilesFactory(sourceIncludesParser, dependencyParser, hasher, useDependencyFiles);
+    }
+
+    /**
+     * Records the headers listed in the dependency file of each source file that was compiled, in place of the headers found by parsing.
+     */
+    private CompilationState addCompilerReportedHeaders(CompilationState state, T spec) {
+        if (spec.getDependencyFiles().isEmpty()) {
+            return state;
+        }
+        Map<File, CompilationFileState> fileStates = new LinkedHashMap<File, CompilationFileState>(state.getFileStates());
+        for (Map.Entry<File, File> entry : spec.getDependencyFiles().entrySet()) {
+            File sourceFile = entry.getKey();
+            CompilationFileState sourceState = state.getState(sourceFile);
+            if (sourceState == null) {
+                continue;
+            }
+            ImmutableMap<File, HashCode> headers = readDependencyFile(entry.getValue(), sourceFile, spec.getObjectFileDir(), state);
+            if (headers != null) {
+                fileStates.put(sourceFile, new CompilationFileState(sourceState.getHash(), sourceState.getIncludeDirectives(), ImmutableSet.<ResolvedInclude>of(), headers));
+            }
+        }
+        return new CompilationState(state.getSourceInputs(), ImmutableMap.copyOf(fileStates));
+    }
+
+    @Nullable
+    private ImmutableMap<File, HashCode> readDependencyFile(File dependencyFile, File sourceFile, File workingDir, CompilationState state) {
+        if (!dependencyFile.isFile()) {
+            return null;
+        }
+        List<File> headers;
+        try {
+            headers = dependencyFileParser.parse(dependencyFile, sourceFile, workingDir);
+        } catch (IOException e) {
+            LOGGER.debug("Could not read dependency file {}.", dependencyFile, e);
+            return null;
+        }
+        ImmutableMap.Builder<File, HashCode> builder = ImmutableMap.builder();
+        for (File header : headers) {
+            if (!header.isFile()) {
+                // Removed since it was compiled, the source file is recompiled next time
+                return null;
+            }
+            // Prefer the hash taken before compiling, so that a change made while compiling is seen next time
+            CompilationFileState headerState = state.getState(header);
+            builder.put(header, headerState != null ? headerState.getHash() : hasher.hash(header));
+        }
+        return builder.build();
     }
 
     protected void handleDiscoveredInputs(T spec, IncrementalCompilation compilation, final DiscoveredInputRecorder discoveredInputRecorder) {
@@ -130,6 +215,6 @@ public class IncrementalNativeCompiler<T extends NativeCompileSpec> implements C
     }
 
     private IncrementalCompileProcessor createProcessor(PersistentStateCache<CompilationState> compileStateCache, IncrementalCompileFilesFactory incrementalCompileFilesFactory) {
-        return new IncrementalCompileProcessor(compileStateCache, incrementalCompileFilesFactory);
+        return new IncrementalCompileProcessor(compileStateCache, incrementalCompileFilesFactory, buildOperationExecutor, workerLeaseService);
     }
 }
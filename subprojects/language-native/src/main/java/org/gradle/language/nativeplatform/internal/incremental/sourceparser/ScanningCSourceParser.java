@@ -0,0 +1,250 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import com.google.common.io.Files;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.language.nativeplatform.internal.Include;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the {@code #include} and {@code #import} directives of a source file by scanning its bytes, without creating a string for each line.
+ *
+ * <p>Finds the same directives as {@link RegexBackedCSourceParser}. Comments and line continuations are handled in the same way as {@link PreprocessingReader},
+ * and a line is matched against the same pattern as the regex, once its leading whitespace shows that it starts with {@code #}. Other lines are skipped.
+ * Directives are expected in an encoding that is compatible with ASCII, and their values are decoded using the default charset, as {@link java.io.FileReader} does.</p>
+ */
+public class ScanningCSourceParser implements CSourceParser {
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    @Override
+    public IncludeDirectives parseSource(File sourceFile) {
+        byte[] content;
+        try {
+            content = Files.toByteArray(sourceFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new DefaultIncludeDirectives(new Scanner(content).scan());
+    }
+
+    private static class Scanner {
+        private final byte[] buffer;
+        private final int length;
+        private int pos;
+        private boolean inString;
+        private boolean quoted;
+        private byte[] line = new byte[256];
+        private int lineLength;
+
+        Scanner(byte[] buffer) {
+            this.buffer = buffer;
+            this.length = buffer.length;
+        }
+
+        private List<Include> scan() {
+            List<Include> includes = new ArrayList<Include>();
+            while (true) {
+                int ch = read();
+                // Skip leading whitespace. A line that does not start with '#' cannot be a directive
+                while (ch != -1 && ch != '\n' && ch != '\r' && ch <= ' ') {
+                    ch = read();
+                }
+                if (ch == '#') {
+                    lineLength = 0;
+                    while (ch != -1 && ch != '\n' && ch != '\r') {
+                        append(ch);
+                        ch = read();
+                    }
+                    Include include = matchDirective();
+                    if (include != null) {
+                        includes.add(include);
+                    }
+                } else {
+                    while (ch != -1 && ch != '\n' && ch != '\r') {
+                        ch = read();
+                    }
+                }
+                if (ch == -1) {
+                    return includes;
+                }
+                // A '\r' followed by '\n' ends an empty line, which can be skipped like any other line that does not start with '#'
+            }
+        }
+
+        private void append(int ch) {
+            if (lineLength == line.length) {
+                byte[] newLine = new byte[line.length * 2];
+                System.arraycopy(line, 0, newLine, 0, lineLength);
+                line = newLine;
+            }
+            line[lineLength++] = (byte) ch;
+        }
+
+        /**
+         * Matches the current line, which starts with '#', against {@code #\s*(include|import)\s*((<[^>]+>)|("[^"]+")|(\w+))}, ignoring case and trailing whitespace.
+         */
+        private Include matchDirective() {
+            int end = lineLength;
+            while (end > 0 && (line[end - 1] & 0xff) <= ' ') {
+                end--;
+            }
+            int i = skipWhitespace(1, end);
+            boolean isImport;
+            if (matches(i, end, "include", true)) {
+                isImport = false;
+                i += 7;
+            } else if (matches(i, end, "import", true)) {
+                // Only the lower case directive is an import, as for the regex parser
+                isImport = matches(i, end, "import", false);
+                i += 6;
+            } else {
+                return null;
+            }
+            i = skipWhitespace(i, end);
+            if (i == end) {
+                return null;
+            }
+            byte first = line[i];
+            if (first == '<' || first == '"') {
+                byte last = first == '<' ? (byte) '>' : (byte) '"';
+                int close = indexOf(last, i + 1, end);
+                if (close != end - 1 || close == i + 1) {
+                    return null;
+                }
+            } else {
+                for (int j = i; j < end; j++) {
+                    if (!isWordChar(line[j])) {
+                        return null;
+                    }
+                }
+            }
+            return DefaultInclude.parse(new String(line, i, end - i, CHARSET), isImport);
+        }
+
+        private int skipWhitespace(int i, int end) {
+            while (i < end && isWhitespace(line[i])) {
+                i++;
+            }
+            return i;
+        }
+
+        private boolean matches(int i, int end, String keyword, boolean ignoreCase) {
+            if (end - i < keyword.length()) {
+                return false;
+            }
+            for (int j = 0; j < keyword.length(); j++) {
+                // The keywords are made of lower case letters only, so setting the case bit of a letter makes it lower case
+                int ch = ignoreCase ? line[i + j] | 0x20 : line[i + j];
+                if (ch != keyword.charAt(j)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int indexOf(byte value, int from, int end) {
+            for (int i = from; i < end; i++) {
+                if (line[i] == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static boolean isWhitespace(byte ch) {
+            // As '\s', without the line terminators, which are never part of a line
+            return ch == ' ' || ch == '\t' || ch == 0x0B || ch == '\f';
+        }
+
+        private static boolean isWordChar(byte ch) {
+            return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9') || ch == '_';
+        }
+
+        /**
+         * Returns the next character with comments replaced by a single space and line continuations removed, as {@link PreprocessingReader#read()} does.
+         */
+        private int read() {
+            while (true) {
+                int ch = next();
+                if (ch == '\\' && discardNewLine()) {
+                    continue;
+                }
+                if (ch == '"' && !quoted) {
+                    inString = !inString;
+                    quoted = false;
+                } else if (ch == '\\') {
+                    quoted = !quoted;
+                } else {
+                    quoted = false;
+                    if (ch == '/' && !inString) {
+                        int following = next();
+                        if (following == '/') {
+                            do {
+                                ch = next();
+                            } while (ch != '\n' && ch != -1 && ch != '\r');
+                        } else if (following == '*') {
+                            ch = skipBlockComment();
+                        } else if (following != -1) {
+                            pos--;
+                        }
+                    }
+                }
+                return ch;
+            }
+        }
+
+        private int skipBlockComment() {
+            int ch = 0;
+            while (ch != -1) {
+                ch = next();
+                if (ch == '*') {
+                    ch = next();
+                    while (ch == '*') {
+                        ch = next();
+                    }
+                    if (ch == '/') {
+                        return ' ';
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private boolean discardNewLine() {
+            if (pos < length && buffer[pos] == '\n') {
+                pos++;
+                return true;
+            }
+            if (pos + 1 < length && buffer[pos] == '\r' && buffer[pos + 1] == '\n') {
+                pos += 2;
+                return true;
+            }
+            return false;
+        }
+
+        private int next() {
+            return pos < length ? buffer[pos++] & 0xff : -1;
+        }
+    }
+}
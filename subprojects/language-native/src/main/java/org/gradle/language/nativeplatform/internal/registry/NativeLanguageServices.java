@@ -16,14 +16,21 @@
 
 package org.gradle.language.nativeplatform.internal.registry;
 
+import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
 import org.gradle.language.cpp.internal.NativeDependencyCache;
 import org.gradle.language.nativeplatform.internal.incremental.DefaultCompilationStateCacheFactory;
 import org.gradle.language.nativeplatform.internal.incremental.DefaultIncrementalCompilerBuilder;
+import org.gradle.language.nativeplatform.internal.incremental.IncludeGraphCache;
 import org.gradle.language.swift.internal.SwiftStdlibToolLocator;
 
 public class NativeLanguageServices extends AbstractPluginServiceRegistry {
+    @Override
+    public void registerGradleUserHomeServices(ServiceRegistration registration) {
+        registration.addProvider(new GradleUserHomeServices());
+    }
+
     @Override
     public void registerGradleServices(ServiceRegistration registration) {
         registration.add(DefaultCompilationStateCacheFactory.class);
@@ -43,4 +50,12 @@ public class NativeLanguageServices extends AbstractPluginServiceRegistry {
     public void registerBuildServices(ServiceRegistration registration) {
         registration.add(NativeDependencyCache.class);
     }
+
+    private static class GradleUserHomeServices {
+        IncludeGraphCache createIncludeGraphCache(ListenerManager listenerManager) {
+            IncludeGraphCache includeGraphCache = new IncludeGraphCache();
+            listenerManager.addListener(includeGraphCache);
+            return includeGraphCache;
+        }
+    }
 }
@@ -46,7 +46,7 @@ import org.gradle.language.nativeplatform.internal.incremental.IncrementalCompil
 import org.gradle.language.nativeplatform.internal.incremental.IncrementalCompileFilesFactory;
 import org.gradle.language.nativeplatform.internal.incremental.IncrementalCompileProcessor;
 import org.gradle.language.nativeplatform.internal.incremental.sourceparser.CSourceParser;
-import org.gradle.language.nativeplatform.internal.incremental.sourceparser.RegexBackedCSourceParser;
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.ScanningCSourceParser;
 
 import javax.inject.Inject;
 import java.io.BufferedWriter;
@@ -84,7 +84,7 @@ public class Depend extends DefaultTask {
         this.compilationStateCacheFactory = compilationStateCacheFactory;
         this.includes = getProject().files();
         this.source = getProject().files();
-        this.sourceParser = new RegexBackedCSourceParser();
+        this.sourceParser = new ScanningCSourceParser();
         this.headerDependenciesFile = newOutputFile();
         this.importsAreIncludes = getProject().getObjects().property(Boolean.class);
         this.headerDependenciesCollector = new DefaultHeaderDependenciesCollector(directoryFileTreeFactory);
@@ -81,6 +81,21 @@ class CompilationStateSerializerTest extends SerializerSpec {
         otherCompileState.resolvedIncludes == [resolvedInclude("ONE"), resolvedInclude("TWO")] as Set
     }
 
+    def "serializes headers reported by the compiler"() {
+        when:
+        def source = new File("source")
+        def header = new File("header")
+        def fileStates = [:]
+        fileStates.put(source, new CompilationFileState(HashCode.fromInt(0x12345678), createSourceIncludes("MACRO"), ImmutableSet.of(), ImmutableMap.of(header, HashCode.fromInt(0x23456789))))
+        fileStates.put(header, compilationFileState(HashCode.fromInt(0x23456789), createSourceIncludes(), []))
+        def state = compilationState([source], fileStates)
+
+        then:
+        def newState = serialized(state)
+        newState.getState(source).compilerReportedHeaders == [(header): HashCode.fromInt(0x23456789)]
+        newState.getState(header).compilerReportedHeaders == null
+    }
+
     private DefaultIncludeDirectives createSourceIncludes(String... strings) {
         return new DefaultIncludeDirectives(strings.collect { DefaultInclude.parse(it, false) })
     }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class DependencyFileParserTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def parser = new DependencyFileParser()
+    def workingDir = tmpDir.createDir("objs")
+    def source = tmpDir.file("src/main.c")
+    def dependencyFile = tmpDir.file("main.d")
+
+    def "parses headers listed on continuation lines"() {
+        def header1 = tmpDir.file("include/one.h")
+        def header2 = tmpDir.file("include/two.h")
+
+        when:
+        dependencyFile.text = "${escaped(workingDir)}/main.o: ${escaped(source)} \\\n ${escaped(header1)} \\\n  ${escaped(header2)}\n"
+
+        then:
+        parse() == [header1, header2]
+    }
+
+    def "parses dependency file with windows line endings and no trailing line ending"() {
+        def header = tmpDir.file("include/one.h")
+
+        when:
+        dependencyFile.text = "main.o: ${escaped(source)} \\\r\n ${escaped(header)}"
+
+        then:
+        parse() == [header]
+    }
+
+    def "unescapes spaces, hashes and dollars in file names"() {
+        def header1 = tmpDir.file("include dir/one.h")
+        def header2 = tmpDir.file("include/#two\$.h")
+
+        when:
+        dependencyFile.text = "main.o: ${escaped(source)} ${escaped(header1)} \\\n ${escaped(header2).replace('#', '\\#').replace('$', '$$')}\n"
+
+        then:
+        parse() == [header1, header2]
+    }
+
+    def "resolves relative paths against the working directory"() {
+        when:
+        dependencyFile.text = "main.o: ../src/main.c ../include/one.h one.h\n"
+
+        then:
+        parse() == [tmpDir.file("include/one.h"), workingDir.file("one.h")]
+    }
+
+    def "accepts colons in paths of prerequisites and targets"() {
+        when:
+        dependencyFile.text = "C:/objs/main.o: C:/src/main.c C:/include/one.h\n"
+
+        then:
+        parse()*.name == ["main.c", "one.h"]
+    }
+
+    def "ignores rules after the first one"() {
+        def header = tmpDir.file("include/one.h")
+
+        when:
+        dependencyFile.text = "main.o: ${escaped(source)} ${escaped(header)}\n\n${escaped(header)}:\n"
+
+        then:
+        parse() == [header]
+    }
+
+    def "ignores duplicate headers"() {
+        def header = tmpDir.file("include/one.h")
+
+        when:
+        dependencyFile.text = "main.o: ${escaped(source)} ${escaped(header)} ${escaped(header)}\n"
+
+        then:
+        parse() == [header]
+    }
+
+    private List<File> parse() {
+        parser.parse(dependencyFile, source, workingDir)
+    }
+
+    private static String escaped(File file) {
+        file.path.replace(' ', '\\ ')
+    }
+}
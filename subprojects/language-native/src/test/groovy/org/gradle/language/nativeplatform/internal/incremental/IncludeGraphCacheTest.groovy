@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental
+
+import org.gradle.api.Task
+import org.gradle.api.file.FileCollection
+import org.gradle.api.tasks.TaskOutputs
+import org.gradle.api.tasks.TaskState
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.hash.HashCode
+import org.gradle.language.nativeplatform.internal.IncludeDirectives
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.CSourceParser
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class IncludeGraphCacheTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+
+    def cache = new IncludeGraphCache()
+    def parser = Mock(CSourceParser)
+    def hasher = Stub(FileHasher) {
+        hash(_) >> { File file -> HashCode.fromInt(file.text.hashCode()) }
+    }
+    def includeDir = temporaryFolder.createDir("include")
+    def otherDir = temporaryFolder.createDir("other")
+
+    def "parses each file content once"() {
+        def a = temporaryFolder.createFile("a.h") << "content"
+        def b = temporaryFolder.createFile("b.h") << "content"
+        def c = temporaryFolder.createFile("c.h") << "other content"
+        def directives = Stub(IncludeDirectives)
+        def otherDirectives = Stub(IncludeDirectives)
+        def cachingParser = cache.cachingParser(parser, hasher)
+
+        when:
+        def result1 = cachingParser.parseSource(a)
+        def result2 = cachingParser.parseSource(b)
+        def result3 = cachingParser.parseSource(c)
+
+        then:
+        1 * parser.parseSource(a) >> directives
+        1 * parser.parseSource(c) >> otherDirectives
+        0 * parser._
+
+        and:
+        result1.is(directives)
+        result2.is(directives)
+        result3.is(otherDirectives)
+    }
+
+    def "keeps include directives of files seen by the previous build"() {
+        def a = temporaryFolder.createFile("a.h") << "content"
+        def cachingParser = cache.cachingParser(parser, hasher)
+
+        when:
+        cachingParser.parseSource(a)
+        cache.beforeComplete()
+        cachingParser.parseSource(a)
+        cache.beforeComplete()
+        cache.beforeComplete()
+
+        then:
+        2 * parser.parseSource(a) >> Stub(IncludeDirectives)
+    }
+
+    def "searches for each include on a search path once per build"() {
+        def header = includeDir.createFile("header.h")
+        def searchPath = [otherDir, includeDir]
+
+        when:
+        def location1 = cache.locate(searchPath, "header.h")
+        header.delete()
+        def location2 = cache.locate(new ArrayList<File>(searchPath), "header.h")
+
+        then:
+        location1.is(location2)
+        location1.file == header.canonicalFile
+        location1.searched == [otherDir.file("header.h"), header]
+
+        when:
+        cache.beforeComplete()
+        def location3 = cache.locate(searchPath, "header.h")
+
+        then:
+        location3.file == null
+        location3.searched == [otherDir.file("header.h"), header]
+    }
+
+    def "searches again for includes on a search path that overlaps the outputs of a task"() {
+        def header = includeDir.createFile("header.h")
+        def otherHeader = otherDir.createFile("header.h")
+        def includeLocation = cache.locate([includeDir], "header.h")
+        def otherLocation = cache.locate([otherDir], "header.h")
+
+        when:
+        cache.afterExecute(task(true, [includeDir.file("generated")]), state(true))
+
+        then:
+        !cache.locate([includeDir], "header.h").is(includeLocation)
+        cache.locate([otherDir], "header.h").is(otherLocation)
+    }
+
+    def "keeps locations when a task did no work"() {
+        includeDir.createFile("header.h")
+        def location = cache.locate([includeDir], "header.h")
+
+        when:
+        cache.afterExecute(task(true, [includeDir]), state(false))
+
+        then:
+        cache.locate([includeDir], "header.h").is(location)
+    }
+
+    def "searches again for all includes after a task without declared outputs"() {
+        includeDir.createFile("header.h")
+        def location = cache.locate([includeDir], "header.h")
+
+        when:
+        cache.afterExecute(task(false, []), state(true))
+
+        then:
+        !cache.locate([includeDir], "header.h").is(location)
+    }
+
+    def "searches each time for includes that may point outside of the search path"() {
+        def header = otherDir.createFile("header.h")
+
+        when:
+        def location1 = cache.locate([includeDir], "../other/header.h")
+        def location2 = cache.locate([includeDir], "../other/header.h")
+
+        then:
+        !location1.is(location2)
+        location1.file == header.canonicalFile
+    }
+
+    private Task task(boolean hasOutput, List<File> outputFiles) {
+        def outputs = Stub(TaskOutputs) {
+            getHasOutput() >> hasOutput
+            getFiles() >> Stub(FileCollection) {
+                iterator() >> { outputFiles.iterator() }
+            }
+        }
+        return Stub(Task) {
+            getOutputs() >> outputs
+        }
+    }
+
+    private TaskState state(boolean didWork) {
+        return Stub(TaskState) {
+            getDidWork() >> didWork
+        }
+    }
+}
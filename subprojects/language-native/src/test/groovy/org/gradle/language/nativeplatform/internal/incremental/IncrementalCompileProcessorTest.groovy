@@ -15,9 +15,16 @@
  */
 package org.gradle.language.nativeplatform.internal.incremental
 
+import com.google.common.collect.ImmutableMap
+import com.google.common.collect.ImmutableSet
+import org.gradle.api.Action
 import org.gradle.cache.PersistentStateCache
 import org.gradle.internal.hash.FileHasher
 import org.gradle.internal.hash.Hashing
+import org.gradle.internal.operations.BuildOperationExecutor
+import org.gradle.internal.operations.BuildOperationQueue
+import org.gradle.internal.operations.RunnableBuildOperation
+import org.gradle.internal.work.WorkerLeaseService
 import org.gradle.language.nativeplatform.internal.IncludeDirectives
 import org.gradle.language.nativeplatform.internal.IncludeType
 import org.gradle.language.nativeplatform.internal.incremental.sourceparser.DefaultInclude
@@ -387,6 +394,107 @@ class IncrementalCompileProcessorTest extends Specification {
 
     }
 
+    def "analyzes source files and their includes on multiple workers, parsing each file once"() {
+        given:
+        def buildOperationExecutor = Mock(BuildOperationExecutor)
+        def workerLeaseService = Stub(WorkerLeaseService) {
+            getMaxWorkerCount() >> 4
+            withoutProjectLock(_ as Runnable) >> { Runnable action -> action.run() }
+        }
+        def processor = new IncrementalCompileProcessor(stateCache, new IncrementalCompileFilesFactory(includesParser, dependencyParser, hasher), buildOperationExecutor, workerLeaseService)
+        def operations = []
+        graph.keySet().each { TestFile sourceFile ->
+            parse(sourceFile)
+            resolve(sourceFile)
+        }
+
+        when:
+        def result = processor.processSourceFiles([source1, source2])
+
+        then:
+        1 * buildOperationExecutor.runAll(_) >> { Action<BuildOperationQueue<RunnableBuildOperation>> action ->
+            action.execute(Stub(BuildOperationQueue) {
+                add(_) >> { RunnableBuildOperation operation -> operations << operation }
+            })
+            operations.collect { operation -> Thread.start { operation.run(null) } }*.join()
+        }
+        operations.size() == 2
+        result.recompile == [source1, source2]
+        result.finalState.getState(dep3).resolvedIncludes.empty
+    }
+
+    def "uses the headers reported by the compiler for unchanged source files"() {
+        given:
+        def processor = new IncrementalCompileProcessor(stateCache, new IncrementalCompileFilesFactory(includesParser, dependencyParser, hasher, true))
+        def includes = new DefaultIncludeDirectives([new DefaultInclude("MACRO_DEF", false, IncludeType.MACRO)])
+        def sourceState = new CompilationFileState(hasher.hash(source1), includes, ImmutableSet.of(), ImmutableMap.of(dep1, hasher.hash(dep1)))
+        stateCache.set(new CompilationState(ImmutableSet.of(source1), ImmutableMap.of(source1, sourceState)))
+
+        def searched = tmpDir.file("include/MACRO_DEF")
+
+        when:
+        def result = processor.processSourceFiles([source1])
+
+        then:
+        1 * dependencyParser.resolveIncludes(source1, includes) >> resolveDeps([new ResolvedInclude("MACRO_DEF", null)] as Set, [searched] as Set)
+        1 * includesParser.parseIncludes(dep1) >> new DefaultIncludeDirectives([])
+        1 * dependencyParser.resolveIncludes(dep1, _) >> resolveDeps([] as Set)
+        0 * includesParser._
+        0 * dependencyParser._
+        result.recompile.empty
+        !result.macroIncludeUsedInSources
+        result.discoveredInputs == [dep1, searched] as Set
+        result.finalState.getState(source1).compilerReportedHeaders == [(dep1): hasher.hash(dep1)]
+
+        when:
+        dep1 << "More text"
+        result = processor.processSourceFiles([source1])
+
+        then:
+        _ * includesParser.parseIncludes(_) >> new DefaultIncludeDirectives([])
+        _ * dependencyParser.resolveIncludes(_, _) >> resolveDeps([] as Set)
+        result.recompile == [source1]
+    }
+
+    def "recompiles an unchanged source file when a header added to the include path shadows a header reported by the compiler"() {
+        given:
+        def processor = new IncrementalCompileProcessor(stateCache, new IncrementalCompileFilesFactory(includesParser, dependencyParser, hasher, true))
+        def header = tmpDir.createFile("include/foo.h") << "header"
+        def shadowingHeader = tmpDir.createFile("src/foo.h") << "shadowing header"
+        def includes = new DefaultIncludeDirectives([new DefaultInclude("foo.h", false, IncludeType.QUOTED)])
+        def sourceState = new CompilationFileState(hasher.hash(source1), includes, ImmutableSet.of(), ImmutableMap.of(header, hasher.hash(header)))
+        stateCache.set(new CompilationState(ImmutableSet.of(source1), ImmutableMap.of(source1, sourceState)))
+
+        when:
+        def result = processor.processSourceFiles([source1])
+
+        then:
+        1 * dependencyParser.resolveIncludes(source1, includes) >> resolveDeps([new ResolvedInclude("foo.h", shadowingHeader)] as Set, [shadowingHeader] as Set)
+        1 * includesParser.parseIncludes(header) >> new DefaultIncludeDirectives([])
+        1 * dependencyParser.resolveIncludes(header, _) >> resolveDeps([] as Set)
+        result.recompile == [source1]
+        result.discoveredInputs.contains(shadowingHeader)
+    }
+
+    def "ignores an include resolving to a header not reported by the compiler when it does not shadow a reported header"() {
+        given:
+        def processor = new IncrementalCompileProcessor(stateCache, new IncrementalCompileFilesFactory(includesParser, dependencyParser, hasher, true))
+        def header = tmpDir.createFile("include/foo.h") << "header"
+        def excludedHeader = tmpDir.createFile("include/debug.h") << "header excluded by the preprocessor"
+        def includes = new DefaultIncludeDirectives([new DefaultInclude("foo.h", false, IncludeType.QUOTED), new DefaultInclude("debug.h", false, IncludeType.QUOTED)])
+        def sourceState = new CompilationFileState(hasher.hash(source1), includes, ImmutableSet.of(), ImmutableMap.of(header, hasher.hash(header)))
+        stateCache.set(new CompilationState(ImmutableSet.of(source1), ImmutableMap.of(source1, sourceState)))
+
+        when:
+        def result = processor.processSourceFiles([source1])
+
+        then:
+        1 * dependencyParser.resolveIncludes(source1, includes) >> resolveDeps([new ResolvedInclude("foo.h", header), new ResolvedInclude("debug.h", excludedHeader)] as Set)
+        1 * includesParser.parseIncludes(header) >> new DefaultIncludeDirectives([])
+        1 * dependencyParser.resolveIncludes(header, _) >> resolveDeps([] as Set)
+        result.recompile.empty
+    }
+
     def checkCompile(Map<String, List<File>> args) {
         parseAndResolve()
         with (state) {
@@ -421,7 +529,7 @@ class IncrementalCompileProcessorTest extends Specification {
         dep.collect {new ResolvedInclude(it.name, it)} as Set
     }
 
-    SourceIncludesResolver.ResolvedSourceIncludes resolveDeps(Set<ResolvedInclude> deps) {
+    SourceIncludesResolver.ResolvedSourceIncludes resolveDeps(Set<ResolvedInclude> deps, Set<File> checkedLocations = [] as Set) {
         new SourceIncludesResolver.ResolvedSourceIncludes() {
             @Override
             Set<ResolvedInclude> getResolvedIncludes() {
@@ -430,7 +538,7 @@ class IncrementalCompileProcessorTest extends Specification {
 
             @Override
             Set<File> getCheckedLocations() {
-                return [] as Set
+                return checkedLocations
             }
         }
     }
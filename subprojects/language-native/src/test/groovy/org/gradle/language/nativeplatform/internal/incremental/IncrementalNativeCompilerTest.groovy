@@ -41,7 +41,7 @@ class IncrementalNativeCompilerTest extends Specification {
     def toolChain = Mock(NativeToolChain)
     def task = Mock(TaskInternal)
     def headerDependenciesCollector = new DefaultHeaderDependenciesCollector(TestFiles.directoryFileTreeFactory())
-    def compiler = new IncrementalNativeCompiler(task, null, null, delegateCompiler, toolChain, headerDependenciesCollector)
+    def compiler = new IncrementalNativeCompiler(task, null, null, null, null, null, delegateCompiler, toolChain, headerDependenciesCollector)
 
     def outputs = Mock(TaskOutputsInternal)
 
@@ -98,7 +98,7 @@ class IncrementalNativeCompilerTest extends Specification {
     @Unroll
     def "imports are includes for toolchain #tcName"() {
        when:
-       def compiler = new IncrementalNativeCompiler(task, null, null, delegateCompiler, toolChain, headerDependenciesCollector)
+       def compiler = new IncrementalNativeCompiler(task, null, null, null, null, null, delegateCompiler, toolChain, headerDependenciesCollector)
        then:
        compiler.importsAreIncludes
        where:
@@ -24,7 +24,11 @@ import spock.lang.Unroll
 
 class RegexBackedCSourceParserTest extends Specification {
     @Rule final TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
-    CSourceParser parser = new RegexBackedCSourceParser()
+    CSourceParser parser = createParser()
+
+    protected CSourceParser createParser() {
+        new RegexBackedCSourceParser()
+    }
 
     protected TestFile getSourceFile() {
         testDirectory.file('source.c')
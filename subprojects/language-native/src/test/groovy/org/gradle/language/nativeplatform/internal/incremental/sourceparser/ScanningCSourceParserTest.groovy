@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser
+
+class ScanningCSourceParserTest extends RegexBackedCSourceParserTest {
+    @Override
+    protected CSourceParser createParser() {
+        new ScanningCSourceParser()
+    }
+
+    def "finds directives in file with windows line endings and no trailing line ending"() {
+        when:
+        sourceFile << "#include \"test1\"\r\n// comment\r\n#import <system1>\r\n\r\n#include DEFINED"
+
+        then:
+        includes == ['"test1"', 'DEFINED'].collect { include(it) }
+        imports == ['<system1>'].collect { include(it, true) }
+    }
+
+    def "finds directives on long lines"() {
+        def longName = "a" * 10000
+
+        when:
+        sourceFile << "#include \"${longName}.h\"\n#include <${longName}>\n"
+
+        then:
+        found == [longName + ".h", longName]
+    }
+
+    def "matches directive keywords in any case, and only the lower case import as an import"() {
+        when:
+        sourceFile << """
+#INCLUDE "test1"
+#Import "test2"
+#import "test3"
+"""
+
+        then:
+        includes == ['"test1"', '"test2"'].collect { include(it) }
+        imports == ['"test3"'].collect { include(it, true) }
+    }
+
+    def "finds the same directives as the regex parser"() {
+        def regexParser = new RegexBackedCSourceParser()
+
+        when:
+        sourceFile << text
+
+        then:
+        parsedSource == regexParser.parseSource(sourceFile)
+
+        where:
+        text << [
+            "char c = '\"'; // #include \"test1\"\n#include \"test2\"\n\" // \"\n#include <system1>",
+            "#include <test\"file> // comment\n#include \"test1\"",
+            "/* unterminated\n#include \"test1\"",
+            "#include \"test1\" \\\n\"test2\"",
+            "#include \\\r\n <system1>\r\n#include\\\r\"test1\"",
+            "\\\n#include/**/\"test1\"/**/\n/#include \"test2\"\n#include\"test3\"/"
+        ]
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.scala;
+
+import org.gradle.internal.Factory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the most recently used Zinc compilers of a compiler daemon in memory, keyed by the Scala and Zinc class paths and the Java home.
+ *
+ * <p>Zinc already keeps its compilers in an LRU cache keyed by {@code Setup} (see {@code Compiler.compilerCache()}), so this cache does not save
+ * creating compilers. It only lets a compilation skip taking the exclusive lock on the Zinc cache and creating a {@code Setup} when its compiler
+ * was used recently. Its size is set by {@link ZincScalaCompilerUtil#COMPILER_CACHE_LIMIT_SYSTEM_PROPERTY}, independently of Zinc's own cache.</p>
+ */
+class ZincCompilerCache<T> {
+    private final Map<Object, T> compilers;
+    private long hits;
+    private long misses;
+
+    ZincCompilerCache(final int maxSize) {
+        this.compilers = new LinkedHashMap<Object, T>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, T> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the compiler for the given key, creating it when it is not cached.
+     */
+    T get(Object key, Factory<T> factory) {
+        synchronized (this) {
+            T compiler = compilers.get(key);
+            if (compiler != null) {
+                hits++;
+                return compiler;
+            }
+            misses++;
+        }
+        // Create the compiler without holding the lock, as this can take a while when the compiler interface needs to be compiled
+        T compiler = factory.create();
+        synchronized (this) {
+            compilers.put(key, compiler);
+        }
+        return compiler;
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+}
@@ -49,6 +49,7 @@ public class ZincScalaCompiler implements Compiler<ScalaJavaJointCompileSpec>, S
 
     @Override
     public WorkResult execute(ScalaJavaJointCompileSpec spec) {
+        ZincScalaCompilerUtil.configureAnalysisCache();
         return Compiler.execute(scalaClasspath, zincClasspath, gradleUserHome, spec);
     }
 
@@ -61,7 +62,7 @@ public class ZincScalaCompiler implements Compiler<ScalaJavaJointCompileSpec>, S
             final xsbti.Logger logger = new SbtLoggerAdapter();
 
             Timer timer = Time.startTimer();
-            com.typesafe.zinc.Compiler compiler = ZincScalaCompilerFactory.createParallelSafeCompiler(scalaClasspath, zincClasspath, logger, gradleUserHome);
+            com.typesafe.zinc.Compiler compiler = ZincScalaCompilerFactory.getCompiler(scalaClasspath, zincClasspath, logger, gradleUserHome);
             LOGGER.info("Initialized Zinc Scala compiler: {}", timer.getElapsed());
 
             List<String> scalacOptions = new ZincScalaCompilerArgumentsGenerator().generate(spec);
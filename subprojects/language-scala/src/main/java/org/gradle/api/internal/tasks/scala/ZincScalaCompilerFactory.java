@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.scala;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.typesafe.zinc.Compiler;
 import com.typesafe.zinc.SbtJars;
@@ -42,11 +43,29 @@ import xsbti.compile.JavaCompiler;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 public class ZincScalaCompilerFactory {
     private static final Logger LOGGER = Logging.getLogger(ZincScalaCompilerFactory.class);
+    private static final ZincCompilerCache<Compiler> COMPILER_CACHE = new ZincCompilerCache<Compiler>(ZincScalaCompilerUtil.getCompilerCacheLimit());
+
+    /**
+     * Returns a compiler for the given class paths, reusing the compiler of a previous compilation in this process when possible.
+     */
+    static Compiler getCompiler(final Iterable<File> scalaClasspath, final Iterable<File> zincClasspath, final xsbti.Logger logger, final File gradleUserHome) {
+        List<Object> key = Arrays.<Object>asList(ImmutableList.copyOf(scalaClasspath), ImmutableList.copyOf(zincClasspath), Jvm.current().getJavaHome());
+        Compiler compiler = COMPILER_CACHE.get(key, new Factory<Compiler>() {
+            @Override
+            public Compiler create() {
+                return createParallelSafeCompiler(scalaClasspath, zincClasspath, logger, gradleUserHome);
+            }
+        });
+        LOGGER.info("Zinc compilers reused by this process: {}, created: {}", COMPILER_CACHE.getHits(), COMPILER_CACHE.getMisses());
+        return compiler;
+    }
 
     static Compiler createParallelSafeCompiler(final Iterable<File> scalaClasspath, final Iterable<File> zincClasspath, final xsbti.Logger logger, File gradleUserHome) {
         File zincCacheHomeDir = new File(System.getProperty(ZincScalaCompilerUtil.ZINC_CACHE_HOME_DIR_SYSTEM_PROPERTY, gradleUserHome.getAbsolutePath()));
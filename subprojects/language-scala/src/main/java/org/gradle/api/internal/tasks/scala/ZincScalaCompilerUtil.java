@@ -23,4 +23,27 @@ public final class ZincScalaCompilerUtil {
     public static final String ZINC_CACHE_HOME_DIR_SYSTEM_PROPERTY = "org.gradle.zinc.home.dir";
     public static final String ZINC_DIR_SYSTEM_PROPERTY = "zinc.dir";
     public static final String ZINC_DIR_IGNORED_MESSAGE = "In order to guarantee parallel safe Scala compilation, Gradle does not support the '" + ZINC_DIR_SYSTEM_PROPERTY + "' system property and ignores any value provided.";
+    public static final String COMPILER_CACHE_LIMIT_SYSTEM_PROPERTY = "org.gradle.internal.scala.compiler.cache.limit";
+    public static final String ZINC_ANALYSIS_CACHE_LIMIT_SYSTEM_PROPERTY = "zinc.analysis.cache.limit";
+
+    // Zinc keeps its own compilers in a separate LRU cache, sized by 'zinc.compiler.cache.limit'
+    static final int DEFAULT_COMPILER_CACHE_LIMIT = 5;
+    // Zinc keeps 5 analyses by default, which is not enough to keep the analyses of the upstream projects of a build with many Scala projects
+    static final int DEFAULT_ANALYSIS_CACHE_LIMIT = 100;
+
+    /**
+     * Sets the number of analyses kept in memory by Zinc, unless set by the user. Must be called before Zinc reads its settings.
+     */
+    static void configureAnalysisCache() {
+        if (System.getProperty(ZINC_ANALYSIS_CACHE_LIMIT_SYSTEM_PROPERTY) == null) {
+            System.setProperty(ZINC_ANALYSIS_CACHE_LIMIT_SYSTEM_PROPERTY, String.valueOf(DEFAULT_ANALYSIS_CACHE_LIMIT));
+        }
+    }
+
+    /**
+     * Returns the number of compilers kept by the compiler daemon in front of Zinc's own compiler cache.
+     */
+    static int getCompilerCacheLimit() {
+        return Integer.getInteger(COMPILER_CACHE_LIMIT_SYSTEM_PROPERTY, DEFAULT_COMPILER_CACHE_LIMIT);
+    }
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.scala
+
+import org.gradle.internal.Factory
+import spock.lang.Specification
+
+class ZincCompilerCacheTest extends Specification {
+    def cache = new ZincCompilerCache<String>(2)
+
+    def "reuses the compiler created for the same key"() {
+        def factory = Mock(Factory)
+
+        when:
+        def first = cache.get("a", factory)
+        def second = cache.get("a", factory)
+
+        then:
+        1 * factory.create() >> "compiler a"
+        first == "compiler a"
+        second == "compiler a"
+        cache.hits == 1
+        cache.misses == 1
+    }
+
+    def "evicts the least recently used compiler"() {
+        def created = []
+
+        when:
+        ["a", "b", "a", "c", "a", "b"].each { key ->
+            cache.get(key, { created << key; "compiler $key".toString() } as Factory)
+        }
+
+        then:
+        created == ["a", "b", "c", "b"]
+        cache.hits == 2
+        cache.misses == 4
+    }
+}
@@ -19,13 +19,23 @@ package org.gradle.tooling.internal.provider.serialization;
 import org.gradle.internal.serialize.ExceptionReplacingObjectOutputStream;
 import org.gradle.internal.serialize.TopLevelExceptionPlaceholder;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.ObjectStreamClass;
 import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * Writes a payload, along with the class loader of each class.
+ *
+ * <p>Equal strings and files are written once and then referenced, as the object graph of a model contains many copies of the same
+ * paths and names, one for each project. The receiver ends up with a single instance of each, too.</p>
+ */
 class PayloadSerializerObjectOutputStream extends ExceptionReplacingObjectOutputStream {
     static final int SAME_CLASSLOADER_TOKEN = 0;
     private final SerializeMap map;
+    private final Map<Object, Object> values = new HashMap<Object, Object>();
 
     public PayloadSerializerObjectOutputStream(OutputStream outputStream, SerializeMap map) throws IOException {
         super(outputStream);
@@ -37,6 +47,23 @@ class PayloadSerializerObjectOutputStream extends ExceptionReplacingObjectOutput
         return new PayloadSerializerObjectOutputStream(outputStream, map);
     }
 
+    @Override
+    protected Object doReplaceObject(Object obj) throws IOException {
+        if (obj instanceof String || obj instanceof File) {
+            return deduplicate(obj);
+        }
+        return super.doReplaceObject(obj);
+    }
+
+    private Object deduplicate(Object value) {
+        Object existing = values.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        values.put(value, value);
+        return value;
+    }
+
     @Override
     protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException {
         Class<?> targetClass = desc.forClass();
@@ -43,6 +43,21 @@ class PayloadSerializerTest extends AbstractClassGraphSpec {
         "some value" | _
     }
 
+    def "sends equal strings and files once"() {
+        def original = [new String("some value"), new String("some value"), new File("some file"), new File("some file")]
+        def distinct = ["some value", "other value", new File("some file"), new File("other file")]
+
+        when:
+        def serialized = originator.serialize(original)
+        def received = receiver.deserialize(serialized)
+
+        then:
+        received == original
+        received[0].is(received[1])
+        received[2].is(received[3])
+        size(serialized) < size(originator.serialize(distinct))
+    }
+
     def "implementation classpath travels with object"() {
         def payloadClass = isolated(CustomPayload, PayloadInterface).loadClass(CustomPayload.name)
         def original = payloadClass.newInstance(value: 'value')
@@ -205,4 +220,8 @@ class PayloadSerializerTest extends AbstractClassGraphSpec {
             return "result!"
         }
     }
+
+    private static int size(SerializedPayload payload) {
+        payload.serializedModel.sum { it.length } as int
+    }
 }
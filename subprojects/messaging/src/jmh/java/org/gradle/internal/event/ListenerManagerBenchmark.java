@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.event;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Broadcasts events to a varying number of listeners from several threads at once, as task execution and output events are broadcast during a parallel build,
+ * and to a listener type that has no listeners, which is the common case for many listener types.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ListenerManagerBenchmark {
+    @Param({"1", "10", "50"})
+    int listenerCount;
+
+    private TestListener broadcaster;
+    private UnusedListener emptyBroadcaster;
+
+    @Setup
+    public void setup() {
+        DefaultListenerManager listenerManager = new DefaultListenerManager();
+        for (int i = 0; i < listenerCount; i++) {
+            listenerManager.addListener(new CountingListener());
+        }
+        broadcaster = listenerManager.getBroadcaster(TestListener.class);
+        emptyBroadcaster = listenerManager.getBroadcaster(UnusedListener.class);
+    }
+
+    @Benchmark
+    public void broadcast(Blackhole blackhole) {
+        broadcaster.event(blackhole);
+    }
+
+    @Benchmark
+    public void broadcastWithNoListeners(Blackhole blackhole) {
+        emptyBroadcaster.event(blackhole);
+    }
+
+    public interface TestListener {
+        void event(Blackhole blackhole);
+    }
+
+    public interface UnusedListener {
+        void event(Blackhole blackhole);
+    }
+
+    public static class CountingListener implements TestListener {
+        private long count;
+
+        public void event(Blackhole blackhole) {
+            // Notifications of a listener type are serialized, so this needs no synchronization
+            blackhole.consume(++count);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote;
+
+import org.gradle.api.Action;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.remote.services.MessagingServices;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.DefaultSerializerRegistry;
+import org.gradle.internal.serialize.SerializerRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+
+/**
+ * Sends messages between two object connections over loopback, once as a stream of messages, to measure throughput,
+ * and once as a request followed by a reply, to measure round trip latency.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class MessagingBenchmark {
+    private static final int BATCH_SIZE = 10000;
+
+    @Param({"16", "1024"})
+    int payloadSize;
+
+    private MessagingServices services;
+    private ConnectionAcceptor acceptor;
+    private ObjectConnection clientConnection;
+    private ObjectConnection serverConnection;
+    private Receiver receiver;
+    private final CountingReceiver serverReceiver = new CountingReceiver();
+    private final BlockingQueue<Long> replies = new SynchronousQueue<Long>();
+    private String payload;
+    private long sent;
+
+    @Setup
+    public void setup() throws InterruptedException {
+        char[] chars = new char[payloadSize];
+        Arrays.fill(chars, 'x');
+        payload = new String(chars);
+
+        services = new MessagingServices();
+        final BlockingQueue<ObjectConnection> accepted = new ArrayBlockingQueue<ObjectConnection>(1);
+        acceptor = services.get(MessagingServer.class).accept(new Action<ObjectConnection>() {
+            @Override
+            public void execute(ObjectConnection connection) {
+                connection.useParameterSerializers(serializers());
+                serverReceiver.replier = connection.addOutgoing(Replier.class);
+                connection.addIncoming(Receiver.class, serverReceiver);
+                connection.connect();
+                accepted.add(connection);
+            }
+        });
+
+        clientConnection = services.get(MessagingClient.class).getConnection(acceptor.getAddress());
+        clientConnection.useParameterSerializers(serializers());
+        receiver = clientConnection.addOutgoing(Receiver.class);
+        clientConnection.addIncoming(Replier.class, new Replier() {
+            @Override
+            public void pong(long id) {
+                try {
+                    replies.put(id);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        clientConnection.connect();
+        serverConnection = accepted.take();
+    }
+
+    @TearDown
+    public void tearDown() {
+        CompositeStoppable.stoppable(clientConnection, serverConnection, acceptor, services).stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void throughput() throws InterruptedException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            receiver.message(payload);
+        }
+        sent += BATCH_SIZE;
+        serverReceiver.awaitReceived(sent);
+    }
+
+    @Benchmark
+    public long roundTrip() throws InterruptedException {
+        receiver.ping(sent);
+        return replies.take();
+    }
+
+    private static SerializerRegistry serializers() {
+        DefaultSerializerRegistry registry = new DefaultSerializerRegistry();
+        registry.register(String.class, BaseSerializerFactory.STRING_SERIALIZER);
+        registry.register(Long.class, BaseSerializerFactory.LONG_SERIALIZER);
+        return registry;
+    }
+
+    public interface Receiver {
+        void message(String payload);
+
+        void ping(long id);
+    }
+
+    public interface Replier {
+        void pong(long id);
+    }
+
+    private static class CountingReceiver implements Receiver {
+        private final Object lock = new Object();
+        private long received;
+        Replier replier;
+
+        @Override
+        public void message(String payload) {
+            synchronized (lock) {
+                received++;
+                lock.notifyAll();
+            }
+        }
+
+        @Override
+        public void ping(long id) {
+            replier.pong(id);
+        }
+
+        void awaitReceived(long count) throws InterruptedException {
+            synchronized (lock) {
+                while (received < count) {
+                    lock.wait();
+                }
+            }
+        }
+    }
+}
@@ -70,6 +70,10 @@ public class ProxyDispatchAdapter<T> {
         }
 
         public Object invoke(Object target, Method method, Object[] parameters) throws Throwable {
+            if (method.getDeclaringClass() != Object.class) {
+                dispatch.dispatch(new MethodInvocation(method, parameters));
+                return null;
+            }
             if (method.getName().equals("equals")) {
                 Object parameter = parameters[0];
                 if (parameter == null || !Proxy.isProxyClass(parameter.getClass())) {
@@ -31,7 +31,10 @@ public class ReflectionDispatch implements Dispatch<MethodInvocation> {
     public void dispatch(MethodInvocation message) {
         try {
             Method method = message.getMethod();
-            method.setAccessible(true);
+            if (!method.isAccessible()) {
+                // The same method instance is dispatched over and over, so only pay for the access check once
+                method.setAccessible(true);
+            }
             method.invoke(target, message.getArguments());
         } catch (InvocationTargetException e) {
             throw UncheckedException.throwAsUncheckedException(e.getCause());
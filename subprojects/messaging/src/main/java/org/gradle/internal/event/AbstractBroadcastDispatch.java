@@ -50,33 +50,52 @@ public abstract class AbstractBroadcastDispatch<T> implements Dispatch<MethodInv
     }
 
     protected void dispatch(MethodInvocation invocation, Iterator<? extends Dispatch<MethodInvocation>> handlers) {
-        // Defer creation of failures list, assume dispatch will succeed
         List<Throwable> failures = null;
         while (handlers.hasNext()) {
-            Dispatch<MethodInvocation> handler = handlers.next();
-            try {
-                handler.dispatch(invocation);
-            } catch (ListenerNotificationException e) {
-                if (failures == null) {
-                    failures = new ArrayList<Throwable>();
-                }
-                if (e.getEvent() == invocation) {
-                    failures.addAll(e.getCauses());
-                } else {
-                    failures.add(e);
-                }
-            } catch (UncheckedException e) {
-                if (failures == null) {
-                    failures = new ArrayList<Throwable>();
-                }
-                failures.add(e.getCause());
-            } catch (Throwable t) {
-                if (failures == null) {
-                    failures = new ArrayList<Throwable>();
-                }
-                failures.add(t);
+            failures = dispatch(invocation, handlers.next(), failures);
+        }
+        rethrow(invocation, failures);
+    }
+
+    protected void dispatch(MethodInvocation invocation, Dispatch<MethodInvocation>[] handlers) {
+        List<Throwable> failures = null;
+        for (Dispatch<MethodInvocation> handler : handlers) {
+            failures = dispatch(invocation, handler, failures);
+        }
+        rethrow(invocation, failures);
+    }
+
+    /**
+     * Dispatches to the given handler, and returns the failures collected so far, including the failure of this handler.
+     */
+    private List<Throwable> dispatch(MethodInvocation invocation, Dispatch<MethodInvocation> handler, List<Throwable> failures) {
+        try {
+            handler.dispatch(invocation);
+        } catch (ListenerNotificationException e) {
+            // Defer creation of failures list, assume dispatch will succeed
+            if (failures == null) {
+                failures = new ArrayList<Throwable>();
+            }
+            if (e.getEvent() == invocation) {
+                failures.addAll(e.getCauses());
+            } else {
+                failures.add(e);
+            }
+        } catch (UncheckedException e) {
+            if (failures == null) {
+                failures = new ArrayList<Throwable>();
             }
+            failures.add(e.getCause());
+        } catch (Throwable t) {
+            if (failures == null) {
+                failures = new ArrayList<Throwable>();
+            }
+            failures.add(t);
         }
+        return failures;
+    }
+
+    private void rethrow(MethodInvocation invocation, List<Throwable> failures) {
         if (failures == null) {
             return;
         }
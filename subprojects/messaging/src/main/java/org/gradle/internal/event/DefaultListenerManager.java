@@ -134,8 +134,9 @@ public class DefaultListenerManager implements ListenerManager {
         private final ReentrantLock broadcasterLock = new ReentrantLock();
         private ListenerDetails logger;
         private Dispatch<MethodInvocation> parentDispatch;
-        private List<Dispatch<MethodInvocation>> allWithLogger = Collections.emptyList();
-        private List<Dispatch<MethodInvocation>> allWithNoLogger = Collections.emptyList();
+        // Replaced while holding the broadcaster lock, read without it to skip notification when there is nothing to notify
+        private volatile Dispatchers allWithLogger = Dispatchers.EMPTY;
+        private volatile Dispatchers allWithNoLogger = Dispatchers.EMPTY;
 
         EventBroadcast(Class<T> type) {
             this.type = type;
@@ -244,42 +245,39 @@ public class DefaultListenerManager implements ListenerManager {
             logger = candidate;
         }
 
-        private List<Dispatch<MethodInvocation>> startNotification(boolean includeLogger) {
+        private Dispatchers getDispatchers(boolean includeLogger) {
+            return includeLogger ? allWithLogger : allWithNoLogger;
+        }
+
+        private Dispatchers startNotification(boolean includeLogger) {
             takeOwnership();
 
             // Take a snapshot while holding lock
-            List<Dispatch<MethodInvocation>> result = includeLogger ? allWithLogger : allWithNoLogger;
-            doStartNotification(result);
-            return result;
-        }
-
-        private void doStartNotification(List<Dispatch<MethodInvocation>> result) {
-            for (Dispatch<MethodInvocation> dispatch : result) {
-                if (dispatch instanceof ListenerDetails) {
-                    ListenerDetails listenerDetails = (ListenerDetails) dispatch;
-                    listenerDetails.startNotification();
-                }
+            Dispatchers result = getDispatchers(includeLogger);
+            for (ListenerDetails listener : result.listeners) {
+                listener.startNotification();
             }
+            return result;
         }
 
         private void ensureAllWithoutLoggerInitialized() {
             if (parentDispatch == null && listeners.isEmpty()) {
-                allWithNoLogger = Collections.emptyList();
+                allWithNoLogger = Dispatchers.EMPTY;
             } else {
                 List<Dispatch<MethodInvocation>> dispatchers = new ArrayList<Dispatch<MethodInvocation>>();
                 if (parentDispatch != null) {
                     dispatchers.add(parentDispatch);
                 }
                 dispatchers.addAll(listeners);
-                allWithNoLogger = dispatchers;
+                allWithNoLogger = new Dispatchers(dispatchers);
             }
         }
 
         private void ensureAllWithLoggerInitialized() {
             if (logger == null && parentDispatch == null && listeners.isEmpty()) {
-                allWithLogger = Collections.emptyList();
+                allWithLogger = Dispatchers.EMPTY;
             } else {
-                allWithLogger = buildAllWithLogger();
+                allWithLogger = new Dispatchers(buildAllWithLogger());
             }
         }
 
@@ -304,12 +302,9 @@ public class DefaultListenerManager implements ListenerManager {
             return result;
         }
 
-        private void endNotification(List<Dispatch<MethodInvocation>> dispatchers) {
-            for (Dispatch<MethodInvocation> dispatcher : dispatchers) {
-                if (dispatcher instanceof ListenerDetails) {
-                    ListenerDetails listener = (ListenerDetails) dispatcher;
-                    listener.endNotification();
-                }
+        private void endNotification(Dispatchers dispatchers) {
+            for (ListenerDetails listener : dispatchers.listeners) {
+                listener.endNotification();
             }
             try {
                 synchronized (queuedOperations) {
@@ -335,10 +330,14 @@ public class DefaultListenerManager implements ListenerManager {
 
             @Override
             public void dispatch(MethodInvocation invocation) {
-                List<Dispatch<MethodInvocation>> dispatchers = startNotification(includeLogger);
+                if (getDispatchers(includeLogger).isEmpty()) {
+                    // Don't contend for the broadcaster lock when there is nothing to notify
+                    return;
+                }
+                Dispatchers dispatchers = startNotification(includeLogger);
                 try {
                     if (!dispatchers.isEmpty()) {
-                        dispatch(invocation, dispatchers.iterator());
+                        dispatch(invocation, dispatchers.dispatchers);
                     }
                 } finally {
                     endNotification(dispatchers);
@@ -347,6 +346,32 @@ public class DefaultListenerManager implements ListenerManager {
         }
     }
 
+    /**
+     * An immutable snapshot of the dispatchers for a given listener type, which is replaced as a whole when the listeners change.
+     */
+    private static class Dispatchers {
+        static final Dispatchers EMPTY = new Dispatchers(Collections.<Dispatch<MethodInvocation>>emptyList());
+
+        final Dispatch<MethodInvocation>[] dispatchers;
+        // The listeners to lock while they are being notified
+        final ListenerDetails[] listeners;
+
+        Dispatchers(List<Dispatch<MethodInvocation>> dispatchers) {
+            this.dispatchers = dispatchers.toArray(new Dispatch[0]);
+            List<ListenerDetails> listeners = new ArrayList<ListenerDetails>(dispatchers.size());
+            for (Dispatch<MethodInvocation> dispatch : dispatchers) {
+                if (dispatch instanceof ListenerDetails) {
+                    listeners.add((ListenerDetails) dispatch);
+                }
+            }
+            this.listeners = listeners.toArray(new ListenerDetails[0]);
+        }
+
+        boolean isEmpty() {
+            return dispatchers.length == 0;
+        }
+    }
+
     /**
      * Holds state about a particular listener
      */
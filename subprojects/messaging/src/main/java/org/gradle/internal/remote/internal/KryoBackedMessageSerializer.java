@@ -25,13 +25,16 @@ import java.io.InputStream;
 import java.io.OutputStream;
 
 public class KryoBackedMessageSerializer implements MessageSerializer {
+    // Large enough for a batch of messages to reach the connection in a single write
+    private static final int BUFFER_SIZE = 32 * 1024;
+
     @Override
     public Decoder newDecoder(InputStream inputStream) {
-        return new KryoBackedDecoder(inputStream);
+        return new KryoBackedDecoder(inputStream, BUFFER_SIZE);
     }
 
     @Override
     public FlushableEncoder newEncoder(OutputStream outputStream) {
-        return new KryoBackedEncoder(outputStream);
+        return new KryoBackedEncoder(outputStream, BUFFER_SIZE);
     }
 }
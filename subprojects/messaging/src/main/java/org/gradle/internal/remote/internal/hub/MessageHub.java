@@ -315,19 +315,28 @@ public class MessageHub implements AsyncStoppable {
                         } finally {
                             lock.unlock();
                         }
-                        for (InterHubMessage message : messages) {
-                            try {
-                                connection.dispatch(message);
-                            } catch (RecoverableMessageIOException e) {
-                                addToIncoming(new StreamFailureMessage(e));
+                        while (!messages.isEmpty()) {
+                            for (InterHubMessage message : messages) {
+                                try {
+                                    connection.dispatch(message);
+                                } catch (RecoverableMessageIOException e) {
+                                    addToIncoming(new StreamFailureMessage(e));
+                                }
+                                if (message instanceof EndOfStream) {
+                                    connection.flush();
+                                    return;
+                                }
                             }
-                            if (message instanceof EndOfStream) {
-                                connection.flush();
-                                return;
+                            messages.clear();
+                            // Write the messages queued in the meantime along with this batch, and flush only once the queue is empty
+                            lock.lock();
+                            try {
+                                queue.poll(messages);
+                            } finally {
+                                lock.unlock();
                             }
                         }
                         connection.flush();
-                        messages.clear();
                     }
                 } finally {
                     lock.lock();
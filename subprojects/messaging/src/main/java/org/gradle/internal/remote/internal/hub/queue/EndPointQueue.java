@@ -55,6 +55,17 @@ public class EndPointQueue implements Dispatch<InterHubMessage> {
         queue.clear();
     }
 
+    /**
+     * Moves any queued messages to the given collection, without waiting for messages to be queued.
+     */
+    public void poll(Collection<InterHubMessage> drainTo) {
+        if (queue.isEmpty()) {
+            owner.empty(this);
+        }
+        drainTo.addAll(queue);
+        queue.clear();
+    }
+
     public void stop() {
         owner.stopped(this);
     }
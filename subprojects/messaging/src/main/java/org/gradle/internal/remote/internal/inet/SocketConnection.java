@@ -33,6 +33,7 @@ import org.slf4j.LoggerFactory;
 import java.io.*;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
@@ -145,6 +146,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
     }
 
     private static class SocketInputStream extends InputStream {
+        private static final int BUFFER_SIZE = 64 * 1024;
         private final Selector selector;
         private final ByteBuffer buffer;
         private final SocketChannel socket;
@@ -154,7 +156,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             this.socket = socket;
             selector = Selector.open();
             socket.register(selector, SelectionKey.OP_READ);
-            buffer = ByteBuffer.allocateDirect(4096);
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
             buffer.limit(0);
         }
 
@@ -174,11 +176,6 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             }
 
             if (buffer.remaining() == 0) {
-                try {
-                    selector.select();
-                } catch (ClosedSelectorException e) {
-                    return -1;
-                }
                 if (!selector.isOpen()) {
                     return -1;
                 }
@@ -186,9 +183,11 @@ public class SocketConnection<T> implements RemoteConnection<T> {
                 buffer.clear();
                 int nread;
                 try {
-                    nread = socket.read(buffer);
+                    nread = readFromChannel();
+                } catch (ClosedSelectorException e) {
+                    nread = -1;
                 } catch (IOException e) {
-                    if (isEndOfStream(e)) {
+                    if (e instanceof ClosedChannelException || isEndOfStream(e)) {
                         buffer.position(0);
                         buffer.limit(0);
                         return -1;
@@ -207,6 +206,19 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             return count;
         }
 
+        private int readFromChannel() throws IOException {
+            // Read whatever has already arrived, and only wait for the socket to become readable when nothing has
+            int nread = socket.read(buffer);
+            while (nread == 0) {
+                selector.select();
+                if (!selector.isOpen()) {
+                    return -1;
+                }
+                nread = socket.read(buffer);
+            }
+            return nread;
+        }
+
         @Override
         public void close() throws IOException {
             selector.close();
@@ -218,11 +230,13 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         private Selector selector;
         private final SocketChannel socket;
         private final ByteBuffer buffer;
+        private final ByteBuffer[] bufferOnly;
         private final byte[] writeBuffer = new byte[1];
 
         public SocketOutputStream(SocketChannel socket) throws IOException {
             this.socket = socket;
             buffer = ByteBuffer.allocateDirect(32 * 1024);
+            bufferOnly = new ByteBuffer[]{buffer};
         }
 
         @Override
@@ -233,43 +247,45 @@ public class SocketConnection<T> implements RemoteConnection<T> {
 
         @Override
         public void write(byte[] src, int offset, int max) throws IOException {
-            int remaining = max;
-            int currentPos = offset;
-            while (remaining > 0) {
-                int count = Math.min(remaining, buffer.remaining());
-                if (count > 0) {
-                    buffer.put(src, currentPos, count);
-                    remaining -= count;
-                    currentPos += count;
-                }
-                while (buffer.remaining() == 0) {
-                    writeBufferToChannel();
+            if (max > buffer.remaining()) {
+                // Write the buffered bytes and the given bytes with a single gathering write, rather than copying the given bytes through the buffer
+                buffer.flip();
+                ByteBuffer data = ByteBuffer.wrap(src, offset, max);
+                ByteBuffer[] buffers = {buffer, data};
+                while (data.hasRemaining()) {
+                    writeToChannel(buffers);
                 }
+                buffer.clear();
+                return;
             }
+            buffer.put(src, offset, max);
         }
 
         @Override
         public void flush() throws IOException {
-            while (buffer.position() > 0) {
-                writeBufferToChannel();
+            if (buffer.position() == 0) {
+                return;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                writeToChannel(bufferOnly);
             }
+            buffer.clear();
         }
 
-        private void writeBufferToChannel() throws IOException {
-            buffer.flip();
-            int count = writeWithNonBlockingRetry();
+        private void writeToChannel(ByteBuffer[] buffers) throws IOException {
+            long count = writeWithNonBlockingRetry(buffers);
             if (count == 0) {
                 // buffer was still full after non-blocking retries, now block
                 waitForWriteBufferToDrain();
             }
-            buffer.compact();
         }
 
-        private int writeWithNonBlockingRetry() throws IOException {
-            int count = 0;
+        private long writeWithNonBlockingRetry(ByteBuffer[] buffers) throws IOException {
+            long count = 0;
             int retryCount = 0;
             while (count == 0 && retryCount++ < RETRIES_WHEN_BUFFER_FULL) {
-                count = socket.write(buffer);
+                count = socket.write(buffers);
                 if (count < 0) {
                     throw new EOFException();
                 } else if (count == 0) {
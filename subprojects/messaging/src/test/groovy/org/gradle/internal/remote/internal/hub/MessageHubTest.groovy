@@ -110,6 +110,33 @@ class MessageHubTest extends ConcurrentSpec {
         connection.stop()
     }
 
+    def "messages queued while dispatching are flushed to connection along with earlier messages"() {
+        RemoteConnection<InterHubMessage> outgoing = Mock()
+        def connection = new MockOutgoingConnection(outgoing)
+
+        when:
+        hub.addConnection(connection)
+        hub.getOutgoing("channel1", String).dispatch("message1")
+        thread.blockUntil.flushed
+
+        then:
+        1 * outgoing.dispatch({ it.payload == "message1" }) >> {
+            hub.getOutgoing("channel1", String).dispatch("message2")
+        }
+
+        then:
+        1 * outgoing.dispatch({ it.payload == "message2" })
+
+        then:
+        1 * outgoing.flush() >> {
+            instant.flushed
+        }
+        0 * _._
+
+        cleanup:
+        connection.stop()
+    }
+
     def "queued outgoing messages are dispatched asynchronously to connection when connection is added"() {
         RemoteConnection<InterHubMessage> outgoing = Mock()
         def connection = new MockOutgoingConnection(outgoing)
@@ -57,6 +57,28 @@ class MultiEndPointQueueTest extends AbstractQueueTest {
         messages == [message]
     }
 
+    def "endpoint can poll for queued messages without waiting"() {
+        given:
+        def message1 = unicast()
+        def message2 = unicast()
+        def endpoint = queue.newEndpoint()
+        def messages = []
+
+        when:
+        endpoint.poll(messages)
+
+        then:
+        messages.empty
+
+        when:
+        queue.dispatch(message1)
+        queue.dispatch(message2)
+        endpoint.poll(messages)
+
+        then:
+        messages == [message1, message2]
+    }
+
     def "forwards queued broadcast messages to all endpoints"() {
         given:
         def message1 = unicast()
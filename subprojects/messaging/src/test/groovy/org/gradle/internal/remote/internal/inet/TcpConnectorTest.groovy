@@ -223,6 +223,33 @@ class TcpConnectorTest extends ConcurrentSpec {
         acceptor?.stop()
     }
 
+    def "can send messages larger than the connection buffers"() {
+        def large = "a" * (100 * 1024)
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            connection.dispatch("small")
+            connection.dispatch(large)
+            connection.dispatch(large + "b")
+            connection.dispatch("small")
+            connection.stop()
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+
+        then:
+        connection.receive() == "small"
+        connection.receive() == large
+        connection.receive() == large + "b"
+        connection.receive() == "small"
+        connection.receive() == null
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
     def "returns null on failure to receive due to truncated input"() {
         given:
         def incomingSerializer = { Encoder encoder, String value ->
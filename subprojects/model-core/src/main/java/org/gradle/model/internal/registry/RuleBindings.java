@@ -242,7 +242,7 @@ class RuleBindings {
     }
 
     private static class NodeAtStateIndex {
-        private final EnumMap<ModelNode.State, Map<String, List<RuleBinder>>> boundAtState = Maps.newEnumMap(ModelNode.State.class);
+        private final EnumMap<ModelNode.State, Map<String, Set<RuleBinder>>> boundAtState = Maps.newEnumMap(ModelNode.State.class);
 
         private final String name;
 
@@ -250,10 +250,10 @@ class RuleBindings {
             this.name = name;
         }
 
-        private Map<String, List<RuleBinder>> getByState(ModelNode.State state) {
-            Map<String, List<RuleBinder>> map = boundAtState.get(state);
+        private Map<String, Set<RuleBinder>> getByState(ModelNode.State state) {
+            Map<String, Set<RuleBinder>> map = boundAtState.get(state);
             if (map == null) {
-                map = new HashMap<String, List<RuleBinder>>(64);
+                map = new HashMap<String, Set<RuleBinder>>(64);
                 boundAtState.put(state, map);
             }
             return map;
@@ -261,9 +261,8 @@ class RuleBindings {
 
         public void nodeRemoved(ModelNodeInternal node) {
             // This could be more efficient; assume that removal happens much less often than addition
-            for (ModelNode.State state : ModelNode.State.values()) {
-                Map<String, List<RuleBinder>> byState = getByState(state);
-                List<RuleBinder> remove = byState.remove(node.getPath().toString());
+            for (Map<String, Set<RuleBinder>> byState : boundAtState.values()) {
+                Set<RuleBinder> remove = byState.remove(node.getPath().toString());
                 if (remove != null) {
                     for (RuleBinder rule : remove) {
                         unbind(rule, node);
@@ -273,35 +272,34 @@ class RuleBindings {
         }
 
         public void put(NodeAtState nodeAtState, RuleBinder binder) {
-            Map<String, List<RuleBinder>> byState = getByState(nodeAtState.state);
+            Map<String, Set<RuleBinder>> byState = getByState(nodeAtState.state);
             String path = nodeAtState.path.toString();
-            List<RuleBinder> byPath = getByPath(byState, path);
-            if (!byPath.contains(binder)) {
-                byPath.add(binder);
+            Set<RuleBinder> byPath = byState.get(path);
+            if (byPath == null) {
+                // Keeps the rules in the order they were bound
+                byPath = new LinkedHashSet<RuleBinder>();
+                byState.put(path, byPath);
             }
-        }
-
-        private List<RuleBinder> getByPath(Map<String, List<RuleBinder>> byState, String path) {
-            List<RuleBinder> ruleBinders = byState.get(path);
-            if (ruleBinders == null) {
-                ruleBinders = new LinkedList<RuleBinder>();
-                byState.put(path, ruleBinders);
-            }
-            return ruleBinders;
+            byPath.add(binder);
         }
 
         /**
          * Returns rules for given target at state.
          */
         public Collection<RuleBinder> get(NodeAtState nodeAtState) {
-            return getByPath(getByState(nodeAtState.state), nodeAtState.path.toString());
+            Map<String, Set<RuleBinder>> byState = boundAtState.get(nodeAtState.state);
+            Set<RuleBinder> byPath = byState == null ? null : byState.get(nodeAtState.path.toString());
+            // Lookups happen for every node at every state, so don't create entries for nodes without rules
+            return byPath == null ? Collections.<RuleBinder>emptySet() : byPath;
         }
 
         public void remove(ModelNodeInternal node, RuleBinder ruleBinder) {
             unbind(ruleBinder, node);
-            for (ModelNode.State state : ModelNode.State.values()) {
-                Map<String, List<RuleBinder>> byState = getByState(state);
-                getByPath(byState, node.getPath().toString()).clear();
+            for (Map<String, Set<RuleBinder>> byState : boundAtState.values()) {
+                Set<RuleBinder> byPath = byState.get(node.getPath().toString());
+                if (byPath != null) {
+                    byPath.clear();
+                }
             }
         }
 
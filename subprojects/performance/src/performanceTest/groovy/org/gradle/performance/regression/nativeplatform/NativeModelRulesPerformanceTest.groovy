@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance.regression.nativeplatform
+
+import org.gradle.performance.AbstractCrossVersionPerformanceTest
+import spock.lang.Unroll
+
+class NativeModelRulesPerformanceTest extends AbstractCrossVersionPerformanceTest {
+
+    def setup() {
+        runner.targetVersions = ["4.3-20171011120745+0000"]
+    }
+
+    @Unroll
+    def "tasks on #testProject"() {
+        given:
+        runner.testProject = testProject
+        // Listing the tasks binds and runs all the rules of the software model, without building anything
+        runner.tasksToRun = ["tasks"]
+        runner.gradleOpts = ["-Xms256m", "-Xmx256m"]
+
+        when:
+        def result = runner.run()
+
+        then:
+        result.assertCurrentVersionHasNotRegressed()
+
+        where:
+        testProject          | _
+        "multiNative"        | _
+        "manyProjectsNative" | _
+    }
+}
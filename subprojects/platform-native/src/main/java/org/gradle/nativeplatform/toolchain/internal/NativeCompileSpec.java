@@ -94,4 +94,16 @@ public interface NativeCompileSpec extends BinaryToolSpec {
     DiscoveredInputRecorder getDiscoveredInputRecorder();
 
     void setDiscoveredInputRecorder(DiscoveredInputRecorder inputs);
+
+    /**
+     * Returns whether the compiler should write a dependency file for each source file, listing the headers included by the source file, when the compiler supports this.
+     */
+    boolean isWriteDependencyFiles();
+
+    void setWriteDependencyFiles(boolean flag);
+
+    /**
+     * Returns the dependency file written by the compiler for each source file it compiled.
+     */
+    Map<File, File> getDependencyFiles();
 }
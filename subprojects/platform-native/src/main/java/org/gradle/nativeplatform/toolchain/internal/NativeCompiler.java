@@ -41,6 +41,8 @@ import java.util.Collections;
 import java.util.List;
 
 public abstract class NativeCompiler<T extends NativeCompileSpec> extends AbstractCompiler<T> {
+    public static final String DEPENDENCY_FILE_EXTENSION = ".d";
+
     private final Transformer<T, T> specTransformer;
     private final String objectFileExtension;
     private final Logger logger = Logging.getLogger(NativeCompiler.class);
@@ -88,6 +90,13 @@ public abstract class NativeCompiler<T extends NativeCompileSpec> extends Abstra
 
     protected abstract List<String> getPCHArgs(T spec);
 
+    /**
+     * Returns the arguments that make the compiler write the given dependency file, or an empty list when the compiler cannot write dependency files.
+     */
+    protected List<String> getDependencyFileArgs(File dependencyFile) {
+        return Collections.emptyList();
+    }
+
     protected File getOutputFileDir(File sourceFile, File objectFileDir, String fileSuffix) {
         boolean windowsPathLimitation = OperatingSystem.current().isWindows();
 
@@ -140,6 +149,14 @@ public abstract class NativeCompiler<T extends NativeCompileSpec> extends Abstra
     protected CommandLineToolInvocation createPerFileInvocation(List<String> genericArgs, File sourceFile, File objectDir, T spec) {
         List<String> sourceArgs = getSourceArgs(sourceFile);
         List<String> outputArgs = getOutputArgs(spec, getOutputFileDir(sourceFile, objectDir, objectFileExtension));
+        if (spec.isWriteDependencyFiles()) {
+            File dependencyFile = getOutputFileDir(sourceFile, objectDir, DEPENDENCY_FILE_EXTENSION);
+            List<String> dependencyFileArgs = getDependencyFileArgs(dependencyFile);
+            if (!dependencyFileArgs.isEmpty()) {
+                outputArgs = Lists.newArrayList(Iterables.concat(outputArgs, dependencyFileArgs));
+                spec.getDependencyFiles().put(sourceFile, dependencyFile);
+            }
+        }
         List<String> pchArgs = maybeGetPCHArgs(spec, sourceFile);
 
         return newInvocation("compiling ".concat(sourceFile.getName()), objectDir, buildPerFileArgs(genericArgs, sourceArgs, outputArgs, pchArgs), spec.getOperationLogger());
@@ -52,10 +52,12 @@ public class OutputCleaningCompiler<T extends NativeCompileSpec> implements Comp
     private boolean deleteOutputsForRemovedSources(NativeCompileSpec spec) {
         boolean didRemove = false;
         for (File removedSource : spec.getRemovedSourceFiles()) {
-            File objectFile = getObjectFile(spec.getObjectFileDir(), removedSource);
+            File objectFile = getOutputFile(spec.getObjectFileDir(), removedSource, outputFileSuffix);
 
             // Remove .pdb file if present
             new File(objectFile.getParentFile(), objectFile.getName() + ".pdb").delete();
+            // Remove dependency file if present
+            getOutputFile(spec.getObjectFileDir(), removedSource, NativeCompiler.DEPENDENCY_FILE_EXTENSION).delete();
 
             if (objectFile.delete()) {
                 didRemove = true;
@@ -65,9 +67,9 @@ public class OutputCleaningCompiler<T extends NativeCompileSpec> implements Comp
         return didRemove;
     }
 
-    private File getObjectFile(File objectFileRoot, File sourceFile) {
+    private File getOutputFile(File objectFileRoot, File sourceFile, String suffix) {
         return compilerOutputFileNamingSchemeFactory.create()
-            .withObjectFileNameSuffix(outputFileSuffix)
+            .withObjectFileNameSuffix(suffix)
             .withOutputBaseFolder(objectFileRoot)
             .map(sourceFile);
     }
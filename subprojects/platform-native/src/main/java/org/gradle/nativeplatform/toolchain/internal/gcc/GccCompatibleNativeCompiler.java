@@ -43,6 +43,12 @@ class GccCompatibleNativeCompiler<T extends NativeCompileSpec> extends NativeCom
         return Arrays.asList("-o", outputFile.getAbsolutePath());
     }
 
+    @Override
+    protected List<String> getDependencyFileArgs(File dependencyFile) {
+        // Lists the headers found on the include path, but not the system headers
+        return Arrays.asList("-MMD", "-MF", dependencyFile.getAbsolutePath());
+    }
+
     @Override
     protected void addOptionsFileArgs(List<String> args, File tempDir) {
         OptionsFileArgsWriter writer = new GccOptionsFileArgsWriter(tempDir);
@@ -38,4 +38,16 @@ abstract class GccCompatibleNativeCompilerTest extends NativeCompilerTest {
         args == [ '-o', outputFile.absoluteFile.toString() ]
     }
 
+    def "arguments include GCC dependency file flags and dependency file name"() {
+        given:
+        def compiler = getCompiler()
+        def dependencyFile = tmpDirProvider.testDirectory.file("output.d")
+
+        when:
+        def args = compiler.getDependencyFileArgs(dependencyFile)
+
+        then:
+        args == [ '-MMD', '-MF', dependencyFile.absoluteFile.toString() ]
+    }
+
 }
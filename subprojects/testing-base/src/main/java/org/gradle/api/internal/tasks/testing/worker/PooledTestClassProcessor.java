@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import com.google.common.collect.Lists;
+import org.gradle.api.Action;
+import org.gradle.api.internal.classpath.ModuleRegistry;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.work.WorkerLeaseRegistry;
+import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.worker.WorkerProcessBuilder;
+import org.gradle.process.internal.worker.WorkerProcessFactory;
+
+import java.io.File;
+import java.net.URL;
+import java.util.List;
+
+/**
+ * Runs tests in a worker process taken from a {@link TestWorkerPool}, starting a new worker process when the pool has none that matches, and returns the worker process to the pool once the tests have run.
+ * The worker process is started with the worker implementation classpath only, and loads the test classpath for each test task.
+ */
+public class PooledTestClassProcessor implements TestClassProcessor {
+    private final WorkerLeaseRegistry.WorkerLease currentWorkerLease;
+    private final WorkerProcessFactory workerFactory;
+    private final TestWorkerPool workerPool;
+    private final WorkerTestClassProcessorFactory processorFactory;
+    private final JavaForkOptions options;
+    private final Iterable<File> classPath;
+    private final Action<WorkerProcessBuilder> buildConfigAction;
+    private final ModuleRegistry moduleRegistry;
+    private PooledTestWorker worker;
+    private TestResultProcessor resultProcessor;
+    private WorkerLeaseRegistry.WorkerLeaseCompletion completion;
+
+    public PooledTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, TestWorkerPool workerPool, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry) {
+        this.currentWorkerLease = parentWorkerLease;
+        this.workerFactory = workerFactory;
+        this.workerPool = workerPool;
+        this.processorFactory = processorFactory;
+        this.options = options;
+        this.classPath = classPath;
+        this.buildConfigAction = buildConfigAction;
+        this.moduleRegistry = moduleRegistry;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        this.resultProcessor = resultProcessor;
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        if (worker == null) {
+            completion = currentWorkerLease.startChild();
+            try {
+                startWorker();
+            } catch (RuntimeException e) {
+                completion.leaseFinish();
+                throw e;
+            }
+        }
+
+        worker.processTestClass(testClass);
+    }
+
+    private void startWorker() {
+        List<URL> implementationClasspath = ForkingTestClassProcessor.getTestWorkerImplementationClasspath(moduleRegistry);
+        WorkerProcessBuilder builder = workerFactory.create(new ReusableTestWorker());
+        builder.setBaseName("Gradle Test Executor");
+        builder.setImplementationClasspath(implementationClasspath);
+        options.copyTo(builder.getJavaCommand());
+        builder.getJavaCommand().jvmArgs("-Dorg.gradle.native=false");
+        buildConfigAction.execute(builder);
+        builder.enableJvmMemoryInfoPublishing(true);
+
+        TestWorkerPool.Key key = TestWorkerPool.Key.of(builder, implementationClasspath);
+        worker = workerPool.reserve(key);
+        if (worker == null) {
+            worker = new PooledTestWorker(key, builder.build());
+            worker.start();
+        }
+        worker.startProcessing(resultProcessor, processorFactory, Lists.newArrayList(classPath), Lists.newArrayList(builder.getSharedPackages()));
+    }
+
+    @Override
+    public void stop() {
+        if (worker != null) {
+            try {
+                if (worker.endProcessing()) {
+                    workerPool.release(worker);
+                } else {
+                    // Reports the failure of the worker process
+                    worker.stop();
+                }
+            } finally {
+                completion.leaseFinish();
+            }
+        }
+    }
+}
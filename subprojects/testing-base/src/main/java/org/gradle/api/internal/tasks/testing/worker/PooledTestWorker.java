@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.dispatch.StreamCompletion;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.process.internal.worker.WorkerProcess;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * A test worker process that can run the tests of several test tasks, one after the other. The results of the tests are forwarded to the result processor of the current test task.
+ */
+class PooledTestWorker implements ReusableTestResultProcessor, StreamCompletion {
+    private final TestWorkerPool.Key key;
+    private final WorkerProcess workerProcess;
+    private final Object lock = new Object();
+    private ReusableTestWorkerProtocol remoteWorker;
+    private volatile TestResultProcessor resultProcessor;
+    private boolean processing;
+    private boolean disconnected;
+
+    PooledTestWorker(TestWorkerPool.Key key, WorkerProcess workerProcess) {
+        this.key = key;
+        this.workerProcess = workerProcess;
+    }
+
+    /**
+     * Starts the worker process and connects to it.
+     */
+    void start() {
+        workerProcess.start();
+        ObjectConnection connection = workerProcess.getConnection();
+        connection.useParameterSerializers(TestEventSerializer.create());
+        connection.addIncoming(ReusableTestResultProcessor.class, this);
+        remoteWorker = connection.addOutgoing(ReusableTestWorkerProtocol.class);
+        connection.connect();
+    }
+
+    TestWorkerPool.Key getKey() {
+        return key;
+    }
+
+    boolean isHealthy() {
+        synchronized (lock) {
+            return !disconnected && !processing;
+        }
+    }
+
+    /**
+     * Returns the memory committed by the worker process, or 0 when the worker process has not reported it yet.
+     */
+    long getCommittedMemory() {
+        try {
+            return workerProcess.getJvmMemoryStatus().getCommittedMemory();
+        } catch (UnsupportedOperationException e) {
+            return 0;
+        } catch (IllegalStateException e) {
+            return 0;
+        }
+    }
+
+    void startProcessing(TestResultProcessor resultProcessor, WorkerTestClassProcessorFactory processorFactory, List<File> testClasspath, List<String> sharedPackages) {
+        synchronized (lock) {
+            processing = true;
+        }
+        this.resultProcessor = resultProcessor;
+        remoteWorker.startProcessing(processorFactory, testClasspath, sharedPackages);
+    }
+
+    void processTestClass(TestClassRunInfo testClass) {
+        remoteWorker.processTestClass(testClass);
+    }
+
+    /**
+     * Finishes running the tests of the current test task and waits until all of their results have been received.
+     *
+     * @return true when the worker process can run the tests of another test task.
+     */
+    boolean endProcessing() {
+        remoteWorker.endProcessing();
+        synchronized (lock) {
+            try {
+                while (processing && !disconnected) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            resultProcessor = null;
+            return !processing && !disconnected;
+        }
+    }
+
+    /**
+     * Stops the worker process and waits for it to exit.
+     */
+    void stop() {
+        try {
+            remoteWorker.stop();
+        } finally {
+            workerProcess.waitForStop();
+        }
+    }
+
+    @Override
+    public void processingCompleted() {
+        synchronized (lock) {
+            processing = false;
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void endStream() {
+        synchronized (lock) {
+            disconnected = true;
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        resultProcessor.started(test, event);
+    }
+
+    @Override
+    public void completed(Object testId, TestCompleteEvent event) {
+        resultProcessor.completed(testId, event);
+    }
+
+    @Override
+    public void output(Object testId, TestOutputEvent event) {
+        resultProcessor.output(testId, event);
+    }
+
+    @Override
+    public void failure(Object testId, Throwable result) {
+        resultProcessor.failure(testId, result);
+    }
+
+    @Override
+    public String toString() {
+        return workerProcess.toString();
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.dispatch.ContextClassLoaderProxy;
+import org.gradle.internal.id.IdGenerator;
+import org.gradle.internal.io.ClassLoaderObjectInputStream;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.service.DefaultServiceRegistry;
+import org.gradle.internal.time.Clock;
+import org.gradle.process.internal.worker.WorkerProcessContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A test worker which runs the tests of several test tasks, one after the other, in the same process.
+ *
+ * <p>The process is started with the worker implementation classpath only. The whole test runtime classpath of each test task is loaded, in its original order, in a new class loader.
+ * The classes of the test framework integration, which use the classes of the test framework found on the test runtime classpath, are also loaded in a new class loader for each test task,
+ * so that no class of a test task, nor its static state, is seen by the tests of another task. These class loaders are discarded along with the test framework services once the tests of the task have run.
+ * The system properties and the security manager are reset once the tests of each task have run.</p>
+ */
+public class ReusableTestWorker implements Action<WorkerProcessContext>, ReusableTestWorkerProtocol, Serializable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReusableTestWorker.class);
+    private transient CountDownLatch completed;
+    private transient WorkerProcessContext workerProcessContext;
+    private transient ReusableTestResultProcessor resultProcessor;
+    private transient TestClassProcessor processor;
+    private transient DefaultServiceRegistry testServices;
+    private transient ClassLoader testClassLoader;
+    private transient ClassLoader frameworkClassLoader;
+    private transient Properties systemProperties;
+
+    @Override
+    public void execute(WorkerProcessContext workerProcessContext) {
+        LOGGER.info("{} started executing tests.", workerProcessContext.getDisplayName());
+
+        this.workerProcessContext = workerProcessContext;
+        completed = new CountDownLatch(1);
+
+        System.setProperty(TestWorker.WORKER_ID_SYS_PROPERTY, workerProcessContext.getWorkerId().toString());
+
+        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
+        serverConnection.useParameterSerializers(TestEventSerializer.create());
+        resultProcessor = serverConnection.addOutgoing(ReusableTestResultProcessor.class);
+        serverConnection.addIncoming(ReusableTestWorkerProtocol.class, this);
+        serverConnection.connect();
+
+        try {
+            completed.await();
+        } catch (InterruptedException e) {
+            throw new UncheckedException(e);
+        } finally {
+            LOGGER.info("{} finished executing tests.", workerProcessContext.getDisplayName());
+        }
+    }
+
+    @Override
+    public void startProcessing(WorkerTestClassProcessorFactory factory, List<File> testClasspath, List<String> sharedPackages) {
+        Thread.currentThread().setName("Test worker");
+        systemProperties = new Properties();
+        systemProperties.putAll(System.getProperties());
+        testClassLoader = new URLClassLoader(toUrls(testClasspath), ClassLoader.getSystemClassLoader());
+        testServices = new TestWorker.TestFrameworkServiceRegistry(workerProcessContext);
+
+        WorkerTestClassProcessorFactory isolatedFactory = factory;
+        CodeSource frameworkCodeSource = factory.getClass().getProtectionDomain().getCodeSource();
+        if (frameworkCodeSource != null && frameworkCodeSource.getLocation() != null) {
+            frameworkClassLoader = new TestFrameworkClassLoader(frameworkCodeSource.getLocation(), factory.getClass(), testClassLoader, sharedPackages);
+            isolatedFactory = reload(factory, frameworkClassLoader);
+        }
+
+        TestClassProcessor targetProcessor = isolatedFactory.create(testServices);
+        IdGenerator<?> idGenerator = testServices.get(IdGenerator.class);
+        targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
+                workerProcessContext.getDisplayName(), testServices.get(Clock.class));
+        ContextClassLoaderProxy<TestClassProcessor> proxy = new ContextClassLoaderProxy<TestClassProcessor>(
+                TestClassProcessor.class, targetProcessor, testClassLoader);
+        processor = proxy.getSource();
+        processor.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        Thread.currentThread().setName("Test worker");
+        try {
+            processor.processTestClass(testClass);
+        } finally {
+            // Clean the interrupted status
+            Thread.interrupted();
+        }
+    }
+
+    @Override
+    public void endProcessing() {
+        Thread.currentThread().setName("Test worker");
+        try {
+            if (processor != null) {
+                processor.stop();
+            }
+        } finally {
+            try {
+                // Clean out any security manager and system properties the tests might have installed
+                System.setSecurityManager(null);
+                if (systemProperties != null) {
+                    System.setProperties(systemProperties);
+                }
+                CompositeStoppable.stoppable(testServices).stop();
+                ClassLoaderUtils.tryClose(frameworkClassLoader);
+                ClassLoaderUtils.tryClose(testClassLoader);
+            } finally {
+                processor = null;
+                testServices = null;
+                frameworkClassLoader = null;
+                testClassLoader = null;
+                systemProperties = null;
+                resultProcessor.processingCompleted();
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        completed.countDown();
+    }
+
+    /**
+     * Creates a copy of the given factory whose class is loaded by the given class loader.
+     */
+    private static WorkerTestClassProcessorFactory reload(WorkerTestClassProcessorFactory factory, ClassLoader classLoader) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream outstr = new ObjectOutputStream(bytes);
+            outstr.writeObject(factory);
+            outstr.close();
+            ObjectInputStream instr = new ClassLoaderObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()), classLoader);
+            return (WorkerTestClassProcessorFactory) instr.readObject();
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } catch (ClassNotFoundException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static URL[] toUrls(List<File> files) {
+        URL[] urls = new URL[files.size()];
+        for (int i = 0; i < urls.length; i++) {
+            try {
+                urls[i] = files.get(i).toURI().toURL();
+            } catch (MalformedURLException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Loads the classes of the package of a test framework integration from the worker implementation classpath, and the classes of the shared packages from the test runtime classpath when found there.
+     * Other classes are loaded by the class loader of the worker implementation.
+     */
+    private static class TestFrameworkClassLoader extends URLClassLoader {
+        private final ClassLoader workerClassLoader;
+        private final ClassLoader testClassLoader;
+        private final String frameworkPackagePrefix;
+        private final List<String> sharedPackagePrefixes = new ArrayList<String>();
+
+        TestFrameworkClassLoader(URL frameworkLocation, Class<?> frameworkClass, ClassLoader testClassLoader, List<String> sharedPackages) {
+            super(new URL[]{frameworkLocation}, null);
+            this.workerClassLoader = frameworkClass.getClassLoader();
+            this.testClassLoader = testClassLoader;
+            this.frameworkPackagePrefix = frameworkClass.getPackage().getName() + ".";
+            for (String sharedPackage : sharedPackages) {
+                sharedPackagePrefixes.add(sharedPackage + ".");
+            }
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            Class<?> cl = findLoadedClass(name);
+            if (cl == null) {
+                cl = loadIsolatedClass(name);
+            }
+            if (resolve) {
+                resolveClass(cl);
+            }
+            return cl;
+        }
+
+        private Class<?> loadIsolatedClass(String name) throws ClassNotFoundException {
+            if (isShared(name)) {
+                try {
+                    return testClassLoader.loadClass(name);
+                } catch (ClassNotFoundException e) {
+                    // Not on the test runtime classpath, use the version of the worker implementation classpath, as a forked test worker does
+                }
+            }
+            if (name.startsWith(frameworkPackagePrefix)) {
+                try {
+                    return findClass(name);
+                } catch (ClassNotFoundException e) {
+                    // Not in the same jar as the test framework integration
+                }
+            }
+            return workerClassLoader.loadClass(name);
+        }
+
+        private boolean isShared(String name) {
+            for (String prefix : sharedPackagePrefixes) {
+                if (name.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * The messages sent to a test worker process that runs the tests of several test tasks, one after the other.
+ *
+ * @see ReusableTestWorker
+ */
+public interface ReusableTestWorkerProtocol {
+    /**
+     * Starts running the tests of a test task, loading the given test classpath and the test framework in new class loaders. The test framework sees the given packages of the test classpath. Does not block.
+     */
+    void startProcessing(WorkerTestClassProcessorFactory factory, List<File> testClasspath, List<String> sharedPackages);
+
+    /**
+     * Does not block.
+     */
+    void processTestClass(TestClassRunInfo testClass);
+
+    /**
+     * Finishes running the tests of the current test task, then sends {@link ReusableTestResultProcessor#processingCompleted()}. Does not block.
+     */
+    void endProcessing();
+
+    /**
+     * Stops the worker process. Does not block.
+     */
+    void stop();
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.initialization.InternalFlags;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.process.internal.JavaExecHandleBuilder;
+import org.gradle.process.internal.health.memory.MemoryHolder;
+import org.gradle.internal.time.Clock;
+import org.gradle.internal.time.Time;
+import org.gradle.process.internal.health.memory.MemoryManager;
+import org.gradle.process.internal.health.memory.OsMemoryStatus;
+import org.gradle.process.internal.health.memory.OsMemoryStatusListener;
+import org.gradle.process.internal.health.memory.TotalPhysicalMemoryProvider;
+import org.gradle.process.internal.worker.WorkerProcessBuilder;
+
+import javax.annotation.Nullable;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps idle test worker processes alive between the executions of test tasks, so that a later test task with the same JVM settings and the same shared packages can run its tests in them.
+ *
+ * <p>Only the worker implementation classpath is on the classpath of the worker process. The whole test runtime classpath of each test task is loaded in a new class loader, see {@link ReusableTestWorker}.</p>
+ *
+ * <p>A worker process which fails or disconnects is discarded. Idle worker processes are stopped once they have not been used for a few minutes. The oldest idle worker processes are also stopped
+ * when there are more idle worker processes than available processors, when the idle worker processes commit more than a quarter of the physical memory of the machine, or when the memory manager asks
+ * for memory to be released.</p>
+ */
+public class TestWorkerPool implements MemoryHolder, OsMemoryStatusListener, Stoppable {
+    public static final String REUSE_WORKERS_SYSPROP = "org.gradle.internal.test.reuse";
+    private static final Logger LOGGER = Logging.getLogger(TestWorkerPool.class);
+    private static final long MAX_IDLE_TIME = TimeUnit.MINUTES.toMillis(3);
+
+    private final MemoryManager memoryManager;
+    private final Clock clock;
+    private final int maxIdleWorkers;
+    private final long maxIdleMemory;
+    private final long maxIdleTime;
+    private final LinkedList<PooledTestWorker> idleWorkers = new LinkedList<PooledTestWorker>();
+    private final Map<PooledTestWorker, Long> idleSince = new HashMap<PooledTestWorker, Long>();
+    private boolean stopped;
+
+    public TestWorkerPool(MemoryManager memoryManager) {
+        this(memoryManager, Time.clock(), Runtime.getRuntime().availableProcessors(), getTotalPhysicalMemory() / 4, MAX_IDLE_TIME);
+    }
+
+    TestWorkerPool(MemoryManager memoryManager, Clock clock, int maxIdleWorkers, long maxIdleMemory, long maxIdleTime) {
+        this.memoryManager = memoryManager;
+        this.clock = clock;
+        this.maxIdleWorkers = maxIdleWorkers;
+        this.maxIdleMemory = maxIdleMemory;
+        this.maxIdleTime = maxIdleTime;
+        memoryManager.addMemoryHolder(this);
+        memoryManager.addListener(this);
+    }
+
+    public boolean isEnabled() {
+        return InternalFlags.isEnabled(REUSE_WORKERS_SYSPROP);
+    }
+
+    /**
+     * Takes an idle worker process with the given key out of the pool. Returns null when there is none.
+     */
+    @Nullable
+    PooledTestWorker reserve(Key key) {
+        List<PooledTestWorker> broken = new ArrayList<PooledTestWorker>();
+        PooledTestWorker reserved = null;
+        synchronized (this) {
+            // Use the most recently used worker process first, leaving the oldest ones to expire
+            Iterator<PooledTestWorker> iterator = idleWorkers.descendingIterator();
+            while (iterator.hasNext()) {
+                PooledTestWorker worker = iterator.next();
+                if (!worker.isHealthy()) {
+                    iterator.remove();
+                    idleSince.remove(worker);
+                    broken.add(worker);
+                } else if (worker.getKey().equals(key)) {
+                    iterator.remove();
+                    idleSince.remove(worker);
+                    reserved = worker;
+                    break;
+                }
+            }
+        }
+        stopAll(broken);
+        if (reserved != null) {
+            LOGGER.info("Reusing {} to run tests.", reserved);
+        }
+        return reserved;
+    }
+
+    /**
+     * Returns a worker process which has finished running the tests of a test task to the pool, stopping the oldest idle worker processes when there are too many.
+     */
+    void release(PooledTestWorker worker) {
+        List<PooledTestWorker> expired = new ArrayList<PooledTestWorker>();
+        synchronized (this) {
+            if (stopped || !worker.isHealthy()) {
+                expired.add(worker);
+            } else {
+                idleWorkers.add(worker);
+                idleSince.put(worker, clock.getCurrentTime());
+                long idleMemory = 0;
+                for (PooledTestWorker idleWorker : idleWorkers) {
+                    idleMemory += idleWorker.getCommittedMemory();
+                }
+                while (idleWorkers.size() > maxIdleWorkers || (idleMemory > maxIdleMemory && maxIdleMemory > 0 && !idleWorkers.isEmpty())) {
+                    PooledTestWorker oldest = removeOldest();
+                    idleMemory -= oldest.getCommittedMemory();
+                    expired.add(oldest);
+                }
+            }
+        }
+        stopAll(expired);
+    }
+
+    @Override
+    public long attemptToRelease(long memoryAmountBytes) throws IllegalArgumentException {
+        if (memoryAmountBytes < 0) {
+            throw new IllegalArgumentException("Negative memory amount");
+        }
+        List<PooledTestWorker> expired = new ArrayList<PooledTestWorker>();
+        long releasedBytes = 0;
+        synchronized (this) {
+            while (releasedBytes < memoryAmountBytes && !idleWorkers.isEmpty()) {
+                PooledTestWorker oldest = removeOldest();
+                releasedBytes += oldest.getCommittedMemory();
+                expired.add(oldest);
+            }
+        }
+        if (!expired.isEmpty()) {
+            LOGGER.debug("Test worker process(es) expired to free some system memory {}", expired.size());
+        }
+        stopAll(expired);
+        return releasedBytes;
+    }
+
+    /**
+     * Stops the idle worker processes which have not been used for a while. Called every few seconds by the memory manager.
+     */
+    @Override
+    public void onOsMemoryStatus(OsMemoryStatus osMemoryStatus) {
+        List<PooledTestWorker> expired = new ArrayList<PooledTestWorker>();
+        synchronized (this) {
+            long expiry = clock.getCurrentTime() - maxIdleTime;
+            while (!idleWorkers.isEmpty() && idleSince.get(idleWorkers.getFirst()) <= expiry) {
+                expired.add(removeOldest());
+            }
+        }
+        if (!expired.isEmpty()) {
+            LOGGER.debug("Test worker process(es) expired after being idle {}", expired.size());
+        }
+        stopAll(expired);
+    }
+
+    private PooledTestWorker removeOldest() {
+        PooledTestWorker oldest = idleWorkers.removeFirst();
+        idleSince.remove(oldest);
+        return oldest;
+    }
+
+    @Override
+    public void stop() {
+        List<PooledTestWorker> workers;
+        synchronized (this) {
+            stopped = true;
+            workers = new ArrayList<PooledTestWorker>(idleWorkers);
+            idleWorkers.clear();
+            idleSince.clear();
+        }
+        memoryManager.removeMemoryHolder(this);
+        memoryManager.removeListener(this);
+        stopAll(workers);
+    }
+
+    private static void stopAll(List<PooledTestWorker> workers) {
+        List<Stoppable> stoppables = new ArrayList<Stoppable>(workers.size());
+        for (final PooledTestWorker worker : workers) {
+            stoppables.add(new Stoppable() {
+                @Override
+                public void stop() {
+                    LOGGER.debug("Stopping {}.", worker);
+                    worker.stop();
+                }
+            });
+        }
+        CompositeStoppable.stoppable(stoppables).stop();
+    }
+
+    private static long getTotalPhysicalMemory() {
+        try {
+            return TotalPhysicalMemoryProvider.getTotalPhysicalMemory();
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Identifies the worker processes which can run the tests of a test task: those started with the same command, the same implementation classpath and the same shared packages.
+     */
+    static class Key {
+        private final List<Object> values;
+
+        private Key(List<Object> values) {
+            this.values = values;
+        }
+
+        static Key of(WorkerProcessBuilder builder, List<URL> implementationClasspath) {
+            JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
+            ImmutableList.Builder<Object> values = ImmutableList.builder();
+            values.add(javaCommand.getExecutable());
+            values.add(javaCommand.getWorkingDir());
+            values.addAll(javaCommand.getAllJvmArgs());
+            values.add(new TreeMap<String, Object>(javaCommand.getEnvironment()));
+            values.addAll(builder.getSharedPackages());
+            for (URL url : implementationClasspath) {
+                values.add(url.toString());
+            }
+            return new Key(values.build());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            return values.equals(((Key) obj).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return values.hashCode();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.Action
+import org.gradle.api.internal.classpath.Module
+import org.gradle.api.internal.classpath.ModuleRegistry
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
+import org.gradle.internal.classpath.ClassPath
+import org.gradle.internal.remote.ObjectConnection
+import org.gradle.internal.work.WorkerLeaseRegistry
+import org.gradle.process.JavaForkOptions
+import org.gradle.process.internal.JavaExecHandleBuilder
+import org.gradle.process.internal.worker.WorkerProcess
+import org.gradle.process.internal.worker.WorkerProcessBuilder
+import org.gradle.process.internal.worker.WorkerProcessFactory
+import spock.lang.Specification
+
+class PooledTestClassProcessorTest extends Specification {
+    def workerLease = Mock(WorkerLeaseRegistry.WorkerLease)
+    def completion = Mock(WorkerLeaseRegistry.WorkerLeaseCompletion)
+    def workerProcessFactory = Mock(WorkerProcessFactory)
+    def workerProcessBuilder = Mock(WorkerProcessBuilder)
+    def workerPool = Mock(TestWorkerPool)
+    def processorFactory = Mock(WorkerTestClassProcessorFactory)
+    def moduleRegistry = Stub(ModuleRegistry) {
+        getModule(_) >> { String name -> module(name) }
+        getExternalModule(_) >> { String name -> module(name) }
+    }
+    def resultProcessor = Mock(TestResultProcessor)
+    def classpath = [new File("b.jar"), new File("classes"), new File("a.jar")]
+    def test = Mock(TestClassRunInfo)
+    def processor = new PooledTestClassProcessor(workerLease, workerProcessFactory, workerPool, processorFactory, Mock(JavaForkOptions), classpath, Mock(Action), moduleRegistry)
+
+    def setup() {
+        workerLease.startChild() >> completion
+        workerProcessFactory.create(_) >> workerProcessBuilder
+        workerProcessBuilder.getJavaCommand() >> Stub(JavaExecHandleBuilder) {
+            getExecutable() >> "java"
+            getWorkingDir() >> new File("project")
+            getAllJvmArgs() >> []
+            getEnvironment() >> [:]
+        }
+        workerProcessBuilder.getSharedPackages() >> (["org.junit"] as Set)
+        processor.startProcessing(resultProcessor)
+    }
+
+    def "starts a worker process with the implementation classpath only and sends it the whole test classpath in order"() {
+        def remoteWorker = Mock(ReusableTestWorkerProtocol)
+        def workerProcess = Stub(WorkerProcess) {
+            getConnection() >> Stub(ObjectConnection) {
+                addOutgoing(ReusableTestWorkerProtocol) >> remoteWorker
+            }
+        }
+
+        when:
+        processor.processTestClass(test)
+
+        then:
+        1 * workerPool.reserve(_) >> null
+        1 * workerProcessBuilder.setImplementationClasspath({ !it.empty })
+        0 * workerProcessBuilder.applicationClasspath(_)
+        1 * workerProcessBuilder.build() >> workerProcess
+        1 * remoteWorker.startProcessing(processorFactory, classpath, ["org.junit"])
+        1 * remoteWorker.processTestClass(test)
+    }
+
+    def "runs the tests in a worker process taken from the pool and returns it to the pool"() {
+        def worker = Mock(PooledTestWorker)
+
+        when:
+        processor.processTestClass(test)
+        processor.processTestClass(test)
+
+        then:
+        1 * workerPool.reserve(_) >> worker
+        0 * workerProcessBuilder.build()
+        1 * worker.startProcessing(resultProcessor, processorFactory, classpath, ["org.junit"])
+        2 * worker.processTestClass(test)
+
+        when:
+        processor.stop()
+
+        then:
+        1 * worker.endProcessing() >> true
+        1 * workerPool.release(worker)
+        0 * worker.stop()
+        1 * completion.leaseFinish()
+    }
+
+    def "stops a worker process which cannot run the tests of another task"() {
+        def worker = Mock(PooledTestWorker)
+
+        when:
+        processor.processTestClass(test)
+        processor.stop()
+
+        then:
+        1 * workerPool.reserve(_) >> worker
+        1 * worker.endProcessing() >> false
+        1 * worker.stop()
+        0 * workerPool.release(_)
+        1 * completion.leaseFinish()
+    }
+
+    def "does nothing when no test was run"() {
+        when:
+        processor.stop()
+
+        then:
+        0 * workerLease._
+        0 * workerPool._
+    }
+
+    def module(String module) {
+        return Stub(Module) {
+            getImplementationClasspath() >> Stub(ClassPath) {
+                getAsURLs() >> [new URL("file:/${module}.jar")]
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
+import org.gradle.api.tasks.testing.TestOutputEvent
+import org.gradle.internal.remote.ObjectConnection
+import org.gradle.internal.service.DefaultServiceRegistry
+import org.gradle.internal.service.ServiceRegistry
+import org.gradle.internal.time.Clock
+import org.gradle.internal.time.Time
+import org.gradle.process.internal.worker.WorkerProcessContext
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.security.Permission
+
+class ReusableTestWorkerTest extends Specification {
+    @Rule SetSystemProperties properties = new SetSystemProperties()
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def workerContext = Mock(WorkerProcessContext)
+    def connection = Mock(ObjectConnection)
+    def resultProcessor = Mock(ReusableTestResultProcessor)
+    def worker = new ReusableTestWorker()
+    def serviceRegistry = new DefaultServiceRegistry().add(Clock, Time.clock())
+    def outputs = []
+
+    def setup() {
+        workerContext.workerId >> "<worker-id>"
+        workerContext.displayName >> "<worker>"
+        workerContext.serverConnection >> connection
+        workerContext.serviceRegistry >> serviceRegistry
+        connection.addOutgoing(ReusableTestResultProcessor) >> resultProcessor
+        resultProcessor.output(_, _) >> { Object testId, TestOutputEvent event -> outputs << event.message }
+    }
+
+    def "loads the whole test classpath of each task in a new class loader in its original order"() {
+        def first = tmpDir.createDir("first")
+        first.file("resource.txt").text = "first"
+        def second = tmpDir.createDir("second")
+        second.file("resource.txt").text = "second"
+
+        when:
+        worker.execute(workerContext)
+
+        then:
+        1 * connection.connect() >> {
+            runTests([first, second])
+            runTests([second, first])
+            worker.stop()
+        }
+        2 * resultProcessor.processingCompleted()
+
+        and:
+        outputs.findAll { it.startsWith("resource=") } == ["resource=first", "resource=second"]
+        outputs.findAll { it.startsWith("loader=") }.unique().size() == 2
+    }
+
+    def "loads the test framework classes again for each task"() {
+        def classpath = tmpDir.createDir("classes")
+        classpath.file("resource.txt").text = "classes"
+
+        when:
+        worker.execute(workerContext)
+
+        then:
+        1 * connection.connect() >> {
+            runTests([classpath])
+            runTests([classpath])
+            worker.stop()
+        }
+
+        and:
+        outputs.findAll { it.startsWith("processors=") } == ["processors=1", "processors=1"]
+    }
+
+    def "restores the system properties and removes the security manager once the tests of a task have run"() {
+        def classpath = tmpDir.createDir("classes")
+        classpath.file("resource.txt").text = "classes"
+        System.setProperty("existing.property", "value")
+
+        when:
+        worker.execute(workerContext)
+
+        then:
+        1 * connection.connect() >> {
+            runTests([classpath])
+            assert System.getProperty("test.property") == null
+            assert System.getProperty("existing.property") == "value"
+            assert System.securityManager == null
+            worker.stop()
+        }
+
+        and:
+        outputs.contains("property=set by test")
+    }
+
+    private void runTests(List<File> classpath) {
+        worker.startProcessing(new RecordingTestClassProcessorFactory(), classpath, [])
+        worker.processTestClass(Stub(TestClassRunInfo) {
+            getTestClassName() >> "resource.txt"
+        })
+        worker.endProcessing()
+    }
+}
+
+class RecordingTestClassProcessorFactory implements WorkerTestClassProcessorFactory, Serializable {
+    @Override
+    TestClassProcessor create(ServiceRegistry serviceRegistry) {
+        return new RecordingTestClassProcessor()
+    }
+}
+
+class RecordingTestClassProcessor implements TestClassProcessor {
+    static int processors
+    TestResultProcessor resultProcessor
+
+    RecordingTestClassProcessor() {
+        processors++
+    }
+
+    @Override
+    void startProcessing(TestResultProcessor resultProcessor) {
+        this.resultProcessor = resultProcessor
+    }
+
+    @Override
+    void processTestClass(TestClassRunInfo testClass) {
+        def loader = Thread.currentThread().contextClassLoader
+        report("resource=${loader.getResource(testClass.testClassName).text}")
+        report("loader=${System.identityHashCode(loader)}")
+        report("processors=${processors}")
+
+        System.setProperty("test.property", "set by test")
+        System.setProperty("existing.property", "changed by test")
+        System.securityManager = new PermissiveSecurityManager()
+        report("property=${System.getProperty("test.property")}")
+    }
+
+    @Override
+    void stop() {
+    }
+
+    private void report(String message) {
+        resultProcessor.output(null, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, message))
+    }
+}
+
+class PermissiveSecurityManager extends SecurityManager {
+    @Override
+    void checkPermission(Permission perm) {
+    }
+}
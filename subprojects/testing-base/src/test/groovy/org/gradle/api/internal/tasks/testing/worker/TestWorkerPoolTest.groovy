@@ -0,0 +1,209 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.internal.time.Clock
+import org.gradle.process.internal.JavaExecHandleBuilder
+import org.gradle.process.internal.health.memory.MemoryManager
+import org.gradle.process.internal.health.memory.OsMemoryStatus
+import org.gradle.process.internal.worker.WorkerProcessBuilder
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestWorkerPoolTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def memoryManager = Mock(MemoryManager)
+    def currentTime = 0L
+    def clock = Stub(Clock) {
+        getCurrentTime() >> { currentTime }
+    }
+    def pool = new TestWorkerPool(memoryManager, clock, 2, 1000, 100)
+
+    def "registers itself with the memory manager"() {
+        when:
+        def pool = new TestWorkerPool(memoryManager, clock, 2, 1000, 100)
+
+        then:
+        1 * memoryManager.addMemoryHolder({ it.is(pool) })
+        1 * memoryManager.addListener({ it.is(pool) })
+
+        when:
+        pool.stop()
+
+        then:
+        1 * memoryManager.removeMemoryHolder({ it.is(pool) })
+        1 * memoryManager.removeListener({ it.is(pool) })
+    }
+
+    def "reuses a released worker with the same key"() {
+        def key = key("-Xmx64m")
+        def worker = worker(key, 100)
+
+        expect:
+        pool.reserve(key) == null
+
+        when:
+        pool.release(worker)
+
+        then:
+        pool.reserve(key("-Xmx128m")) == null
+        pool.reserve(key("-Xmx64m")).is(worker)
+        pool.reserve(key) == null
+        0 * worker.stop()
+    }
+
+    def "stops a released worker which is not healthy"() {
+        def key = key("-Xmx64m")
+        def worker = worker(key, 100)
+
+        when:
+        pool.release(worker)
+
+        then:
+        worker.isHealthy() >> false
+        1 * worker.stop()
+
+        and:
+        pool.reserve(key) == null
+    }
+
+    def "stops idle workers which are no longer healthy when reserving a worker"() {
+        def key = key("-Xmx64m")
+        def worker = worker(key, 100)
+        pool.release(worker)
+
+        when:
+        def reserved = pool.reserve(key)
+
+        then:
+        worker.isHealthy() >> false
+        1 * worker.stop()
+
+        and:
+        reserved == null
+    }
+
+    def "stops the oldest idle workers when there are too many"() {
+        def workers = (1..3).collect { worker(key("-Da=$it"), 10) }
+
+        when:
+        workers.each { pool.release(it) }
+
+        then:
+        1 * workers[0].stop()
+        0 * workers[1].stop()
+        0 * workers[2].stop()
+    }
+
+    def "stops the oldest idle workers when they retain too much memory"() {
+        def first = worker(key("-Da=1"), 600)
+        def second = worker(key("-Da=2"), 600)
+
+        when:
+        pool.release(first)
+        pool.release(second)
+
+        then:
+        1 * first.stop()
+        0 * second.stop()
+    }
+
+    def "stops the oldest idle workers to release memory"() {
+        def first = worker(key("-Da=1"), 300)
+        def second = worker(key("-Da=2"), 300)
+        pool.release(first)
+        pool.release(second)
+
+        when:
+        def released = pool.attemptToRelease(200)
+
+        then:
+        released == 300
+        1 * first.stop()
+        0 * second.stop()
+    }
+
+    def "stops idle workers which have not been used for a while"() {
+        def first = worker(key("-Da=1"), 10)
+        def second = worker(key("-Da=2"), 10)
+        pool.release(first)
+        currentTime = 50
+        pool.release(second)
+
+        when:
+        currentTime = 99
+        pool.onOsMemoryStatus(Stub(OsMemoryStatus))
+
+        then:
+        0 * first.stop()
+        0 * second.stop()
+
+        when:
+        currentTime = 100
+        pool.onOsMemoryStatus(Stub(OsMemoryStatus))
+
+        then:
+        1 * first.stop()
+        0 * second.stop()
+
+        and:
+        pool.reserve(key("-Da=1")) == null
+        pool.reserve(key("-Da=2")).is(second)
+    }
+
+    def "stops idle workers and workers released once stopped"() {
+        def idle = worker(key("-Da=1"), 10)
+        def busy = worker(key("-Da=2"), 10)
+        pool.release(idle)
+
+        when:
+        pool.stop()
+
+        then:
+        1 * idle.stop()
+
+        when:
+        pool.release(busy)
+
+        then:
+        1 * busy.stop()
+    }
+
+    private PooledTestWorker worker(TestWorkerPool.Key key, long committedMemory) {
+        def worker = Mock(PooledTestWorker)
+        _ * worker.getKey() >> key
+        _ * worker.isHealthy() >> true
+        _ * worker.getCommittedMemory() >> committedMemory
+        return worker
+    }
+
+    private TestWorkerPool.Key key(String jvmArg) {
+        def javaCommand = Stub(JavaExecHandleBuilder) {
+            getExecutable() >> "java"
+            getWorkingDir() >> tmpDir.testDirectory
+            getAllJvmArgs() >> [jvmArg]
+            getEnvironment() >> [:]
+        }
+        def builder = Stub(WorkerProcessBuilder) {
+            getJavaCommand() >> javaCommand
+            getSharedPackages() >> (["org.junit"] as Set)
+        }
+        return TestWorkerPool.Key.of(builder, [new URL("file:/gradle-core.jar")])
+    }
+}
@@ -27,6 +27,8 @@ import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassPro
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.PooledTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.testing.Test;
@@ -48,6 +50,7 @@ public class DefaultTestExecuter implements TestExecuter {
     private static final Logger LOGGER = Logging.getLogger(DefaultTestExecuter.class);
 
     private final WorkerProcessFactory workerFactory;
+    private final TestWorkerPool workerPool;
     private final ActorFactory actorFactory;
     private final ModuleRegistry moduleRegistry;
     private final WorkerLeaseRegistry workerLeaseRegistry;
@@ -55,10 +58,11 @@ public class DefaultTestExecuter implements TestExecuter {
     private final int maxWorkerCount;
     private final Clock clock;
 
-    public DefaultTestExecuter(WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry,
+    public DefaultTestExecuter(WorkerProcessFactory workerFactory, TestWorkerPool workerPool, ActorFactory actorFactory, ModuleRegistry moduleRegistry,
                                WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor, int maxWorkerCount,
                                Clock clock) {
         this.workerFactory = workerFactory;
+        this.workerPool = workerPool;
         this.actorFactory = actorFactory;
         this.moduleRegistry = moduleRegistry;
         this.workerLeaseRegistry = workerLeaseRegistry;
@@ -73,8 +77,13 @@ public class DefaultTestExecuter implements TestExecuter {
         final WorkerTestClassProcessorFactory testInstanceFactory = testFramework.getProcessorFactory();
         final WorkerLeaseRegistry.WorkerLease currentWorkerLease = workerLeaseRegistry.getCurrentWorkerLease();
         final Set<File> classpath = ImmutableSet.copyOf(testTask.getClasspath());
+        final boolean reuseWorkers = workerPool.isEnabled() && testTask.getForkEvery() == 0 && !testTask.getDebug();
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
+                if (reuseWorkers) {
+                    return new PooledTestClassProcessor(currentWorkerLease, workerFactory, workerPool, testInstanceFactory, testTask,
+                        classpath, testFramework.getWorkerConfigurationAction(), moduleRegistry);
+                }
                 return new ForkingTestClassProcessor(currentWorkerLease, workerFactory, testInstanceFactory, testTask,
                     classpath, testFramework.getWorkerConfigurationAction(), moduleRegistry);
             }
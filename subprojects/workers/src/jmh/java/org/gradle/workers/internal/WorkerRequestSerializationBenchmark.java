@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import org.gradle.internal.io.ClassLoaderObjectInputStream;
+import org.gradle.internal.logging.events.OperationIdentifier;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.process.internal.worker.request.Request;
+import org.gradle.process.internal.worker.request.RequestArgumentSerializers;
+import org.gradle.process.internal.worker.request.RequestSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializes and deserializes a request to run a work action in a worker daemon, once using Java serialization for the request and its parameters, as before,
+ * and once using the field by field serializers.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class WorkerRequestSerializationBenchmark {
+    @Param({"10", "1000"})
+    int fileCount;
+
+    private final ClassLoader classLoader = getClass().getClassLoader();
+    private Object[] params;
+    private Request request;
+    private RequestSerializer requestSerializer;
+
+    @Setup
+    public void setup() throws Exception {
+        List<File> files = new ArrayList<File>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            files.add(new File("/some/project/src/main/java/org/gradle/sample/Source" + i + ".java"));
+        }
+        params = new Object[]{files, new File("/some/project/build/classes"), "some option", Boolean.TRUE};
+        request = new Request("execute", new Class<?>[]{ActionExecutionSpec.class}, new Object[]{new SerializingActionExecutionSpec(Runnable.class, "work", null, params)}, new OperationIdentifier(12));
+
+        RequestArgumentSerializers argumentSerializers = new RequestArgumentSerializers();
+        argumentSerializers.register(SerializingActionExecutionSpec.class, ActionExecutionSpecSerializer.class);
+        requestSerializer = new RequestSerializer(argumentSerializers.build(classLoader), classLoader);
+    }
+
+    @Benchmark
+    public Object javaSerialization() throws Exception {
+        // Previously, the parameters were serialized when the spec was created, then the spec was serialized along with the rest of the request
+        ByteArrayOutputStream paramBytes = new ByteArrayOutputStream();
+        ObjectOutputStream paramOutput = new ObjectOutputStream(paramBytes);
+        paramOutput.writeObject(params);
+        paramOutput.close();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream output = new ObjectOutputStream(bytes);
+        output.writeObject(new Object[]{request.getMethodName(), request.getParamTypes(), new Object[]{"work", null, paramBytes.toByteArray()}, request.getOperationIdentifier()});
+        output.close();
+
+        ObjectInputStream input = new ClassLoaderObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()), classLoader);
+        Object[] result = (Object[]) input.readObject();
+        byte[] resultParamBytes = (byte[]) ((Object[]) result[2])[2];
+        return new ClassLoaderObjectInputStream(new ByteArrayInputStream(resultParamBytes), classLoader).readObject();
+    }
+
+    @Benchmark
+    public Object fieldByFieldSerialization() throws Exception {
+        SerializingActionExecutionSpec spec = new SerializingActionExecutionSpec(Runnable.class, "work", null, params);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(bytes);
+        requestSerializer.write(encoder, new Request(request.getMethodName(), request.getParamTypes(), new Object[]{spec}, request.getOperationIdentifier()));
+        encoder.flush();
+
+        Request result = requestSerializer.read(new KryoBackedDecoder(new ByteArrayInputStream(bytes.toByteArray())));
+        return ((ActionExecutionSpec) result.getArgs()[0]).getParams(classLoader);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+
+import java.io.File;
+
+/**
+ * Writes a {@link SerializingActionExecutionSpec} sent to a worker daemon field by field. The parameters are written as they were serialized when the spec was created.
+ */
+public class ActionExecutionSpecSerializer implements Serializer<SerializingActionExecutionSpec> {
+    private final ClassLoader classLoader;
+
+    public ActionExecutionSpecSerializer(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    @Override
+    public SerializingActionExecutionSpec read(Decoder decoder) throws Exception {
+        Class<? extends Runnable> implementationClass = Class.forName(decoder.readString(), false, classLoader).asSubclass(Runnable.class);
+        String displayName = decoder.readString();
+        String executionWorkingDir = decoder.readNullableString();
+        byte[] params = decoder.readBinary();
+        return new SerializingActionExecutionSpec(implementationClass, displayName, executionWorkingDir == null ? null : new File(executionWorkingDir), params);
+    }
+
+    @Override
+    public void write(Encoder encoder, SerializingActionExecutionSpec spec) throws Exception {
+        encoder.writeString(spec.getImplementationClass().getName());
+        encoder.writeString(spec.getDisplayName());
+        File executionWorkingDir = spec.getExecutionWorkingDir();
+        encoder.writeNullableString(executionWorkingDir == null ? null : executionWorkingDir.getPath());
+        encoder.writeBinary(spec.getSerializedParams());
+    }
+}
@@ -17,8 +17,11 @@
 package org.gradle.workers.internal;
 
 import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
+import org.gradle.api.internal.file.IdentityFileResolver;
 import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.DefaultJavaForkOptions;
 import org.gradle.process.internal.JavaForkOptionsInternal;
 
 import java.io.File;
@@ -63,6 +66,19 @@ public class DaemonForkOptions {
                 && keepAliveMode == other.getKeepAliveMode();
     }
 
+    public boolean hasSameClasspathAs(DaemonForkOptions other) {
+        return getNormalizedClasspath(classpath).equals(getNormalizedClasspath(other.getClasspath()));
+    }
+
+    /**
+     * Returns a copy of these options which does not reference the objects of the build that created them, so that it can be kept for later builds.
+     */
+    public DaemonForkOptions snapshot() {
+        DefaultJavaForkOptions javaForkOptions = new DefaultJavaForkOptions(new IdentityFileResolver());
+        forkOptions.copyTo(javaForkOptions);
+        return new DaemonForkOptions(javaForkOptions, ImmutableList.copyOf(classpath), ImmutableList.copyOf(sharedPackages), keepAliveMode);
+    }
+
     // one way to merge fork options, good for current use case
     public DaemonForkOptions mergeWith(DaemonForkOptions other) {
         if (keepAliveMode != other.getKeepAliveMode()) {
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import org.gradle.internal.io.ClassLoaderObjectInputStream;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializes the parameters of a work action.
+ *
+ * <p>Parameters that are all nulls, strings, files, booleans, integers, longs, or array lists and linked hash sets of these, are written value by value,
+ * and each distinct string or file path is written once. Any other parameters are written using Java serialization.</p>
+ */
+class ParameterSerializer {
+    private static final byte JAVA_SERIALIZATION = 0;
+    private static final byte ENCODED = 1;
+
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int FILE = 2;
+    private static final int BOOLEAN = 3;
+    private static final int INTEGER = 4;
+    private static final int LONG = 5;
+    private static final int LIST = 6;
+    private static final int SET = 7;
+
+    static byte[] serialize(Object[] params) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        if (canEncode(params)) {
+            outputStream.write(ENCODED);
+            KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+            Map<String, Integer> strings = new HashMap<String, Integer>();
+            encoder.writeSmallInt(params.length);
+            for (Object param : params) {
+                write(encoder, param, strings);
+            }
+            encoder.flush();
+        } else {
+            outputStream.write(JAVA_SERIALIZATION);
+            ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream);
+            objectOutputStream.writeObject(params);
+            objectOutputStream.flush();
+        }
+        return outputStream.toByteArray();
+    }
+
+    static Object[] deserialize(byte[] bytes, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
+        int format = inputStream.read();
+        if (format == ENCODED) {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(inputStream);
+            List<String> strings = new ArrayList<String>();
+            Object[] params = new Object[decoder.readSmallInt()];
+            for (int i = 0; i < params.length; i++) {
+                params[i] = read(decoder, strings);
+            }
+            return params;
+        }
+        ObjectInputStream objectInputStream = new ClassLoaderObjectInputStream(inputStream, classLoader);
+        return (Object[]) objectInputStream.readObject();
+    }
+
+    private static boolean canEncode(Object[] params) {
+        if (params == null) {
+            return false;
+        }
+        for (Object param : params) {
+            if (!canEncode(param)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean canEncode(Object value) {
+        if (value == null) {
+            return true;
+        }
+        Class<?> type = value.getClass();
+        if (type.equals(String.class) || type.equals(File.class) || type.equals(Boolean.class) || type.equals(Integer.class) || type.equals(Long.class)) {
+            return true;
+        }
+        if (type.equals(ArrayList.class) || type.equals(LinkedHashSet.class)) {
+            for (Object element : (Collection<?>) value) {
+                if (!canEncode(element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static void write(Encoder encoder, Object value, Map<String, Integer> strings) throws IOException {
+        if (value == null) {
+            encoder.writeSmallInt(NULL);
+        } else if (value instanceof String) {
+            encoder.writeSmallInt(STRING);
+            writeString(encoder, (String) value, strings);
+        } else if (value instanceof File) {
+            encoder.writeSmallInt(FILE);
+            writeString(encoder, ((File) value).getPath(), strings);
+        } else if (value instanceof Boolean) {
+            encoder.writeSmallInt(BOOLEAN);
+            encoder.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            encoder.writeSmallInt(INTEGER);
+            encoder.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            encoder.writeSmallInt(LONG);
+            encoder.writeLong((Long) value);
+        } else {
+            encoder.writeSmallInt(value instanceof ArrayList ? LIST : SET);
+            Collection<?> collection = (Collection<?>) value;
+            encoder.writeSmallInt(collection.size());
+            for (Object element : collection) {
+                write(encoder, element, strings);
+            }
+        }
+    }
+
+    private static Object read(Decoder decoder, List<String> strings) throws IOException {
+        int tag = decoder.readSmallInt();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(decoder, strings);
+            case FILE:
+                return new File(readString(decoder, strings));
+            case BOOLEAN:
+                return decoder.readBoolean();
+            case INTEGER:
+                return decoder.readInt();
+            case LONG:
+                return decoder.readLong();
+            case LIST:
+            case SET:
+                int size = decoder.readSmallInt();
+                Collection<Object> collection = tag == LIST ? new ArrayList<Object>(size) : new LinkedHashSet<Object>(size);
+                for (int i = 0; i < size; i++) {
+                    collection.add(read(decoder, strings));
+                }
+                return collection;
+            default:
+                throw new IllegalArgumentException(String.format("Unexpected type tag %d found.", tag));
+        }
+    }
+
+    private static void writeString(Encoder encoder, String value, Map<String, Integer> strings) throws IOException {
+        Integer index = strings.get(value);
+        if (index != null) {
+            encoder.writeSmallInt(index + 1);
+        } else {
+            encoder.writeSmallInt(0);
+            encoder.writeString(value);
+            strings.put(value, strings.size());
+        }
+    }
+
+    private static String readString(Decoder decoder, List<String> strings) throws IOException {
+        int index = decoder.readSmallInt();
+        if (index > 0) {
+            return strings.get(index - 1);
+        }
+        String value = decoder.readString();
+        strings.add(value);
+        return value;
+    }
+}
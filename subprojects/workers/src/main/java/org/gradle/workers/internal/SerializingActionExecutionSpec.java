@@ -17,14 +17,9 @@
 package org.gradle.workers.internal;
 
 import org.gradle.internal.exceptions.Contextual;
-import org.gradle.internal.io.ClassLoaderObjectInputStream;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 
 /**
  * Represents a {@link WorkSpec} that contains constructor parameters.
@@ -36,10 +31,14 @@ public class SerializingActionExecutionSpec implements ActionExecutionSpec {
     private final byte[] params;
 
     public SerializingActionExecutionSpec(Class<? extends Runnable> implementationClass, String displayName, File executionWorkingDir, Object[] params) {
+        this(implementationClass, displayName, executionWorkingDir, serialize(params));
+    }
+
+    SerializingActionExecutionSpec(Class<? extends Runnable> implementationClass, String displayName, File executionWorkingDir, byte[] serializedParams) {
         this.implementationClass = implementationClass;
         this.displayName = displayName;
         this.executionWorkingDir = executionWorkingDir;
-        this.params = serialize(params);
+        this.params = serializedParams;
     }
 
     @Override
@@ -62,22 +61,21 @@ public class SerializingActionExecutionSpec implements ActionExecutionSpec {
         return deserialize(classLoader);
     }
 
-    private byte[] serialize(Object[] params) {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    byte[] getSerializedParams() {
+        return params;
+    }
+
+    private static byte[] serialize(Object[] params) {
         try {
-            ObjectOutputStream oos = new ObjectOutputStream(bos);
-            oos.writeObject(params);
+            return ParameterSerializer.serialize(params);
         } catch (IOException e) {
             throw new ParameterSerializationException("Could not serialize parameters", e);
         }
-        return bos.toByteArray();
     }
 
     private Object[] deserialize(ClassLoader classLoader) {
-        ByteArrayInputStream bis = new ByteArrayInputStream(params);
         try {
-            ObjectInputStream ois = new ClassLoaderObjectInputStream(bis, classLoader);
-            return (Object[])ois.readObject();
+            return ParameterSerializer.deserialize(params, classLoader);
         } catch (IOException e) {
             throw new ParameterSerializationException("Could not deserialize parameters", e);
         } catch (ClassNotFoundException e) {
@@ -52,6 +52,10 @@ class WorkerDaemonClient implements Worker, Stoppable {
         return forkOptions.isCompatibleWith(required);
     }
 
+    public boolean hasSameClasspathAs(DaemonForkOptions required) {
+        return forkOptions.hasSameClasspathAs(required);
+    }
+
     JvmMemoryStatus getJvmMemoryStatus() {
         return workerProcess.getJvmMemoryStatus();
     }
@@ -21,40 +21,65 @@ import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.specs.Spec;
+import org.gradle.initialization.InternalFlags;
 import org.gradle.initialization.SessionLifecycleListener;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.logging.LoggingManagerInternal;
 import org.gradle.internal.logging.events.LogLevelChangeEvent;
 import org.gradle.internal.logging.events.OutputEvent;
 import org.gradle.internal.logging.events.OutputEventListener;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.TimeFormatting;
+import org.gradle.internal.time.Timer;
 import org.gradle.util.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Keeps track of the worker daemons, and hands out idle worker daemons for reuse.
+ *
+ * <p>An idle worker daemon that was started with the same class path is preferred over one that was started with a larger class path.
+ * When enabled, the worker daemons started by a build are started again in the background when the next build starts, unless there are idle worker daemons for them already,
+ * so that the first work items of the build do not wait for the worker daemons to start.</p>
+ */
 public class WorkerDaemonClientsManager implements Stoppable {
+    public static final String PRESTART_WORKERS_SYSPROP = "org.gradle.internal.workers.prestart";
 
     private static final Logger LOGGER = Logging.getLogger(WorkerDaemonClientsManager.class);
 
     private final Object lock = new Object();
     private final List<WorkerDaemonClient> allClients = new ArrayList<WorkerDaemonClient>();
     private final List<WorkerDaemonClient> idleClients = new ArrayList<WorkerDaemonClient>();
+    // Worker daemons started in the background which have not been reserved yet
+    private final Map<WorkerDaemonClient, PrestartedWorker> prestartedClients = new IdentityHashMap<WorkerDaemonClient, PrestartedWorker>();
+    private List<StartedWorker> workersStartedInSession = new ArrayList<StartedWorker>();
+    private List<StartedWorker> workersStartedInPreviousSession = new ArrayList<StartedWorker>();
+    private final Stats stats = new Stats();
 
     private final WorkerDaemonStarter workerDaemonStarter;
     private final ListenerManager listenerManager;
     private final LoggingManagerInternal loggingManager;
+    private final ExecutorFactory executorFactory;
     private final SessionLifecycleListener stopSessionScopeWorkers;
     private final OutputEventListener logLevelChangeEventListener;
     private LogLevel currentLogLevel;
+    private ManagedExecutor prestartExecutor;
+    private boolean stopped;
 
-    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager) {
+    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, ExecutorFactory executorFactory) {
         this.workerDaemonStarter = workerDaemonStarter;
         this.listenerManager = listenerManager;
         this.loggingManager = loggingManager;
+        this.executorFactory = executorFactory;
         this.stopSessionScopeWorkers = new StopSessionScopedWorkers();
         listenerManager.addListener(stopSessionScopeWorkers);
         this.logLevelChangeEventListener = new LogLevelChangeEventListener();
@@ -69,33 +94,117 @@ public class WorkerDaemonClientsManager implements Stoppable {
 
     WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
         synchronized (lock) {
+            WorkerDaemonClient compatibleClient = null;
             Iterator<WorkerDaemonClient> it = clients.iterator();
             while (it.hasNext()) {
                 WorkerDaemonClient candidate = it.next();
                 if (candidate.isCompatibleWith(forkOptions)) {
-                    it.remove();
                     if (candidate.getLogLevel() != currentLogLevel) {
+                        it.remove();
                         // TODO: Send a message to workers to change their log level rather than stopping
                         LOGGER.info("Log level has changed, stopping idle worker daemon with out-of-date log level.");
                         candidate.stop();
-                    } else {
-                        return candidate;
+                    } else if (candidate.hasSameClasspathAs(forkOptions)) {
+                        it.remove();
+                        return reserved(candidate);
+                    } else if (compatibleClient == null) {
+                        compatibleClient = candidate;
                     }
                 }
             }
+            if (compatibleClient != null) {
+                clients.remove(compatibleClient);
+                return reserved(compatibleClient);
+            }
             return null;
         }
     }
 
+    private WorkerDaemonClient reserved(WorkerDaemonClient client) {
+        stats.reused++;
+        PrestartedWorker prestartedWorker = prestartedClients.remove(client);
+        if (prestartedWorker != null) {
+            stats.prestartedReused++;
+            stats.startupTimeSaved += prestartedWorker.startupTime;
+            // Start it again for the next session
+            workersStartedInSession.add(prestartedWorker.worker);
+        }
+        return client;
+    }
+
     public WorkerDaemonClient reserveNewClient(Class<? extends WorkerProtocol<ActionExecutionSpec>> workerProtocolImplementationClass, DaemonForkOptions forkOptions) {
         //allow the daemon to be started concurrently
         WorkerDaemonClient client = workerDaemonStarter.startDaemon(workerProtocolImplementationClass, forkOptions);
+        StartedWorker startedWorker = isPrestartEnabled() ? new StartedWorker(workerProtocolImplementationClass, forkOptions.snapshot()) : null;
         synchronized (lock) {
             allClients.add(client);
+            stats.started++;
+            if (startedWorker != null) {
+                workersStartedInSession.add(startedWorker);
+            }
         }
         return client;
     }
 
+    private static boolean isPrestartEnabled() {
+        return InternalFlags.isEnabled(PRESTART_WORKERS_SYSPROP);
+    }
+
+    /**
+     * Starts the worker daemons that were started in the previous session and that have no idle worker daemon to reuse, in the background.
+     */
+    private void prestartWorkers() {
+        synchronized (lock) {
+            List<WorkerDaemonClient> availableClients = new ArrayList<WorkerDaemonClient>(idleClients);
+            for (StartedWorker worker : workersStartedInPreviousSession) {
+                if (!removeCompatibleClient(worker.forkOptions, availableClients)) {
+                    prestart(worker);
+                }
+            }
+            workersStartedInPreviousSession = new ArrayList<StartedWorker>();
+        }
+    }
+
+    private boolean removeCompatibleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
+        Iterator<WorkerDaemonClient> it = clients.iterator();
+        while (it.hasNext()) {
+            WorkerDaemonClient candidate = it.next();
+            if (candidate.isCompatibleWith(forkOptions) && candidate.getLogLevel() == currentLogLevel) {
+                it.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void prestart(final StartedWorker worker) {
+        if (prestartExecutor == null) {
+            prestartExecutor = executorFactory.create("Start worker daemons");
+        }
+        prestartExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Timer timer = Time.startTimer();
+                WorkerDaemonClient client;
+                try {
+                    client = workerDaemonStarter.startDaemon(worker.workerProtocolImplementationClass, worker.forkOptions);
+                } catch (Exception e) {
+                    LOGGER.info("Could not start worker daemon in the background.", e);
+                    return;
+                }
+                synchronized (lock) {
+                    if (!stopped) {
+                        allClients.add(client);
+                        idleClients.add(client);
+                        prestartedClients.put(client, new PrestartedWorker(worker, timer.getElapsedMillis()));
+                        return;
+                    }
+                }
+                client.stop();
+            }
+        });
+    }
+
     public void release(WorkerDaemonClient client) {
         synchronized (lock) {
             idleClients.add(client);
@@ -104,6 +213,15 @@ public class WorkerDaemonClientsManager implements Stoppable {
 
     @Override
     public void stop() {
+        ManagedExecutor prestartExecutor;
+        synchronized (lock) {
+            stopped = true;
+            prestartExecutor = this.prestartExecutor;
+            this.prestartExecutor = null;
+        }
+        if (prestartExecutor != null) {
+            prestartExecutor.stop();
+        }
         synchronized (lock) {
             stopWorkers(allClients);
             allClients.clear();
@@ -140,16 +258,27 @@ public class WorkerDaemonClientsManager implements Stoppable {
             LOGGER.info("Stopped {} worker daemon(s).", clientsToStop.size());
             idleClients.removeAll(clientsToStop);
             allClients.removeAll(clientsToStop);
+            for (WorkerDaemonClient client : clientsToStop) {
+                prestartedClients.remove(client);
+            }
         }
     }
 
     private class StopSessionScopedWorkers implements SessionLifecycleListener {
         @Override
-        public void afterStart() { }
+        public void afterStart() {
+            if (isPrestartEnabled()) {
+                prestartWorkers();
+            }
+        }
 
         @Override
         public void beforeComplete() {
             synchronized (lock) {
+                stats.report();
+                stats.reset();
+                workersStartedInPreviousSession = workersStartedInSession;
+                workersStartedInSession = new ArrayList<StartedWorker>();
                 List<WorkerDaemonClient> sessionScopedClients = CollectionUtils.filter(allClients, new Spec<WorkerDaemonClient>() {
                     @Override
                     public boolean isSatisfiedBy(WorkerDaemonClient client) {
@@ -174,4 +303,46 @@ public class WorkerDaemonClientsManager implements Stoppable {
             }
         }
     }
+
+    private static class StartedWorker {
+        final Class<? extends WorkerProtocol<ActionExecutionSpec>> workerProtocolImplementationClass;
+        final DaemonForkOptions forkOptions;
+
+        StartedWorker(Class<? extends WorkerProtocol<ActionExecutionSpec>> workerProtocolImplementationClass, DaemonForkOptions forkOptions) {
+            this.workerProtocolImplementationClass = workerProtocolImplementationClass;
+            this.forkOptions = forkOptions;
+        }
+    }
+
+    private static class PrestartedWorker {
+        final StartedWorker worker;
+        final long startupTime;
+
+        PrestartedWorker(StartedWorker worker, long startupTime) {
+            this.worker = worker;
+            this.startupTime = startupTime;
+        }
+    }
+
+    private static class Stats {
+        int reused;
+        int started;
+        int prestartedReused;
+        long startupTimeSaved;
+
+        void report() {
+            if (reused == 0 && started == 0) {
+                return;
+            }
+            LOGGER.info("Worker daemons: {} reused, {} started, {} of the reused ones started in the background, saving {} of startup time.",
+                reused, started, prestartedReused, TimeFormatting.formatDurationVerbose(startupTimeSaved));
+        }
+
+        void reset() {
+            reused = 0;
+            started = 0;
+            prestartedReused = 0;
+            startupTimeSaved = 0;
+        }
+    }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal
+
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder
+import spock.lang.Specification
+
+class ActionExecutionSpecSerializerTest extends Specification {
+    def classLoader = getClass().classLoader
+    def serializer = new ActionExecutionSpecSerializer(classLoader)
+
+    def "serializes spec"() {
+        def spec = new SerializingActionExecutionSpec(TestRunnable, "display name", new File("dir"), ["a", new File("f")] as Object[])
+
+        when:
+        def result = serialize(spec)
+
+        then:
+        result.implementationClass == TestRunnable
+        result.displayName == "display name"
+        result.executionWorkingDir == new File("dir")
+        result.getParams(classLoader) == ["a", new File("f")] as Object[]
+    }
+
+    def "serializes spec without working directory"() {
+        def spec = new SerializingActionExecutionSpec(TestRunnable, "display name", null, [] as Object[])
+
+        when:
+        def result = serialize(spec)
+
+        then:
+        result.executionWorkingDir == null
+        result.getParams(classLoader).length == 0
+    }
+
+    def "round trips simple parameters"() {
+        def spec = new SerializingActionExecutionSpec(TestRunnable, "display name", null, params as Object[])
+
+        expect:
+        serialize(spec).getParams(classLoader) == params as Object[]
+
+        where:
+        params << [
+            [null, "a", true, 12, 12L],
+            [new File("a"), new File("a"), "a", "a"],
+            [new ArrayList(["a", new File("b"), null]), new LinkedHashSet([1, 2, 3])],
+            [new ArrayList([new ArrayList(["a"])])]
+        ]
+    }
+
+    def "round trips other parameters using Java serialization"() {
+        def spec = new SerializingActionExecutionSpec(TestRunnable, "display name", null, params as Object[])
+
+        expect:
+        serialize(spec).getParams(classLoader) == params as Object[]
+
+        where:
+        params << [
+            [new Param(value: "a")],
+            ["a", [1, 2].asImmutable()],
+            [new ArrayList([new Param(value: "a")])],
+            [new TreeSet(["a"])]
+        ]
+    }
+
+    def "writes each distinct string once"() {
+        def value = "some long string value " * 10
+        def once = new SerializingActionExecutionSpec(TestRunnable, "display name", null, [value] as Object[])
+        def many = new SerializingActionExecutionSpec(TestRunnable, "display name", null, [value, new String(value), new File(value), new ArrayList([value])] as Object[])
+
+        expect:
+        many.serializedParams.length < once.serializedParams.length + 20
+    }
+
+    private SerializingActionExecutionSpec serialize(SerializingActionExecutionSpec spec) {
+        def bytes = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(bytes)
+        serializer.write(encoder, spec)
+        encoder.flush()
+        return serializer.read(new KryoBackedDecoder(new ByteArrayInputStream(bytes.toByteArray())))
+    }
+
+    static class TestRunnable implements Runnable {
+        @Override
+        void run() {
+        }
+    }
+
+    static class Param implements Serializable {
+        String value
+
+        @Override
+        boolean equals(Object obj) {
+            return obj instanceof Param && obj.value == value
+        }
+
+        @Override
+        int hashCode() {
+            return value.hashCode()
+        }
+    }
+}
@@ -19,12 +19,16 @@ package org.gradle.workers.internal
 import org.gradle.api.Transformer
 import org.gradle.api.logging.LogLevel
 import org.gradle.initialization.SessionLifecycleListener
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
 import org.gradle.internal.event.DefaultListenerManager
 import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.logging.LoggingManagerInternal
 import org.gradle.internal.logging.events.LogLevelChangeEvent
 import org.gradle.internal.logging.events.OutputEventListener
 import org.gradle.util.ConcurrentSpecification
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
 import spock.lang.Subject
 
 class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
@@ -36,8 +40,15 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
     def serverImpl = Stub(WorkerProtocol)
     def listenerManager = Stub(ListenerManager)
     def loggingManager = Stub(LoggingManagerInternal)
+    def executor = Mock(ManagedExecutor) {
+        execute(_) >> { Runnable action -> action.run() }
+    }
+    def executorFactory = Stub(ExecutorFactory) {
+        create(_) >> executor
+    }
+    @Rule SetSystemProperties systemProperties
 
-    @Subject manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager)
+    @Subject manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, executorFactory)
 
     def "does not reserve idle client when no clients"() {
         expect:
@@ -91,7 +102,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
     def "can stop session-scoped clients"() {
         listenerManager = new DefaultListenerManager()
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, executorFactory)
         def client1 = Mock(WorkerDaemonClient)
         def client2 = Mock(WorkerDaemonClient)
         starter.startDaemon(serverImpl.class, options) >>> [client1, client2]
@@ -110,7 +121,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
     def "Stopping session-scoped clients does not stop other clients"() {
         listenerManager = new DefaultListenerManager()
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, executorFactory)
         def client1 = Mock(WorkerDaemonClient)
         def client2 = Mock(WorkerDaemonClient)
         starter.startDaemon(serverImpl.class, options) >>> [client1, client2]
@@ -158,7 +169,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         loggingManager.getLevel() >> LogLevel.INFO
 
         when:
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, executorFactory)
 
         then:
         listener != null
@@ -230,4 +241,100 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         0 * client2.stop()
         1 * client3.stop()
     }
+
+    def "prefers idle client with the same classpath"() {
+        def largerClasspath = Stub(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            hasSameClasspathAs(_) >> false
+        }
+        def sameClasspath = Stub(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            hasSameClasspathAs(_) >> true
+        }
+        def input = [largerClasspath, sameClasspath]
+
+        expect:
+        manager.reserveIdleClient(options, input) == sameClasspath
+        input == [largerClasspath]
+    }
+
+    def "starts workers started by the previous session in the background when the session starts"() {
+        System.setProperty(WorkerDaemonClientsManager.PRESTART_WORKERS_SYSPROP, "true")
+        listenerManager = new DefaultListenerManager()
+        starter = Mock(WorkerDaemonStarter)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, executorFactory)
+        def snapshot = Stub(DaemonForkOptions)
+        def options = Stub(DaemonForkOptions) {
+            snapshot() >> snapshot
+        }
+        def client = Mock(WorkerDaemonClient)
+        def prestarted = Mock(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            getLogLevel() >> LogLevel.DEBUG
+        }
+        def sessionListener = listenerManager.getBroadcaster(SessionLifecycleListener)
+
+        when:
+        manager.reserveNewClient(serverImpl.class, options)
+        sessionListener.beforeComplete()
+
+        then:
+        1 * starter.startDaemon(serverImpl.class, options) >> client
+        1 * client.getKeepAliveMode() >> KeepAliveMode.SESSION
+        1 * client.stop()
+
+        when:
+        sessionListener.afterStart()
+
+        then:
+        1 * starter.startDaemon(serverImpl.class, snapshot) >> prestarted
+
+        and:
+        manager.reserveIdleClient(options) == prestarted
+    }
+
+    def "does not start workers in the background when an idle worker can be reused"() {
+        System.setProperty(WorkerDaemonClientsManager.PRESTART_WORKERS_SYSPROP, "true")
+        listenerManager = new DefaultListenerManager()
+        starter = Mock(WorkerDaemonStarter)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, executorFactory)
+        def options = Stub(DaemonForkOptions) {
+            snapshot() >> Stub(DaemonForkOptions)
+        }
+        def client = Mock(WorkerDaemonClient) {
+            getKeepAliveMode() >> KeepAliveMode.DAEMON
+            isCompatibleWith(_) >> true
+            getLogLevel() >> LogLevel.DEBUG
+        }
+        def sessionListener = listenerManager.getBroadcaster(SessionLifecycleListener)
+
+        when:
+        manager.reserveNewClient(serverImpl.class, options)
+        manager.release(client)
+        sessionListener.beforeComplete()
+        sessionListener.afterStart()
+
+        then:
+        1 * starter.startDaemon(serverImpl.class, options) >> client
+        0 * starter.startDaemon(_, _)
+    }
+
+    def "does not start workers in the background when not enabled"() {
+        listenerManager = new DefaultListenerManager()
+        starter = Mock(WorkerDaemonStarter)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, executorFactory)
+        def client = Mock(WorkerDaemonClient) {
+            getKeepAliveMode() >> KeepAliveMode.SESSION
+        }
+        def sessionListener = listenerManager.getBroadcaster(SessionLifecycleListener)
+
+        when:
+        manager.reserveNewClient(serverImpl.class, options)
+        sessionListener.beforeComplete()
+        sessionListener.afterStart()
+
+        then:
+        1 * starter.startDaemon(serverImpl.class, options) >> client
+        0 * starter.startDaemon(_, _)
+    }
 }